@@ -39,12 +39,14 @@ import com.yahoo.vespa.model.container.search.QueryProfiles;
 import com.yahoo.vespa.model.container.search.QueryProfilesBuilder;
 import com.yahoo.vespa.model.container.search.SemanticRuleBuilder;
 import com.yahoo.vespa.model.container.search.SemanticRules;
+import com.yahoo.vespa.model.ml.ImportedMlModelCache;
 import com.yahoo.vespa.model.search.NamedSchema;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
@@ -54,6 +56,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
 
 /**
  * Contains various state during deploy that should be available in all builders of a {@link com.yahoo.config.model.ConfigModel}
@@ -85,6 +89,8 @@ public class DeployState implements ConfigDefinitionStore {
     private final HostProvisioner provisioner;
     private final Provisioned provisioned;
     private final Reindexing reindexing;
+    private final Executor executor;
+    private final boolean logTimes;
 
     public static DeployState createTestState() {
         return new Builder().build();
@@ -119,7 +125,8 @@ public class DeployState implements ConfigDefinitionStore {
                         Version wantedNodeVespaVersion,
                         boolean accessLoggingEnabledByDefault,
                         Optional<DockerImage> wantedDockerImageRepo,
-                        Reindexing reindexing) {
+                        Reindexing reindexing,
+                        Optional<Executor> executor) {
         this.logger = deployLogger;
         this.fileRegistry = fileRegistry;
         this.rankProfileRegistry = rankProfileRegistry;
@@ -138,8 +145,13 @@ public class DeployState implements ConfigDefinitionStore {
         this.zone = zone;
         this.queryProfiles = queryProfiles; // TODO: Remove this by seeing how pagetemplates are propagated
         this.semanticRules = semanticRules; // TODO: Remove this by seeing how pagetemplates are propagated
+        this.executor = executor.orElse(Runnable::run);
+        this.logTimes = executor.isPresent();
+        long start = System.nanoTime();
         this.importedModels = new ImportedMlModels(applicationPackage.getFileReference(ApplicationPackage.MODELS_DIR),
+                                                   this.executor,
                                                    modelImporters);
+        logTime("Imported " + importedModels.all().size() + " models", start);
 
         ValidationOverrides suppliedValidationOverrides = applicationPackage.getValidationOverrides().map(ValidationOverrides::fromXml)
                                                                             .orElse(ValidationOverrides.empty);
@@ -296,6 +308,25 @@ public class DeployState implements ConfigDefinitionStore {
 
     public Optional<Reindexing> reindexing() { return Optional.ofNullable(reindexing); }
 
+    /**
+     * Returns the executor to use for independent parts of the model build. This runs tasks in the calling thread
+     * unless an executor was set when building this.
+     */
+    public Executor getExecutor() { return executor; }
+
+    /**
+     * Logs the time spent in a phase of the model build, which started at the given {@link System#nanoTime()},
+     * if an executor was set when building this.
+     */
+    public void logTime(String phase, long startNanos) {
+        if (logTimes)
+            logTime(logger, phase, startNanos);
+    }
+
+    private static void logTime(DeployLogger logger, String phase, long startNanos) {
+        logger.log(Level.FINE, phase + " in " + Duration.ofNanos(System.nanoTime() - startNanos).toMillis() + " ms");
+    }
+
     public static class Builder {
 
         private ApplicationPackage applicationPackage = MockApplicationPackage.createEmpty();
@@ -316,6 +347,8 @@ public class DeployState implements ConfigDefinitionStore {
         private boolean accessLoggingEnabledByDefault = true;
         private Optional<DockerImage> wantedDockerImageRepo = Optional.empty();
         private Reindexing reindexing = null;
+        private Optional<Executor> executor = Optional.empty();
+        private Optional<ImportedMlModelCache> importedModelCache = Optional.empty();
 
         public Builder applicationPackage(ApplicationPackage applicationPackage) {
             this.applicationPackage = applicationPackage;
@@ -408,15 +441,41 @@ public class DeployState implements ConfigDefinitionStore {
 
         public Builder reindexing(Reindexing reindexing) { this.reindexing = Objects.requireNonNull(reindexing); return this; }
 
+        /**
+         * Sets the executor to run independent parts of the model build in, like importing models and deriving
+         * the schemas of a cluster, and logs the time spent in each phase of the build. If not set, these parts
+         * are run in the calling thread.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = Optional.of(executor);
+            return this;
+        }
+
+        /** Sets a cache of imported models to reuse models from, when their content is unchanged */
+        public Builder importedModelCache(ImportedMlModelCache importedModelCache) {
+            this.importedModelCache = Optional.of(importedModelCache);
+            return this;
+        }
+
         public DeployState build() {
             return build(new ValidationParameters());
         }
 
         public DeployState build(ValidationParameters validationParameters) {
+            // Messages may be logged from several threads when parts of the model are built in parallel
+            DeployLogger logger = executor.isPresent() ? synchronizedLogger(this.logger) : this.logger;
             RankProfileRegistry rankProfileRegistry = new RankProfileRegistry();
+            long start = System.nanoTime();
             QueryProfiles queryProfiles = new QueryProfilesBuilder().build(applicationPackage, logger);
             SemanticRules semanticRules = new SemanticRuleBuilder().build(applicationPackage);
+            if (executor.isPresent())
+                logTime(logger, "Built query profiles and semantic rules", start);
+            start = System.nanoTime();
             SearchDocumentModel searchDocumentModel = createSearchDocumentModel(rankProfileRegistry, logger, queryProfiles, validationParameters);
+            if (executor.isPresent())
+                logTime(logger, "Built " + searchDocumentModel.getSchemas().size() + " schemas", start);
+            Collection<MlModelImporter> importers = importedModelCache.isPresent() ? importedModelCache.get().wrap(modelImporters)
+                                                                                   : modelImporters;
             return new DeployState(applicationPackage,
                                    searchDocumentModel,
                                    rankProfileRegistry,
@@ -430,7 +489,7 @@ public class DeployState implements ConfigDefinitionStore {
                                    configDefinitionRepo,
                                    previousModel,
                                    endpoints,
-                                   modelImporters,
+                                   importers,
                                    zone,
                                    queryProfiles,
                                    semanticRules,
@@ -438,7 +497,16 @@ public class DeployState implements ConfigDefinitionStore {
                                    wantedNodeVespaVersion,
                                    accessLoggingEnabledByDefault,
                                    wantedDockerImageRepo,
-                                   reindexing);
+                                   reindexing,
+                                   executor);
+        }
+
+        private static DeployLogger synchronizedLogger(DeployLogger logger) {
+            return (level, message) -> {
+                synchronized (logger) {
+                    logger.log(level, message);
+                }
+            };
         }
 
         private SearchDocumentModel createSearchDocumentModel(RankProfileRegistry rankProfileRegistry,
@@ -52,6 +52,7 @@ public class TestProperties implements ModelContext.Properties, ModelContext.Fea
     private int contentNodeBucketDBStripeBits = 0;
     private int mergeChunkSize = 0x400000 - 0x1000; // 4M -4k
     private double feedConcurrency = 0.5;
+    private boolean parallelModelBuild = false;
 
     @Override public ModelContext.FeatureFlags featureFlags() { return this; }
     @Override public boolean multitenant() { return multitenant; }
@@ -86,6 +87,12 @@ public class TestProperties implements ModelContext.Properties, ModelContext.Fea
     @Override public int contentNodeBucketDBStripeBits() { return contentNodeBucketDBStripeBits; }
     @Override public int mergeChunkSize() { return mergeChunkSize; }
     @Override public double feedConcurrency() { return feedConcurrency; }
+    @Override public boolean parallelModelBuild() { return parallelModelBuild; }
+
+    public TestProperties setParallelModelBuild(boolean parallelModelBuild) {
+        this.parallelModelBuild = parallelModelBuild;
+        return this;
+    }
 
     public TestProperties setFeedConcurrency(double feedConcurrency) {
         this.feedConcurrency = feedConcurrency;
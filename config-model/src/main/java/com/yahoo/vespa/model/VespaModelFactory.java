@@ -5,6 +5,7 @@ import ai.vespa.rankingexpression.importer.configmodelview.MlModelImporter;
 import com.google.inject.Inject;
 import com.yahoo.component.Version;
 import com.yahoo.component.provider.ComponentRegistry;
+import com.yahoo.concurrent.DaemonThreadFactory;
 import com.yahoo.config.application.api.ApplicationPackage;
 import com.yahoo.config.model.ConfigModelRegistry;
 import com.yahoo.config.model.MapConfigModelRegistry;
@@ -24,6 +25,7 @@ import com.yahoo.config.provision.TransientException;
 import com.yahoo.config.provision.Zone;
 import com.yahoo.vespa.config.VespaVersion;
 import com.yahoo.vespa.model.application.validation.Validation;
+import com.yahoo.vespa.model.ml.ImportedMlModelCache;
 import org.xml.sax.SAXException;
 
 import java.io.IOException;
@@ -32,6 +34,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Logger;
 
 /**
@@ -47,6 +52,8 @@ public class VespaModelFactory implements ModelFactory {
     private final Zone zone;
     private final Clock clock;
     private final Version version;
+    /** Models imported by any application built by this, used with parallel-model-build. Holds up to an estimated 128 MB of models */
+    private final ImportedMlModelCache importedModelCache = new ImportedMlModelCache();
 
     /** Creates a factory for Vespa models for this version of the source */
     @Inject
@@ -98,16 +105,37 @@ public class VespaModelFactory implements ModelFactory {
 
     @Override
     public Model createModel(ModelContext modelContext) {
-        return buildModel(createDeployState(modelContext, new ValidationParameters(ValidationParameters.IgnoreValidationErrors.TRUE)));
+        Optional<ExecutorService> executor = createExecutor(modelContext);
+        try {
+            return buildModel(createDeployState(modelContext, executor, new ValidationParameters(ValidationParameters.IgnoreValidationErrors.TRUE)));
+        }
+        finally {
+            executor.ifPresent(ExecutorService::shutdown);
+        }
     }
 
     @Override
     public ModelCreateResult createAndValidateModel(ModelContext modelContext, ValidationParameters validationParameters) {
         validateXml(modelContext, validationParameters.ignoreValidationErrors());
-        DeployState deployState = createDeployState(modelContext, validationParameters);
-        VespaModel model = buildModel(deployState);
-        List<ConfigChangeAction> changeActions = validateModel(model, deployState, validationParameters);
-        return new ModelCreateResult(model, changeActions);
+        Optional<ExecutorService> executor = createExecutor(modelContext);
+        try {
+            DeployState deployState = createDeployState(modelContext, executor, validationParameters);
+            VespaModel model = buildModel(deployState);
+            long start = System.nanoTime();
+            List<ConfigChangeAction> changeActions = validateModel(model, deployState, validationParameters);
+            deployState.logTime("Validated model", start);
+            return new ModelCreateResult(model, changeActions);
+        }
+        finally {
+            executor.ifPresent(ExecutorService::shutdown);
+        }
+    }
+
+    /** Returns an executor for building the parts of a model in parallel, if this is enabled for the given context */
+    private static Optional<ExecutorService> createExecutor(ModelContext modelContext) {
+        if ( ! modelContext.properties().featureFlags().parallelModelBuild()) return Optional.empty();
+        return Optional.of(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                                                        new DaemonThreadFactory("model-builder-")));
     }
     
     private void validateXml(ModelContext modelContext, boolean ignoreValidationErrors) {
@@ -130,13 +158,17 @@ public class VespaModelFactory implements ModelFactory {
 
     private VespaModel buildModel(DeployState deployState) {
         try {
-            return new VespaModel(configModelRegistry, deployState);
+            long start = System.nanoTime();
+            VespaModel model = new VespaModel(configModelRegistry, deployState);
+            deployState.logTime("Built model", start);
+            return model;
         } catch (IOException | SAXException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private DeployState createDeployState(ModelContext modelContext, ValidationParameters validationParameters) {
+    private DeployState createDeployState(ModelContext modelContext, Optional<ExecutorService> executor,
+                                          ValidationParameters validationParameters) {
         DeployState.Builder builder = new DeployState.Builder()
             .applicationPackage(modelContext.applicationPackage())
             .deployLogger(modelContext.deployLogger())
@@ -155,6 +187,7 @@ public class VespaModelFactory implements ModelFactory {
             .wantedDockerImageRepo(modelContext.wantedDockerImageRepo());
         modelContext.previousModel().ifPresent(builder::previousModel);
         modelContext.reindexing().ifPresent(builder::reindexing);
+        executor.ifPresent(e -> builder.executor(e).importedModelCache(importedModelCache));
         return builder.build(validationParameters);
     }
 
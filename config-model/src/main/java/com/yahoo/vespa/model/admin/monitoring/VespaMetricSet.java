@@ -176,6 +176,9 @@ public class VespaMetricSet {
         metrics.add(new Metric("jdisc.gc.ms.max"));
         metrics.add(new Metric("jdisc.gc.ms.last"));
 
+        metrics.add(new Metric("mbus.messenger.queue_size.max"));
+        metrics.add(new Metric("mbus.messenger.queue_size.last"));
+
         metrics.add(new Metric("jdisc.deactivated_containers.total.last"));
         metrics.add(new Metric("jdisc.deactivated_containers.with_retained_refs.last"));
 
@@ -0,0 +1,188 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.model.ml;
+
+import ai.vespa.rankingexpression.importer.configmodelview.ImportedMlFunction;
+import ai.vespa.rankingexpression.importer.configmodelview.ImportedMlModel;
+import ai.vespa.rankingexpression.importer.configmodelview.MlModelImporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Models imported from application packages, kept across deployments by the hash of the content of the model
+ * files, so that models which are unchanged since an earlier deployment are not imported again.
+ *
+ * An instance is shared by all applications built by a model factory, and imported models hold their constants
+ * and functions as strings, so the cache is bounded by the estimated size of the models it holds: The least
+ * recently used models are evicted when the total exceeds the given max weight, and a model heavier than that
+ * is not cached at all.
+ *
+ * This is thread safe.
+ */
+public class ImportedMlModelCache {
+
+    /** The default max total weight, in estimated bytes, of the models kept */
+    private static final long defaultMaxWeight = 128 * 1024 * 1024;
+
+    private final long maxWeight;
+    private final Map<String, WeightedModel> models = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight = 0;
+
+    public ImportedMlModelCache() {
+        this(defaultMaxWeight);
+    }
+
+    /** Creates a cache of models with the given max total weight, in estimated bytes */
+    public ImportedMlModelCache(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    /** Returns importers which import models using the given importers, unless they are found in this */
+    public List<MlModelImporter> wrap(Collection<MlModelImporter> importers) {
+        return importers.stream().map(CachingImporter::new).collect(Collectors.toList());
+    }
+
+    /** Returns the number of models in this */
+    public synchronized int size() { return models.size(); }
+
+    /** Returns the total weight, in estimated bytes, of the models in this */
+    public synchronized long weight() { return weight; }
+
+    private synchronized ImportedMlModel get(String key) {
+        WeightedModel model = models.get(key);
+        return model == null ? null : model.model;
+    }
+
+    private synchronized void put(String key, ImportedMlModel model) {
+        long modelWeight = weightOf(model);
+        if (modelWeight > maxWeight) return;
+
+        WeightedModel replaced = models.put(key, new WeightedModel(model, modelWeight));
+        if (replaced != null)
+            weight -= replaced.weight;
+        weight += modelWeight;
+        for (Iterator<WeightedModel> eldest = models.values().iterator(); weight > maxWeight; ) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+        }
+    }
+
+    /** Returns the estimated size in bytes of the strings of the given model, at two bytes per character */
+    static long weightOf(ImportedMlModel model) {
+        long chars = 0;
+        for (Map<String, String> values : List.of(model.smallConstants(), model.largeConstants(), model.functions()))
+            for (Map.Entry<String, String> value : values.entrySet())
+                chars += value.getKey().length() + value.getValue().length();
+        for (ImportedMlFunction function : model.outputExpressions())
+            chars += function.name().length() + function.expression().length();
+        return 2 * chars;
+    }
+
+    /** Returns a hash of the name, importer and content of the given model */
+    private static String keyOf(String modelName, MlModelImporter importer, File modelPath) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(modelName.getBytes(StandardCharsets.UTF_8));
+            digest.update(importer.getClass().getName().getBytes(StandardCharsets.UTF_8));
+            addContent(modelPath, "", digest);
+            return Base64.getEncoder().encodeToString(digest.digest());
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not read model '" + modelName + "' from " + modelPath, e);
+        }
+    }
+
+    private static void addContent(File file, String relativePath, MessageDigest digest) throws IOException {
+        digest.update(relativePath.getBytes(StandardCharsets.UTF_8));
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children == null) throw new IOException("Could not list " + file);
+            Arrays.sort(children);
+            for (File child : children)
+                addContent(child, relativePath + "/" + child.getName(), digest);
+        }
+        else {
+            byte[] buffer = new byte[65536];
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                for (int read; (read = in.read(buffer)) != -1; )
+                    digest.update(buffer, 0, read);
+            }
+        }
+    }
+
+    private static class WeightedModel {
+
+        final ImportedMlModel model;
+        final long weight;
+
+        WeightedModel(ImportedMlModel model, long weight) {
+            this.model = model;
+            this.weight = weight;
+        }
+
+    }
+
+    private class CachingImporter implements MlModelImporter {
+
+        private final MlModelImporter importer;
+
+        CachingImporter(MlModelImporter importer) {
+            this.importer = importer;
+        }
+
+        @Override
+        public boolean canImport(String modelPath) { return importer.canImport(modelPath); }
+
+        @Override
+        public ImportedMlModel importModel(String modelName, File modelPath) {
+            String key = keyOf(modelName, importer, modelPath);
+            ImportedMlModel model = get(key);
+            if (model == null) {
+                model = importer.importModel(modelName, modelPath);
+                put(key, model);
+            }
+            return new SourcedModel(model, modelPath.toString());
+        }
+
+    }
+
+    /** A cached model, with the source of the deployment it is reused in */
+    private static class SourcedModel implements ImportedMlModel {
+
+        private final ImportedMlModel model;
+        private final String source;
+
+        SourcedModel(ImportedMlModel model, String source) {
+            this.model = model;
+            this.source = source;
+        }
+
+        @Override public String name() { return model.name(); }
+        @Override public String source() { return source; }
+        @Override public Optional<String> inputTypeSpec(String input) { return model.inputTypeSpec(input); }
+        @Override public Map<String, String> smallConstants() { return model.smallConstants(); }
+        @Override public Map<String, String> largeConstants() { return model.largeConstants(); }
+        @Override public Map<String, String> functions() { return model.functions(); }
+        @Override public List<ImportedMlFunction> outputExpressions() { return model.outputExpressions(); }
+
+    }
+
+}
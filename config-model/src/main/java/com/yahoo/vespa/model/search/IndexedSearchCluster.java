@@ -23,6 +23,9 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * @author baldersheim
@@ -196,21 +199,48 @@ public class IndexedSearchCluster extends SearchCluster
 
     @Override
     protected void deriveAllSchemas(List<SchemaSpec> localSearches, DeployState deployState) {
+        long start = System.nanoTime();
+        // Schemas are derived independently, while the document databases are added to this in order.
+        // Imported models are converted into files of the application package named by rank profile and model,
+        // which schemas with same named profiles using the same model would write concurrently,
+        // so schemas are derived in sequence when there are imported models
+        Executor executor = deployState.getImportedModels().all().isEmpty() ? deployState.getExecutor() : Runnable::run;
+        List<SchemaSpec> derivedSpecs = new ArrayList<>();
+        List<CompletableFuture<DerivedConfiguration>> derivedConfigs = new ArrayList<>();
         for (SchemaSpec spec : localSearches) {
             com.yahoo.searchdefinition.Search search = spec.getSearchDefinition().getSearch();
             if ( ! (search instanceof DocumentOnlySearch)) {
-                DocumentDatabase db = new DocumentDatabase(this, search.getName(),
-                                                           new DerivedConfiguration(search,
-                                                                                    deployState.getDeployLogger(),
-                                                                                    deployState.getProperties(),
-                                                                                    deployState.rankProfileRegistry(),
-                                                                                    deployState.getQueryProfiles().getRegistry(),
-                                                                                    deployState.getImportedModels()));
-                // TODO: remove explicit adding of user configs when the complete content model is built using builders.
-                db.mergeUserConfigs(spec.getUserConfigs());
-                documentDbs.add(db);
+                derivedSpecs.add(spec);
+                derivedConfigs.add(CompletableFuture.supplyAsync(() -> new DerivedConfiguration(search,
+                                                                                                deployState.getDeployLogger(),
+                                                                                                deployState.getProperties(),
+                                                                                                deployState.rankProfileRegistry(),
+                                                                                                deployState.getQueryProfiles().getRegistry(),
+                                                                                                deployState.getImportedModels()),
+                                                                 executor));
             }
         }
+        for (int i = 0; i < derivedSpecs.size(); i++) {
+            SchemaSpec spec = derivedSpecs.get(i);
+            DocumentDatabase db = new DocumentDatabase(this, spec.getSearchDefinition().getSearch().getName(),
+                                                       join(derivedConfigs.get(i)));
+            // TODO: remove explicit adding of user configs when the complete content model is built using builders.
+            db.mergeUserConfigs(spec.getUserConfigs());
+            documentDbs.add(db);
+        }
+        deployState.logTime("Derived " + derivedSpecs.size() + " schemas of cluster '" + getClusterName() + "'", start);
+    }
+
+    /** Returns the result of the given future, rethrowing any exception thrown when deriving it */
+    private static DerivedConfiguration join(CompletableFuture<DerivedConfiguration> derivedConfig) {
+        try {
+            return derivedConfig.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
     }
 
     public List<DocumentDatabase> getDocumentDbs() {
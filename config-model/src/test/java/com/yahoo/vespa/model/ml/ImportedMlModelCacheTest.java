@@ -0,0 +1,121 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.model.ml;
+
+import ai.vespa.rankingexpression.importer.configmodelview.ImportedMlModel;
+import ai.vespa.rankingexpression.importer.configmodelview.ImportedMlModels;
+import ai.vespa.rankingexpression.importer.configmodelview.MlModelImporter;
+import ai.vespa.rankingexpression.importer.lightgbm.LightGBMImporter;
+import ai.vespa.rankingexpression.importer.onnx.OnnxImporter;
+import ai.vespa.rankingexpression.importer.xgboost.XGBoostImporter;
+import com.yahoo.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ImportedMlModelCacheTest {
+
+    private final CountingImporter onnx = new CountingImporter(new OnnxImporter());
+    private final CountingImporter lightGbm = new CountingImporter(new LightGBMImporter());
+    private final CountingImporter xgboost = new CountingImporter(new XGBoostImporter());
+    private final List<MlModelImporter> importers = List.of(onnx, lightGbm, xgboost);
+
+    @Rule
+    public TemporaryFolder tmpDir = new TemporaryFolder();
+
+    private File copyModels() throws IOException {
+        File models = tmpDir.newFolder("session", "models");
+        IOUtils.copyDirectory(new File("src/test/cfg/application/ml_models/models"), models);
+        return models;
+    }
+
+    @Test
+    public void unchangedModelsAreReused() throws IOException {
+        ImportedMlModelCache cache = new ImportedMlModelCache();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            File firstModels = copyModels();
+            ImportedMlModels first = new ImportedMlModels(firstModels, executor, cache.wrap(importers));
+            assertEquals(3, first.all().size());
+            assertEquals(3, cache.size());
+            assertEquals(3, onnx.imports + lightGbm.imports + xgboost.imports);
+
+            File secondModels = tmpDir.newFolder("next-session", "models");
+            IOUtils.copyDirectory(firstModels, secondModels);
+            Files.writeString(new File(secondModels, "xgboost.2.2.json").toPath(),
+                              Files.readString(new File(secondModels, "xgboost.2.2.json").toPath()).replace("1.71218", "1.5"));
+            ImportedMlModels second = new ImportedMlModels(secondModels, executor, cache.wrap(importers));
+            assertEquals(4, cache.size());
+            assertEquals("Unchanged model is reused", 1, onnx.imports);
+            assertEquals("Unchanged model is reused", 1, lightGbm.imports);
+            assertEquals("Changed model is imported again", 2, xgboost.imports);
+
+            ImportedMlModel firstOnnx = first.get(new File(firstModels, "mnist_softmax.onnx"));
+            ImportedMlModel secondOnnx = second.get(new File(secondModels, "mnist_softmax.onnx"));
+            assertEquals(firstOnnx.functions(), secondOnnx.functions());
+            assertEquals("Reused model has the source of the new deployment",
+                         new File(secondModels, "mnist_softmax.onnx").toString(), secondOnnx.source());
+
+            ImportedMlModel firstXgboost = first.get(new File(firstModels, "xgboost.2.2.json"));
+            ImportedMlModel secondXgboost = second.get(new File(secondModels, "xgboost.2.2.json"));
+            assertNotEquals(firstXgboost.outputExpressions().get(0).expression(),
+                            secondXgboost.outputExpressions().get(0).expression());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void leastRecentlyUsedModelsAreEvictedWhenTooHeavy() throws IOException {
+        File models = copyModels();
+        ImportedMlModelCache unbounded = new ImportedMlModelCache(Long.MAX_VALUE);
+        new ImportedMlModels(models, Runnable::run, unbounded.wrap(importers));
+        assertEquals(3, unbounded.size());
+        long totalWeight = unbounded.weight();
+
+        ImportedMlModelCache cache = new ImportedMlModelCache(totalWeight - 1);
+        new ImportedMlModels(models, Runnable::run, cache.wrap(importers));
+        assertEquals(2, cache.size());
+        assertTrue(cache.weight() < totalWeight);
+    }
+
+    @Test
+    public void modelsHeavierThanTheCacheAreNotCached() throws IOException {
+        ImportedMlModelCache cache = new ImportedMlModelCache(1);
+        new ImportedMlModels(copyModels(), Runnable::run, cache.wrap(importers));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weight());
+    }
+
+    private static class CountingImporter implements MlModelImporter {
+
+        private final MlModelImporter importer;
+        private int imports = 0;
+
+        CountingImporter(MlModelImporter importer) {
+            this.importer = importer;
+        }
+
+        @Override
+        public boolean canImport(String modelPath) { return importer.canImport(modelPath); }
+
+        @Override
+        public synchronized ImportedMlModel importModel(String modelName, File modelPath) {
+            imports++;
+            return importer.importModel(modelName, modelPath);
+        }
+
+    }
+
+}
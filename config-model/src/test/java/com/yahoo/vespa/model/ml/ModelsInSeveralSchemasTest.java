@@ -0,0 +1,150 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.model.ml;
+
+import ai.vespa.rankingexpression.importer.configmodelview.MlModelImporter;
+import ai.vespa.rankingexpression.importer.onnx.OnnxImporter;
+import ai.vespa.rankingexpression.importer.xgboost.XGBoostImporter;
+import com.yahoo.component.ComponentId;
+import com.yahoo.component.provider.ComponentRegistry;
+import com.yahoo.config.application.api.ApplicationPackage;
+import com.yahoo.config.model.MockModelContext;
+import com.yahoo.config.model.api.ConfigModelPlugin;
+import com.yahoo.config.model.api.ModelContext;
+import com.yahoo.config.model.application.provider.FilesApplicationPackage;
+import com.yahoo.config.model.deploy.DeployState;
+import com.yahoo.config.model.deploy.TestProperties;
+import com.yahoo.config.provision.Zone;
+import com.yahoo.io.IOUtils;
+import com.yahoo.vespa.config.search.RankProfilesConfig;
+import com.yahoo.vespa.model.VespaModel;
+import com.yahoo.vespa.model.VespaModelFactory;
+import com.yahoo.vespa.model.search.DocumentDatabase;
+import com.yahoo.vespa.model.search.IndexedSearchCluster;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests building schemas which use the same imported models.
+ */
+public class ModelsInSeveralSchemasTest {
+
+    @Rule
+    public TemporaryFolder tmpDir = new TemporaryFolder();
+
+    @Test
+    public void schemasUsingTheSameModelsAreBuiltInParallelAsInSequence() throws IOException {
+        File sequentialApp = copyApplication("sequential");
+        File parallelApp = copyApplication("parallel");
+        Map<String, String> sequentialProfiles = rankProfiles(buildModel(sequentialApp, false));
+        Map<String, String> parallelProfiles = rankProfiles(buildModel(parallelApp, true));
+
+        assertEquals(2, parallelProfiles.size());
+        assertEquals(sequentialProfiles, parallelProfiles);
+        Map<String, String> generatedFiles = generatedFiles(parallelApp);
+        assertFalse(generatedFiles.isEmpty());
+        assertEquals(generatedFiles(sequentialApp), generatedFiles);
+    }
+
+    @Test
+    public void schemasUsingTheSameModelsAreBuiltOnSeveralThreadsAsInSequence() throws Exception {
+        File sequentialApp = copyApplication("sequential");
+        Map<String, String> sequentialProfiles = rankProfiles(buildModel(sequentialApp, Optional.empty()));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // Repeated, as concurrent writes of the same model files only fail some of the time
+            for (int i = 0; i < 5; i++) {
+                File parallelApp = copyApplication("parallel-" + i);
+                assertEquals(sequentialProfiles, rankProfiles(buildModel(parallelApp, Optional.of(executor))));
+                assertEquals(generatedFiles(sequentialApp), generatedFiles(parallelApp));
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private File copyApplication(String name) throws IOException {
+        File app = tmpDir.newFolder(name);
+        IOUtils.copyDirectory(new File("src/test/cfg/application/ml_models_in_several_schemas"), app);
+        IOUtils.copyDirectory(new File("src/test/cfg/application/ml_models/models"), new File(app, "models"));
+        return app;
+    }
+
+    private static VespaModel buildModel(File app, boolean parallelModelBuild) {
+        ComponentRegistry<MlModelImporter> importers = new ComponentRegistry<>();
+        importers.register(new ComponentId("onnx"), new OnnxImporter());
+        importers.register(new ComponentId("xgboost"), new XGBoostImporter());
+        importers.freeze();
+        VespaModelFactory factory = new VespaModelFactory(new ComponentRegistry<ConfigModelPlugin>(), importers, Zone.defaultZone());
+        ModelContext context = new MockModelContext(FilesApplicationPackage.fromFile(app)) {
+            @Override
+            public ModelContext.Properties properties() {
+                return new TestProperties().setParallelModelBuild(parallelModelBuild);
+            }
+        };
+        return (VespaModel) factory.createModel(context);
+    }
+
+    private static VespaModel buildModel(File app, Optional<Executor> executor) throws IOException, SAXException {
+        DeployState.Builder state = new DeployState.Builder().applicationPackage(FilesApplicationPackage.fromFile(app))
+                                                             .modelImporters(List.of(new OnnxImporter(), new XGBoostImporter()));
+        executor.ifPresent(state::executor);
+        return new VespaModel(state.build());
+    }
+
+    /** Returns the rank profiles config of each document database of the given model */
+    private static Map<String, String> rankProfiles(VespaModel model) {
+        Map<String, String> profiles = new TreeMap<>();
+        IndexedSearchCluster cluster = model.getContentClusters().get("test").getSearch().getIndexed();
+        for (DocumentDatabase db : cluster.getDocumentDbs()) {
+            RankProfilesConfig.Builder builder = new RankProfilesConfig.Builder();
+            db.getConfig(builder);
+            profiles.put(db.getName(), new RankProfilesConfig(builder).toString());
+        }
+        return profiles;
+    }
+
+    /** Returns the content of the files generated from models in the given application, by their relative path */
+    private static Map<String, String> generatedFiles(File app) throws IOException {
+        Path generated = app.toPath().resolve(ApplicationPackage.MODELS_GENERATED_DIR.toString());
+        if ( ! Files.exists(generated)) return Map.of();
+        try (Stream<Path> files = Files.walk(generated)) {
+            return files.filter(Files::isRegularFile)
+                        .collect(Collectors.toMap(file -> generated.relativize(file).toString(),
+                                                  ModelsInSeveralSchemasTest::read,
+                                                  (first, second) -> first,
+                                                  TreeMap::new));
+        }
+    }
+
+    private static String read(Path file) {
+        try {
+            return new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -31,12 +31,17 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * A config client for generating load against a config server or config proxy.
  * <p>
  * Log messages from a run will have a # first in the line, the end result will not.
+ * <p>
+ * With -herd, every thread requests every config in each iteration, all starting at the same time, like
+ * the subscribers of an application do when it is redeployed. The time each such round takes is reported as well.
  *
  * @author Vegard Havdal
  */
@@ -55,6 +60,7 @@ public class LoadTester {
     public static void main(String[] args) throws IOException, InterruptedException {
         CommandLineParser parser = new CommandLineParser("LoadTester", args);
         parser.addLegalUnarySwitch("-d", "debug");
+        parser.addLegalUnarySwitch("-herd", "thundering herd: all threads request all configs at the same time in each iteration");
         parser.addRequiredBinarySwitch("-c", "host (config proxy or server)");
         parser.addRequiredBinarySwitch("-p", "port");
         parser.addRequiredBinarySwitch("-i", "iterations per thread");
@@ -69,20 +75,23 @@ public class LoadTester {
         String configsList = parser.getBinarySwitches().get("-l");
         String defPath = parser.getBinarySwitches().get("-dd");
         debug = parser.getUnarySwitches().contains("-d");
+        boolean herd = parser.getUnarySwitches().contains("-herd");
         LoadTester loadTester = new LoadTester();
-        loadTester.runLoad(host, port, iterations, threads, configsList, defPath);
+        loadTester.runLoad(host, port, iterations, threads, configsList, defPath, herd);
     }
 
     private void runLoad(String host, int port, int iterations, int threads,
-                         String configsList, String defPath) throws IOException, InterruptedException {
+                         String configsList, String defPath, boolean herd) throws IOException, InterruptedException {
         configs = readConfigs(configsList);
         defs = readDefs(defPath);
         List<LoadThread> threadList = new ArrayList<>();
         long start = System.currentTimeMillis();
         Metrics m = new Metrics();
+        Rounds rounds = herd ? new Rounds() : null;
+        CyclicBarrier barrier = herd ? new CyclicBarrier(threads, rounds::next) : null;
 
         for (int i = 0; i < threads; i++) {
-            LoadThread lt = new LoadThread(iterations, host, port);
+            LoadThread lt = new LoadThread(iterations, host, port, barrier);
             threadList.add(lt);
             lt.start();
         }
@@ -91,7 +100,13 @@ public class LoadTester {
             lt.join();
             m.merge(lt.metrics);
         }
-        printOutput(start, threads, iterations, m);
+        if (herd) {
+            printOutput(start, threads, (long) iterations * configs.size(), m);
+            System.out.println(rounds);
+        }
+        else {
+            printOutput(start, threads, iterations, m);
+        }
     }
 
     private Map<ConfigDefinitionKey, Tuple2<String, String[]>> readDefs(String defPath) throws IOException {
@@ -187,70 +202,120 @@ public class LoadTester {
         }
     }
 
+    /** The durations of the rounds of a thundering herd run, each ending when the last thread is done with it */
+    private static class Rounds {
+
+        long roundStart = System.currentTimeMillis();
+        long count = -1; // The first call starts the first round
+        long totDuration = 0;
+        long maxDuration = 0;
+
+        synchronized void next() {
+            long now = System.currentTimeMillis();
+            if (count >= 0) {
+                totDuration += now - roundStart;
+                maxDuration = Math.max(maxDuration, now - roundStart);
+            }
+            count++;
+            roundStart = now;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return "#rounds #avgroundduration #maxroundduration\n" +
+                   count + "," + (count > 0 ? totDuration / count : 0) + "," + maxDuration;
+        }
+
+    }
+
     private class LoadThread extends Thread {
 
         int iterations = 0;
         String host = "";
         int port = 0;
         Metrics metrics = new Metrics();
+        /** If set, all threads wait here before each iteration, and then request every config */
+        final CyclicBarrier barrier;
+
+        Spec spec;
+        Target target;
+        boolean reconnCycle = false; // to log reconn message only once, for instance at restart
 
-        LoadThread(int iterations, String host, int port) {
+        LoadThread(int iterations, String host, int port, CyclicBarrier barrier) {
             this.iterations = iterations;
             this.host = host;
             this.port = port;
+            this.barrier = barrier;
         }
 
         @Override
         public void run() {
-            Spec spec = new Spec(host, port);
-            Target target = connect(spec);
-            ConfigKey<?> reqKey;
-            JRTClientConfigRequest request;
+            spec = new Spec(host, port);
+            target = connect(spec);
             int totConfs = configs.size();
-            boolean reconnCycle = false; // to log reconn message only once, for instance at restart
             for (int i = 0; i < iterations; i++) {
-                reqKey = configs.get(ThreadLocalRandom.current().nextInt(totConfs));
-                ConfigDefinitionKey dKey = new ConfigDefinitionKey(reqKey);
-                Tuple2<String, String[]> defContent = defs.get(dKey);
-                if (defContent == null && defs.size() > 0) { // Only complain if we actually did run with a def dir
-                    System.out.println("# No def found for " + dKey + ", not sending in request.");
+                if (barrier == null) {
+                    request(configs.get(ThreadLocalRandom.current().nextInt(totConfs)));
                 }
-                request = getRequest(ConfigKey.createFull(reqKey.getName(), reqKey.getConfigId(), reqKey.getNamespace(), defContent.first), defContent.second);
-                if (debug) System.out.println("# Requesting: " + reqKey);
-                long start = System.currentTimeMillis();
-                target.invokeSync(request.getRequest(), 10.0);
-                long end = System.currentTimeMillis();
-                if (request.isError()) {
-                    if ("Connection lost".equals(request.errorMessage()) || "Connection down".equals(request.errorMessage())) {
-                        try {
-                            Thread.sleep(100);
-                        } catch (InterruptedException e) {
-                            throw new RuntimeException(e);
-                        }
-                        if (!reconnCycle) {
-                            System.out.println("# Connection lost, reconnecting...");
-                            reconnCycle = true;
-                        }
-                        target.close();
-                        target = connect(spec);
-                    } else {
-                        System.err.println(request.errorMessage());
-                    }
-                    metrics.incFailedRequests();
-                } else {
-                    if (reconnCycle) {
-                        reconnCycle = false;
-                        System.out.println("# Connection OK");
+                else {
+                    awaitOthers();
+                    for (ConfigKey<?> reqKey : configs)
+                        request(reqKey);
+                }
+            }
+            if (barrier != null)
+                awaitOthers();
+        }
+
+        private void awaitOthers() {
+            try {
+                barrier.await();
+            } catch (InterruptedException | BrokenBarrierException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private void request(ConfigKey<?> reqKey) {
+            ConfigDefinitionKey dKey = new ConfigDefinitionKey(reqKey);
+            Tuple2<String, String[]> defContent = defs.get(dKey);
+            if (defContent == null && defs.size() > 0) { // Only complain if we actually did run with a def dir
+                System.out.println("# No def found for " + dKey + ", not sending in request.");
+            }
+            JRTClientConfigRequest request = getRequest(ConfigKey.createFull(reqKey.getName(), reqKey.getConfigId(), reqKey.getNamespace(), defContent.first), defContent.second);
+            if (debug) System.out.println("# Requesting: " + reqKey);
+            long start = System.currentTimeMillis();
+            target.invokeSync(request.getRequest(), 10.0);
+            long end = System.currentTimeMillis();
+            if (request.isError()) {
+                if ("Connection lost".equals(request.errorMessage()) || "Connection down".equals(request.errorMessage())) {
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
                     }
-                    long duration = end - start;
-
-                    if (debug) {
-                        String payload = request.getNewPayload().toString();
-                        metrics.update(payload.length(), duration); // assume 8 bit...
-                        System.out.println("# Ret: " + payload);
-                    } else {
-                        metrics.update(0, duration);
+                    if (!reconnCycle) {
+                        System.out.println("# Connection lost, reconnecting...");
+                        reconnCycle = true;
                     }
+                    target.close();
+                    target = connect(spec);
+                } else {
+                    System.err.println(request.errorMessage());
+                }
+                metrics.incFailedRequests();
+            } else {
+                if (reconnCycle) {
+                    reconnCycle = false;
+                    System.out.println("# Connection OK");
+                }
+                long duration = end - start;
+
+                if (debug) {
+                    String payload = request.getNewPayload().toString();
+                    metrics.update(payload.length(), duration); // assume 8 bit...
+                    System.out.println("# Ret: " + payload);
+                } else {
+                    metrics.update(0, duration);
                 }
             }
         }
@@ -18,6 +18,9 @@ public interface ConfigResponse {
 
     Utf8Array getPayload();
 
+    /** Returns the payload of this in the given compression type */
+    Payload getPayload(CompressionType compressionType);
+
     long getGeneration();
 
     boolean isInternalRedeploy();
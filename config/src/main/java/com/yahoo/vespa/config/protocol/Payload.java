@@ -56,7 +56,7 @@ public class Payload {
 
     public Utf8Array getData() { return data; }
 
-    /** Returns a copy of this payload where the data is compressed using the given compression */
+    /** Returns this payload with the data compressed using the given compression */
     public Payload withCompression(CompressionType requestedCompression) {
         CompressionType responseCompression = compressionInfo.getCompressionType();
         if (requestedCompression == CompressionType.UNCOMPRESSED && responseCompression == CompressionType.LZ4) {
@@ -69,7 +69,7 @@ public class Payload {
             CompressionInfo info = CompressionInfo.create(CompressionType.LZ4, this.data.getByteLength());
             return Payload.from(data, info);
         } else {
-            return Payload.from(data, compressionInfo);
+            return this;
         }
     }
 
@@ -6,6 +6,7 @@ import com.yahoo.vespa.config.ConfigPayload;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Class for serializing config responses based on {@link com.yahoo.slime.Slime} implementing the {@link ConfigResponse} interface.
@@ -20,6 +21,9 @@ public class SlimeConfigResponse implements ConfigResponse {
     private final boolean internalRedeploy;
     private final String configMd5;
 
+    /** The payload of this in each compression type, created when first requested */
+    private final AtomicReferenceArray<Payload> payloads = new AtomicReferenceArray<>(CompressionType.values().length);
+
     public static SlimeConfigResponse fromConfigPayload(ConfigPayload payload, long generation,
                                                         boolean internalRedeploy, String configMd5) {
         Utf8Array data = payload.toUtf8Array(true);
@@ -45,6 +49,25 @@ public class SlimeConfigResponse implements ConfigResponse {
         return payload;
     }
 
+    /**
+     * Returns the payload of this in the given compression type. This is created once per response and compression type,
+     * so a cached response is compressed at most once however many clients request it.
+     */
+    @Override
+    public Payload getPayload(CompressionType compressionType) {
+        Payload compressed = payloads.get(compressionType.ordinal());
+        if (compressed != null) return compressed;
+
+        synchronized (payloads) {
+            compressed = payloads.get(compressionType.ordinal());
+            if (compressed == null) {
+                compressed = Payload.from(payload, compressionInfo).withCompression(compressionType);
+                payloads.set(compressionType.ordinal(), compressed);
+            }
+            return compressed;
+        }
+    }
+
     @Override
     public long getGeneration() {
         return generation;
@@ -64,14 +87,14 @@ public class SlimeConfigResponse implements ConfigResponse {
 
     @Override
     public void serialize(OutputStream os, CompressionType type) throws IOException {
-        os.write(Payload.from(payload, compressionInfo).withCompression(type).getData().getBytes());
+        os.write(getPayload(type).getData().getBytes());
     }
 
     @Override
     public String toString() {
         return "generation=" + generation +  "\n" +
                 "configmd5=" + configMd5 +  "\n" +
-                Payload.from(payload, compressionInfo).withCompression(CompressionType.UNCOMPRESSED);
+                getPayload(CompressionType.UNCOMPRESSED);
     }
 
     @Override
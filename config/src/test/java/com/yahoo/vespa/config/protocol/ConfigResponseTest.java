@@ -14,6 +14,7 @@ import java.nio.charset.StandardCharsets;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -54,4 +55,18 @@ public class ConfigResponseTest {
         assertThat(baos.toString(), is("{\"boolval\":false,\"doubleval\":0.0,\"enumval\":\"VAL1\",\"intval\":0,\"longval\":0,\"stringval\":\"s\"}"));
     }
 
+    @Test
+    public void require_that_slime_response_payload_is_compressed_once() {
+        ConfigPayload configPayload = ConfigPayload.fromInstance(new SimpletypesConfig(new SimpletypesConfig.Builder()));
+        Utf8Array data = configPayload.toUtf8Array(true);
+        Utf8Array bytes = new Utf8Array(new LZ4PayloadCompressor().compress(data.getBytes()));
+        ConfigResponse response = new SlimeConfigResponse(bytes, 3, false, "mymd5", CompressionInfo.create(CompressionType.LZ4, data.getByteLength()));
+
+        assertSame(bytes, response.getPayload(CompressionType.LZ4).getData());
+        Payload uncompressed = response.getPayload(CompressionType.UNCOMPRESSED);
+        assertEquals(data, uncompressed.getData());
+        assertEquals(CompressionInfo.create(CompressionType.UNCOMPRESSED, data.getByteLength()), uncompressed.getCompressionInfo());
+        assertSame(uncompressed, response.getPayload(CompressionType.UNCOMPRESSED));
+    }
+
 }
@@ -148,12 +148,15 @@ public class ModelContextImpl implements ModelContext {
     public static class FeatureFlags implements ModelContext.FeatureFlags {
 
         private final boolean enableAutomaticReindexing;
+        private final boolean parallelModelBuild;
 
         public FeatureFlags(FlagSource source, ApplicationId appId) {
             this.enableAutomaticReindexing = flagValue(source, appId, Flags.ENABLE_AUTOMATIC_REINDEXING);
+            this.parallelModelBuild = flagValue(source, appId, Flags.PARALLEL_MODEL_BUILD);
         }
 
         @Override public boolean enableAutomaticReindexing() { return enableAutomaticReindexing; }
+        @Override public boolean parallelModelBuild() { return parallelModelBuild; }
 
         private static <V> V flagValue(FlagSource source, ApplicationId appId, UnboundFlag<? extends V, ?, ?> flag) {
             return flag.bindTo(source)
@@ -1,7 +1,6 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.config.server.rpc;
 
-import com.yahoo.concurrent.ThreadFactoryFactory;
 import com.yahoo.jrt.Target;
 import com.yahoo.jrt.TargetWatcher;
 import java.util.logging.Level;
@@ -18,24 +17,27 @@ import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 /**
  * Takes care of <i>delayed responses</i> in the config server.
  * A delayed response is a response sent at request (server) timeout
  * for a config which has not changed since the request was initiated.
+ * The timeouts of all delayed responses are kept in one or more timing wheels,
+ * rather than having a timer task each.
  *
  * @author hmusum
  */
 public class DelayedConfigResponses {
     private static final Logger log = Logger.getLogger(DelayedConfigResponses.class.getName());
+    private static final long tickMillis = 10;
+    private static final int slotsPerWheel = 4096;
+
     private final RpcServer rpcServer;
 
-    private final ScheduledExecutorService executorService;
+    private final TimingWheel[] wheels;
+    private final AtomicInteger nextWheel = new AtomicInteger();
     private final boolean useJrtWatcher;
 
     private final Map<ApplicationId, MetricUpdater> metrics = new ConcurrentHashMap<>();
@@ -52,11 +54,9 @@ public class DelayedConfigResponses {
     // Since JRT does not allow adding watcher for "fake" requests, we must be able to disable it for unit tests :(
     DelayedConfigResponses(RpcServer rpcServer, int numTimerThreads, boolean useJrtWatcher) {
         this.rpcServer = rpcServer;
-        ScheduledThreadPoolExecutor executor =
-                new ScheduledThreadPoolExecutor(numTimerThreads,
-                                                ThreadFactoryFactory.getDaemonThreadFactory("delayed config responses"));
-        executor.setRemoveOnCancelPolicy(true);
-        this.executorService = executor;
+        this.wheels = new TimingWheel[Math.max(1, numTimerThreads)];
+        for (int i = 0; i < wheels.length; i++)
+            wheels[i] = new TimingWheel("delayed config responses " + i, tickMillis, slotsPerWheel);
         this.useJrtWatcher = useJrtWatcher;
     }
 
@@ -69,15 +69,16 @@ public class DelayedConfigResponses {
     }
 
     /**
-     * The run method of this class is run by a Timer when the timeout expires.
-     * The timer associated with this response must be cancelled first.
+     * The run method of this class is run by a timing wheel when the timeout expires.
+     * The timeout associated with this response must be cancelled first.
      */
     class DelayedConfigResponse implements Runnable, TargetWatcher {
 
         final JRTServerConfigRequest request;
         private final BlockingQueue<DelayedConfigResponse> delayedResponsesQueue;
         private final ApplicationId app;
-        private ScheduledFuture<?> future;
+        private TimingWheel wheel;
+        private TimingWheel.Timeout timeout;
 
         DelayedConfigResponse(JRTServerConfigRequest req, BlockingQueue<DelayedConfigResponse> delayedResponsesQueue, ApplicationId app) {
             this.request = req;
@@ -124,15 +125,16 @@ public class DelayedConfigResponses {
 
         synchronized boolean cancel() {
             removeWatcher();
-            if (future == null) {
+            if (timeout == null) {
                 throw new IllegalStateException("Cannot cancel a task that has not been scheduled");
             }
-            return future.cancel(false);
+            return wheel.cancel(timeout);
         }
 
-        synchronized void schedule(long delay) throws InterruptedException {
+        synchronized void schedule(TimingWheel wheel, long delay) throws InterruptedException {
             delayedResponsesQueue.put(this);
-            future = executorService.schedule(this, delay, TimeUnit.MILLISECONDS);
+            this.wheel = wheel;
+            timeout = wheel.schedule(this, delay);
             addWatcher();
         }
 
@@ -184,7 +186,7 @@ public class DelayedConfigResponses {
                 }
                 // Config will be resolved in the run() method of DelayedConfigResponse,
                 // when the timer expires or config is updated/reloaded.
-                response.schedule(Math.max(0, request.getTimeout()));
+                response.schedule(nextWheel(), Math.max(0, request.getTimeout()));
                 metricDelayedResponses(context.applicationId(), delayedResponsesQueue.size());
             } catch (InterruptedException e) {
                 log.log(Level.WARNING, context.logPre()+"Interrupted when putting on delayed requests queue.");
@@ -205,8 +207,13 @@ public class DelayedConfigResponses {
         }
     }
 
+    private TimingWheel nextWheel() {
+        return wheels[Math.floorMod(nextWheel.getAndIncrement(), wheels.length)];
+    }
+
     void stop() {
-        executorService.shutdown();
+        for (TimingWheel wheel : wheels)
+            wheel.stop();
     }
 
     /**
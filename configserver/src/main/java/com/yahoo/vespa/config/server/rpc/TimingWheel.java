@@ -0,0 +1,131 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.config.server.rpc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A hashed timing wheel: a ring of slots, each holding the tasks which expire in a tick of it, advanced by a
+ * single thread. Scheduling and cancelling a task is constant time, and does not create a timer entry per task,
+ * which matters when every subscriber of every application has a task scheduled. Tasks are run by the thread
+ * of the wheel, at the first tick at or after they expire, so they should be short.
+ */
+class TimingWheel {
+
+    private static final Logger log = Logger.getLogger(TimingWheel.class.getName());
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final List<Set<Timeout>> slots;
+    private final Thread thread;
+
+    /** The next tick to process, guarded by slots */
+    private long nextTick = 0;
+    private volatile boolean running = true;
+
+    /**
+     * Creates and starts a timing wheel.
+     *
+     * @param name the name of the thread of this
+     * @param tickMillis the granularity of this
+     * @param slotCount the number of ticks in a turn of this wheel. Tasks expiring further out are kept
+     *                  in the slot of their tick, and passed over until the turn in which they expire
+     */
+    TimingWheel(String name, long tickMillis, int slotCount) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.startNanos = System.nanoTime();
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++)
+            slots.add(new HashSet<>());
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Schedules the given task to run after the given delay, and returns the timeout to use to cancel it */
+    Timeout schedule(Runnable task, long delayMillis) {
+        long expiryNanos = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        long expiryTick = (expiryNanos + tickNanos - 1) / tickNanos;
+        synchronized (slots) {
+            Timeout timeout = new Timeout(task, Math.max(nextTick, expiryTick));
+            slotOf(timeout.tick).add(timeout);
+            return timeout;
+        }
+    }
+
+    /** Cancels the given timeout. Returns true if it was cancelled, false if its task has already been run */
+    boolean cancel(Timeout timeout) {
+        synchronized (slots) {
+            return slotOf(timeout.tick).remove(timeout);
+        }
+    }
+
+    /** Returns the number of tasks scheduled in this */
+    int size() {
+        synchronized (slots) {
+            return slots.stream().mapToInt(Set::size).sum();
+        }
+    }
+
+    /** Stops this. Tasks which have not yet expired will not be run */
+    void stop() {
+        running = false;
+        thread.interrupt();
+    }
+
+    private Set<Timeout> slotOf(long tick) {
+        return slots.get((int) (tick % slots.size()));
+    }
+
+    private void run() {
+        while (running) {
+            List<Timeout> expired = new ArrayList<>();
+            synchronized (slots) {
+                long currentTick = (System.nanoTime() - startNanos) / tickNanos;
+                for ( ; nextTick <= currentTick; nextTick++) {
+                    for (Iterator<Timeout> it = slotOf(nextTick).iterator(); it.hasNext(); ) {
+                        Timeout timeout = it.next();
+                        if (timeout.tick <= nextTick) {
+                            it.remove();
+                            expired.add(timeout);
+                        }
+                    }
+                }
+            }
+            for (Timeout timeout : expired) {
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    log.log(Level.WARNING, "Failed running " + timeout.task, e);
+                }
+            }
+            try {
+                long untilNextTick = startNanos + nextTick * tickNanos - System.nanoTime();
+                if (untilNextTick > 0)
+                    TimeUnit.NANOSECONDS.sleep(untilNextTick);
+            } catch (InterruptedException e) {
+                // Stopped, or spurious; check running
+            }
+        }
+    }
+
+    /** A task scheduled in this */
+    static class Timeout {
+
+        private final Runnable task;
+        private final long tick;
+
+        private Timeout(Runnable task, long tick) {
+            this.task = task;
+            this.tick = tick;
+        }
+
+    }
+
+}
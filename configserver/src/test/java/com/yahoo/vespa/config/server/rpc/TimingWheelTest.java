@@ -0,0 +1,55 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.config.server.rpc;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelTest {
+
+    @Test
+    public void tasksAreRunWhenTheyExpire() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel("test wheel", 1, 8);
+        try {
+            CountDownLatch latch = new CountDownLatch(3);
+            long start = System.nanoTime();
+            wheel.schedule(latch::countDown, 0);
+            wheel.schedule(latch::countDown, 5);
+            wheel.schedule(latch::countDown, 50); // More than one turn of the wheel
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+            assertEquals(0, wheel.size());
+        }
+        finally {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    public void cancelledTasksAreNotRun() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel("test wheel", 1, 8);
+        try {
+            AtomicInteger cancelledRuns = new AtomicInteger();
+            TimingWheel.Timeout cancelled = wheel.schedule(cancelledRuns::incrementAndGet, 20);
+            assertEquals(1, wheel.size());
+            assertTrue(wheel.cancel(cancelled));
+            assertEquals(0, wheel.size());
+
+            CountDownLatch latch = new CountDownLatch(1);
+            TimingWheel.Timeout run = wheel.schedule(latch::countDown, 40);
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertFalse("Already run", wheel.cancel(run));
+            assertEquals(0, cancelledRuns.get());
+        }
+        finally {
+            wheel.stop();
+        }
+    }
+
+}
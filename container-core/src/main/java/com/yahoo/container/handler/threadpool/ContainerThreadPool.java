@@ -12,6 +12,9 @@ public interface ContainerThreadPool extends AutoCloseable {
 
     Executor executor();
 
+    /** Returns the max number of tasks which may execute concurrently in the executor of this, or Integer.MAX_VALUE if unbounded */
+    default int maxConcurrentTasks() { return Integer.MAX_VALUE; }
+
     default void close() {}
 
 }
@@ -11,7 +11,9 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 
 /**
  * Default implementation of {@link DefaultContainerThreadpool}.
@@ -23,6 +25,8 @@ import java.util.concurrent.TimeUnit;
  */
 public class DefaultContainerThreadpool extends AbstractComponent implements AutoCloseable, ContainerThreadPool {
 
+    private static final Logger log = Logger.getLogger(DefaultContainerThreadpool.class.getName());
+
     private final ExecutorServiceWrapper threadpool;
 
     @Inject
@@ -32,6 +36,16 @@ public class DefaultContainerThreadpool extends AbstractComponent implements Aut
 
     public DefaultContainerThreadpool(ContainerThreadpoolConfig config, Metric metric, ProcessTerminator processTerminator) {
         ThreadPoolMetric threadPoolMetric = new ThreadPoolMetric(metric, config.name());
+        WorkerCompletionTimingThreadPoolExecutor executor = config.virtualThreads()
+                ? createVirtualThreadExecutor(config, threadPoolMetric)
+                : createPlatformThreadExecutor(config, threadPoolMetric);
+        threadpool = new ExecutorServiceWrapper(
+                executor, threadPoolMetric, processTerminator, config.maxThreadExecutionTimeSeconds() * 1000L,
+                config.name(), config.queueSize());
+    }
+
+    private static WorkerCompletionTimingThreadPoolExecutor createPlatformThreadExecutor(ContainerThreadpoolConfig config,
+                                                                                         ThreadPoolMetric threadPoolMetric) {
         int maxNumThreads = computeMaximumThreadPoolSize(config.maxThreads());
         int coreNumThreads = computeCoreThreadPoolSize(config.minThreads(), maxNumThreads);
         WorkerCompletionTimingThreadPoolExecutor executor =
@@ -44,12 +58,34 @@ public class DefaultContainerThreadpool extends AbstractComponent implements Aut
         // get the dreaded thread locals initialized even if they will never run.
         // That counters what we we want to achieve with the Q that will prefer thread locality.
         executor.prestartAllCoreThreads();
-        threadpool = new ExecutorServiceWrapper(
-                executor, threadPoolMetric, processTerminator, config.maxThreadExecutionTimeSeconds() * 1000L,
-                config.name(), config.queueSize());
+        return executor;
+    }
+
+    /**
+     * Creates an executor which starts a new virtual thread for each task submitted while fewer than the max number
+     * of tasks are executing, and which queues or rejects tasks otherwise. As all threads are core threads,
+     * the maximum pool size, used for capacity checks, is the max number of concurrently executing tasks.
+     */
+    private static WorkerCompletionTimingThreadPoolExecutor createVirtualThreadExecutor(ContainerThreadpoolConfig config,
+                                                                                        ThreadPoolMetric threadPoolMetric) {
+        int maxConcurrentTasks = computeMaximumConcurrentTasks(config.maxThreads());
+        ThreadFactory threadFactory = VirtualThreads.factory(config.name()).orElseGet(() -> {
+            log.warning("Virtual threads are not available in this JVM: Using platform threads in thread pool '" +
+                        config.name() + "'");
+            return ThreadFactoryFactory.getThreadFactory(config.name());
+        });
+        WorkerCompletionTimingThreadPoolExecutor executor =
+                new WorkerCompletionTimingThreadPoolExecutor(maxConcurrentTasks, maxConcurrentTasks,
+                        Math.max(1, (long)(config.keepAliveTime() * 1000)), TimeUnit.MILLISECONDS,
+                        createQ(config.queueSize(), maxConcurrentTasks),
+                        threadFactory,
+                        threadPoolMetric);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     @Override public Executor executor() { return threadpool; }
+    @Override public int maxConcurrentTasks() { return threadpool.maxConcurrentTasks(); }
     @Override public void close() { closeInternal(); }
     @Override public void deconstruct() { closeInternal(); super.deconstruct(); }
 
@@ -86,6 +122,12 @@ public class DefaultContainerThreadpool extends AbstractComponent implements Aut
                 : maxNumThreads;
     }
 
+    private static int computeMaximumConcurrentTasks(int maxConcurrentTasks) {
+        return (maxConcurrentTasks <= 0)
+                ? Runtime.getRuntime().availableProcessors() * 64
+                : maxConcurrentTasks;
+    }
+
     private static int computeCoreThreadPoolSize(int corePoolSize, int maxNumThreads) {
         return Math.min(
                 corePoolSize <= 0 ? Runtime.getRuntime().availableProcessors() * 2 : corePoolSize,
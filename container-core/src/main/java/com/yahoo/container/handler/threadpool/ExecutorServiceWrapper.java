@@ -84,6 +84,9 @@ class ExecutorServiceWrapper extends ForwardingExecutorService {
         }
     }
 
+    /** Returns the max number of tasks which may execute concurrently in the wrapped executor */
+    int maxConcurrentTasks() { return wrapped.getMaximumPoolSize(); }
+
     @Override
     protected ExecutorService delegate() { return wrapped; }
 
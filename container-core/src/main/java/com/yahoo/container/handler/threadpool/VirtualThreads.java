@@ -0,0 +1,29 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.handler.threadpool;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates factories of virtual threads, when the JVM we are running on provides them.
+ * These are looked up reflectively as this is compiled for a release without virtual threads.
+ * Package private for testing
+ */
+class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    /** Returns a factory of virtual threads named by the given prefix, or empty if the JVM has no virtual threads */
+    static Optional<ThreadFactory> factory(String name) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-virtual-", 0L);
+            return Optional.of((ThreadFactory) builderClass.getMethod("factory").invoke(builder));
+        }
+        catch (ReflectiveOperationException | RuntimeException e) { // Missing, or a preview feature which is not enabled
+            return Optional.empty();
+        }
+    }
+
+}
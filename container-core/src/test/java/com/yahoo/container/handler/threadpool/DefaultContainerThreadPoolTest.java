@@ -9,11 +9,14 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 /**
@@ -55,7 +58,11 @@ public class DefaultContainerThreadPoolTest {
     }
 
     private ThreadPoolExecutor createPool(int maxThreads, int queueSize) {
-        ContainerThreadpoolConfig config = new ContainerThreadpoolConfig(new ContainerThreadpoolConfig.Builder().maxThreads(maxThreads).queueSize(queueSize));
+        return createPool(new ContainerThreadpoolConfig.Builder().maxThreads(maxThreads).queueSize(queueSize));
+    }
+
+    private ThreadPoolExecutor createPool(ContainerThreadpoolConfig.Builder builder) {
+        ContainerThreadpoolConfig config = new ContainerThreadpoolConfig(builder);
         ContainerThreadPool threadPool = new DefaultContainerThreadpool(config, Mockito.mock(Metric.class));
         ExecutorServiceWrapper wrapper = (ExecutorServiceWrapper) threadPool.executor();
         WorkerCompletionTimingThreadPoolExecutor executor = (WorkerCompletionTimingThreadPoolExecutor)wrapper.delegate();
@@ -87,6 +94,44 @@ public class DefaultContainerThreadPoolTest {
         assertEquals(executor.getMaximumPoolSize()*4, executor.getQueue().remainingCapacity());
     }
 
+    @Test
+    public void testThatVirtualThreadPoolLimitsConcurrentTasks() throws InterruptedException {
+        ContainerThreadpoolConfig config = new ContainerThreadpoolConfig(
+                new ContainerThreadpoolConfig.Builder().virtualThreads(true).maxThreads(2).queueSize(1));
+        ContainerThreadPool threadPool = new DefaultContainerThreadpool(config, Mockito.mock(Metric.class));
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ((ExecutorServiceWrapper) threadPool.executor()).delegate();
+        assertEquals(2, executor.getMaximumPoolSize());
+        assertEquals(2, threadPool.maxConcurrentTasks());
+        assertEquals(0, executor.getPoolSize());
+
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocking = () -> {
+            started.countDown();
+            try { release.await(); } catch (InterruptedException e) { }
+        };
+        threadPool.executor().execute(blocking);
+        threadPool.executor().execute(blocking);
+        assertTrue("A thread is started for each task up to the limit", started.await(60, TimeUnit.SECONDS));
+        FlipIt queued = new FlipIt();
+        threadPool.executor().execute(queued);
+        assertEquals(1, executor.getQueue().size());
+        assertRejected(threadPool, new FlipIt());
+
+        release.countDown();
+        assertEquals(Receiver.MessageState.VALID, queued.didItRun.get(60 * 1000).first);
+        threadPool.close();
+    }
+
+    @Test
+    public void testThatVirtualThreadPoolSizeAutoDetected() {
+        ThreadPoolExecutor executor = createPool(new ContainerThreadpoolConfig.Builder().virtualThreads(true).queueSize(-1));
+        assertEquals(Runtime.getRuntime().availableProcessors()*64, executor.getMaximumPoolSize());
+        assertEquals(executor.getMaximumPoolSize(), executor.getCorePoolSize());
+        assertEquals(executor.getMaximumPoolSize()*4, executor.getQueue().remainingCapacity());
+        assertTrue(executor.allowsCoreThreadTimeOut());
+    }
+
     private class FlipIt implements Runnable {
         public final Receiver<Boolean> didItRun = new Receiver<>();
 
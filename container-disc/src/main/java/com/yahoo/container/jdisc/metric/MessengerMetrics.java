@@ -0,0 +1,34 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.jdisc.metric;
+
+import com.yahoo.jdisc.Metric;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Emits the queue size of each messenger thread of message bus
+ */
+class MessengerMetrics {
+
+    static final String QUEUE_SIZE = "mbus.messenger.queue_size";
+    static final String DIMENSION_KEY = "thread";
+
+    private final Metric metric;
+    private final Supplier<List<Integer>> queueSizes;
+
+    MessengerMetrics(Metric metric, Supplier<List<Integer>> queueSizes) {
+        this.metric = metric;
+        this.queueSizes = queueSizes;
+    }
+
+    void emitMetrics() {
+        List<Integer> sizes = queueSizes.get();
+        for (int thread = 0; thread < sizes.size(); ++thread) {
+            Metric.Context context = metric.createContext(Map.of(DIMENSION_KEY, String.valueOf(thread)));
+            metric.set(QUEUE_SIZE, sizes.get(thread), context);
+        }
+    }
+
+}
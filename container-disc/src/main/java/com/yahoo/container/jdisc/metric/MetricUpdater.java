@@ -3,6 +3,7 @@ package com.yahoo.container.jdisc.metric;
 
 import com.google.inject.Inject;
 import com.yahoo.component.AbstractComponent;
+import com.yahoo.container.jdisc.messagebus.SessionCache;
 import com.yahoo.jdisc.Metric;
 import com.yahoo.jdisc.statistics.ContainerWatchdogMetrics;
 
@@ -12,8 +13,10 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Clock;
 import java.time.Duration;
+import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.function.Supplier;
 
 /**
  * Uses a timer to emit metrics
@@ -33,13 +36,14 @@ public class MetricUpdater extends AbstractComponent {
     private final Scheduler scheduler;
 
     @Inject
-    public MetricUpdater(Metric metric, ContainerWatchdogMetrics containerWatchdogMetrics) {
-        this(new TimerScheduler(), metric, containerWatchdogMetrics);
+    public MetricUpdater(Metric metric, ContainerWatchdogMetrics containerWatchdogMetrics, SessionCache sessionCache) {
+        this(new TimerScheduler(), metric, containerWatchdogMetrics, sessionCache::getMessengerQueueSizes);
     }
 
-    MetricUpdater(Scheduler scheduler, Metric metric, ContainerWatchdogMetrics containerWatchdogMetrics) {
+    MetricUpdater(Scheduler scheduler, Metric metric, ContainerWatchdogMetrics containerWatchdogMetrics,
+                  Supplier<List<Integer>> messengerQueueSizes) {
         this.scheduler = scheduler;
-        scheduler.schedule(new UpdaterTask(metric, containerWatchdogMetrics), Duration.ofSeconds(10));
+        scheduler.schedule(new UpdaterTask(metric, containerWatchdogMetrics, messengerQueueSizes), Duration.ofSeconds(10));
     }
 
     @Override
@@ -89,12 +93,15 @@ public class MetricUpdater extends AbstractComponent {
         private final ContainerWatchdogMetrics containerWatchdogMetrics;
         private final GarbageCollectionMetrics garbageCollectionMetrics;
         private final JrtMetrics jrtMetrics;
+        private final MessengerMetrics messengerMetrics;
 
-        public UpdaterTask(Metric metric, ContainerWatchdogMetrics containerWatchdogMetrics) {
+        public UpdaterTask(Metric metric, ContainerWatchdogMetrics containerWatchdogMetrics,
+                           Supplier<List<Integer>> messengerQueueSizes) {
             this.metric = metric;
             this.containerWatchdogMetrics = containerWatchdogMetrics;
             this.garbageCollectionMetrics = new GarbageCollectionMetrics(Clock.systemUTC());
             this.jrtMetrics = new JrtMetrics(metric);
+            this.messengerMetrics = new MessengerMetrics(metric, messengerQueueSizes);
         }
 
         @Override
@@ -111,6 +118,7 @@ public class MetricUpdater extends AbstractComponent {
             containerWatchdogMetrics.emitMetrics(metric);
             garbageCollectionMetrics.emitMetrics(metric);
             jrtMetrics.emitMetrics();
+            messengerMetrics.emitMetrics();
         }
     }
 
@@ -7,9 +7,11 @@ import org.junit.Test;
 
 import java.lang.management.ManagementFactory;
 import java.time.Duration;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -25,9 +27,11 @@ public class MetricUpdaterTest {
 
         Metric metric = mock(Metric.class);
         ContainerWatchdogMetrics containerWatchdogMetrics = mock(ContainerWatchdogMetrics.class);
-        new MetricUpdater(new MockScheduler(), metric, containerWatchdogMetrics);
+        new MetricUpdater(new MockScheduler(), metric, containerWatchdogMetrics, () -> List.of(3, 0));
         verify(containerWatchdogMetrics, times(1)).emitMetrics(any());
-        verify(metric, times(5 + 2 * gcCount)).set(anyString(), any(), any());
+        verify(metric, times(5 + 2 * gcCount + 2)).set(anyString(), any(), any());
+        verify(metric, times(1)).set(eq("mbus.messenger.queue_size"), eq(3), any());
+        verify(metric, times(1)).set(eq("mbus.messenger.queue_size"), eq(0), any());
     }
 
     private static class MockScheduler implements MetricUpdater.Scheduler {
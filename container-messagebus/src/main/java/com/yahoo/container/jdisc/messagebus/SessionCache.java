@@ -13,6 +13,7 @@ import com.yahoo.jdisc.References;
 import com.yahoo.jdisc.ResourceReference;
 import com.yahoo.jdisc.SharedResource;
 import java.util.logging.Level;
+import com.yahoo.messagebus.BandwidthDelayThrottlePolicy;
 import com.yahoo.messagebus.ConfigAgent;
 import com.yahoo.messagebus.DynamicThrottlePolicy;
 import com.yahoo.messagebus.IntermediateSessionParams;
@@ -28,7 +29,9 @@ import com.yahoo.messagebus.shared.SharedMessageBus;
 import com.yahoo.messagebus.shared.SharedSourceSession;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.logging.Logger;
 
 /**
@@ -116,6 +119,7 @@ public final class SessionCache extends AbstractComponent {
 
         mbusParams.setMaxPendingCount(mbusConfig.maxpendingcount());
         mbusParams.setMaxPendingSize(maxPendingSize);
+        mbusParams.setNumMessengerThreads(mbusConfig.nummessengerthreads());
 
         RPCNetworkParams netParams = new RPCNetworkParams()
                 .setSlobrokConfigId(slobrokConfigId)
@@ -141,6 +145,13 @@ public final class SessionCache extends AbstractComponent {
                 (((double) (maxPendingSize / 1024L)) / 1024.0d) + " pending megabytes."));
     }
 
+    /** Returns the number of tasks queued in each messenger thread, or an empty list if message bus is not started */
+    public List<Integer> getMessengerQueueSizes() {
+        synchronized (this) {
+            return isStarted() ? messageBus.messageBus().getMessengerQueueSizes() : List.of();
+        }
+    }
+
     ReferencedResource<SharedIntermediateSession> retainIntermediate(final IntermediateSessionParams p) {
         synchronized (this) {
             if (!isStarted()) {
@@ -351,6 +362,39 @@ public final class SessionCache extends AbstractComponent {
 
     }
 
+    static class BandwidthDelayThrottlePolicySignature extends ThrottlePolicySignature {
+
+        private final long maxPendingSize;
+        private final double maxWindowSize;
+        private final double minWindowSize;
+
+        BandwidthDelayThrottlePolicySignature(BandwidthDelayThrottlePolicy policy) {
+            maxPendingSize = policy.getMaxPendingSize();
+            maxWindowSize = policy.getMaxWindowSize();
+            minWindowSize = policy.getMinWindowSize();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(super.hashCode(), maxPendingSize, maxWindowSize, minWindowSize);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            BandwidthDelayThrottlePolicySignature other = (BandwidthDelayThrottlePolicySignature) obj;
+            return maxPendingSize == other.maxPendingSize
+                   && Double.compare(maxWindowSize, other.maxWindowSize) == 0
+                   && Double.compare(minWindowSize, other.minWindowSize) == 0;
+        }
+
+    }
+
     static class UnknownThrottlePolicySignature extends ThrottlePolicySignature {
         private final ThrottlePolicy policy;
 
@@ -384,6 +428,8 @@ public final class SessionCache extends AbstractComponent {
             Class<?> policyClass = policy.getClass();
             if (policyClass == DynamicThrottlePolicy.class) {
                 return new DynamicThrottlePolicySignature((DynamicThrottlePolicy) policy);
+            } else if (policyClass == BandwidthDelayThrottlePolicy.class) {
+                return new BandwidthDelayThrottlePolicySignature((BandwidthDelayThrottlePolicy) policy);
             } else if (policyClass == StaticThrottlePolicy.class) {
                 return new StaticThrottlePolicySignature((StaticThrottlePolicy) policy);
             } else {
@@ -6,6 +6,7 @@ import com.yahoo.container.jdisc.messagebus.MbusClientProvider;
 import com.yahoo.container.jdisc.messagebus.SessionCache;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 /**
@@ -30,8 +31,10 @@ public class MbusClientProviderTest {
     }
 
     private void testClient(SessionConfig config) {
-        MbusClientProvider p = new MbusClientProvider(new SessionCache("dir:src/test/resources/config/clientprovider"), config);
+        SessionCache sessionCache = new SessionCache("dir:src/test/resources/config/clientprovider");
+        MbusClientProvider p = new MbusClientProvider(sessionCache, config);
         assertNotNull(p.get());
+        assertEquals(2, sessionCache.getMessengerQueueSizes().size());
         p.deconstruct();
     }
 }
@@ -1,10 +1,12 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.container.jdisc.messagebus;
 
+import com.yahoo.container.jdisc.messagebus.SessionCache.BandwidthDelayThrottlePolicySignature;
 import com.yahoo.container.jdisc.messagebus.SessionCache.DynamicThrottlePolicySignature;
 import com.yahoo.container.jdisc.messagebus.SessionCache.SourceSessionKey;
 import com.yahoo.container.jdisc.messagebus.SessionCache.StaticThrottlePolicySignature;
 import com.yahoo.container.jdisc.messagebus.SessionCache.UnknownThrottlePolicySignature;
+import com.yahoo.messagebus.BandwidthDelayThrottlePolicy;
 import com.yahoo.messagebus.DynamicThrottlePolicy;
 import com.yahoo.messagebus.SourceSessionParams;
 import com.yahoo.messagebus.StaticThrottlePolicy;
@@ -79,6 +81,24 @@ public class MbusSessionKeyTestCase {
                 sigBase.equals(new DynamicThrottlePolicySignature(other)));
     }
 
+    @Test
+    public final void bandwidthDelayThrottlePolicySignature() {
+        BandwidthDelayThrottlePolicy base = new BandwidthDelayThrottlePolicy();
+        BandwidthDelayThrottlePolicy other = new BandwidthDelayThrottlePolicy();
+        base.setMaxWindowSize(1000).setMinWindowSize(10).setMaxPendingSize(3 * 100);
+        other.setMaxWindowSize(1000 + 1).setMinWindowSize(10 + 1).setMaxPendingSize(3 * 100 + 1);
+        BandwidthDelayThrottlePolicySignature sigBase = new BandwidthDelayThrottlePolicySignature(base);
+        BandwidthDelayThrottlePolicySignature sigOther = new BandwidthDelayThrottlePolicySignature(other);
+        assertFalse("The policies are different, but signatures are equal.", sigBase.equals(sigOther));
+        assertTrue("Sigs created from same policy evaluated as different.",
+                sigBase.equals(new BandwidthDelayThrottlePolicySignature(base)));
+        other.setMaxWindowSize(1000).setMinWindowSize(10).setMaxPendingSize(3 * 100);
+        assertTrue("Sigs created from different policies with same settings evaluated as different.",
+                sigBase.equals(new BandwidthDelayThrottlePolicySignature(other)));
+        assertEquals(new SourceSessionKey(new SourceSessionParams().setThrottlePolicy(base)),
+                     new SourceSessionKey(new SourceSessionParams().setThrottlePolicy(other)));
+    }
+
     @Test
     public final void unknownThrottlePolicySignature() {
         final UnknownThrottlePolicySignature baseSig = new UnknownThrottlePolicySignature(new StaticThrottlePolicy());
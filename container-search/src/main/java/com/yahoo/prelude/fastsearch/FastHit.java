@@ -10,6 +10,7 @@ import com.yahoo.search.result.Hit;
 import com.yahoo.search.result.Relevance;
 import com.yahoo.data.access.Inspector;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -565,8 +566,9 @@ public class FastHit extends Hit {
                     DocsumField fieldType = type.getField(name);
                     if (fieldType != null) {
                         if (fieldType.isString()) {
-                            byte[] utf8Value = value.asUtf8();
-                            consumer.accept(name, utf8Value, 0, utf8Value.length);
+                            ByteBuffer utf8Value = value.asUtf8Array().wrap();
+                            consumer.accept(name, utf8Value.array(), utf8Value.arrayOffset() + utf8Value.position(),
+                                            utf8Value.remaining());
                         } else {
                             Object convertedValue = fieldType.convert(value);
                             if (convertedValue != null)
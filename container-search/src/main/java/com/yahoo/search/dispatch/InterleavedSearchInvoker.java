@@ -18,6 +18,7 @@ import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -103,7 +104,7 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
     @Override
     protected InvokerResult getSearchResult(Execution execution) throws IOException {
         InvokerResult result = new InvokerResult(query, query.getHits());
-        List<LeanHit> merged = Collections.emptyList();
+        List<List<LeanHit>> partialHits = new ArrayList<>(invokers.size());
         long nextTimeout = query.getTimeLeft();
         try {
             while (!invokers.isEmpty() && nextTimeout >= 0) {
@@ -112,7 +113,7 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
                     log.fine(() -> "Search timed out with " + askedNodes + " requests made, " + answeredNodes + " responses received");
                     break;
                 } else {
-                    merged = mergeResult(result.getResult(), invoker.getSearchResult(execution), merged);
+                    mergeResult(result.getResult(), invoker.getSearchResult(execution), partialHits);
                     ejectInvoker(invoker);
                 }
                 nextTimeout = nextTimeout();
@@ -124,6 +125,7 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
         insertNetworkErrors(result.getResult());
         result.getResult().setCoverage(createCoverage());
         int needed = query.getOffset() + query.getHits();
+        List<LeanHit> merged = mergeLeanHits(partialHits, needed);
         for (int index = query.getOffset(); (index < merged.size()) && (index < needed); index++) {
             result.getLeanHits().add(merged.get(index));
         }
@@ -197,7 +199,7 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
         return nextAdaptive;
     }
 
-    private List<LeanHit> mergeResult(Result result, InvokerResult partialResult, List<LeanHit> current) {
+    private void mergeResult(Result result, InvokerResult partialResult, List<List<LeanHit>> partialHits) {
         collectCoverage(partialResult.getResult().getCoverage(true));
 
         result.mergeWith(partialResult.getResult());
@@ -207,44 +209,60 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
                 result.hits().add(hit);
             }
         }
-        if (current.isEmpty() ) {
-            return partialResult.getLeanHits();
-        }
-        List<LeanHit> partial = partialResult.getLeanHits();
-        if (partial.isEmpty()) {
-            return current;
+        if ( ! partialResult.getLeanHits().isEmpty()) {
+            partialHits.add(partialResult.getLeanHits());
         }
+    }
 
-        int needed = query.getOffset() + query.getHits();
+    /**
+     * Merges the given individually sorted hit lists into a single sorted list of at most the needed
+     * number of hits, by a k-way merge over a heap holding the current head of each list.
+     * Duplicate hits are only included once.
+     */
+    static List<LeanHit> mergeLeanHits(List<List<LeanHit>> partialHits, int needed) {
+        if (partialHits.isEmpty()) return Collections.emptyList();
+        if (partialHits.size() == 1) return partialHits.get(0);
+
+        PriorityQueue<HitCursor> heads = new PriorityQueue<>(partialHits.size());
+        for (List<LeanHit> hits : partialHits) {
+            heads.add(new HitCursor(hits));
+        }
         List<LeanHit> merged = new ArrayList<>(needed);
-        int indexCurrent = 0;
-        int indexPartial = 0;
-        while (indexCurrent < current.size() && indexPartial < partial.size() && merged.size() < needed) {
-            LeanHit incommingHit = partial.get(indexPartial);
-            LeanHit currentHit = current.get(indexCurrent);
-
-            int cmpRes = currentHit.compareTo(incommingHit);
-            if (cmpRes < 0) {
-                merged.add(currentHit);
-                indexCurrent++;
-            } else if (cmpRes > 0) {
-                merged.add(incommingHit);
-                indexPartial++;
-            } else { // Duplicates
-                merged.add(currentHit);
-                indexCurrent++;
-                indexPartial++;
+        LeanHit previous = null;
+        while ( ! heads.isEmpty() && merged.size() < needed) {
+            HitCursor head = heads.poll();
+            LeanHit hit = head.current();
+            if (previous == null || previous.compareTo(hit) != 0) {
+                merged.add(hit);
+                previous = hit;
+            }
+            if (head.advance()) {
+                heads.add(head);
             }
-        }
-        while ((indexCurrent < current.size()) && (merged.size() < needed)) {
-            merged.add(current.get(indexCurrent++));
-        }
-        while ((indexPartial < partial.size()) && (merged.size() < needed)) {
-            merged.add(partial.get(indexPartial++));
         }
         return merged;
     }
 
+    /** A position in a sorted list of hits, ordered by the hit at that position */
+    private static class HitCursor implements Comparable<HitCursor> {
+
+        private final List<LeanHit> hits;
+        private int index = 0;
+
+        HitCursor(List<LeanHit> hits) {
+            this.hits = hits;
+        }
+
+        LeanHit current() { return hits.get(index); }
+
+        /** Moves to the next hit, and returns whether there is one */
+        boolean advance() { return ++index < hits.size(); }
+
+        @Override
+        public int compareTo(HitCursor other) { return current().compareTo(other.current()); }
+
+    }
+
     private void collectCoverage(Coverage source) {
         answeredDocs += source.getDocs();
         answeredActiveDocs += source.getActive();
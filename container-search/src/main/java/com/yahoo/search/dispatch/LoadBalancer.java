@@ -9,12 +9,19 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleSupplier;
 import java.util.logging.Logger;
 
 /**
  * LoadBalancer determines which group of content nodes should be accessed next for each search query when the internal java dispatcher is
  * used.
  *
+ * This class is multithread safe and lock-free: allocation counts are kept in atomic counters, and the latency statistics
+ * of each group are published as immutable snapshots, so concurrent queries never wait on each other to select a group.
+ *
  * @author ollivir
  */
 public class LoadBalancer {
@@ -38,7 +45,7 @@ public class LoadBalancer {
         if (roundRobin || scoreboard.size() == 1) {
             this.scheduler = new RoundRobinScheduler(scoreboard);
         } else {
-            this.scheduler = new AdaptiveScheduler(new Random(), scoreboard);
+            this.scheduler = new AdaptiveScheduler(scoreboard);
         }
     }
 
@@ -50,18 +57,16 @@ public class LoadBalancer {
      * @return the node group to target, or <i>empty</i> if the internal dispatch logic cannot be used
      */
     public Optional<Group> takeGroup(Set<Integer> rejectedGroups) {
-        synchronized (this) {
-            Optional<GroupStatus> best = scheduler.takeNextGroup(rejectedGroups);
-
-            if (best.isPresent()) {
-                GroupStatus gs = best.get();
-                gs.allocate();
-                Group ret = gs.group;
-                log.fine(() -> "Offering <" + ret + "> for query connection");
-                return Optional.of(ret);
-            } else {
-                return Optional.empty();
-            }
+        Optional<GroupStatus> best = scheduler.takeNextGroup(rejectedGroups);
+
+        if (best.isPresent()) {
+            GroupStatus gs = best.get();
+            gs.allocate();
+            Group ret = gs.group;
+            log.fine(() -> "Offering <" + ret + "> for query connection");
+            return Optional.of(ret);
+        } else {
+            return Optional.empty();
         }
     }
 
@@ -73,50 +78,53 @@ public class LoadBalancer {
      * @param searchTimeMs query execution time in milliseconds, used for adaptive load balancing
      */
     public void releaseGroup(Group group, boolean success, double searchTimeMs) {
-        synchronized (this) {
-            for (GroupStatus sched : scoreboard) {
-                if (sched.group.id() == group.id()) {
-                    sched.release(success, (double) searchTimeMs / 1000.0);
-                    break;
-                }
+        for (GroupStatus sched : scoreboard) {
+            if (sched.group.id() == group.id()) {
+                sched.release(success, searchTimeMs / 1000.0);
+                break;
             }
         }
     }
 
+    // For testing
+    GroupStatus groupStatus(int groupId) {
+        return scoreboard.stream().filter(gs -> gs.groupId() == groupId).findAny().orElseThrow();
+    }
+
     static class GroupStatus {
         private final Group group;
-        private int allocations = 0;
-        private long queries = 0;
-        private double averageSearchTime = INITIAL_QUERY_TIME;
+        private final AtomicInteger allocations = new AtomicInteger(0);
+        private final AtomicReference<SearchTimeStatistics> statistics =
+                new AtomicReference<>(new SearchTimeStatistics(0, INITIAL_QUERY_TIME));
 
         GroupStatus(Group group) {
             this.group = group;
         }
 
         void allocate() {
-            allocations++;
+            allocations.incrementAndGet();
         }
 
         void release(boolean success, double searchTime) {
-            allocations--;
-            if (allocations < 0) {
+            if (allocations.getAndUpdate(current -> Math.max(current - 1, 0)) <= 0) {
                 log.warning("Double free of query target group detected");
-                allocations = 0;
             }
             if (success) {
-                searchTime = Math.max(searchTime, MIN_QUERY_TIME);
-                double decayRate = Math.min(queries + MIN_LATENCY_DECAY_RATE, DEFAULT_LATENCY_DECAY_RATE);
-                averageSearchTime = (searchTime + (decayRate - 1) * averageSearchTime) / decayRate;
-                queries++;
+                double boundedSearchTime = Math.max(searchTime, MIN_QUERY_TIME);
+                statistics.updateAndGet(current -> current.withSearchTime(boundedSearchTime));
             }
         }
 
+        int allocations() {
+            return allocations.get();
+        }
+
         double averageSearchTime() {
-            return averageSearchTime;
+            return statistics.get().averageSearchTime;
         }
 
         double averageSearchTimeInverse() {
-            return 1.0 / averageSearchTime;
+            return 1.0 / averageSearchTime();
         }
 
         int groupId() {
@@ -124,9 +132,26 @@ public class LoadBalancer {
         }
 
         void setQueryStatistics(long queries, double averageSearchTime) {
+            statistics.set(new SearchTimeStatistics(queries, averageSearchTime));
+        }
+    }
+
+    /** An immutable snapshot of the query count and decayed average search time of a group */
+    private static class SearchTimeStatistics {
+
+        private final long queries;
+        private final double averageSearchTime;
+
+        SearchTimeStatistics(long queries, double averageSearchTime) {
             this.queries = queries;
             this.averageSearchTime = averageSearchTime;
         }
+
+        SearchTimeStatistics withSearchTime(double searchTime) {
+            double decayRate = Math.min(queries + MIN_LATENCY_DECAY_RATE, DEFAULT_LATENCY_DECAY_RATE);
+            return new SearchTimeStatistics(queries + 1, (searchTime + (decayRate - 1) * averageSearchTime) / decayRate);
+        }
+
     }
 
     private interface GroupScheduler {
@@ -135,7 +160,7 @@ public class LoadBalancer {
 
     private static class RoundRobinScheduler implements GroupScheduler {
 
-        private int needle = 0;
+        private final AtomicInteger needle = new AtomicInteger(0);
         private final List<GroupStatus> scoreboard;
 
         public RoundRobinScheduler(List<GroupStatus> scoreboard) {
@@ -145,9 +170,10 @@ public class LoadBalancer {
         @Override
         public Optional<GroupStatus> takeNextGroup(Set<Integer> rejectedGroups) {
             GroupStatus bestCandidate = null;
-            int bestIndex = needle;
+            int start = needle.get();
+            int bestIndex = start;
 
-            int index = needle;
+            int index = start;
             for (int i = 0; i < scoreboard.size(); i++) {
                 GroupStatus candidate = scoreboard.get(index);
                 if (rejectedGroups == null || !rejectedGroups.contains(candidate.group.id())) {
@@ -159,7 +185,8 @@ public class LoadBalancer {
                 }
                 index = nextScoreboardIndex(index);
             }
-            needle = nextScoreboardIndex(bestIndex);
+            // Racing updates may make concurrent queries start from the same needle, which only affects fairness marginally
+            needle.set(nextScoreboardIndex(bestIndex));
             return Optional.ofNullable(bestCandidate);
         }
 
@@ -206,21 +233,38 @@ public class LoadBalancer {
 
     static class AdaptiveScheduler implements GroupScheduler {
 
-        private final Random random;
+        private final DoubleSupplier random;
         private final List<GroupStatus> scoreboard;
 
+        /** Creates a scheduler which draws from the random generator of the calling thread */
+        public AdaptiveScheduler(List<GroupStatus> scoreboard) {
+            this(() -> ThreadLocalRandom.current().nextDouble(), scoreboard);
+        }
+
         public AdaptiveScheduler(Random random, List<GroupStatus> scoreboard) {
+            this(random::nextDouble, scoreboard);
+        }
+
+        private AdaptiveScheduler(DoubleSupplier random, List<GroupStatus> scoreboard) {
             this.random = random;
             this.scoreboard = scoreboard;
         }
 
+        /**
+         * Selects a group with probability proportional to its inverse average search time.
+         * Each group's statistics are read exactly once, so a consistent choice is made even when
+         * other threads publish new statistics concurrently.
+         */
         private Optional<GroupStatus> selectGroup(double needle, boolean requireCoverage, Set<Integer> rejected) {
+            double[] weights = new double[scoreboard.size()];
             double sum = 0;
             int n = 0;
-            for (GroupStatus gs : scoreboard) {
+            for (int i = 0; i < scoreboard.size(); i++) {
+                GroupStatus gs = scoreboard.get(i);
                 if (rejected == null || !rejected.contains(gs.group.id())) {
                     if (!requireCoverage || gs.group.hasSufficientCoverage()) {
-                        sum += gs.averageSearchTimeInverse();
+                        weights[i] = gs.averageSearchTimeInverse();
+                        sum += weights[i];
                         n++;
                     }
                 }
@@ -229,22 +273,22 @@ public class LoadBalancer {
                 return Optional.empty();
             }
             double accum = 0;
-            for (GroupStatus gs : scoreboard) {
-                if (rejected == null || !rejected.contains(gs.group.id())) {
-                    if (!requireCoverage || gs.group.hasSufficientCoverage()) {
-                        accum += gs.averageSearchTimeInverse();
-                        if (needle < accum / sum) {
-                            return Optional.of(gs);
-                        }
+            GroupStatus last = null;
+            for (int i = 0; i < scoreboard.size(); i++) {
+                if (weights[i] > 0) {
+                    last = scoreboard.get(i);
+                    accum += weights[i];
+                    if (needle < accum / sum) {
+                        return Optional.of(last);
                     }
                 }
             }
-            return Optional.empty(); // should not happen here
+            return Optional.ofNullable(last); // only on rounding errors
         }
 
         @Override
         public Optional<GroupStatus> takeNextGroup(Set<Integer> rejectedGroups) {
-            double needle = random.nextDouble();
+            double needle = random.getAsDouble();
             Optional<GroupStatus> gs = selectGroup(needle, true, rejectedGroups);
             if (gs.isPresent()) {
                 return gs;
@@ -26,7 +26,8 @@ class RpcClient implements Client {
     private final Supervisor supervisor;
 
     public RpcClient(String name, int transportThreads) {
-        supervisor = new Supervisor(new Transport(name, transportThreads));
+        supervisor = new Supervisor(new Transport(name, transportThreads).setPlaceConnectionsByLoad(true)
+                                                                         .setMigrateConnections(true));
     }
 
     @Override
@@ -2,7 +2,8 @@
 package com.yahoo.search.dispatch.rpc;
 
 import ai.vespa.searchlib.searchprotocol.protobuf.SearchProtocol;
-import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
 import com.yahoo.collections.ListMap;
 import com.yahoo.collections.Pair;
 import com.yahoo.compress.CompressionType;
@@ -20,8 +21,10 @@ import com.yahoo.search.dispatch.rpc.Client.ProtobufResponse;
 import com.yahoo.search.result.ErrorMessage;
 import com.yahoo.search.result.Hit;
 import com.yahoo.slime.ArrayTraverser;
-import com.yahoo.slime.BinaryFormat;
+import com.yahoo.slime.BinaryView;
+import com.yahoo.slime.Slime;
 
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -186,8 +189,7 @@ public class RpcProtobufFillInvoker extends FillInvoker {
 
     private int fill(Result result, List<FastHit> hits, String summaryClass, byte[] payload) {
         try {
-            var protobuf = SearchProtocol.DocsumReply.parseFrom(payload);
-            var root = BinaryFormat.decode(protobuf.getSlimeSummaries().toByteArray()).get();
+            var root = slimeSummaries(payload);
             var errors = root.field("errors");
             boolean hasErrors = errors.valid() && (errors.entries() > 0);
             if (hasErrors) {
@@ -210,13 +212,36 @@ public class RpcProtobufFillInvoker extends FillInvoker {
                 }
             }
             return skippedHits;
-        } catch (InvalidProtocolBufferException ex) {
+        } catch (IOException | IllegalArgumentException ex) {
             log.log(Level.WARNING, "Invalid response to docsum request", ex);
             result.hits().addError(ErrorMessage.createInternalServerError("Invalid response to docsum request from backend"));
             return 0;
         }
     }
 
+    /**
+     * Returns the slime summaries of the given DocsumReply protobuf payload. These are read from the payload
+     * when accessed, as most summary fields are never looked at, rather than being copied out of the parsed
+     * reply and decoded up front.
+     */
+    static com.yahoo.slime.Inspector slimeSummaries(byte[] payload) throws IOException {
+        CodedInputStream in = CodedInputStream.newInstance(payload);
+        int offset = 0;
+        int length = 0;
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            if (WireFormat.getTagFieldNumber(tag) == SearchProtocol.DocsumReply.SLIME_SUMMARIES_FIELD_NUMBER
+                && WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                length = in.readRawVarint32();
+                offset = in.getTotalBytesRead();
+                in.skipRawBytes(length);
+            } else if ( ! in.skipField(tag)) {
+                break;
+            }
+        }
+        if (length == 0) return new Slime().get(); // No summaries
+        return BinaryView.inspect(payload, offset, length);
+    }
+
     private void throwTimeout() throws TimeoutException {
         throw new TimeoutException("Timed out waiting for summary data. " + outstandingResponses + " responses outstanding.");
     }
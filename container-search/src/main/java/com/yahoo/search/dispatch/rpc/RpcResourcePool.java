@@ -26,7 +26,10 @@ import java.util.Random;
  * @author ollivir
  */
 public class RpcResourcePool extends AbstractComponent {
-    /** The compression method which will be used with rpc dispatch. "lz4" (default) and "none" is supported. */
+    /**
+     * The compression method which will be used with rpc dispatch. "lz4" (default), "zstd" and "none" is supported.
+     * With "zstd" the content nodes will also compress their replies to the protobuf search and docsum requests using zstd.
+     */
     public final static CompoundName dispatchCompression = new CompoundName("dispatch.compression");
 
     private final Compressor compressor = new Compressor(CompressionType.LZ4, 5, 0.95, 32);
@@ -67,6 +70,11 @@ public class RpcResourcePool extends AbstractComponent {
 
     public Compression compress(Query query, byte[] payload) {
         CompressionType compression = CompressionType.valueOf(query.properties().getString(dispatchCompression, "LZ4").toUpperCase());
+        if (compression == CompressionType.ZSTD) {
+            // Always zstd encode, even when not worthwhile, as the request encoding tells the content node to zstd compress its reply
+            return new Compression(CompressionType.ZSTD, payload.length,
+                                   compressor.zstdCompressor().compress(payload, 0, payload.length));
+        }
         return compressor.compress(compression, payload);
     }
 
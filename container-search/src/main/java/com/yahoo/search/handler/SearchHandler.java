@@ -124,7 +124,15 @@ public class SearchHandler extends LoggingRequestHandler {
                          CompiledQueryProfileRegistry queryProfileRegistry,
                          ContainerHttpConfig config,
                          ExecutionFactory executionFactory) {
-        this(statistics, metric, threadpool.executor(), accessLog, queryProfileRegistry, config, executionFactory);
+        this(statistics,
+             metric,
+             threadpool.executor(),
+             threadpool.maxConcurrentTasks(),
+             accessLog,
+             queryProfileRegistry,
+             executionFactory,
+             config.numQueriesToTraceOnDebugAfterConstruction(),
+             hostResponseHeaderKey(config));
     }
 
     public SearchHandler(Statistics statistics,
@@ -141,8 +149,7 @@ public class SearchHandler extends LoggingRequestHandler {
              queryProfileRegistry,
              executionFactory,
              containerHttpConfig.numQueriesToTraceOnDebugAfterConstruction(),
-             containerHttpConfig.hostResponseHeaderKey().equals("") ?
-                     Optional.empty() : Optional.of(containerHttpConfig.hostResponseHeaderKey()));
+             hostResponseHeaderKey(containerHttpConfig));
     }
 
     /**
@@ -185,12 +192,25 @@ public class SearchHandler extends LoggingRequestHandler {
                          ExecutionFactory executionFactory,
                          long numQueriesToTraceOnDebugAfterStartup,
                          Optional<String> hostResponseHeaderKey) {
+        this(statistics, metric, executor, examineExecutor(executor), accessLog, queryProfileRegistry, executionFactory,
+             numQueriesToTraceOnDebugAfterStartup, hostResponseHeaderKey);
+    }
+
+    private SearchHandler(Statistics statistics,
+                         Metric metric,
+                         Executor executor,
+                         int maxThreads,
+                         AccessLog accessLog,
+                         CompiledQueryProfileRegistry queryProfileRegistry,
+                         ExecutionFactory executionFactory,
+                         long numQueriesToTraceOnDebugAfterStartup,
+                         Optional<String> hostResponseHeaderKey) {
         super(executor, accessLog, metric, true);
         log.log(Level.FINE, "SearchHandler.init " + System.identityHashCode(this));
         this.queryProfileRegistry = queryProfileRegistry;
         this.executionFactory = executionFactory;
 
-        this.maxThreads = examineExecutor(executor);
+        this.maxThreads = maxThreads;
 
         searchConnections = new Value(SEARCH_CONNECTIONS, statistics,
                                       new Value.Parameters().setLogRaw(true).setLogMax(true)
@@ -226,6 +246,10 @@ public class SearchHandler extends LoggingRequestHandler {
              new ExecutionFactory(chainsConfig, indexInfo, clusters, searchers, specialtokens, linguistics, renderers));
     }
 
+    private static Optional<String> hostResponseHeaderKey(ContainerHttpConfig config) {
+        return config.hostResponseHeaderKey().equals("") ? Optional.empty() : Optional.of(config.hostResponseHeaderKey());
+    }
+
     private static int examineExecutor(Executor executor) {
         if (executor instanceof ThreadPoolExecutor) {
             return ((ThreadPoolExecutor) executor).getMaximumPoolSize();
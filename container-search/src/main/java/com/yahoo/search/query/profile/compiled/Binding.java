@@ -73,18 +73,6 @@ public class Binding implements Comparable<Binding> {
         this.hashCode = Arrays.hashCode(dimensions) + 11 * Arrays.hashCode(dimensionValues);
     }
 
-    Binding(DimensionalValue.BindingSpec spec, Map<String, String> bindings) {
-        this.generality = 0; // Not used here
-
-        // Map -> arrays to limit memory consumption and speed up evaluation
-        dimensions = spec.dimensions();
-        dimensionValues = new String[spec.dimensions().length];
-        for (int i = 0; i < dimensions.length; i++) {
-            dimensionValues[i] = bindings.get(dimensions[i]);
-        }
-        this.hashCode = Arrays.hashCode(dimensions) + 11 * Arrays.hashCode(dimensionValues);
-    }
-
     /**
      * Returns whether this binding is a proper generalization of the given binding:
      * Meaning it contains a proper subset of the given bindings.
@@ -5,7 +5,9 @@ import com.google.common.collect.ImmutableMap;
 import com.yahoo.processing.request.CompoundName;
 import com.yahoo.search.query.profile.DimensionBinding;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -21,6 +23,9 @@ public class DimensionalMap<VALUE> {
 
     private final Map<CompoundName, DimensionalValue<VALUE>> values;
 
+    /** The entries of this by each prefix of their key, including the key itself, or null if not created yet */
+    private volatile Map<CompoundName, List<Map.Entry<CompoundName, DimensionalValue<VALUE>>>> entriesByPrefix = null;
+
     private DimensionalMap(Map<CompoundName, DimensionalValue<VALUE>> values) {
         this.values = ImmutableMap.copyOf(values);
     }
@@ -37,6 +42,27 @@ public class DimensionalMap<VALUE> {
         return values.entrySet();
     }
 
+    /**
+     * Returns the dimensional entries across all contexts whose key has the given prefix or is equal to it.
+     * This is looked up in an index created on first use, rather than by testing the key of each entry.
+     */
+    List<Map.Entry<CompoundName, DimensionalValue<VALUE>>> entriesWithPrefix(CompoundName prefix) {
+        var entriesByPrefix = this.entriesByPrefix;
+        if (entriesByPrefix == null)
+            this.entriesByPrefix = entriesByPrefix = indexByPrefix(values);
+        return entriesByPrefix.getOrDefault(prefix, List.of());
+    }
+
+    private static <VALUE> Map<CompoundName, List<Map.Entry<CompoundName, DimensionalValue<VALUE>>>> indexByPrefix(
+            Map<CompoundName, DimensionalValue<VALUE>> values) {
+        Map<CompoundName, List<Map.Entry<CompoundName, DimensionalValue<VALUE>>>> entriesByPrefix = new HashMap<>();
+        for (Map.Entry<CompoundName, DimensionalValue<VALUE>> entry : values.entrySet()) {
+            for (int i = 0; i <= entry.getKey().size(); i++)
+                entriesByPrefix.computeIfAbsent(entry.getKey().first(i), __ -> new ArrayList<>()).add(entry);
+        }
+        return entriesByPrefix;
+    }
+
     /** Returns true if this is empty for all contexts. */
     public boolean isEmpty() {
         return values.isEmpty();
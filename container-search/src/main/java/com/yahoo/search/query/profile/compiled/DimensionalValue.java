@@ -23,7 +23,9 @@ import java.util.Set;
 public class DimensionalValue<VALUE> {
 
     private final Map<Binding, VALUE> indexedVariants;
-    private final List<BindingSpec> bindingSpecs;
+
+    /** The variants of this by their binding spec, in the order to look for a match */
+    private final List<BindingSpec<VALUE>> bindingSpecs;
 
     private DimensionalValue(List<Value<VALUE>> variants) {
         Collections.sort(variants);
@@ -35,9 +37,13 @@ public class DimensionalValue<VALUE> {
 
         this.bindingSpecs = new ArrayList<>();
         for (Value<VALUE> variant : variants) {
-            BindingSpec spec = new BindingSpec(variant.binding());
-            if ( ! bindingSpecs.contains(spec))
+            BindingSpec<VALUE> spec = new BindingSpec<>(variant.binding());
+            int index = bindingSpecs.indexOf(spec);
+            if (index < 0)
                 bindingSpecs.add(spec);
+            else
+                spec = bindingSpecs.get(index);
+            spec.putIfAbsent(variant.binding(), variant.value());
         }
     }
 
@@ -46,9 +52,8 @@ public class DimensionalValue<VALUE> {
         if (context == null)
             context = Collections.emptyMap();
 
-        for (BindingSpec spec : bindingSpecs) {
-            if ( ! spec.matches(context)) continue;
-            VALUE value = indexedVariants.get(new Binding(spec, context));
+        for (BindingSpec<VALUE> spec : bindingSpecs) {
+            VALUE value = spec.get(context);
             if (value != null)
                 return value;
         }
@@ -263,12 +268,22 @@ public class DimensionalValue<VALUE> {
 
     }
 
-    /** A list of dimensions for which there exist one or more bindings in this */
-    static class BindingSpec {
+    /**
+     * A list of dimensions for which there exist one or more bindings in this, with the values of those bindings.
+     * The values are kept in nested maps from the value of each dimension in turn, such that the value matching
+     * a context can be looked up without creating a binding from it.
+     */
+    static class BindingSpec<VALUE> {
 
         /** The dimensions of this. Unenforced invariant: Content never changes. */
         private final String[] dimensions;
 
+        /** The values of this by dimension value, nested once per dimension */
+        private final Map<String, Object> values = new HashMap<>();
+
+        /** The value of this if it has no dimensions */
+        private VALUE nullValue = null;
+
         public BindingSpec(Binding binding) {
             this.dimensions = binding.dimensions();
         }
@@ -276,11 +291,33 @@ public class DimensionalValue<VALUE> {
         /** Do not change the returned array */
         String[] dimensions() { return dimensions; }
 
-        /** Returns whether this context contains all the keys of this */
-        public boolean matches(Map<String, String> context) {
-            for (int i = 0; i < dimensions.length; i++)
-                if ( ! context.containsKey(dimensions[i])) return false;
-            return true;
+        /** Adds a value for a binding having the dimensions of this, unless one is already added */
+        @SuppressWarnings("unchecked")
+        void putIfAbsent(Binding binding, VALUE value) {
+            if (dimensions.length == 0) {
+                if (nullValue == null)
+                    nullValue = value;
+                return;
+            }
+            Map<String, Object> level = values;
+            String[] dimensionValues = binding.dimensionValues();
+            for (int i = 0; i < dimensions.length - 1; i++)
+                level = (Map<String, Object>)level.computeIfAbsent(dimensionValues[i], __ -> new HashMap<String, Object>());
+            level.putIfAbsent(dimensionValues[dimensions.length - 1], value);
+        }
+
+        /** Returns the value of the binding of this which matches the given context, or null if none */
+        @SuppressWarnings("unchecked")
+        VALUE get(Map<String, String> context) {
+            if (dimensions.length == 0) return nullValue;
+            Object level = values;
+            for (String dimension : dimensions) {
+                String dimensionValue = context.get(dimension);
+                if (dimensionValue == null) return null;
+                level = ((Map<String, Object>)level).get(dimensionValue);
+                if (level == null) return null;
+            }
+            return (VALUE)level;
         }
 
         @Override
@@ -292,7 +329,7 @@ public class DimensionalValue<VALUE> {
         public boolean equals(Object other) {
             if (other == this) return true;
             if ( ! (other instanceof BindingSpec)) return false;
-            return Arrays.equals(((BindingSpec)other).dimensions, this.dimensions);
+            return Arrays.equals(((BindingSpec<?>)other).dimensions, this.dimensions);
         }
 
     }
@@ -593,6 +593,11 @@ public class Hit extends ListenableFreezableClass implements Data, Comparable<Hi
         return searcherSpecificMetaData != null ? searcherSpecificMetaData.get(searcher) : null;
     }
 
+    /** Sets the query of this, replacing any query already set */
+    final void setQueryInternal(Query query) {
+        this.query = query;
+    }
+
     final void setFilledInternal(Set<String> filled) {
         this.filled = filled;
         unmodifiableFilled = (filled != null) ? Collections.unmodifiableSet(filled) : null;
@@ -11,6 +11,7 @@ import com.yahoo.processing.response.ArrayDataList;
 import com.yahoo.processing.response.DataList;
 import com.yahoo.processing.response.DefaultIncomingData;
 import com.yahoo.processing.response.IncomingData;
+import com.yahoo.search.Query;
 import com.yahoo.search.query.Sorting;
 
 import java.util.ArrayList;
@@ -836,6 +837,21 @@ public class HitGroup extends Hit implements DataList<Hit>, Cloneable, Iterable<
         }
     }
 
+    /**
+     * Sets the query of this and all hits in it, recursively, replacing any query already set.
+     * This is used to move hits produced by one query into the result of another, or to detach them
+     * from their query by passing null.
+     */
+    public void setQueryRecursively(Query query) {
+        setQueryInternal(query);
+        for (Hit hit : hits) {
+            if (hit instanceof HitGroup)
+                ((HitGroup) hit).setQueryRecursively(query);
+            else
+                hit.setQueryInternal(query);
+        }
+    }
+
     public HitGroup clone() {
         HitGroup hitGroupClone = (HitGroup) super.clone();
         hitGroupClone.hits = new ListenableArrayList<>(this.hits.size());
@@ -32,8 +32,8 @@ import com.yahoo.search.searchchain.Execution;
  */
 public class CacheControlSearcher extends Searcher {
 
-    private static final CompoundName cachecontrolNocache=new CompoundName("cachecontrol.nocache");
-    private static final CompoundName cachecontrolMaxage=new CompoundName("cachecontrol.maxage");
+    static final CompoundName cachecontrolNocache=new CompoundName("cachecontrol.nocache");
+    static final CompoundName cachecontrolMaxage=new CompoundName("cachecontrol.maxage");
     private static final CompoundName cachecontrolStaleage=new CompoundName("cachecontrol.staleage");
 
     public static final String CACHE_CONTROL_HEADER = "Cache-Control";
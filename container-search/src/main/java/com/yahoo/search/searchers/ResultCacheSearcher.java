@@ -0,0 +1,271 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.searchers;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.inject.Inject;
+import com.yahoo.concurrent.ThreadFactoryFactory;
+import com.yahoo.metrics.simple.Counter;
+import com.yahoo.metrics.simple.Gauge;
+import com.yahoo.metrics.simple.MetricReceiver;
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.Searcher;
+import com.yahoo.search.config.ResultCacheConfig;
+import com.yahoo.search.grouping.GroupingRequest;
+import com.yahoo.search.result.Coverage;
+import com.yahoo.search.result.Hit;
+import com.yahoo.search.result.HitGroup;
+import com.yahoo.search.searchchain.Execution;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches results in this container, such that repeated queries are answered without going to the content nodes.
+ * <p>
+ * Results are cached by a signature of the query made before it is passed down the chain.
+ * This consists of the query tree, the grouping requests, and all the resolved properties of the query,
+ * which includes ranking, filters, offset and hits, and all the values set by the query profile.
+ * Properties which do not change the result, such as timeout and tracing, are not part of the signature.
+ * The reference time of a freshness query is part of the signature, so queries relative to "now"
+ * only share results produced in the same second.
+ * <p>
+ * Results are filled with the summary class of the query before they are cached, such that hits returned
+ * from the cache are complete. Results with errors or incomplete coverage are not cached, nor filled here.
+ * <p>
+ * The cache is bounded by the total estimated size of the results in it, evicting the least recently used
+ * results first, and by the max age of results. Queries may lower the max age by <code>cachecontrol.maxage</code>,
+ * and bypass the cache by <code>cachecontrol.nocache</code> or <code>noCache</code>, see {@link CacheControlSearcher}.
+ * Results produced by queries bypassing the cache replace any cached result.
+ * <p>
+ * Metrics: This emits the counts result_cache_hits, result_cache_misses and result_cache_evictions,
+ * and the gauge result_cache_size with the estimated size in bytes of the cached results, which is sampled
+ * every 10 seconds.
+ */
+public class ResultCacheSearcher extends Searcher {
+
+    private static final Set<String> ignoredProperties = Set.of(Query.TIMEOUT.toString().toLowerCase(),
+                                                                Query.TRACE_LEVEL.toString().toLowerCase(),
+                                                                Query.NO_CACHE.toString().toLowerCase());
+    private static final Set<String> ignoredPrefixes = Set.of("cachecontrol.", "trace.", "rate.");
+
+    private final Cache cache;
+    private final long maxResultSize;
+    private final long maxAgeMillis;
+    private final Clock clock;
+    private final ScheduledExecutorService metricsReporter;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Gauge sizeGauge;
+
+    @Inject
+    public ResultCacheSearcher(ResultCacheConfig config, MetricReceiver metrics) {
+        this(config, metrics, Clock.systemUTC(), Duration.ofSeconds(10));
+    }
+
+    /**
+     * For testing - allows injection of a clock to avoid depending on the system clock,
+     * and of the interval at which the size of the cache is reported
+     */
+    public ResultCacheSearcher(ResultCacheConfig config, MetricReceiver metrics, Clock clock, Duration metricsInterval) {
+        this.maxResultSize = config.maxResultSize();
+        this.maxAgeMillis = (long)(config.maxAge() * 1000);
+        this.cache = new Cache(config.maxSize(), maxAgeMillis, clock, metrics.declareCounter("result_cache_evictions"));
+        this.clock = clock;
+        this.hitCounter = metrics.declareCounter("result_cache_hits");
+        this.missCounter = metrics.declareCounter("result_cache_misses");
+        this.sizeGauge = metrics.declareGauge("result_cache_size");
+        this.metricsReporter = Executors.newSingleThreadScheduledExecutor(ThreadFactoryFactory.getDaemonThreadFactory("result-cache-metrics"));
+        metricsReporter.scheduleAtFixedRate(this::reportMetrics,
+                                            metricsInterval.toMillis(), metricsInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Result search(Query query, Execution execution) {
+        String signature = signatureOf(query);
+        long now = clock.millis();
+        if ( ! bypassesCache(query)) {
+            Result cached = cache.get(signature, query, maxAgeOf(query), now);
+            if (cached != null) {
+                hitCounter.add(1);
+                query.trace("ResultCacheSearcher: Returning cached result", false, 3);
+                return cached;
+            }
+            missCounter.add(1);
+        }
+
+        Result result = execution.search(query);
+        if (isCacheable(result)) {
+            execution.fill(result, query.getPresentation().getSummary());
+            if (isCacheable(result)) { // filling may fail
+                Result copy = result.clone();
+                copy.hits().setQueryRecursively(null); // don't keep the query alive, nor return it with cached hits
+                long size = estimateSize(copy.hits()) + 2L * signature.length();
+                if (size <= maxResultSize)
+                    cache.put(signature, copy, size, now);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void deconstruct() {
+        metricsReporter.shutdown();
+        super.deconstruct();
+    }
+
+    /** Removes expired results and reports the size of the cache */
+    private void reportMetrics() {
+        cache.cleanUp();
+        sizeGauge.sample(cache.size());
+    }
+
+    private boolean bypassesCache(Query query) {
+        return query.getNoCache() || query.properties().getBoolean(CacheControlSearcher.cachecontrolNocache, false);
+    }
+
+    /** Returns the max age in milliseconds of a cached result which can be returned for this query */
+    private long maxAgeOf(Query query) {
+        int maxAge = query.properties().getInteger(CacheControlSearcher.cachecontrolMaxage, -1);
+        if (maxAge < 0) return maxAgeMillis;
+        return Math.min(maxAgeMillis, maxAge * 1000L);
+    }
+
+    private boolean isCacheable(Result result) {
+        if (result.hits().getError() != null) return false;
+        Coverage coverage = result.getCoverage(false);
+        return coverage == null || coverage.getFull();
+    }
+
+    /** Returns the signature identifying queries which will produce the same result as the given query */
+    private static String signatureOf(Query query) {
+        StringBuilder signature = new StringBuilder();
+        signature.append(query.getModel().getQueryTree()).append('\n');
+        for (GroupingRequest grouping : query.getSelect().getGrouping())
+            signature.append("grouping=").append(grouping).append('\n');
+        if (query.getRanking().getFreshness() != null)
+            signature.append("freshness=").append(query.getRanking().getFreshness().getRefTime()).append('\n');
+        Map<String, Object> properties = new TreeMap<>(query.properties().listProperties());
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            if (isIgnored(property.getKey())) continue;
+            signature.append(property.getKey()).append('=').append(property.getValue()).append('\n');
+        }
+        return signature.toString();
+    }
+
+    private static boolean isIgnored(String property) {
+        String name = property.toLowerCase();
+        if (ignoredProperties.contains(name)) return true;
+        for (String prefix : ignoredPrefixes)
+            if (name.startsWith(prefix)) return true;
+        return false;
+    }
+
+    /** Returns a rough estimate of the number of bytes used by the given hits */
+    private static long estimateSize(HitGroup hits) {
+        long[] size = { 128 };
+        for (Hit hit : hits) {
+            size[0] += 96;
+            if (hit instanceof HitGroup)
+                size[0] += estimateSize((HitGroup) hit);
+            else
+                hit.forEachField((name, value) -> size[0] += 48 + 2L * name.length() + estimateSize(value));
+        }
+        return size[0];
+    }
+
+    private static long estimateSize(Object value) {
+        if (value == null) return 0;
+        if (value instanceof Number || value instanceof Boolean) return 16;
+        if (value instanceof CharSequence) return 40 + 2L * ((CharSequence) value).length();
+        if (value instanceof byte[]) return 16 + ((byte[]) value).length;
+        return 40 + 2L * value.toString().length();
+    }
+
+    private static class Entry {
+
+        final Result result;
+        final long size;
+        final long createdMillis;
+
+        Entry(Result result, long size, long createdMillis) {
+            this.result = result;
+            this.size = size;
+            this.createdMillis = createdMillis;
+        }
+
+        /** Returns a copy of the result of this for the given query */
+        synchronized Result copyFor(Query query) {
+            Result copy = result.clone();
+            copy.hits().setQueryRecursively(query);
+            for (Iterator<Hit> i = copy.hits().deepIterator(); i.hasNext(); )
+                i.next().setCached(true);
+            copy.analyzeHits();
+            return copy;
+        }
+
+    }
+
+    /**
+     * A cache of results bounded by their total size, evicting the least recently used first,
+     * and by the max age of results. Reads do not lock the cache.
+     */
+    private static class Cache {
+
+        private final com.google.common.cache.Cache<String, Entry> entries;
+        private final AtomicLong size = new AtomicLong();
+
+        Cache(long maxSize, long maxAgeMillis, Clock clock, Counter evictionCounter) {
+            this.entries = CacheBuilder.newBuilder()
+                                       .concurrencyLevel(1) // Evict by recency and size over all entries, rather than per segment
+                                       .maximumWeight(maxSize)
+                                       .<String, Entry>weigher((signature, entry) -> (int)Math.min(entry.size, Integer.MAX_VALUE))
+                                       .expireAfterWrite(maxAgeMillis, TimeUnit.MILLISECONDS)
+                                       .ticker(new Ticker() {
+                                           @Override public long read() { return TimeUnit.MILLISECONDS.toNanos(clock.millis()); }
+                                       })
+                                       .removalListener((RemovalNotification<String, Entry> removal) -> {
+                                           size.addAndGet(- removal.getValue().size);
+                                           if (removal.wasEvicted())
+                                               evictionCounter.add(1);
+                                       })
+                                       .build();
+        }
+
+        /** Returns a copy of the cached result of the given signature which is not older than maxAge, or null if none */
+        Result get(String signature, Query query, long queryMaxAgeMillis, long nowMillis) {
+            Entry entry = entries.getIfPresent(signature);
+            if (entry == null) return null;
+            if (nowMillis - entry.createdMillis > queryMaxAgeMillis) return null; // too old for this query
+            return entry.copyFor(query);
+        }
+
+        void put(String signature, Result result, long resultSize, long nowMillis) {
+            size.addAndGet(resultSize);
+            entries.put(signature, new Entry(result, resultSize, nowMillis));
+        }
+
+        /** Removes expired results */
+        void cleanUp() {
+            entries.cleanUp();
+        }
+
+        /** Returns the total estimated size in bytes of the results in this */
+        long size() {
+            return size.get();
+        }
+
+    }
+
+}
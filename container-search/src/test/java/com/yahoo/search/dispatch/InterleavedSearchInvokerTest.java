@@ -297,6 +297,29 @@ public class InterleavedSearchInvokerTest {
         assertEquals(3, result.getQuery().getHits());
     }
 
+    @Test
+    public void requireThatManyPartialResultsAreMergedWithoutDuplicates() {
+        List<List<LeanHit>> partials = new ArrayList<>();
+        for (int node = 0; node < 8; node++) {
+            List<LeanHit> hits = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                double relevance = 100.0 - (i * 8 + node);
+                hits.add(new LeanHit(new GlobalId(IdString.createIdString("id:test:test::" + relevance)).getRawId(),
+                                     node, node, relevance));
+            }
+            partials.add(hits);
+        }
+        partials.add(List.of(partials.get(3).get(0))); // a duplicate of a hit from another node
+
+        List<LeanHit> merged = InterleavedSearchInvoker.mergeLeanHits(partials, 20);
+        assertEquals(20, merged.size());
+        for (int i = 0; i < merged.size(); i++)
+            assertEquals(100.0 - i, merged.get(i).getRelevance(), DELTA);
+
+        assertEquals(80, InterleavedSearchInvoker.mergeLeanHits(partials, 100).size());
+        assertTrue(InterleavedSearchInvoker.mergeLeanHits(Collections.emptyList(), 100).isEmpty());
+    }
+
     private static InterleavedSearchInvoker createInterLeavedTestInvoker(List<Double> a, List<Double> b) {
         SearchCluster cluster = new MockSearchCluster("!", 1, 2);
         List<SearchInvoker> invokers = new ArrayList<>();
@@ -0,0 +1,111 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Benchmark of merging the sorted hit lists returned from many content nodes into a single result,
+ * comparing the k-way merge in {@link InterleavedSearchInvoker} with merging each list into
+ * the running result as it arrives.
+ */
+public class LeanHitMergeBenchmark {
+
+    private final List<List<LeanHit>> partials;
+    private final int needed;
+
+    public LeanHitMergeBenchmark(int nodes, int hitsPerNode, int needed, boolean sortData) {
+        Random random = new Random(nodes);
+        this.partials = new ArrayList<>(nodes);
+        for (int node = 0; node < nodes; node++) {
+            List<LeanHit> hits = new ArrayList<>(hitsPerNode);
+            for (int i = 0; i < hitsPerNode; i++) {
+                byte[] gid = ByteBuffer.allocate(12).putInt(node).putLong(i).array();
+                if (sortData)
+                    hits.add(new LeanHit(gid, node, node, 0, ByteBuffer.allocate(8).putLong(random.nextLong() >>> 1).array()));
+                else
+                    hits.add(new LeanHit(gid, node, node, random.nextDouble()));
+            }
+            Collections.sort(hits);
+            partials.add(hits);
+        }
+        this.needed = needed;
+    }
+
+    private long runKWayMerge(int iterations) {
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++)
+            checksum += InterleavedSearchInvoker.mergeLeanHits(partials, needed).size();
+        return checksum;
+    }
+
+    private long runPairwiseMerge(int iterations) {
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            List<LeanHit> current = Collections.emptyList();
+            for (List<LeanHit> partial : partials)
+                current = pairwiseMerge(current, partial);
+            checksum += Math.min(current.size(), needed);
+        }
+        return checksum;
+    }
+
+    /** The merge done before the k-way merge was introduced, repeated here as a baseline */
+    private List<LeanHit> pairwiseMerge(List<LeanHit> current, List<LeanHit> partial) {
+        if (current.isEmpty()) return partial;
+        List<LeanHit> merged = new ArrayList<>(needed);
+        int indexCurrent = 0;
+        int indexPartial = 0;
+        while (indexCurrent < current.size() && indexPartial < partial.size() && merged.size() < needed) {
+            int cmpRes = current.get(indexCurrent).compareTo(partial.get(indexPartial));
+            if (cmpRes < 0) {
+                merged.add(current.get(indexCurrent++));
+            } else if (cmpRes > 0) {
+                merged.add(partial.get(indexPartial++));
+            } else {
+                merged.add(current.get(indexCurrent++));
+                indexPartial++;
+            }
+        }
+        while ((indexCurrent < current.size()) && (merged.size() < needed))
+            merged.add(current.get(indexCurrent++));
+        while ((indexPartial < partial.size()) && (merged.size() < needed))
+            merged.add(partial.get(indexPartial++));
+        return merged;
+    }
+
+    public void benchmark(String description, int iterations) {
+        runKWayMerge(iterations / 10); // warm-up
+        runPairwiseMerge(iterations / 10);
+
+        long startTime = System.nanoTime();
+        long checksum = runKWayMerge(iterations);
+        double kWayMicros = (System.nanoTime() - startTime) / 1000.0 / iterations;
+
+        startTime = System.nanoTime();
+        checksum += runPairwiseMerge(iterations);
+        double pairwiseMicros = (System.nanoTime() - startTime) / 1000.0 / iterations;
+
+        System.out.println(String.format(Locale.ENGLISH, "%s: k-way %8.2f us/merge, pairwise %8.2f us/merge (checksum %d)",
+                                         description, kWayMicros, pairwiseMicros, checksum));
+    }
+
+    public static void main(String[] args) {
+        int hits = 10;
+        int offset = 400;
+        for (boolean sortData : new boolean[] { false, true }) {
+            for (int nodes : new int[] { 8, 16, 32, 64, 128 }) {
+                int needed = offset + hits;
+                int hitsPerNode = Math.max(needed / nodes * 2, hits);
+                new LeanHitMergeBenchmark(nodes, hitsPerNode, needed, sortData)
+                        .benchmark(String.format(Locale.ENGLISH, "%-9s nodes: %3d", sortData ? "sortdata" : "relevance", nodes),
+                                   20000);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.search.dispatch.searchcluster.Group;
+import com.yahoo.search.dispatch.searchcluster.Node;
+import com.yahoo.search.dispatch.searchcluster.SearchCluster;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.yahoo.search.dispatch.MockSearchCluster.createDispatchConfig;
+
+/**
+ * A multithreaded benchmark of group selection in the load balancer:
+ * Each thread repeatedly takes and releases a group, as the dispatcher does for each query.
+ */
+public class LoadBalancerBenchmark {
+
+    private final LoadBalancer loadBalancer;
+    private final int threadCount;
+    private final int queriesPerThread;
+
+    public LoadBalancerBenchmark(int groupCount, boolean roundRobin, int threadCount, int queriesPerThread) {
+        List<Node> nodes = new ArrayList<>();
+        for (int group = 0; group < groupCount; group++)
+            nodes.add(new Node(group, "test-node" + group, group));
+        SearchCluster cluster = new SearchCluster("a", createDispatchConfig(nodes.toArray(new Node[0])), null, null);
+        this.loadBalancer = new LoadBalancer(cluster, roundRobin);
+        this.threadCount = threadCount;
+        this.queriesPerThread = queriesPerThread;
+    }
+
+    /** Returns the number of take/release pairs per second over all threads */
+    public double run() throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+                for (int q = 0; q < queriesPerThread; q++) {
+                    Optional<Group> group = loadBalancer.takeGroup(null);
+                    if (group.isEmpty()) throw new IllegalStateException("No group available");
+                    loadBalancer.releaseGroup(group.get(), true, 1 + ThreadLocalRandom.current().nextInt(10));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+        long elapsedNanos = Math.max(1, System.nanoTime() - startTime);
+        return (double)threadCount * queriesPerThread * 1_000_000_000L / elapsedNanos;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int queriesPerThread = 1_000_000;
+        for (boolean roundRobin : new boolean[] { true, false }) {
+            for (int groups : new int[] { 2, 24 }) {
+                for (int threads : new int[] { 1, 4, 16, 48 }) {
+                    new LoadBalancerBenchmark(groups, roundRobin, threads, queriesPerThread / 10).run(); // warm-up
+                    double rate = new LoadBalancerBenchmark(groups, roundRobin, threads, queriesPerThread).run();
+                    System.out.println(String.format(Locale.ENGLISH, "%-11s groups: %3d threads: %3d  %12.0f queries/s",
+                                                     roundRobin ? "round-robin" : "adaptive", groups, threads, rate));
+                }
+            }
+        }
+    }
+
+}
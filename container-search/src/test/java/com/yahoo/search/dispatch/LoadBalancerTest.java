@@ -86,6 +86,33 @@ public class LoadBalancerTest {
         assertThat(group.id(), not(equalTo(id1)));
     }
 
+    @Test
+    public void requireThatConcurrentAllocationsAreBalanced() throws InterruptedException {
+        Node n1 = new Node(0, "test-node1", 0);
+        Node n2 = new Node(1, "test-node2", 1);
+        Node n3 = new Node(2, "test-node3", 2);
+        SearchCluster cluster = new SearchCluster("a", createDispatchConfig(n1, n2, n3), null,null);
+        LoadBalancer lb = new LoadBalancer(cluster, false);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(() -> {
+                for (int q = 0; q < 10000; q++) {
+                    Group group = lb.takeGroup(null).get();
+                    lb.releaseGroup(group, true, 5.0);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads)
+            thread.join();
+
+        assertThat(lb.groupStatus(0).allocations(), equalTo(0));
+        assertThat(lb.groupStatus(1).allocations(), equalTo(0));
+        assertThat(lb.groupStatus(2).allocations(), equalTo(0));
+        assertThat(lb.groupStatus(0).averageSearchTime(), closeTo(0.005, 0.00001));
+    }
+
     @Test
     public void requireCorrectAverageSearchTimeDecay() {
         final double SMALL = 0.00001;
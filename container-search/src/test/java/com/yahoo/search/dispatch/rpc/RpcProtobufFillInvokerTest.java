@@ -0,0 +1,45 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch.rpc;
+
+import ai.vespa.searchlib.searchprotocol.protobuf.SearchProtocol;
+import com.google.protobuf.ByteString;
+import com.yahoo.slime.BinaryFormat;
+import com.yahoo.slime.Cursor;
+import com.yahoo.slime.Inspector;
+import com.yahoo.slime.Slime;
+import com.yahoo.slime.Type;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RpcProtobufFillInvokerTest {
+
+    @Test
+    public void slimeSummariesAreReadFromThePayload() throws IOException {
+        Slime slime = new Slime();
+        Cursor docsum = slime.setObject().setArray("docsums").addObject().setObject("docsum");
+        docsum.setString("title", "a title");
+        docsum.setLong("year", 1999);
+        byte[] payload = SearchProtocol.DocsumReply.newBuilder()
+                                                   .setSlimeSummaries(ByteString.copyFrom(BinaryFormat.encode(slime)))
+                                                   .build().toByteArray();
+
+        Inspector summaries = RpcProtobufFillInvoker.slimeSummaries(payload);
+        assertTrue(summaries.equalTo(slime.get()));
+        Inspector summary = summaries.field("docsums").entry(0).field("docsum");
+        assertEquals("a title", summary.field("title").asString());
+        assertEquals(1999, summary.field("year").asLong());
+    }
+
+    @Test
+    public void emptyReplyHasNoSummaries() throws IOException {
+        Inspector summaries = RpcProtobufFillInvoker.slimeSummaries(SearchProtocol.DocsumReply.newBuilder().build().toByteArray());
+        assertEquals(Type.NIX, summaries.type());
+        assertFalse(summaries.field("docsums").valid());
+    }
+
+}
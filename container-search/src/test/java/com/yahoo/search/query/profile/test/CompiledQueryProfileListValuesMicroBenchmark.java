@@ -0,0 +1,74 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.query.profile.test;
+
+import com.yahoo.processing.request.CompoundName;
+import com.yahoo.search.query.profile.QueryProfile;
+import com.yahoo.search.query.profile.QueryProfileRegistry;
+import com.yahoo.search.query.profile.compiled.CompiledQueryProfile;
+
+import java.util.Map;
+
+/**
+ * Lists values by prefix in a large compiled query profile with many variants in three dimensions,
+ * compared to listing all the values of the profile.
+ */
+public class CompiledQueryProfileListValuesMicroBenchmark {
+
+    private static final String[] dimensions = { "region", "device", "bucket" };
+    private static final int prefixes = 50;
+    private static final int valuesPerPrefix = 100;
+
+    private final CompiledQueryProfile profile;
+    private final Map<String, String> context = Map.of("region", "region3", "device", "device1", "bucket", "bucket7");
+
+    public CompiledQueryProfileListValuesMicroBenchmark() {
+        QueryProfile profile = new QueryProfile("large");
+        profile.setDimensions(dimensions);
+        for (int i = 0; i < prefixes; i++) {
+            for (int j = 0; j < valuesPerPrefix; j++) {
+                String name = "prefix" + i + ".value" + j;
+                profile.set(name, "default", null);
+                if (j % 10 == 0) {
+                    for (int region = 0; region < 5; region++)
+                        profile.set(name, "region value", new String[] { "region" + region }, null);
+                    for (int bucket = 0; bucket < 10; bucket++)
+                        profile.set(name, "bucket value", new String[] { "region3", "device1", "bucket" + bucket }, null);
+                }
+            }
+        }
+        QueryProfileRegistry registry = new QueryProfileRegistry();
+        registry.register(profile);
+        this.profile = registry.compile().getComponent("large");
+    }
+
+    public void benchmark(int count) {
+        CompoundName prefix = new CompoundName("prefix" + (prefixes / 2));
+        listValues(count / 10, prefix, valuesPerPrefix); // warm-up
+        listValues(count / 100, CompoundName.empty, prefixes * valuesPerPrefix);
+
+        long startTime = System.nanoTime();
+        listValues(count, prefix, valuesPerPrefix);
+        long prefixTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        listValues(count / 10, CompoundName.empty, prefixes * valuesPerPrefix);
+        long allTime = (System.nanoTime() - startTime) * 10;
+
+        System.out.println("Listing " + valuesPerPrefix + " of " + prefixes * valuesPerPrefix + " values: " +
+                           String.format("%.1f", prefixTime / 1000.0 / count) + " microseconds. Listing all values: " +
+                           String.format("%.1f", allTime / 1000.0 / count) + " microseconds");
+    }
+
+    private void listValues(int count, CompoundName prefix, int expectedSize) {
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> values = profile.listValues(prefix, context);
+            if (values.size() != expectedSize)
+                throw new RuntimeException("Expected " + expectedSize + " values, got " + values.size());
+        }
+    }
+
+    public static void main(String[] args) {
+        new CompiledQueryProfileListValuesMicroBenchmark().benchmark(100000);
+    }
+
+}
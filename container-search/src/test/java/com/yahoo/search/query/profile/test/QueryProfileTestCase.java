@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -533,6 +534,24 @@ public class QueryProfileTestCase {
         }
     }
 
+    @Test
+    public void testListingByPrefixComponents() {
+        QueryProfile p = new QueryProfile("test");
+        p.set("a", "a-value", null);
+        p.set("a.b", "a.b-value", null);
+        p.set("a.b.c", "a.b.c-value", null);
+        p.set("ab.c", "ab.c-value", null);
+        CompiledQueryProfile cp = p.compile(null);
+
+        assertEquals(4, cp.listValues("").size());
+        assertEquals(Map.of("", "a-value", "b", "a.b-value", "b.c", "a.b.c-value"), cp.listValues("a"));
+        assertEquals(Map.of("", "a.b-value", "c", "a.b.c-value"), cp.listValues("a.b"));
+        assertEquals(Map.of("c", "ab.c-value"), cp.listValues("ab"));
+        assertTrue(cp.listValues("a.c").isEmpty());
+        assertTrue(cp.listValues("a.b.c.d").isEmpty());
+        assertEquals(Set.of("b", "b.c"), cp.listValuesWithSources(new CompoundName("a"), Map.of(), null).keySet());
+    }
+
     @Test
     public void testRankTypeNames() {
          QueryProfile p = new QueryProfile("test");
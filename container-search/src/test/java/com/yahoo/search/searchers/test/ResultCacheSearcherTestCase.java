@@ -0,0 +1,209 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.searchers.test;
+
+import com.yahoo.component.chain.Chain;
+import com.yahoo.metrics.simple.Bucket;
+import com.yahoo.metrics.simple.MetricReceiver;
+import com.yahoo.metrics.simple.Point;
+import com.yahoo.metrics.simple.UntypedMetric;
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.Searcher;
+import com.yahoo.search.config.ResultCacheConfig;
+import com.yahoo.search.result.ErrorMessage;
+import com.yahoo.search.result.Hit;
+import com.yahoo.search.searchchain.Execution;
+import com.yahoo.search.searchers.ResultCacheSearcher;
+import com.yahoo.test.ManualClock;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.DoublePredicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the container side result cache
+ */
+public class ResultCacheSearcherTestCase {
+
+    private final ManualClock clock = new ManualClock();
+    private final MetricReceiver.MockReceiver metric = new MetricReceiver.MockReceiver();
+    private final CountingBackend backend = new CountingBackend();
+
+    @Test
+    public void testRepeatedQueriesAreAnsweredFromTheCache() {
+        Chain<Searcher> chain = createChain(new ResultCacheConfig.Builder());
+        Result first = search(chain, "?query=foo&hits=5");
+        assertFalse(first.isCached());
+        assertEquals(1, backend.searches);
+        assertEquals(1, backend.fills);
+
+        Result second = search(chain, "?query=foo&hits=5&timeout=3s&tracelevel=2");
+        assertTrue(second.isCached());
+        assertEquals(1, backend.searches);
+        assertEquals(1, backend.fills);
+        assertEquals(first.hits().size(), second.hits().size());
+        assertEquals(first.hits().get(0).getField("query"), second.hits().get(0).getField("query"));
+        assertEquals(first.getTotalHitCount(), second.getTotalHitCount());
+        assertTrue("The cached result is for the new query", second.getQuery() != first.getQuery());
+        assertSame("Cached hits are for the new query", second.getQuery(), second.hits().get(0).getQuery());
+        assertSame(first.getQuery(), first.hits().get(0).getQuery());
+
+        second.hits().get(0).setField("query", "modified");
+        assertEquals("Cached results are not modified through returned results",
+                     "foo", search(chain, "?query=foo&hits=5").hits().get(0).getField("query"));
+
+        search(chain, "?query=bar&hits=5");
+        search(chain, "?query=foo&hits=5&offset=5");
+        search(chain, "?query=foo&hits=5&ranking=other");
+        search(chain, "?query=foo&hits=5&filter=%2Bbaz");
+        assertEquals("Different queries are not answered from the cache", 5, backend.searches);
+
+        Bucket metrics = metric.getSnapshot();
+        assertEquals(2, count(metrics, "result_cache_hits"));
+        assertEquals(5, count(metrics, "result_cache_misses"));
+        assertEquals(0, count(metrics, "result_cache_evictions"));
+    }
+
+    @Test
+    public void testResultsExpire() {
+        Chain<Searcher> chain = createChain(new ResultCacheConfig.Builder().maxAge(10));
+        search(chain, "?query=foo");
+        clock.advance(Duration.ofSeconds(5));
+        assertTrue(search(chain, "?query=foo").isCached());
+        assertFalse("Queries may request a lower max age", search(chain, "?query=foo&cachecontrol.maxage=2").isCached());
+        assertEquals(2, backend.searches);
+
+        clock.advance(Duration.ofSeconds(11));
+        assertFalse(search(chain, "?query=foo").isCached());
+        assertEquals(3, backend.searches);
+        assertEquals(1, count(metric.getSnapshot(), "result_cache_evictions"));
+    }
+
+    @Test
+    public void testQueriesMayBypassTheCache() {
+        Chain<Searcher> chain = createChain(new ResultCacheConfig.Builder());
+        search(chain, "?query=foo");
+        assertFalse(search(chain, "?query=foo&nocache").isCached());
+        assertFalse(search(chain, "?query=foo&cachecontrol.nocache=true").isCached());
+        assertEquals(3, backend.searches);
+        assertTrue(search(chain, "?query=foo").isCached());
+        assertEquals(3, backend.searches);
+    }
+
+    @Test
+    public void testFailedResultsAreNotCached() {
+        Chain<Searcher> chain = createChain(new ResultCacheConfig.Builder());
+        search(chain, "?query=foo&fail=true");
+        search(chain, "?query=foo&fail=true");
+        assertEquals(2, backend.searches);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResultsAreEvictedWhenFull() {
+        Chain<Searcher> chain = createChain(new ResultCacheConfig.Builder().maxSize(8000));
+        search(chain, "?query=foo");
+        search(chain, "?query=bar");
+        search(chain, "?query=foo"); // bar is now least recently used
+        assertEquals(2, backend.searches);
+
+        search(chain, "?query=baz");
+        assertEquals(3, backend.searches);
+        assertTrue(search(chain, "?query=foo").isCached());
+        assertFalse(search(chain, "?query=bar").isCached());
+        assertTrue(count(metric.getSnapshot(), "result_cache_evictions") > 0);
+    }
+
+    @Test
+    public void testResultsWhichAreNotCachedAreNotFilled() {
+        Chain<Searcher> chain = createChain(new ResultCacheConfig.Builder());
+        search(chain, "?query=foo&fail=true");
+        assertEquals(0, backend.fills);
+    }
+
+    @Test
+    public void testCacheSizeIsReportedPeriodically() throws InterruptedException {
+        Chain<Searcher> chain = createChain(new ResultCacheConfig.Builder().maxAge(10));
+        search(chain, "?query=foo");
+        assertTrue(lastValueOf("result_cache_size", value -> value > 0) > 0);
+
+        clock.advance(Duration.ofSeconds(11));
+        assertEquals("Expired results are removed without being looked up",
+                     0, lastValueOf("result_cache_size", value -> value == 0), 0);
+    }
+
+    @Test
+    public void testLargeResultsAreNotCached() {
+        Chain<Searcher> chain = createChain(new ResultCacheConfig.Builder().maxResultSize(2000));
+        search(chain, "?query=foo&hits=100");
+        assertFalse(search(chain, "?query=foo&hits=100").isCached());
+        search(chain, "?query=foo&hits=1");
+        assertTrue(search(chain, "?query=foo&hits=1").isCached());
+        assertEquals(3, backend.searches);
+    }
+
+    private Chain<Searcher> createChain(ResultCacheConfig.Builder config) {
+        return new Chain<>(new ResultCacheSearcher(new ResultCacheConfig(config), metric, clock, Duration.ofMillis(10)),
+                           backend);
+    }
+
+    /** Waits for the given gauge to be reported with a value accepted by the given condition, and returns it */
+    private double lastValueOf(String gauge, DoublePredicate condition) throws InterruptedException {
+        long timeoutMillis = System.currentTimeMillis() + 60_000;
+        while (System.currentTimeMillis() < timeoutMillis) {
+            Map<Point, UntypedMetric> values = metric.getSnapshot().getMapForMetric(gauge);
+            if (values != null) {
+                for (UntypedMetric value : values.values())
+                    if (condition.test(value.getLast())) return value.getLast();
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Gauge " + gauge + " was not reported with the expected value");
+    }
+
+    private static Result search(Chain<Searcher> chain, String request) {
+        return new Execution(chain, Execution.Context.createContextStub()).search(new Query(request));
+    }
+
+    private static long count(Bucket metrics, String name) {
+        Map<Point, UntypedMetric> values = metrics.getMapForMetric(name);
+        if (values == null) return 0;
+        return values.values().stream().mapToLong(UntypedMetric::getCount).sum();
+    }
+
+    private static class CountingBackend extends Searcher {
+
+        int searches = 0;
+        int fills = 0;
+
+        @Override
+        public Result search(Query query, Execution execution) {
+            searches++;
+            if (query.properties().getBoolean("fail"))
+                return new Result(query, ErrorMessage.createBackendCommunicationError("Failed"));
+            Result result = new Result(query);
+            result.setTotalHitCount(1000);
+            for (int i = 0; i < query.getHits(); i++) {
+                Hit hit = new Hit("hit:" + (query.getOffset() + i), 1.0 / (i + 1), query);
+                hit.setField("query", query.getModel().getQueryString());
+                hit.setFillable();
+                result.hits().add(hit);
+            }
+            return result;
+        }
+
+        @Override
+        public void fill(Result result, String summaryClass, Execution execution) {
+            fills++;
+            for (Hit hit : result.hits())
+                hit.setFilled(summaryClass);
+        }
+
+    }
+
+}
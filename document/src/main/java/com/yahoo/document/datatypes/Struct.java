@@ -9,6 +9,7 @@ import com.yahoo.document.PositionDataType;
 import com.yahoo.document.StructDataType;
 import com.yahoo.document.serialization.FieldReader;
 import com.yahoo.document.serialization.FieldWriter;
+import com.yahoo.document.serialization.SerializedFieldValue;
 import com.yahoo.document.serialization.XmlSerializationHelper;
 import com.yahoo.document.serialization.XmlStream;
 import com.yahoo.vespa.objects.Ids;
@@ -28,19 +29,36 @@ public class Struct extends StructuredFieldValue {
 
     public static final int classId = registerClass(Ids.document + 33, Struct.class);
     private Hashlet<Integer, FieldValue> values = new Hashlet<>();
-    private int [] order = null;
+    private volatile int [] order = null;
+
+    // The values of fields which are not deserialized yet. A field is in either this or values.
+    // Deserialized fields are set to null here, to avoid rebuilding it for each field.
+    // Reads may deserialize fields, so while serializedCount is non-zero, values and serializedValues are only
+    // accessed while holding the monitor of this. Once it is zero, reads no longer modify this and need no lock.
+    private Hashlet<Integer, SerializedFieldValue> serializedValues = null;
+    private volatile int serializedCount = 0;
 
     private int version;
 
     private int [] getInOrder() {
-        if (order == null) {
-            order = new int[values.size()];
-            for (int i = 0; i < values.size(); i++) {
-                order[i] = values.key(i);
+        int [] inOrder = order;
+        if (inOrder == null) {
+            synchronized (this) {
+                inOrder = new int[values.size() + serializedCount];
+                int next = 0;
+                for (int i = 0; i < values.size(); i++) {
+                    inOrder[next++] = values.key(i);
+                }
+                for (int i = 0; serializedCount > 0 && i < serializedValues.size(); i++) {
+                    if (serializedValues.value(i) != null) {
+                        inOrder[next++] = serializedValues.key(i);
+                    }
+                }
+                Arrays.sort(inOrder);
+                order = inOrder;
             }
-            Arrays.sort(order);
         }
-        return order;
+        return inOrder;
     }
 
     private void invalidateOrder() {
@@ -86,20 +104,117 @@ public class Struct extends StructuredFieldValue {
         return getDataType().getCompressionConfig().threshold;
     }
 
+    /**
+     * Sets the serialized value of a field. The value is deserialized when the field is first accessed,
+     * and is serialized as is until then.
+     */
+    public void setSerializedFieldValue(Field field, SerializedFieldValue value) {
+        if (values.getIndexOfKey(field.getId()) != -1) {
+            removeFieldValue(field);
+        }
+        if (serializedValues == null) {
+            serializedValues = new Hashlet<>();
+        }
+        int index = serializedValues.getIndexOfKey(field.getId());
+        if (index == -1) {
+            serializedValues.put(field.getId(), value);
+            invalidateOrder();
+        } else {
+            if (serializedValues.value(index) == null) {
+                invalidateOrder();
+            } else {
+                serializedCount--;
+            }
+            serializedValues.setValue(index, value);
+        }
+        serializedCount++;
+    }
+
+    /**
+     * Returns the serialized value of the given field if it is not deserialized yet, and null otherwise.
+     * This does not deserialize the field.
+     */
+    public SerializedFieldValue getSerializedFieldValue(Field field) {
+        if (serializedCount == 0) return null;
+        synchronized (this) {
+            return serializedCount == 0 ? null : serializedValues.get(field.getId());
+        }
+    }
+
+    /** Removes and returns the serialized value of the field with the given id, or returns null if it has none */
+    private SerializedFieldValue removeSerialized(int id) {
+        if (serializedCount == 0) return null;
+        int index = serializedValues.getIndexOfKey(id);
+        if (index == -1) return null;
+        SerializedFieldValue serialized = serializedValues.value(index);
+        if (serialized == null) return null;
+        serializedValues.setValue(index, null);
+        if (--serializedCount == 0) {
+            serializedValues = null;
+        }
+        return serialized;
+    }
+
+    /** Returns the value of the field with the given id, deserializing it first if necessary */
+    private FieldValue valueOf(int id) {
+        if (serializedCount == 0) return values.get(id);
+        synchronized (this) {
+            deserialize(id);
+            return values.get(id);
+        }
+    }
+
+    /**
+     * Deserializes the value of the field with the given id, if it is not deserialized yet.
+     * The deserialized value is added before the serialized one is removed, so it is published
+     * to readers which see a zero serializedCount.
+     */
+    private synchronized void deserialize(int id) {
+        if (serializedCount == 0) return;
+        int index = serializedValues.getIndexOfKey(id);
+        if (index == -1) return;
+        SerializedFieldValue serialized = serializedValues.value(index);
+        if (serialized == null) return;
+        values.put(id, serialized.deserialize(getDataType().getField(id)));
+        removeSerialized(id);
+    }
+
+    private void deserializeAll() {
+        if (serializedCount == 0) return;
+        synchronized (this) {
+            for (int i = 0; serializedCount > 0 && i < serializedValues.size(); i++) {
+                deserialize(serializedValues.key(i));
+            }
+        }
+    }
+
     @Override
     public Struct clone() {
-        Struct struct = (Struct) super.clone();
-        struct.values = new Hashlet<>();
-        struct.values.reserve(values.size());
-        for (int i = 0; i < values.size(); i++) {
-            struct.values.put(values.key(i), values.value(i).clone());
+        synchronized (this) {
+            Struct struct = (Struct) super.clone();
+            struct.values = new Hashlet<>();
+            struct.values.reserve(values.size());
+            for (int i = 0; i < values.size(); i++) {
+                struct.values.put(values.key(i), values.value(i).clone());
+            }
+            if (serializedCount > 0) {
+                struct.serializedValues = new Hashlet<>();
+                struct.serializedValues.reserve(serializedCount);
+                for (int i = 0; i < serializedValues.size(); i++) {
+                    if (serializedValues.value(i) != null) {
+                        struct.serializedValues.put(serializedValues.key(i), serializedValues.value(i));
+                    }
+                }
+            }
+            return struct;
         }
-        return struct;
     }
 
     @Override
     public void clear() {
         values = new Hashlet<>();
+        serializedValues = null;
+        serializedCount = 0;
         invalidateOrder();
     }
 
@@ -127,7 +242,7 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public FieldValue getFieldValue(Field field) {
-        return values.get(field.getId());
+        return valueOf(field.getId());
     }
 
 
@@ -138,7 +253,7 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public int getFieldCount() {
-        return values.size();
+        return values.size() + serializedCount;
     }
 
     @Override
@@ -164,6 +279,7 @@ public class Struct extends StructuredFieldValue {
                     "Inconsistent field: " + field);
         }
 
+        removeSerialized(field.getId());
         int index = values.getIndexOfKey(field.getId());
         if (index == -1) {
             values.put(field.getId(), value);
@@ -175,6 +291,7 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public FieldValue removeFieldValue(Field field) {
+        deserialize(field.getId());
         FieldValue found = values.get(field.getId());
         if (found != null) {
             Hashlet<Integer, FieldValue> copy = new Hashlet<>();
@@ -223,11 +340,14 @@ public class Struct extends StructuredFieldValue {
         if (!super.equals(o)) return false;
 
         Struct struct = (Struct) o;
+        deserializeAll();
+        struct.deserializeAll();
         return values.equals(struct.values);
     }
 
     @Override
     public int hashCode() {
+        deserializeAll();
         int result = super.hashCode();
         result = 31 * result + values.hashCode();
         return result;
@@ -235,6 +355,7 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public String toString() {
+        deserializeAll();
         StringBuilder retVal = new StringBuilder();
         retVal.append("Struct (").append(getDataType()).append("): ");
         int [] increasing = getInOrder();
@@ -257,7 +378,7 @@ public class Struct extends StructuredFieldValue {
             return cmp;
         }
         Struct rhs = (Struct)obj;
-        cmp = values.size() - rhs.values.size();
+        cmp = getFieldCount() - rhs.getFieldCount();
         if (cmp != 0) {
             return cmp;
         }
@@ -298,7 +419,7 @@ public class Struct extends StructuredFieldValue {
         }
 
         public FieldValue getValue() {
-            return values.get(id);
+            return valueOf(id);
         }
 
         public FieldValue setValue(FieldValue value) {
@@ -306,6 +427,7 @@ public class Struct extends StructuredFieldValue {
                 throw new NullPointerException("Null values in Struct not supported, use removeFieldValue() to remove value instead.");
             }
 
+            deserialize(id);
             int index = values.getIndexOfKey(id);
             FieldValue retVal = null;
             if (index == -1) {
@@ -335,7 +457,7 @@ public class Struct extends StructuredFieldValue {
     private class FieldSet extends AbstractSet<Map.Entry<Field, FieldValue>> {
         @Override
         public int size() {
-            return values.size();
+            return getFieldCount();
         }
 
         @Override
@@ -36,6 +36,9 @@ public class JsonReader {
 
     private final JsonParser parser;
     private final DocumentTypeManager typeManager;
+    private final TokenBuffer fieldsBuffer = new TokenBuffer();
+    private final VespaJsonDocumentReader documentReader = new VespaJsonDocumentReader();
+    private final DocumentParser feedParser;
     private ReaderState state = ReaderState.AT_START;
 
     enum ReaderState {
@@ -51,10 +54,12 @@ public class JsonReader {
             state = END_OF_FEED;
             throw new IllegalArgumentException(e);
         }
+        feedParser = new DocumentParser(parser, fieldsBuffer, this::readFields);
     }
 
     /**
      * Reads a single operation. The operation is not expected to be part of an array.
+     * The fields of the operation are read directly from the parser if the operation precedes them.
      *
      * @param operationType the type of operation (update or put)
      * @param docIdString document ID.
@@ -64,21 +69,26 @@ public class JsonReader {
         DocumentId docId = new DocumentId(docIdString);
         DocumentParseInfo documentParseInfo;
         try {
-            DocumentParser documentParser = new DocumentParser(parser);
+            DocumentParser documentParser = new DocumentParser(parser, fieldsBuffer, parseInfo -> {
+                parseInfo.operationType = operationType;
+                return readFields(parseInfo);
+            });
             documentParseInfo = documentParser.parse(Optional.of(docId)).get();
         } catch (IOException e) {
             state = END_OF_FEED;
             throw new IllegalArgumentException(e);
         }
         documentParseInfo.operationType = operationType;
-        VespaJsonDocumentReader vespaJsonDocumentReader = new VespaJsonDocumentReader();
-        DocumentOperation operation = vespaJsonDocumentReader.createDocumentOperation(
+        DocumentOperation operation = documentReader.createDocumentOperation(
                 getDocumentTypeFromString(documentParseInfo.documentId.getDocType(), typeManager), documentParseInfo);
         operation.setCondition(TestAndSetCondition.fromConditionString(documentParseInfo.condition));
         return operation;
     }
 
-    /** Returns the next document operation, or null if we have reached the end */
+    /**
+     * Returns the next document operation, or null if we have reached the end.
+     * The fields of the operation are read directly from the parser if the operation precedes them.
+     */
     public DocumentOperation next() {
         switch (state) {
             case AT_START:
@@ -93,7 +103,7 @@ public class JsonReader {
         }
         Optional<DocumentParseInfo> documentParseInfo;
         try {
-            documentParseInfo = parseDocument();
+            documentParseInfo = feedParser.parse(Optional.empty());
         } catch (IOException r) {
             // Jackson is not able to recover from structural parse errors
             state = END_OF_FEED;
@@ -103,14 +113,19 @@ public class JsonReader {
             state = END_OF_FEED;
             return null;
         }
-        VespaJsonDocumentReader vespaJsonDocumentReader = new VespaJsonDocumentReader();
-        DocumentOperation operation = vespaJsonDocumentReader.createDocumentOperation(
+        DocumentOperation operation = documentReader.createDocumentOperation(
                 getDocumentTypeFromString(documentParseInfo.get().documentId.getDocType(), typeManager),
                 documentParseInfo.get());
         operation.setCondition(TestAndSetCondition.fromConditionString(documentParseInfo.get().condition));
         return operation;
     }
 
+    /** Creates the operation and reads its fields as they are parsed, unless it is a remove, which has no fields */
+    private DocumentOperation readFields(DocumentParseInfo documentParseInfo) {
+        if (documentParseInfo.operationType == null || documentParseInfo.operationType == DocumentOperationType.REMOVE)
+            return null;
+        return documentReader.readDocumentOperation(readDocumentType(documentParseInfo.documentId), documentParseInfo);
+    }
 
     public DocumentType readDocumentType(DocumentId docId) {
         return getDocumentTypeFromString(docId.getDocType(), typeManager);
@@ -2,9 +2,7 @@
 package com.yahoo.document.json;
 
 import java.io.IOException;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.Iterator;
+import java.util.Arrays;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
@@ -13,6 +11,11 @@ import com.google.common.base.Preconditions;
 /**
  * Helper class to enable lookahead in the token stream.
  *
+ * Tokens are stored in arrays which are reused when this is cleared, such that a single buffer
+ * can be used for all the documents of a feed without allocating per token.
+ * A buffer may also stream a structure directly from the parser, see {@link #streamObject},
+ * in which case tokens are only buffered when lookahead is required.
+ *
  * @author Steinar Knutsen
  */
 public class TokenBuffer {
@@ -29,60 +32,105 @@ public class TokenBuffer {
         }
     }
 
-    private Deque<Token> buffer;
+    private JsonToken[] tokens;
+    private String[] names;
+    private String[] texts;
+
+    /** The index of the current token */
+    private int position = 0;
+
+    /** The index after the last buffered token */
+    private int end = 0;
+
     private int nesting = 0;
 
+    /** The parser the rest of the structure of this is read from when streaming, or null when all tokens are buffered */
+    private JsonParser parser = null;
+
     public TokenBuffer() {
-        this(new ArrayDeque<>());
+        this(16);
     }
 
-    private TokenBuffer(Deque<Token> buffer) {
-        this.buffer = buffer;
-        if (buffer.size() > 0) {
-            updateNesting(buffer.peekFirst().token);
-        }
+    private TokenBuffer(int capacity) {
+        tokens = new JsonToken[capacity];
+        names = new String[capacity];
+        texts = new String[capacity];
     }
 
     /** Returns whether any tokens are available in this */
     public boolean isEmpty() { return size() == 0; }
 
     public JsonToken next() {
-        buffer.removeFirst();
-        Token t = buffer.peekFirst();
-        if (t == null) {
-            return null;
+        if (position < end)
+            position++;
+        if (position == end) {
+            if (parser == null || nesting == 0) {
+                clearTokens();
+                return null;
+            }
+            clearTokens();
+            addFromParser(nextValue(parser), parser);
         }
-        updateNesting(t.token);
-        return t.token;
+        updateNesting(tokens[position]);
+        return tokens[position];
     }
 
     /** Returns the current token without changing position, or null if none */
     public JsonToken currentToken() {
-        Token token = buffer.peekFirst();
-        if (token == null) return null;
-        return token.token;
+        return position < end ? tokens[position] : null;
     }
 
     /** Returns the current token name without changing position, or null if none */
     public String currentName() {
-        Token token = buffer.peekFirst();
-        if (token == null) return null;
-        return token.name;
+        return position < end ? names[position] : null;
     }
 
     /** Returns the current token text without changing position, or null if none */
     public String currentText() {
-        Token token = buffer.peekFirst();
-        if (token == null) return null;
-        return token.text;
+        return position < end ? texts[position] : null;
     }
 
+    /** Returns the number of tokens buffered in this, including the current */
     public int size() {
-        return buffer.size();
+        return end - position;
+    }
+
+    /** Removes all tokens from this and stops streaming, retaining the allocated capacity */
+    public void clear() {
+        clearTokens();
+        nesting = 0;
+        parser = null;
+    }
+
+    private void clearTokens() {
+        Arrays.fill(names, 0, end, null);
+        Arrays.fill(texts, 0, end, null);
+        position = 0;
+        end = 0;
     }
 
     private void add(JsonToken token, String name, String text) {
-        buffer.addLast(new Token(token, name, text));
+        if (end == tokens.length) {
+            if (position > 0) { // compact
+                int size = size();
+                System.arraycopy(tokens, position, tokens, 0, size);
+                System.arraycopy(names, position, names, 0, size);
+                System.arraycopy(texts, position, texts, 0, size);
+                Arrays.fill(names, size, end, null);
+                Arrays.fill(texts, size, end, null);
+                position = 0;
+                end = size;
+            }
+            else {
+                tokens = Arrays.copyOf(tokens, tokens.length * 2);
+                names = Arrays.copyOf(names, names.length * 2);
+                texts = Arrays.copyOf(texts, texts.length * 2);
+            }
+        }
+        tokens[end] = token;
+        names[end] = name;
+        texts[end] = text;
+        end++;
     }
 
     public void bufferObject(JsonToken first, JsonParser tokens) {
@@ -93,6 +141,25 @@ public class TokenBuffer {
         bufferJsonStruct(first, tokens, JsonToken.START_ARRAY);
     }
 
+    /**
+     * Clears this and positions it at the given first token of an object, which must be the current token of the parser.
+     * The rest of the object is then read from the parser as this is advanced, instead of being buffered up front.
+     * The parser must not be used by others until the end of the object is reached.
+     */
+    public void streamObject(JsonToken first, JsonParser tokens) {
+        Preconditions.checkArgument(first == JsonToken.START_OBJECT,
+                "Expected %s, got %s.", JsonToken.START_OBJECT.name(), first);
+        clear();
+        addFromParser(first, tokens);
+        updateNesting(first);
+        parser = tokens;
+    }
+
+    /** Advances this to the end of the streamed or buffered structure, such that the next token is null */
+    public void skipToEnd() {
+        while (nesting > 0 && next() != null) { }
+    }
+
     private void bufferJsonStruct(JsonToken first, JsonParser tokens, JsonToken firstToken) {
         int localNesting = 0;
         JsonToken t = first;
@@ -109,6 +176,16 @@ public class TokenBuffer {
         }
     }
 
+    /** Reads the rest of a streamed structure into this, such that all its tokens are available for lookahead */
+    private void bufferRest() {
+        if (parser == null) return;
+        int localNesting = nesting;
+        for (int i = position + 1; i < end; i++)
+            localNesting += nestingOffset(tokens[i]);
+        while (localNesting > 0)
+            localNesting = storeAndPeekNesting(nextValue(parser), localNesting, parser);
+    }
+
     private int storeAndPeekNesting(JsonToken t, int nesting, JsonParser tokens) {
         addFromParser(t, tokens);
         return nesting + nestingOffset(t);
@@ -135,7 +212,10 @@ public class TokenBuffer {
 
     private JsonToken nextValue(JsonParser tokens) {
         try {
-            return tokens.nextValue();
+            JsonToken token = tokens.nextValue();
+            if (token == null)
+                throw new IllegalArgumentException("Unexpected end of input");
+            return token;
         } catch (IOException e) {
             // TODO something sane
             throw new IllegalArgumentException(e);
@@ -153,8 +233,8 @@ public class TokenBuffer {
     public String dumpContents() {
         StringBuilder b = new StringBuilder();
         b.append("[nesting: ").append(nesting()).append("\n");
-        for (Token t : buffer) {
-            b.append("(").append(t.token).append(", \"").append(t.name).append("\", \"").append(t.text).append("\")\n");
+        for (int i = position; i < end; i++) {
+            b.append("(").append(tokens[i]).append(", \"").append(names[i]).append("\", \"").append(texts[i]).append("\")\n");
         }
         b.append("]\n");
         return b.toString();
@@ -168,49 +248,47 @@ public class TokenBuffer {
     }
 
     public TokenBuffer prefetchCurrentElement() {
-        Deque<Token> copy = new ArrayDeque<>();
+        TokenBuffer copy = new TokenBuffer();
 
         if (currentToken().isScalarValue()) {
-            copy.add(buffer.peekFirst());
+            copy.add(tokens[position], names[position], texts[position]);
         } else {
+            bufferRest();
             int localNesting = nesting();
             int nestingBarrier = localNesting;
-            for (Token t : buffer) {
-                copy.add(t);
-                localNesting += nestingOffset(t.token);
+            for (int i = position; i < end; i++) {
+                copy.add(tokens[i], names[i], texts[i]);
+                localNesting += nestingOffset(tokens[i]);
                 if (localNesting < nestingBarrier) {
                     break;
                 }
             }
         }
-        return new TokenBuffer(copy);
+        copy.updateNesting(copy.tokens[0]);
+        return copy;
     }
 
     public Token prefetchScalar(String name) {
         int localNesting = nesting();
         int nestingBarrier = localNesting;
-        Token toReturn = null;
-        Iterator<Token> i;
 
         if (name.equals(currentName()) && currentToken().isScalarValue()) {
-            toReturn = buffer.peekFirst();
-        } else {
-            i = buffer.iterator();
-            i.next(); // just ignore the first value, as we know it's not what
-                      // we're looking for, and it's nesting effect is already
-                      // included
-            while (i.hasNext()) {
-                Token t = i.next();
-                if (localNesting == nestingBarrier && name.equals(t.name) && t.token.isScalarValue()) {
-                    toReturn = t;
-                    break;
-                }
-                localNesting += nestingOffset(t.token);
-                if (localNesting < nestingBarrier) {
-                    break;
-                }
+            return new Token(tokens[position], names[position], texts[position]);
+        }
+        bufferRest();
+        // just ignore the first value, as we know it's not what
+        // we're looking for, and it's nesting effect is already
+        // included
+        for (int i = position + 1; i < end; i++) {
+            if (localNesting == nestingBarrier && name.equals(names[i]) && tokens[i].isScalarValue()) {
+                return new Token(tokens[i], names[i], texts[i]);
+            }
+            localNesting += nestingOffset(tokens[i]);
+            if (localNesting < nestingBarrier) {
+                break;
             }
         }
-        return toReturn;
+        return null;
     }
+
 }
@@ -4,7 +4,9 @@ package com.yahoo.document.json.document;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentOperation;
 import com.yahoo.document.json.DocumentOperationType;
+import com.yahoo.document.json.TokenBuffer;
 import com.yahoo.document.json.readers.DocumentParseInfo;
 
 import java.io.IOException;
@@ -25,10 +27,24 @@ public class DocumentParser {
     public static final String FIELDS = "fields";
     public static final String REMOVE = "remove";
     private final JsonParser parser;
+    private final TokenBuffer fieldsBuffer;
+    private final FieldsReader fieldsReader;
     private  long indentLevel;
+    private RuntimeException fieldsFailure;
 
     public DocumentParser(JsonParser parser) {
+        this(parser, null, null);
+    }
+
+    /**
+     * Creates a parser which reuses the given buffer for the fields of all documents, and which lets the given
+     * fields reader read the fields directly from the parser when the document id is known before the fields.
+     * The parse info of a document is only valid until the next document is parsed.
+     */
+    public DocumentParser(JsonParser parser, TokenBuffer fieldsBuffer, FieldsReader fieldsReader) {
         this.parser = parser;
+        this.fieldsBuffer = fieldsBuffer;
+        this.fieldsReader = fieldsReader;
     }
 
     /**
@@ -37,13 +53,25 @@ public class DocumentParser {
      */
     public Optional<DocumentParseInfo> parse(Optional<DocumentId> documentIdArg) throws IOException {
         indentLevel = 0;
-        DocumentParseInfo documentParseInfo = new DocumentParseInfo();
+        fieldsFailure = null;
+        DocumentParseInfo documentParseInfo;
+        if (fieldsBuffer != null) {
+            fieldsBuffer.clear();
+            documentParseInfo = new DocumentParseInfo(fieldsBuffer);
+        }
+        else {
+            documentParseInfo = new DocumentParseInfo();
+        }
         documentIdArg.ifPresent(documentId -> documentParseInfo.documentId = documentId);
         boolean foundItems = false;
         do {
             foundItems |= parseOneItem(documentParseInfo, documentIdArg.isPresent() /* doc id set externally */);
         } while (indentLevel > 0L);
 
+        // the rest of the document is parsed first, so the parser is ready for the next document
+        if (fieldsFailure != null)
+            throw fieldsFailure;
+
         if (documentParseInfo.documentId == null) {
             if (foundItems)
                 throw new IllegalArgumentException("Missing a document operation ('put', 'update' or 'remove')");
@@ -124,7 +152,8 @@ public class DocumentParser {
             JsonToken currentToken = parser.getCurrentToken();
             // "fields" opens a dictionary and is therefore on level two which might be surprising.
             if (currentToken == JsonToken.START_OBJECT && FIELDS.equals(parser.getCurrentName())) {
-                documentParseInfo.fieldsBuffer.bufferObject(currentToken, parser);
+                if ( ! streamFields(documentParseInfo))
+                    documentParseInfo.fieldsBuffer.bufferObject(currentToken, parser);
                 processIndent();
             }
         } catch (IOException e) {
@@ -132,6 +161,26 @@ public class DocumentParser {
         }
     }
 
+    /** Lets the fields reader read the fields from the parser, and returns whether it did */
+    private boolean streamFields(DocumentParseInfo documentParseInfo) {
+        if (fieldsReader == null || documentParseInfo.documentId == null) return false;
+
+        documentParseInfo.fieldsBuffer.streamObject(JsonToken.START_OBJECT, parser);
+        try {
+            documentParseInfo.operation = fieldsReader.read(documentParseInfo);
+        }
+        catch (RuntimeException e) {
+            documentParseInfo.fieldsBuffer.skipToEnd();
+            fieldsFailure = e;
+            return true;
+        }
+        if (documentParseInfo.operation == null) {
+            documentParseInfo.fieldsBuffer.clear();
+            return false;
+        }
+        return true;
+    }
+
     private static DocumentOperationType operationNameToOperationType(String operationName) {
         switch (operationName) {
             case PUT:
@@ -147,4 +196,20 @@ public class DocumentParser {
                                 "\"remove\" and \"update\" are supported.");
         }
     }
+
+    /** Reads the fields of a document operation as they are parsed */
+    @FunctionalInterface
+    public interface FieldsReader {
+
+        /**
+         * Creates the operation of the given parse info, and reads its fields from the fields buffer of it,
+         * which streams them from the parser.
+         *
+         * @return the operation, or null, without reading anything, if it should be created after the whole
+         *         operation is parsed, with its fields buffered
+         */
+        DocumentOperation read(DocumentParseInfo documentParseInfo);
+
+    }
+
 }
@@ -2,6 +2,7 @@
 package com.yahoo.document.json.readers;
 
 import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentOperation;
 import com.yahoo.document.json.DocumentOperationType;
 import com.yahoo.document.json.TokenBuffer;
 
@@ -12,5 +13,16 @@ public class DocumentParseInfo {
     public Optional<Boolean> create = Optional.empty();
     public Optional<String> condition = Optional.empty();
     public DocumentOperationType operationType = null;
-    public TokenBuffer fieldsBuffer = new TokenBuffer();
+    public TokenBuffer fieldsBuffer;
+    /** The operation, if it was created while parsing, with its fields streamed from the parser */
+    public DocumentOperation operation = null;
+
+    public DocumentParseInfo() {
+        this(new TokenBuffer());
+    }
+
+    public DocumentParseInfo(TokenBuffer fieldsBuffer) {
+        this.fieldsBuffer = fieldsBuffer;
+    }
+
 }
@@ -6,7 +6,12 @@ import com.yahoo.document.DataType;
 import com.yahoo.document.DocumentId;
 import com.yahoo.document.PositionDataType;
 import com.yahoo.document.ReferenceDataType;
+import com.yahoo.document.datatypes.DoubleFieldValue;
 import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.document.datatypes.FloatFieldValue;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.LongFieldValue;
+import com.yahoo.document.datatypes.StringFieldValue;
 import com.yahoo.document.json.TokenBuffer;
 import com.yahoo.document.update.ValueUpdate;
 
@@ -85,7 +90,18 @@ public class SingleValueReader {
     }
 
     public static FieldValue readAtomic(String field, DataType expectedType) {
-        if (expectedType.equals(DataType.RAW)) {
+        // the common types are created directly, rather than by reflection in createFieldValue
+        if (expectedType == DataType.STRING) {
+            return new StringFieldValue(field);
+        } else if (expectedType == DataType.INT) {
+            return new IntegerFieldValue(field);
+        } else if (expectedType == DataType.LONG) {
+            return new LongFieldValue(field);
+        } else if (expectedType == DataType.DOUBLE) {
+            return new DoubleFieldValue(field);
+        } else if (expectedType == DataType.FLOAT) {
+            return new FloatFieldValue(field);
+        } else if (expectedType.equals(DataType.RAW)) {
             return expectedType.createFieldValue(Base64.getMimeDecoder().decode(field));
         } else if (expectedType.equals(PositionDataType.INSTANCE)) {
             return PositionDataType.fromString(field);
@@ -6,6 +6,8 @@ import com.yahoo.document.select.parser.ParseException;
 import com.yahoo.document.select.parser.SelectInput;
 import com.yahoo.document.select.parser.SelectParser;
 import com.yahoo.document.select.parser.TokenMgrException;
+import com.yahoo.document.select.rule.CompiledExpression;
+import com.yahoo.document.select.rule.ExpressionCompiler;
 import com.yahoo.document.select.rule.ExpressionNode;
 
 /**
@@ -20,6 +22,7 @@ import com.yahoo.document.select.rule.ExpressionNode;
 public class DocumentSelector {
 
     private ExpressionNode expression;
+    private final CompiledExpression compiled;
 
     /**
      * Creates a document selector from a Document Selection Language string
@@ -40,6 +43,7 @@ public class DocumentSelector {
             throw (ParseException)t.initCause(e instanceof ParseException ?
                                               new ParseException(input.formatException(e.getMessage())) : e);
         }
+        compiled = ExpressionCompiler.compile(expression);
     }
 
     /**
@@ -61,7 +65,7 @@ public class DocumentSelector {
      * @throws RuntimeException if the evaluation enters an illegal state
      */
     public Result accepts(Context context) {
-        return Result.toResult(expression.evaluate(context));
+        return Result.toResult(compiled.evaluate(context));
     }
 
     /**
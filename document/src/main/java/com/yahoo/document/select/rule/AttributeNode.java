@@ -144,14 +144,14 @@ public class AttributeNode implements ExpressionNode {
         return false;
     }
 
-    private static boolean isSimpleImportedField(String path, DocumentType documentType) {
+    static boolean isSimpleImportedField(String path, DocumentType documentType) {
         if (looksLikeComplexFieldPath(path)) {
             return false;
         }
         return documentType.hasImportedField(path);
     }
 
-    private static Object evaluateFieldPath(String fieldPathStr, Object value) {
+    static Object evaluateFieldPath(String fieldPathStr, Object value) {
         if (value instanceof DocumentPut) {
             final Document doc = ((DocumentPut) value).getDocument();
             if (isSimpleImportedField(fieldPathStr, doc.getDataType())) {
@@ -179,7 +179,7 @@ public class AttributeNode implements ExpressionNode {
         return Result.FALSE;
     }
 
-    private static Object evaluateFunction(String function, Object value) {
+    static Object evaluateFunction(String function, Object value) {
         if (value instanceof VariableValueList) {
             VariableValueList retVal = new VariableValueList();
 
@@ -127,8 +127,18 @@ public class ComparisonNode implements ExpressionNode {
 
     @Override
     public Object evaluate(Context context) {
-        Object oLeft = lhs.evaluate(context);
-        Object oRight = rhs.evaluate(context);
+        return evaluate(lhs.evaluate(context), rhs.evaluate(context), null);
+    }
+
+    /**
+     * Compares two evaluated operands.
+     *
+     * @param oLeft the value of the left hand side
+     * @param oRight the value of the right hand side
+     * @param pattern the pattern to match by the regex and glob operators, or null to create it from the right hand side
+     * @return the comparison result
+     */
+    Object evaluate(Object oLeft, Object oRight, Pattern pattern) {
         if (oLeft == null || oRight == null) {
             return evaluateWithAtLeastOneNullSide(oLeft, oRight);
         }
@@ -144,11 +154,11 @@ public class ComparisonNode implements ExpressionNode {
                 return new ResultList(Result.INVALID);
             }
         } else if (oLeft instanceof AttributeNode.VariableValueList) {
-            return evaluateLhsListAndRhsSingle((AttributeNode.VariableValueList)oLeft, oRight);
+            return evaluateLhsListAndRhsSingle((AttributeNode.VariableValueList)oLeft, oRight, pattern);
         } else if (oRight instanceof AttributeNode.VariableValueList) {
-            return evaluateLhsSingleAndRhsList(oLeft, (AttributeNode.VariableValueList)oRight);
+            return evaluateLhsSingleAndRhsList(oLeft, (AttributeNode.VariableValueList)oRight, pattern);
         }
-        return new ResultList(evaluateBool(oLeft, oRight));
+        return new ResultList(evaluateBool(oLeft, oRight, pattern));
     }
 
     /**
@@ -197,7 +207,7 @@ public class ComparisonNode implements ExpressionNode {
         }
     }
 
-    private ResultList evaluateLhsListAndRhsSingle(AttributeNode.VariableValueList lhs, Object rhs) {
+    private ResultList evaluateLhsListAndRhsSingle(AttributeNode.VariableValueList lhs, Object rhs, Pattern pattern) {
         if (rhs == null && lhs == null) {
             return new ResultList(Result.TRUE);
         }
@@ -208,14 +218,14 @@ public class ComparisonNode implements ExpressionNode {
 
         ResultList retVal = new ResultList();
         for (ResultList.VariableValue value : lhs) {
-            Result result = evaluateBool(value.getValue(), rhs);
+            Result result = evaluateBool(value.getValue(), rhs, pattern);
             retVal.add((FieldPathIteratorHandler.VariableMap)value.getVariables().clone(), result);
         }
 
         return retVal;
     }
 
-    private ResultList evaluateLhsSingleAndRhsList(Object lhs, AttributeNode.VariableValueList rhs) {
+    private ResultList evaluateLhsSingleAndRhsList(Object lhs, AttributeNode.VariableValueList rhs, Pattern pattern) {
         if (rhs == null && lhs == null) {
             return new ResultList(Result.TRUE);
         }
@@ -226,7 +236,7 @@ public class ComparisonNode implements ExpressionNode {
 
         ResultList retVal = new ResultList();
         for (ResultList.VariableValue value : rhs) {
-            Result result = evaluateBool(lhs, value.getValue());
+            Result result = evaluateBool(lhs, value.getValue(), pattern);
             retVal.add((FieldPathIteratorHandler.VariableMap)value.getVariables().clone(), result);
         }
 
@@ -238,9 +248,10 @@ public class ComparisonNode implements ExpressionNode {
      *
      * @param lhs Left hand side of operation.
      * @param rhs Right hand side of operation.
+     * @param pattern The pattern to match by the regex and glob operators, or null to create it from rhs.
      * @return The evaluation result.
      */
-    private Result evaluateBool(Object lhs, Object rhs) {
+    Result evaluateBool(Object lhs, Object rhs, Pattern pattern) {
         if (operator.equals("==")) {
             return evaluateEquals(lhs, rhs);
         } else if (operator.equals("!=")) {
@@ -249,7 +260,7 @@ public class ComparisonNode implements ExpressionNode {
                    operator.equals(">") || operator.equals(">=")) {
             return evaluateNumber(lhs, rhs);
         } else if (operator.equals("=~") || operator.equals("=")) {
-            return evaluateString(lhs, rhs);
+            return evaluateString(lhs, pattern != null ? pattern : createPattern(rhs));
         }
         throw new IllegalStateException("Comparison operator '" + operator + "' is not supported.");
     }
@@ -261,7 +272,7 @@ public class ComparisonNode implements ExpressionNode {
      * @param rhs Right hand side of operation.
      * @return Wether or not the two operands are equal.
      */
-    private Result evaluateEquals(Object lhs, Object rhs) {
+    static Result evaluateEquals(Object lhs, Object rhs) {
         if (lhs == null || rhs == null) {
             return Result.toResult(lhs == rhs);
         }
@@ -274,7 +285,7 @@ public class ComparisonNode implements ExpressionNode {
         return Result.toResult(a == b); // Ugh, comparing doubles? Should be converted to long value perhaps...
     }
 
-    private double getAsNumber(Object value) {
+    private static double getAsNumber(Object value) {
         if (value instanceof Number) {
             return ((Number)value).doubleValue();
         } else if (value instanceof NumericFieldValue) {
@@ -312,17 +323,28 @@ public class ComparisonNode implements ExpressionNode {
      * Evalutes the value of this term over a document, given that both operands must be strings.
      *
      * @param lhs Left hand side of operation.
-     * @param rhs Right hand side of operation.
+     * @param pattern The pattern created from the right hand side of operation.
      * @return The evaluation result.
      */
-    private Result evaluateString(Object lhs, Object rhs) {
+    private Result evaluateString(Object lhs, Pattern pattern) {
         String left = "" + lhs; // Allows null objects to evaluate to string.
+        return Result.toResult(pattern.matcher(left).find());
+    }
+
+    /**
+     * Returns the pattern matched by the regex or glob operator of this against the given right hand side.
+     *
+     * @param rhs Right hand side of operation.
+     * @return The pattern, or null if the operator of this is not a regex or glob operator.
+     */
+    Pattern createPattern(Object rhs) {
         String right = "" + rhs;
         if (operator.equals("=~")) {
-            return Result.toResult(Pattern.compile(right).matcher(left).find());
-        } else {
-            return Result.toResult(Pattern.compile(globToRegex(right)).matcher(left).find());
+            return Pattern.compile(right);
+        } else if (operator.equals("=")) {
+            return Pattern.compile(globToRegex(right));
         }
+        return null;
     }
 
     /**
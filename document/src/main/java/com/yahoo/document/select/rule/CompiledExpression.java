@@ -0,0 +1,21 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.select.rule;
+
+import com.yahoo.document.select.Context;
+
+/**
+ * An expression which is compiled for evaluation, see {@link ExpressionCompiler}.
+ */
+@FunctionalInterface
+public interface CompiledExpression {
+
+    /**
+     * Evaluates this over the given context. The value converts by {@link com.yahoo.document.select.Result#toResult}
+     * to the same result as the value of the expression node this is compiled from.
+     *
+     * @param context the context to evaluate in
+     * @return the value of this
+     */
+    Object evaluate(Context context);
+
+}
@@ -0,0 +1,368 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.select.rule;
+
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.Field;
+import com.yahoo.document.FieldPath;
+import com.yahoo.document.FieldPathEntry;
+import com.yahoo.document.datatypes.CompositeFieldValue;
+import com.yahoo.document.datatypes.FieldPathIteratorHandler;
+import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.document.datatypes.StructuredFieldValue;
+import com.yahoo.document.select.Context;
+import com.yahoo.document.select.Result;
+import com.yahoo.document.select.ResultList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiles an expression tree into a tree of closures which evaluates to the same result as the tree itself,
+ * but resolves everything which does not depend on the document once, at compile time:
+ * <ul>
+ *     <li>Logic and comparison nodes are resolved to closures of their operator, and return plain results
+ *         instead of result lists when the result has no variables.</li>
+ *     <li>The patterns of regex and glob comparisons to literals are compiled once.</li>
+ *     <li>Field paths are parsed once per document type, and single-valued fields are accessed directly
+ *         instead of by iterating the document.</li>
+ * </ul>
+ * Nodes without a specialised closure are evaluated by the node itself.
+ */
+public class ExpressionCompiler {
+
+    private ExpressionCompiler() {}
+
+    /**
+     * Compiles the given expression as a document selection.
+     *
+     * @param node the root of the expression to compile
+     * @return an expression whose value converts to the same {@link Result} as the value of the given node
+     */
+    public static CompiledExpression compile(ExpressionNode node) {
+        return compileCondition(node);
+    }
+
+    /** Compiles a node whose value is converted to a result by its parent, returning a Result or a ResultList */
+    private static CompiledExpression compileCondition(ExpressionNode node) {
+        if (node instanceof LogicNode)
+            return compileLogic((LogicNode)node);
+        if (node instanceof ComparisonNode)
+            return compileComparison((ComparisonNode)node);
+        if (node instanceof EmbracedNode)
+            return compileCondition(((EmbracedNode)node).getNode());
+        if (node instanceof NegationNode) {
+            CompiledExpression operand = compileCondition(((NegationNode)node).getNode());
+            return context -> Result.invert(Result.toResult(operand.evaluate(context)));
+        }
+
+        CompiledExpression value = compileValue(node);
+        if (value instanceof AttributeExpression) {
+            AttributeExpression attribute = (AttributeExpression)value;
+            return context -> {
+                Object result = attribute.evaluateUnwrapped(context);
+                return attribute.isSingleValue(result) ? Result.TRUE : toCondition(result);
+            };
+        }
+        return context -> toCondition(value.evaluate(context));
+    }
+
+    /** Compiles a node whose value is used as is by its parent */
+    private static CompiledExpression compileValue(ExpressionNode node) {
+        if (node instanceof LiteralNode) {
+            Object value = ((LiteralNode)node).getValue();
+            return context -> value;
+        }
+        if (node instanceof EmbracedNode)
+            return compileValue(((EmbracedNode)node).getNode());
+        if (node instanceof AttributeNode)
+            return new AttributeExpression((AttributeNode)node, compileValue(((AttributeNode)node).getValue()));
+        return node::evaluate;
+    }
+
+    /** Combines the items of a logic node in the same order as {@link LogicNode#evaluate} */
+    private static CompiledExpression compileLogic(LogicNode node) {
+        List<LogicNode.NodeItem> items = node.getItems();
+        if (items.isEmpty() || items.get(0).getOperator() != LogicNode.NOP)
+            return context -> toCondition(node.evaluate(context));
+
+        Stack<OperatorItem> buf = new Stack<>();
+        for (LogicNode.NodeItem item : items) {
+            if (buf.size() > 1) {
+                while (buf.peek().operator >= item.getOperator())
+                    combine(buf);
+            }
+            buf.push(new OperatorItem(item.getOperator(), compileCondition(item.getNode())));
+        }
+        while (buf.size() > 1)
+            combine(buf);
+        return buf.pop().expression;
+    }
+
+    private static void combine(Stack<OperatorItem> buf) {
+        OperatorItem rhs = buf.pop();
+        OperatorItem lhs = buf.pop();
+        switch (rhs.operator) {
+            case LogicNode.AND: buf.push(new OperatorItem(lhs.operator, and(lhs.expression, rhs.expression))); break;
+            case LogicNode.OR: buf.push(new OperatorItem(lhs.operator, or(lhs.expression, rhs.expression))); break;
+            default: throw new IllegalStateException("Logical operator " + rhs.operator + " not supported.");
+        }
+    }
+
+    private static CompiledExpression and(CompiledExpression lhs, CompiledExpression rhs) {
+        return context -> {
+            Object left = lhs.evaluate(context);
+            if (left == Result.FALSE) return Result.FALSE;
+            if (left instanceof Result) {
+                Object right = rhs.evaluate(context);
+                if (right instanceof Result) {
+                    if (left == Result.TRUE && right == Result.TRUE) return Result.TRUE;
+                    return right == Result.FALSE ? Result.FALSE : Result.INVALID;
+                }
+                return simplify(new ResultList((Result)left).combineAND(() -> (ResultList)right));
+            }
+            return simplify(((ResultList)left).combineAND(() -> ResultList.toResultList(rhs.evaluate(context))));
+        };
+    }
+
+    private static CompiledExpression or(CompiledExpression lhs, CompiledExpression rhs) {
+        return context -> {
+            Object left = lhs.evaluate(context);
+            if (left == Result.TRUE) return Result.TRUE;
+            if (left instanceof Result) {
+                Object right = rhs.evaluate(context);
+                if (right instanceof Result) {
+                    if (left == Result.FALSE && right == Result.FALSE) return Result.FALSE;
+                    return right == Result.TRUE ? Result.TRUE : Result.INVALID;
+                }
+                return simplify(new ResultList((Result)left).combineOR(() -> (ResultList)right));
+            }
+            return simplify(((ResultList)left).combineOR(() -> ResultList.toResultList(rhs.evaluate(context))));
+        };
+    }
+
+    private static CompiledExpression compileComparison(ComparisonNode node) {
+        CompiledExpression lhs = compileValue(node.getLHS());
+        CompiledExpression rhs = compileValue(node.getRHS());
+        Pattern pattern = node.getRHS() instanceof LiteralNode ? createPattern(node, ((LiteralNode)node.getRHS()).getValue())
+                                                               : null;
+        AttributeExpression lhsAttribute = lhs instanceof AttributeExpression ? (AttributeExpression)lhs : null;
+        AttributeExpression rhsAttribute = rhs instanceof AttributeExpression ? (AttributeExpression)rhs : null;
+        boolean equals = node.getOperator().equals("==");
+        boolean notEquals = node.getOperator().equals("!=");
+        return context -> {
+            Object left = lhsAttribute != null ? lhsAttribute.evaluateUnwrapped(context) : lhs.evaluate(context);
+            Object right = rhsAttribute != null ? rhsAttribute.evaluateUnwrapped(context) : rhs.evaluate(context);
+            boolean leftIsSingle = lhsAttribute != null && lhsAttribute.isSingleValue(left);
+            boolean rightIsSingle = rhsAttribute != null && rhsAttribute.isSingleValue(right);
+            if (leftIsSingle && rightIsSingle) { // as comparing two lists of one value without variables
+                if (equals) return ComparisonNode.evaluateEquals(left, right);
+                if (notEquals) return Result.invert(ComparisonNode.evaluateEquals(left, right));
+                return Result.INVALID;
+            }
+            if (leftIsSingle) {
+                if (right instanceof AttributeNode.VariableValueList)
+                    left = AttributeExpression.wrap((FieldValue)left);
+                else if (right != null && right != Result.INVALID)
+                    return node.evaluateBool(left, right, pattern);
+            }
+            else if (rightIsSingle) {
+                if (left instanceof AttributeNode.VariableValueList)
+                    right = AttributeExpression.wrap((FieldValue)right);
+                else if (left != null && left != Result.INVALID)
+                    return node.evaluateBool(left, right, pattern);
+            }
+            return toCondition(node.evaluate(left, right, pattern));
+        };
+    }
+
+    /** Returns the pattern to match against the given literal, or null if it should be created at evaluation */
+    private static Pattern createPattern(ComparisonNode node, Object literal) {
+        try {
+            return node.createPattern(literal);
+        }
+        catch (PatternSyntaxException e) { // fail at evaluation, if the pattern is used
+            return null;
+        }
+    }
+
+    /** Converts a value to a result, or to a result list if it cannot be represented as a result */
+    private static Object toCondition(Object value) {
+        if (value instanceof ResultList || value instanceof AttributeNode.VariableValueList)
+            return simplify(ResultList.toResultList(value));
+        return Result.toResult(value);
+    }
+
+    /**
+     * Returns the result of a list having a single result without variables, as it combines with other
+     * values in the same way, and the list itself otherwise.
+     * Note that empty lists do not combine like false results.
+     */
+    private static Object simplify(ResultList list) {
+        if (list.getResults().size() != 1) return list;
+        ResultList.ResultPair pair = list.getResults().get(0);
+        return pair.getVariables().isEmpty() ? pair.getResult() : list;
+    }
+
+    private static final class OperatorItem {
+
+        final int operator;
+        final CompiledExpression expression;
+
+        OperatorItem(int operator, CompiledExpression expression) {
+            this.operator = operator;
+            this.expression = expression;
+        }
+
+    }
+
+    /**
+     * Evaluation of an attribute node, where the field paths are resolved once per document type.
+     * If the attribute ends by a field path, this can also return a single field value without variables
+     * unwrapped, instead of as a list of one value.
+     */
+    private static final class AttributeExpression implements CompiledExpression {
+
+        private final CompiledExpression value;
+        private final Step[] steps;
+        private final boolean canUnwrap;
+
+        AttributeExpression(AttributeNode node, CompiledExpression value) {
+            this.value = value;
+
+            List<Step> steps = new ArrayList<>();
+            StringBuilder position = new StringBuilder(node.getValue().toString());
+            StringBuilder path = new StringBuilder();
+            String nullMessage = null;
+            for (AttributeNode.Item item : node.getItems()) {
+                if (nullMessage == null)
+                    nullMessage = "Can not invoke '" + item + "' on '" + position + "' because that term evaluated to null.";
+                if (item.getType() != AttributeNode.Item.FUNCTION) {
+                    if (path.length() > 0)
+                        path.append(".");
+                    path.append(item.getName());
+                }
+                else {
+                    steps.add(new Step(nullMessage, path.length() > 0 ? new FieldPathStep(path.toString()) : null, item.getName()));
+                    path = new StringBuilder();
+                    nullMessage = null;
+                }
+                position.append(".").append(item);
+            }
+            if (path.length() > 0)
+                steps.add(new Step(nullMessage, new FieldPathStep(path.toString()), null));
+            this.steps = steps.toArray(new Step[0]);
+            this.canUnwrap = this.steps.length > 0 && this.steps[this.steps.length - 1].function == null;
+        }
+
+        @Override
+        public Object evaluate(Context context) {
+            return evaluate(context, false);
+        }
+
+        /** Evaluates this, but returns single field values without variables unwrapped */
+        Object evaluateUnwrapped(Context context) {
+            return evaluate(context, canUnwrap);
+        }
+
+        /** Returns whether the given value returned from {@link #evaluateUnwrapped} is a single unwrapped value */
+        boolean isSingleValue(Object value) {
+            return canUnwrap && value instanceof FieldValue;
+        }
+
+        private Object evaluate(Context context, boolean unwrap) {
+            Object obj = value.evaluate(context);
+            for (int i = 0; i < steps.length; i++) {
+                Step step = steps[i];
+                if (obj == null)
+                    throw new IllegalStateException(step.nullMessage);
+                if (step.path != null)
+                    obj = step.path.evaluate(obj, unwrap && i == steps.length - 1);
+                if (step.function != null)
+                    obj = AttributeNode.evaluateFunction(step.function, obj);
+            }
+            return obj;
+        }
+
+        static AttributeNode.VariableValueList wrap(FieldValue value) {
+            AttributeNode.VariableValueList values = new AttributeNode.VariableValueList();
+            values.add(new ResultList.VariableValue(new FieldPathIteratorHandler.VariableMap(), value));
+            return values;
+        }
+
+    }
+
+    /** A field path to evaluate, followed by a function to apply, where either may be null */
+    private static final class Step {
+
+        final String nullMessage;
+        final FieldPathStep path;
+        final String function;
+
+        Step(String nullMessage, FieldPathStep path, String function) {
+            this.nullMessage = nullMessage;
+            this.path = path;
+            this.function = function;
+        }
+
+    }
+
+    /** Evaluates a field path as {@link AttributeNode#evaluateFieldPath}, resolved for the last document type seen */
+    private static final class FieldPathStep {
+
+        private final String path;
+        private volatile ResolvedPath resolved = null;
+
+        FieldPathStep(String path) {
+            this.path = path;
+        }
+
+        Object evaluate(Object value, boolean unwrap) {
+            if ( ! (value instanceof DocumentPut)) return AttributeNode.evaluateFieldPath(path, value);
+
+            Document document = ((DocumentPut)value).getDocument();
+            ResolvedPath resolved = this.resolved;
+            if (resolved == null || resolved.type != document.getDataType())
+                this.resolved = resolved = new ResolvedPath(path, document.getDataType());
+            if (resolved.isImported) return null;
+
+            // Access fields of plain documents directly when the result is a single value without variables
+            if (resolved.field != null && document.getClass() == Document.class) {
+                FieldValue fieldValue = document.getFieldValue(resolved.field);
+                if (fieldValue == null) return null;
+                if ( ! (fieldValue instanceof CompositeFieldValue) && ! (fieldValue instanceof StructuredFieldValue))
+                    return unwrap ? fieldValue : AttributeExpression.wrap(fieldValue);
+            }
+            AttributeNode.IteratorHandler handler = new AttributeNode.IteratorHandler();
+            document.iterateNested(resolved.fieldPath, 0, handler);
+            if (handler.values.isEmpty()) return null;
+            return handler.values;
+        }
+
+    }
+
+    private static final class ResolvedPath {
+
+        final DocumentType type;
+        final boolean isImported;
+        final FieldPath fieldPath;
+
+        /** The field of this path if it is a single top level field, or null otherwise */
+        final Field field;
+
+        ResolvedPath(String path, DocumentType type) {
+            this.type = type;
+            this.isImported = AttributeNode.isSimpleImportedField(path, type);
+            this.fieldPath = isImported ? null : type.buildFieldPath(path);
+            this.field = fieldPath != null && fieldPath.size() == 1 && fieldPath.get(0).getType() == FieldPathEntry.Type.STRUCT_FIELD
+                         ? fieldPath.get(0).getFieldRef()
+                         : null;
+        }
+
+    }
+
+}
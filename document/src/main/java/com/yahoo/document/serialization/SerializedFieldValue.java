@@ -0,0 +1,52 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.serialization;
+
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.io.GrowableByteBuffer;
+
+/**
+ * The serialized form of a field value which is not yet deserialized.
+ * This refers to a range of the buffer the value was read from, without copying it.
+ * Instances are immutable as long as that range of the buffer is not modified.
+ *
+ * @see DocumentDeserializerFactory#createLazyHead
+ */
+public final class SerializedFieldValue {
+
+    private final DocumentTypeManager manager;
+    private final short version;
+    private final byte[] data;
+    private final int offset;
+    private final int length;
+
+    SerializedFieldValue(DocumentTypeManager manager, short version, byte[] data, int offset, int length) {
+        this.manager = manager;
+        this.version = version;
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /** Returns the document serialization version of this */
+    public short getVersion() { return version; }
+
+    /** Returns the size of this in bytes */
+    public int getLength() { return length; }
+
+    /** Deserializes this into a new value of the given field */
+    public FieldValue deserialize(Field field) {
+        VespaDocumentDeserializer6 deserializer =
+                new VespaDocumentDeserializer6(manager, GrowableByteBuffer.wrap(data, offset, length), version);
+        FieldValue value = field.getDataType().createFieldValue();
+        value.deserialize(field, deserializer);
+        return value;
+    }
+
+    /** Writes the bytes of this to the given buffer */
+    public void writeTo(GrowableByteBuffer buffer) {
+        buffer.put(data, offset, length);
+    }
+
+}
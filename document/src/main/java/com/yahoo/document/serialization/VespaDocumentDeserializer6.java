@@ -87,11 +87,24 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
     private List<SpanNode> spanNodes;
     private List<Annotation> annotations;
     private int[] stringPositions;
+    private boolean lazy = false;
 
     VespaDocumentDeserializer6(DocumentTypeManager manager, GrowableByteBuffer buf) {
+        this(manager, buf, Document.SERIALIZED_VERSION);
+    }
+
+    VespaDocumentDeserializer6(DocumentTypeManager manager, GrowableByteBuffer buf, short version) {
         super(buf);
         this.manager = manager;
-        this.version = Document.SERIALIZED_VERSION;
+        this.version = version;
+    }
+
+    /**
+     * Sets whether the fields of documents read by this should be deserialized when they are first accessed.
+     * The fields of lazy documents refer to the buffer of this, which must not be modified while they do.
+     */
+    void setLazy(boolean lazy) {
+        this.lazy = lazy;
     }
 
     final public DocumentTypeManager getDocumentTypeManager() { return manager; }
@@ -357,6 +370,11 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
             fieldIdsAndLengths.add(new Tuple2<>(getInt1_4Bytes(null), getInt2_4_8Bytes(null)));
         }
 
+        if (lazy) {
+            readSerializedFields(primary, compression, uncompressedSize, dataSize, fieldIdsAndLengths);
+            return;
+        }
+
         // save a reference to the big buffer we're reading from:
         GrowableByteBuffer bigBuf = buf;
 
@@ -386,6 +404,35 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
         buf = bigBuf;
     }
 
+    /**
+     * Sets the fields of a struct to their serialized values without deserializing them.
+     * Uncompressed data is referred to in the buffer of this, compressed data is decompressed once for all the fields.
+     */
+    private void readSerializedFields(Struct primary, CompressionType compression, int uncompressedSize, int dataSize,
+                                      List<Tuple2<Integer, Long>> fieldIdsAndLengths) {
+        byte[] data;
+        int offset;
+        if (compression == CompressionType.NONE || compression == CompressionType.INCOMPRESSIBLE) {
+            data = getBuf().array();
+            offset = position();
+        } else {
+            data = compressor.decompress(compression, getBuf().array(), position(), uncompressedSize, Optional.of(dataSize));
+            offset = 0;
+        }
+        position(position() + dataSize);
+
+        StructDataType priType = primary.getDataType();
+        for (Tuple2<Integer, Long> fieldIdAndLength : fieldIdsAndLengths) {
+            int length = fieldIdAndLength.second.intValue();
+            Field structField = priType.getField(fieldIdAndLength.first);
+            if (structField != null) {
+                primary.setSerializedFieldValue(structField,
+                                                new SerializedFieldValue(manager, version, data, offset, length));
+            }
+            offset += length;
+        }
+    }
+
     public void read(FieldBase field, StructuredFieldValue value) {
         throw new IllegalArgumentException("read not implemented yet.");
     }
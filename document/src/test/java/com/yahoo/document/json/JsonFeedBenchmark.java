@@ -0,0 +1,109 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.DataType;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.json.readers.DocumentParseInfo;
+import com.yahoo.document.json.readers.VespaJsonDocumentReader;
+import com.yahoo.text.Utf8;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Benchmark of reading a JSON feed of small puts, with the fields of each put buffered before they are read,
+ * and read directly from the parser. Prints documents per second and bytes allocated per document.
+ */
+public class JsonFeedBenchmark {
+
+    private static final int documents = 10000;
+    private static final JsonFactory jsonFactory = new JsonFactory().disable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES);
+
+    private static DocumentTypeManager createTypes() {
+        DocumentTypeManager types = new DocumentTypeManager();
+        DocumentType type = new DocumentType("music");
+        type.addField("title", DataType.STRING);
+        type.addField("artist", DataType.STRING);
+        type.addField("year", DataType.INT);
+        type.addField("downloads", DataType.LONG);
+        type.addField("tags", new ArrayDataType(DataType.STRING));
+        types.registerDocumentType(type);
+        return types;
+    }
+
+    /** Returns a feed of operations, either in an array, or as a sequence of root level values */
+    private static byte[] createFeed(boolean array) {
+        String[] words = { "love", "night", "road", "heart", "rain", "song" };
+        Random random = new Random(42);
+        StringBuilder feed = new StringBuilder(array ? "[\n" : "");
+        for (int i = 0; i < documents; i++) {
+            if (i > 0) feed.append(array ? ",\n" : "\n");
+            feed.append("{\"put\": \"id:test:music::").append(i).append("\", \"fields\": {")
+                .append("\"title\": \"").append(words[random.nextInt(words.length)]).append(' ')
+                                        .append(words[random.nextInt(words.length)]).append("\", ")
+                .append("\"artist\": \"Artist ").append(random.nextInt(100)).append("\", ")
+                .append("\"year\": ").append(1960 + random.nextInt(60)).append(", ")
+                .append("\"downloads\": ").append(random.nextInt(5000)).append(", ")
+                .append("\"tags\": [\"").append(words[random.nextInt(words.length)]).append("\", \"live\"]}}");
+        }
+        return Utf8.toBytes(feed.append(array ? "\n]" : "").toString());
+    }
+
+    /** Reads the feed as before streaming was added: each operation is parsed with its fields buffered first */
+    private static int readBuffered(DocumentTypeManager types, byte[] feed) {
+        JsonReader reader = new JsonReader(types, new ByteArrayInputStream(feed), jsonFactory);
+        try {
+            for (int i = 0; i < documents; i++) {
+                DocumentParseInfo info = reader.parseDocument().get();
+                new VespaJsonDocumentReader().createDocumentOperation(reader.readDocumentType(info.documentId), info);
+            }
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return documents;
+    }
+
+    private static int readStreamed(DocumentTypeManager types, byte[] feed) {
+        JsonReader reader = new JsonReader(types, new ByteArrayInputStream(feed), jsonFactory);
+        int count = 0;
+        while (reader.next() != null)
+            count++;
+        return count;
+    }
+
+    private interface FeedReader {
+        int read(DocumentTypeManager types, byte[] feed);
+    }
+
+    private static void run(String name, FeedReader reader, DocumentTypeManager types, byte[] feed, int iterations) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long count = 0;
+        long startBytes = threads.getThreadAllocatedBytes(thread);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            count += reader.read(types, feed);
+        long nanos = System.nanoTime() - startTime;
+        long bytes = threads.getThreadAllocatedBytes(thread) - startBytes;
+        System.out.println(String.format(Locale.ENGLISH, "%-10s %14.0f docs/s %10.0f bytes/doc",
+                                         name, count * 1e9 / nanos, bytes / (double)count));
+    }
+
+    public static void main(String[] args) {
+        DocumentTypeManager types = createTypes();
+        byte[] operations = createFeed(false);
+        byte[] feed = createFeed(true);
+        for (int round = 0; round < 5; round++) { // the first rounds are warmup
+            run("buffered", JsonFeedBenchmark::readBuffered, types, operations, 50);
+            run("streamed", JsonFeedBenchmark::readStreamed, types, feed, 50);
+        }
+    }
+
+}
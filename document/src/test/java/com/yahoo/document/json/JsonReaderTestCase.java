@@ -63,6 +63,7 @@ import org.junit.rules.ExpectedException;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
@@ -317,6 +318,9 @@ public class JsonReaderTestCase {
         DocumentType docType = r.readDocumentType(parseInfo.documentId);
         DocumentUpdate update = new DocumentUpdate(docType, parseInfo.documentId);
         new VespaJsonDocumentReader().readUpdate(parseInfo.fieldsBuffer, update);
+        DocumentUpdate streamed = (DocumentUpdate) createReader("[" + json + "]").next(); // fields read from the parser
+        assertEquals(new ArrayList<>(update.fieldUpdates()), new ArrayList<>(streamed.fieldUpdates()));
+        assertEquals(new ArrayList<>(update.fieldPathUpdates()), new ArrayList<>(streamed.fieldPathUpdates()));
         return update;
     }
 
@@ -915,6 +919,49 @@ public class JsonReaderTestCase {
 
     }
 
+    @Test
+    public void testCompleteFeedContinuesAfterInvalidStreamedFields() {
+        JsonReader r = createReader(inputJson("[",
+                "{ 'put': 'id:unittest:smoke::bad',",
+                "  'fields': {",
+                "    'nosuchfield': { 'a': [ 1, 2 ] },",
+                "    'something': 'smoketest' },",
+                "  'condition': 'smoke' },",
+                "{ 'put': 'id:unittest:smoke::whee',",
+                "  'fields': {",
+                "    'something': 'smoketest',",
+                "    'flag': true,",
+                "    'nalle': 'bamse' }}]"));
+
+        try {
+            r.next();
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertTrue(Exceptions.toMessageString(e).contains("No field 'nosuchfield'"));
+        }
+        smokeTestDoc(((DocumentPut) r.next()).getDocument());
+        assertNull(r.next());
+    }
+
+    @Test
+    public void testCompleteFeedWithManyFieldsBeforeAndAfterId() {
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < 100; i++)
+            values.append(i > 0 ? ", " : "").append("'element").append(i).append("'");
+        String fields = "'fields': { 'actualarray': [ " + values + " ] }";
+        JsonReader r = createReader(inputJson("[",
+                "{ 'put': 'id:unittest:testarray::first', " + fields + " },",
+                "{ " + fields + ", 'put': 'id:unittest:testarray::second' }]"));
+
+        for (int i = 0; i < 2; i++) {
+            Array<?> array = (Array<?>) ((DocumentPut) r.next()).getDocument().getFieldValue("actualarray");
+            assertEquals(100, array.size());
+            assertEquals(new StringFieldValue("element99"), array.get(99));
+        }
+        assertNull(r.next());
+    }
+
     private void checkSimpleArrayAdd(DocumentUpdate update) {
         Set<String> toAdd = new HashSet<>();
         FieldUpdate x = update.getFieldUpdate("actualarray");
@@ -0,0 +1,107 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.select;
+
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentOperation;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.datatypes.Array;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.document.select.parser.ParseException;
+import com.yahoo.document.select.parser.SelectInput;
+import com.yahoo.document.select.parser.SelectParser;
+import com.yahoo.document.select.rule.ExpressionNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Microbenchmark of evaluating document selections by the expression tree and in compiled form.
+ */
+public class DocumentSelectionBenchmark {
+
+    private static final List<String> selections = List.of(
+            "music",
+            "music.year > 2000",
+            "music.year > 1990 and music.year < 2010 and music.genre == \"rock\"",
+            "music.title = \"*love*\" or music.artist =~ \"^The \"",
+            "not music.genre == \"pop\" and music.downloads > 1000",
+            "music.tags == \"live\"",
+            "music.tags[$x] == \"live\" and music.year > 2000",
+            "id.namespace == \"shard1\" and music.artist.lowercase() == \"the beatles\"");
+
+    private static List<DocumentOperation> createDocuments(int count) {
+        DocumentType type = new DocumentType("music");
+        type.addField("title", DataType.STRING);
+        type.addField("artist", DataType.STRING);
+        type.addField("genre", DataType.STRING);
+        type.addField("year", DataType.INT);
+        type.addField("downloads", DataType.LONG);
+        type.addField("tags", new ArrayDataType(DataType.STRING));
+
+        String[] genres = { "rock", "pop", "jazz", "classical" };
+        String[] words = { "love", "night", "road", "heart", "rain", "song" };
+        Random random = new Random(42);
+        List<DocumentOperation> documents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Document document = new Document(type, new DocumentId("id:shard" + (i % 4) + ":music::" + i));
+            document.setFieldValue("title", words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]);
+            document.setFieldValue("artist", (random.nextBoolean() ? "The " : "") + "Artist " + random.nextInt(100));
+            document.setFieldValue("genre", genres[random.nextInt(genres.length)]);
+            document.setFieldValue("year", 1960 + random.nextInt(60));
+            document.setFieldValue("downloads", (long)random.nextInt(5000));
+            Array<StringFieldValue> tags = new Array<>(type.getField("tags").getDataType());
+            for (int j = random.nextInt(4); j > 0; j--)
+                tags.add(new StringFieldValue(random.nextBoolean() ? "live" : words[random.nextInt(words.length)]));
+            document.setFieldValue("tags", tags);
+            documents.add(new DocumentPut(document));
+        }
+        return documents;
+    }
+
+    private static double interpret(ExpressionNode expression, List<DocumentOperation> documents, int iterations) {
+        int accepted = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            for (DocumentOperation document : documents)
+                if (Result.toResult(expression.evaluate(new Context(document))) == Result.TRUE)
+                    accepted++;
+        return nanosPerDocument(startTime, iterations * documents.size(), accepted);
+    }
+
+    private static double evaluateCompiled(DocumentSelector selector, List<DocumentOperation> documents, int iterations) {
+        int accepted = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            for (DocumentOperation document : documents)
+                if (selector.accepts(document) == Result.TRUE)
+                    accepted++;
+        return nanosPerDocument(startTime, iterations * documents.size(), accepted);
+    }
+
+    private static double nanosPerDocument(long startTime, int evaluations, int accepted) {
+        if (accepted < 0) throw new IllegalStateException(); // use the result
+        return (System.nanoTime() - startTime) / (double)evaluations;
+    }
+
+    public static void main(String[] args) throws ParseException {
+        List<DocumentOperation> documents = createDocuments(10000);
+        int iterations = 100;
+        System.out.println(String.format(Locale.ENGLISH, "%-90s %12s %16s", "selection", "tree ns/doc", "compiled ns/doc"));
+        for (String selection : selections) {
+            ExpressionNode expression = new SelectParser(new SelectInput(selection)).expression();
+            DocumentSelector selector = new DocumentSelector(selection);
+            interpret(expression, documents, iterations / 10); // warmup
+            evaluateCompiled(selector, documents, iterations / 10);
+            System.out.println(String.format(Locale.ENGLISH, "%-90s %12.1f %16.1f", selection,
+                                             interpret(expression, documents, iterations),
+                                             evaluateCompiled(selector, documents, iterations)));
+        }
+    }
+
+}
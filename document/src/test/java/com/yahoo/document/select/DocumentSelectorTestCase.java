@@ -25,6 +25,8 @@ import com.yahoo.document.datatypes.Struct;
 import com.yahoo.document.datatypes.WeightedSet;
 import com.yahoo.document.select.convert.SelectionExpressionConverter;
 import com.yahoo.document.select.parser.ParseException;
+import com.yahoo.document.select.parser.SelectInput;
+import com.yahoo.document.select.parser.SelectParser;
 import com.yahoo.document.select.parser.TokenMgrException;
 import com.yahoo.yolean.Exceptions;
 import org.junit.Before;
@@ -739,6 +741,41 @@ public class DocumentSelectorTestCase {
         assertEquals(Result.FALSE, evaluate("test.structarrmap{$x}.key == 17 AND test.stringweightedset{$x}", documents.get(1)));
     }
 
+    @Test
+    public void compiled_evaluation_gives_the_same_results_as_the_interpreter() throws ParseException {
+        List<DocumentOperation> operations = new ArrayList<>(createDocs());
+        operations.add(new DocumentUpdate(manager.getDocumentType("test"), new DocumentId("id:myspace:test::anything")));
+        operations.add(new DocumentRemove(new DocumentId("id:myspace:test::anything")));
+        operations.add(new DocumentGet(new DocumentId("id:myspace:test::anything")));
+        List<String> selections = List.of("test.hint > 14 and test.content = \"*o*\"",
+                                          "test.hint < 14 or test.hstring =~ \"^b\" or test.hfloat >= 2",
+                                          "not (test.hint == 15 and test.content != \"bar\")",
+                                          "test.hint == test.hint and test.hstring != test.content",
+                                          "test.hint < test.hfloat",
+                                          "test.hint and test.hint < 1234 or test.hfloat",
+                                          "test.content.lowercase() == \"bar\" or test.hstring.uppercase() = \"F*\"",
+                                          "test.hint + 1 > 14",
+                                          "test.intarray > 50 or true",
+                                          "test.intarray[$x] > 50 and test.intarray[$x] < 80",
+                                          "test.intarray[$x] > 100 or test.hint == 13",
+                                          "test.mymap{$x} == \"a\" or test.stringweightedset{$x} == 1",
+                                          "test.mymap{3} == test.hstring or test.mymap == test.intarray",
+                                          "test.structarray.key == 15 and test.mystruct.value = \"struct*\"",
+                                          "test.structarrmap{$x}[$y].key == 15 AND test.structarrmap{$x}[$y].value == \"structval1\"",
+                                          "test.my_imported_field == null or test.my_imported_field > 3",
+                                          "test.hint = 24 or test.content =~ \"(\"",
+                                          "test.hstring.lowercase() == \"foo\"",
+                                          "test.nonexisting == 1",
+                                          "id.user == 1234 and test.hint > 1",
+                                          "id.group == \"mygroup\" or test.hint = 15",
+                                          "test and (test.hint > 14 or test.hint < 14)",
+                                          "user.id == 1 or test.hstring",
+                                          "nonexisting.field == 1 or test.hint > 1000");
+        for (String selection : selections)
+            for (DocumentOperation operation : operations)
+                assertSameAsInterpreted(selection, operation);
+    }
+
     @Test
     public void using_non_commutative_comparison_operator_with_field_value_is_well_defined() throws ParseException {
         var documents = createDocs();
@@ -900,7 +937,32 @@ public class DocumentSelectorTestCase {
     }
 
     private static Result evaluate(String expressionString, DocumentOperation op) throws ParseException {
-        return new DocumentSelector(expressionString).accepts(op);
+        Result result = new DocumentSelector(expressionString).accepts(op);
+        assertEquals("Compiled evaluation of '" + expressionString + "' matches the interpreter",
+                     interpret(expressionString, op), result);
+        return result;
+    }
+
+    /** Evaluates the given selection by the expression tree, without compiling it */
+    private static Result interpret(String expressionString, DocumentOperation op) throws ParseException {
+        return Result.toResult(new SelectParser(new SelectInput(expressionString)).expression().evaluate(new Context(op)));
+    }
+
+    /** Asserts that compiled and interpreted evaluation give the same result, or throw the same exception */
+    private static void assertSameAsInterpreted(String expressionString, DocumentOperation op) throws ParseException {
+        DocumentSelector selector = new DocumentSelector(expressionString);
+        String expected, actual;
+        try {
+            expected = interpret(expressionString, op).toString();
+        } catch (RuntimeException e) {
+            expected = e.getClass().getName() + ": " + e.getMessage();
+        }
+        try {
+            actual = selector.accepts(op).toString();
+        } catch (RuntimeException e) {
+            actual = e.getClass().getName() + ": " + e.getMessage();
+        }
+        assertEquals("Evaluation of '" + expressionString + "' over " + op.getId(), expected, actual);
     }
 
     private static void assertError(String expressionString, DocumentOperation op, String expectedError) {
@@ -912,6 +974,11 @@ public class DocumentSelectorTestCase {
         } catch (RuntimeException e) {
             assertTrue(e.getMessage().length() >= expectedError.length());
             assertEquals(expectedError, e.getMessage().substring(0, expectedError.length()));
+            try {
+                assertSameAsInterpreted(expressionString, op);
+            } catch (ParseException pe) {
+                fail("The expression '" + expressionString + "' should assertEquals ok.");
+            }
         }
     }
 
@@ -0,0 +1,171 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.serialization;
+
+import com.yahoo.compress.CompressionType;
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.CompressionConfig;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.datatypes.Array;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.io.GrowableByteBuffer;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("deprecation")
+public class LazyDocumentDeserializationTestCase {
+
+    private static final String TEXT = "zippy zip mc zippington the 3rd zippy zip zippy zip mc zippington the 3rd";
+
+    private final DocumentTypeManager manager = new DocumentTypeManager();
+    private final DocumentType type = new DocumentType("lazy");
+    private final DocumentType compressedType = new DocumentType("lazy_compressed");
+
+    public LazyDocumentDeserializationTestCase() {
+        for (DocumentType documentType : Arrays.asList(type, compressedType)) {
+            documentType.addField("title", DataType.STRING);
+            documentType.addField("year", DataType.INT);
+            documentType.addField("tags", new ArrayDataType(DataType.STRING));
+            manager.registerDocumentType(documentType);
+        }
+        compressedType.contentStruct().setCompressionConfig(new CompressionConfig(CompressionType.LZ4));
+    }
+
+    private Document createDocument(DocumentType documentType) {
+        Document document = new Document(documentType, "id:ns:" + documentType.getName() + "::1");
+        document.setFieldValue("title", new StringFieldValue(TEXT));
+        document.setFieldValue("year", new IntegerFieldValue(1999));
+        Array<StringFieldValue> tags = new Array<>(documentType.getField("tags").getDataType());
+        tags.add(new StringFieldValue("foo"));
+        tags.add(new StringFieldValue("bar"));
+        document.setFieldValue("tags", tags);
+        return document;
+    }
+
+    private static byte[] serialize(Document document) {
+        GrowableByteBuffer buffer = new GrowableByteBuffer();
+        DocumentSerializerFactory.createHead(buffer).write(document);
+        buffer.flip();
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        return data;
+    }
+
+    private Document deserializeLazily(byte[] data) {
+        return new Document(DocumentDeserializerFactory.createLazyHead(manager, GrowableByteBuffer.wrap(data)));
+    }
+
+    @Test
+    public void lazily_deserialized_document_equals_the_original() {
+        assertLazyDeserialization(createDocument(type));
+    }
+
+    @Test
+    public void lazily_deserialized_compressed_document_equals_the_original() {
+        assertLazyDeserialization(createDocument(compressedType));
+    }
+
+    private void assertLazyDeserialization(Document original) {
+        Document document = deserializeLazily(serialize(original));
+        assertEquals(original.getId(), document.getId());
+        assertEquals(3, document.getFieldCount());
+        assertEquals(original, document);
+        assertEquals(original.hashCode(), document.hashCode());
+    }
+
+    @Test
+    public void fields_are_deserialized_when_accessed() {
+        Document document = deserializeLazily(serialize(createDocument(type)));
+        Field title = type.getField("title");
+        Field year = type.getField("year");
+        assertNotNull(document.getHeader().getSerializedFieldValue(title));
+        assertNotNull(document.getHeader().getSerializedFieldValue(year));
+
+        assertEquals(new StringFieldValue(TEXT), document.getFieldValue(title));
+        assertNull(document.getHeader().getSerializedFieldValue(title));
+        assertNotNull(document.getHeader().getSerializedFieldValue(year));
+        assertEquals(3, document.getFieldCount());
+    }
+
+    @Test
+    public void untouched_fields_are_serialized_as_read() {
+        for (DocumentType documentType : Arrays.asList(type, compressedType)) {
+            byte[] data = serialize(createDocument(documentType));
+            assertArrayEquals(data, serialize(deserializeLazily(data)));
+        }
+    }
+
+    @Test
+    public void modified_documents_are_serialized_with_the_modifications() {
+        for (DocumentType documentType : Arrays.asList(type, compressedType)) {
+            Document expected = createDocument(documentType);
+            expected.setFieldValue("year", new IntegerFieldValue(2020));
+            expected.removeFieldValue("tags");
+
+            Document document = deserializeLazily(serialize(createDocument(documentType)));
+            document.setFieldValue("year", new IntegerFieldValue(2020));
+            document.removeFieldValue("tags");
+            assertEquals(2, document.getFieldCount());
+            assertEquals(expected, document);
+            assertArrayEquals(serialize(expected), serialize(document));
+            assertEquals(expected, deserializeLazily(serialize(document)));
+        }
+    }
+
+    @Test
+    public void clones_are_independent() {
+        Document document = deserializeLazily(serialize(createDocument(type)));
+        Document clone = document.clone();
+        clone.setFieldValue("title", new StringFieldValue("changed"));
+        assertEquals(new StringFieldValue(TEXT), document.getFieldValue("title"));
+        assertEquals(new StringFieldValue("changed"), clone.getFieldValue("title"));
+        assertFalse(document.equals(clone));
+    }
+
+    @Test
+    public void fields_can_be_read_concurrently() throws InterruptedException {
+        Document original = createDocument(type);
+        byte[] data = serialize(original);
+        for (int i = 0; i < 100; i++) {
+            Document document = deserializeLazily(data);
+            Thread[] threads = new Thread[4];
+            boolean[] ok = new boolean[threads.length];
+            for (int t = 0; t < threads.length; t++) {
+                int thread = t;
+                threads[t] = new Thread(() -> {
+                    for (Field field : type.getFields()) {
+                        if ( ! original.getFieldValue(field).equals(document.getFieldValue(field))) return;
+                    }
+                    ok[thread] = original.equals(document) && original.hashCode() == document.hashCode();
+                });
+            }
+            for (Thread thread : threads) thread.start();
+            for (int t = 0; t < threads.length; t++) {
+                threads[t].join();
+                assertTrue(ok[t]);
+            }
+            assertArrayEquals(data, serialize(document));
+        }
+    }
+
+    @Test
+    public void cleared_documents_have_no_fields() {
+        Document document = deserializeLazily(serialize(createDocument(type)));
+        document.clear();
+        assertEquals(0, document.getFieldCount());
+        assertNull(document.getFieldValue("title"));
+    }
+
+}
@@ -20,6 +20,7 @@ public class MessageBusParams extends DocumentAccessParams {
     private com.yahoo.messagebus.MessageBusParams mbusParams = new com.yahoo.messagebus.MessageBusParams();
     private SourceSessionParams sourceSessionParams = new SourceSessionParams();
     private LoadTypeSet loadTypes;
+    private boolean lazyDocumentDecoding = false;
 
     public MessageBusParams() {
         this(new LoadTypeSet());
@@ -144,6 +145,27 @@ public class MessageBusParams extends DocumentAccessParams {
         return this;
     }
 
+    /**
+     * Returns whether the fields of documents in received messages are deserialized when first accessed.
+     *
+     * @return True if document fields are deserialized lazily.
+     */
+    public boolean getLazyDocumentDecoding() {
+        return lazyDocumentDecoding;
+    }
+
+    /**
+     * Sets whether the fields of documents in received messages should be deserialized when first accessed,
+     * instead of when the message is received. This is off by default.
+     *
+     * @param lazy Whether to deserialize document fields lazily.
+     * @return This object for chaining.
+     */
+    public MessageBusParams setLazyDocumentDecoding(boolean lazy) {
+        this.lazyDocumentDecoding = lazy;
+        return this;
+    }
+
     /**
      * Returns the params object used to instantiate the rpc network layer for message bus.
      *
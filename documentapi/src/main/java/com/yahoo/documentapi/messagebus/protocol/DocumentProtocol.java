@@ -357,6 +357,20 @@ public class DocumentProtocol implements Protocol {
         return this;
     }
 
+    /**
+     * Sets whether the fields of documents in decoded messages should be deserialized when first accessed,
+     * rather than when the message is decoded. Untouched fields are then also re-encoded without being
+     * deserialized. This is off by default. This method is thread-safe, and may be invoked on a protocol object
+     * that is already in use by a message bus instance.
+     *
+     * @param lazy whether to deserialize document fields lazily
+     * @return this, to allow chaining
+     */
+    public DocumentProtocol setLazyDocumentDecoding(boolean lazy) {
+        routableRepository.setLazyDocumentDecoding(lazy);
+        return this;
+    }
+
     /**
      * Returns a string representation of the given error code.
      *
@@ -34,6 +34,7 @@ final class RoutableRepository {
     private final CopyOnWriteHashMap<Integer, VersionMap> factoryTypes = new CopyOnWriteHashMap<>();
     private final CopyOnWriteHashMap<CacheKey, RoutableFactory> cache = new CopyOnWriteHashMap<>();
     private LoadTypeSet loadTypes;
+    private volatile boolean lazyDocumentDecoding = false;
 
     public RoutableRepository(LoadTypeSet set) {
         loadTypes = set;
@@ -58,7 +59,9 @@ final class RoutableRepository {
             log.log(Level.SEVERE,"Can not decode anything from (version " + version + "). Only major version 5 and up supported.");
             return null;
         }
-        DocumentDeserializer in = DocumentDeserializerFactory.createHead(docMan, GrowableByteBuffer.wrap(data));
+        DocumentDeserializer in = lazyDocumentDecoding
+                                  ? DocumentDeserializerFactory.createLazyHead(docMan, GrowableByteBuffer.wrap(data))
+                                  : DocumentDeserializerFactory.createHead(docMan, GrowableByteBuffer.wrap(data));
 
 
         int type = in.getInt(null);
@@ -76,6 +79,11 @@ final class RoutableRepository {
         return ret;
     }
 
+    /** Sets whether documents in decoded routables should have their fields deserialized when first accessed */
+    void setLazyDocumentDecoding(boolean lazy) {
+        lazyDocumentDecoding = lazy;
+    }
+
     /**
      * Encodes a {@link Routable} into a byte array. This dispatches the encode request to the appropriate {@link
      * RoutableFactory} that was previously registered.
@@ -18,6 +18,7 @@ import com.yahoo.messagebus.routing.RoutingContext;
 import com.yahoo.messagebus.routing.RoutingNodeIterator;
 import com.yahoo.messagebus.routing.VerbatimDirective;
 import com.yahoo.vdslib.distribution.Distribution;
+import com.yahoo.vdslib.distribution.Group;
 import com.yahoo.vdslib.state.ClusterState;
 import com.yahoo.vdslib.state.Node;
 import com.yahoo.vdslib.state.NodeType;
@@ -298,6 +299,53 @@ public class StoragePolicy extends SlobrokPolicy {
         }
     }
 
+    /**
+     * Caches the ideal distributor of each superbucket, for one cluster state and the current distribution config.
+     * The ideal distributor of a bucket depends only on its distribution bits, so when there are at most
+     * {@link #MAX_CACHED_DISTRIBUTION_BITS} of these, the distributors of all superbuckets are kept in a table
+     * which is filled as they are looked up. Threads racing to fill the same entry store the same value.
+     */
+    public static class IdealDistributorCache {
+
+        static final int MAX_CACHED_DISTRIBUTION_BITS = 16;
+
+        private final Distribution distribution;
+        private final Group rootGroup;
+        private final ClusterState state;
+        private final String upStates;
+        private final int[] distributors; // The distributor index plus one, or 0 if not looked up yet
+
+        public IdealDistributorCache(Distribution distribution, ClusterState state, String upStates) {
+            this.distribution = distribution;
+            this.rootGroup = distribution.getRootGroup();
+            this.state = state;
+            this.upStates = upStates;
+            int bits = state.getDistributionBitCount();
+            this.distributors = bits <= MAX_CACHED_DISTRIBUTION_BITS ? new int[1 << bits] : null;
+        }
+
+        /** Returns whether this holds lookups in the given state, with the current config of its distribution */
+        public boolean isFor(ClusterState state) {
+            return this.state == state && rootGroup == distribution.getRootGroup();
+        }
+
+        /** Returns the same as {@link Distribution#getIdealDistributorNode} for the state and up states of this */
+        public int getIdealDistributorNode(BucketId bucket) throws Distribution.TooFewBucketBitsInUseException,
+                                                                   Distribution.NoDistributorsAvailableException {
+            if (distributors == null || bucket.getUsedBits() < state.getDistributionBitCount()) {
+                return distribution.getIdealDistributorNode(state, bucket, upStates);
+            }
+            int superbucket = ((int) bucket.getRawId()) & (distributors.length - 1);
+            int distributor = distributors[superbucket];
+            if (distributor == 0) {
+                distributor = distribution.getIdealDistributorNode(state, bucket, upStates) + 1;
+                distributors[superbucket] = distributor;
+            }
+            return distributor - 1;
+        }
+
+    }
+
     /** Class handling the logic of picking a distributor */
     public static class DistributorSelectionLogic {
         /** Class that tracks a failure of a given type per node. */
@@ -347,6 +395,7 @@ public class StoragePolicy extends SlobrokPolicy {
         private final Distribution distribution;
         private final InstabilityChecker persistentFailureChecker;
         private final AtomicReference<ClusterState> safeCachedClusterState = new AtomicReference<>(null);
+        private final AtomicReference<IdealDistributorCache> idealDistributorCache = new AtomicReference<>(null);
         private final AtomicInteger oldClusterVersionGottenCount = new AtomicInteger(0);
         private final int maxOldClusterVersionBeforeSendingRandom; // Reset cluster version protection
 
@@ -377,7 +426,7 @@ public class StoragePolicy extends SlobrokPolicy {
 
             if (cachedClusterState != null) { // If we have a cached cluster state (regular case), we use that to calculate correct node.
                 try{
-                    Integer target = distribution.getIdealDistributorNode(cachedClusterState, bucketId, owningBucketStates);
+                    Integer target = getIdealDistributorNode(cachedClusterState, bucketId);
                     // If we have had too many failures towards existing node, reset failure count and send to random
                     if (persistentFailureChecker.tooManyFailures(target)) {
                         sendRandomReason = "Too many failures detected versus distributor " + target + ". Sending to random instead of using cached state.";
@@ -422,6 +471,16 @@ public class StoragePolicy extends SlobrokPolicy {
             return hostFetcher.getRandomTargetSpec(context);
         }
 
+        private int getIdealDistributorNode(ClusterState state, BucketId bucketId) throws Distribution.TooFewBucketBitsInUseException,
+                                                                                          Distribution.NoDistributorsAvailableException {
+            IdealDistributorCache cache = idealDistributorCache.get();
+            if (cache == null || ! cache.isFor(state)) {
+                cache = new IdealDistributorCache(distribution, state, owningBucketStates);
+                idealDistributorCache.set(cache);
+            }
+            return cache.getIdealDistributorNode(bucketId);
+        }
+
         private static MessageContext createRandomDistributorTargetContext() {
             return new MessageContext(null);
         }
@@ -0,0 +1,57 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.documentapi.messagebus.protocol.test;
+
+import com.yahoo.component.Version;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.documentapi.messagebus.protocol.DocumentProtocol;
+import com.yahoo.documentapi.messagebus.protocol.PutDocumentMessage;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@SuppressWarnings("deprecation")
+public class LazyDocumentDecodingTestCase {
+
+    private static final Version version = new Version(6, 221, 0);
+
+    private final DocumentTypeManager manager = new DocumentTypeManager();
+    private final DocumentType type = new DocumentType("music");
+    private final Field title;
+
+    public LazyDocumentDecodingTestCase() {
+        type.addField("title", DataType.STRING);
+        manager.registerDocumentType(type);
+        title = type.getField("title");
+    }
+
+    private Document decode(DocumentProtocol protocol) {
+        Document document = new Document(type, "id:ns:music::1");
+        document.setFieldValue(title, new StringFieldValue("title"));
+        byte[] data = protocol.encode(version, new PutDocumentMessage(new DocumentPut(document)));
+        return ((PutDocumentMessage) protocol.decode(version, data)).getDocumentPut().getDocument();
+    }
+
+    @Test
+    public void documents_are_decoded_eagerly_by_default() {
+        Document document = decode(new DocumentProtocol(manager));
+        assertNull(document.getHeader().getSerializedFieldValue(title));
+        assertEquals(new StringFieldValue("title"), document.getFieldValue(title));
+    }
+
+    @Test
+    public void documents_are_decoded_lazily_when_enabled() {
+        Document document = decode(new DocumentProtocol(manager).setLazyDocumentDecoding(true));
+        assertNotNull(document.getHeader().getSerializedFieldValue(title));
+        assertEquals(new StringFieldValue("title"), document.getFieldValue(title));
+        assertNull(document.getHeader().getSerializedFieldValue(title));
+    }
+
+}
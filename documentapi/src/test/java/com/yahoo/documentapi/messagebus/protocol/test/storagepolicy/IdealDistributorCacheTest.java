@@ -0,0 +1,103 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.documentapi.messagebus.protocol.test.storagepolicy;
+
+import com.yahoo.document.BucketId;
+import com.yahoo.document.BucketIdFactory;
+import com.yahoo.document.DocumentId;
+import com.yahoo.documentapi.messagebus.protocol.StoragePolicy;
+import com.yahoo.vdslib.distribution.Distribution;
+import com.yahoo.vdslib.state.ClusterState;
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IdealDistributorCacheTest {
+
+    private static final Logger log = Logger.getLogger(IdealDistributorCacheTest.class.getName());
+
+    private final Distribution distribution = new Distribution("raw:" + Distribution.getDefaultDistributionConfig(2, 200));
+
+    @Test
+    public void cachedDistributorsAreTheIdealOnes() throws Exception {
+        ClusterState state = new ClusterState("version:3 bits:16 distributor:200 .7.s:d .42.s:m storage:200");
+        StoragePolicy.IdealDistributorCache cache = new StoragePolicy.IdealDistributorCache(distribution, state,
+                                                                                          StoragePolicy.owningBucketStates);
+        Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            BucketId bucket = new BucketId(16 + random.nextInt(43), random.nextLong());
+            assertEquals(distribution.getIdealDistributorNode(state, bucket, StoragePolicy.owningBucketStates),
+                         cache.getIdealDistributorNode(bucket));
+        }
+    }
+
+    @Test
+    public void largeDistributionBitCountsAreNotCached() throws Exception {
+        ClusterState state = new ClusterState("version:3 bits:20 distributor:200 storage:200");
+        StoragePolicy.IdealDistributorCache cache = new StoragePolicy.IdealDistributorCache(distribution, state,
+                                                                                          StoragePolicy.owningBucketStates);
+        BucketId bucket = new BucketId(32, 0x123456789L);
+        assertEquals(distribution.getIdealDistributorNode(state, bucket, StoragePolicy.owningBucketStates),
+                     cache.getIdealDistributorNode(bucket));
+    }
+
+    @Test
+    public void lookupsInTooFewBitsAreRejected() throws Exception {
+        ClusterState state = new ClusterState("version:3 bits:16 distributor:200 storage:200");
+        StoragePolicy.IdealDistributorCache cache = new StoragePolicy.IdealDistributorCache(distribution, state,
+                                                                                          StoragePolicy.owningBucketStates);
+        try {
+            cache.getIdealDistributorNode(new BucketId(8, 1));
+            fail("Expected exception");
+        } catch (Distribution.TooFewBucketBitsInUseException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void cacheIsForOneStateOnly() throws ParseException {
+        ClusterState state = new ClusterState("version:3 bits:16 distributor:200 storage:200");
+        StoragePolicy.IdealDistributorCache cache = new StoragePolicy.IdealDistributorCache(distribution, state,
+                                                                                          StoragePolicy.owningBucketStates);
+        assertTrue(cache.isFor(state));
+        assertFalse(cache.isFor(new ClusterState("version:3 bits:16 distributor:200 storage:200")));
+    }
+
+    @Test
+    public void benchmarkRoutedMessagesPerSecond() throws Exception {
+        ClusterState state = new ClusterState("version:3 bits:16 distributor:200 storage:200");
+        BucketIdFactory factory = new BucketIdFactory();
+        DocumentId[] ids = new DocumentId[100000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = new DocumentId("id:ns:music::" + i);
+        }
+        for (int run = 0; run < 3; run++) {
+            long start = System.nanoTime();
+            long sum = 0;
+            for (DocumentId id : ids) {
+                sum += distribution.getIdealDistributorNode(state, factory.getBucketId(id), StoragePolicy.owningBucketStates);
+            }
+            double uncached = ids.length * 1e9 / (System.nanoTime() - start);
+
+            StoragePolicy.IdealDistributorCache cache = new StoragePolicy.IdealDistributorCache(distribution, state,
+                                                                                              StoragePolicy.owningBucketStates);
+            start = System.nanoTime();
+            long cachedSum = 0;
+            for (DocumentId id : ids) {
+                cachedSum += cache.getIdealDistributorNode(factory.getBucketId(id));
+            }
+            double cached = ids.length * 1e9 / (System.nanoTime() - start);
+
+            assertEquals(sum, cachedSum);
+            log.info(String.format("Messages routed per second with 200 distributors: %.0f uncached, %.0f cached",
+                                   uncached, cached));
+        }
+    }
+
+}
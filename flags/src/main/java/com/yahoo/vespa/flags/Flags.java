@@ -343,6 +343,14 @@ public class Flags {
             "Takes effect on next internal redeployment",
             APPLICATION_ID);
 
+    public static final UnboundBooleanFlag PARALLEL_MODEL_BUILD = defineFeatureFlag(
+            "parallel-model-build",
+            false,
+            "Whether to import models and derive schemas in parallel, and reuse unchanged imported models, when building config models. " +
+            "Imported models are kept in config server memory across applications, up to an estimated 128 MB for each Vespa version",
+            "Takes effect at redeployment",
+            APPLICATION_ID);
+
     /** WARNING: public for testing: All flags should be defined in {@link Flags}. */
     public static UnboundBooleanFlag defineFeatureFlag(String flagId, boolean defaultValue, String description,
                                                        String modificationEffect, FetchVector.Dimension... dimensions) {
@@ -1,7 +1,10 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.jdisc.http.core;
 
+import org.eclipse.jetty.io.Connection;
+import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.HttpConnection;
+import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.ServerConnector;
 
 import javax.servlet.http.HttpServletRequest;
@@ -12,7 +15,22 @@ import javax.servlet.http.HttpServletRequest;
 public class HttpServletRequestUtils {
     private HttpServletRequestUtils() {}
 
-    public static HttpConnection getConnection(HttpServletRequest request) {
+    /** Returns the HTTP/1 or HTTP/2 connection the given request was received on */
+    public static Connection getConnection(HttpServletRequest request) {
+        HttpConnection http1Connection = getHttp1Connection(request);
+        if (http1Connection != null) return http1Connection;
+        return Request.getBaseRequest(request).getHttpChannel().getEndPoint().getConnection();
+    }
+
+    /** Returns the Jetty connector which accepted the connection the given request was received on */
+    public static Connector getConnector(HttpServletRequest request) {
+        HttpConnection http1Connection = getHttp1Connection(request);
+        if (http1Connection != null) return http1Connection.getConnector();
+        return Request.getBaseRequest(request).getHttpChannel().getConnector();
+    }
+
+    /** Returns the connection of the given request if it is an HTTP/1 connection, or null otherwise */
+    private static HttpConnection getHttp1Connection(HttpServletRequest request) {
         return (HttpConnection)request.getAttribute("org.eclipse.jetty.server.HttpConnection");
     }
 
@@ -21,7 +39,7 @@ public class HttpServletRequestUtils {
      * @return the actual local port of the underlying Jetty connector
      */
     public static int getConnectorLocalPort(HttpServletRequest request) {
-        ServerConnector jettyConnector = (ServerConnector) getConnection(request).getConnector();
+        ServerConnector jettyConnector = (ServerConnector) getConnector(request);
         return jettyConnector.getLocalPort();
     }
 
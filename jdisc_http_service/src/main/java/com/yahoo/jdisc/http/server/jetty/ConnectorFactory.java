@@ -7,6 +7,11 @@ import com.yahoo.jdisc.http.ConnectorConfig;
 import com.yahoo.jdisc.http.ssl.SslContextFactoryProvider;
 import com.yahoo.security.tls.MixedMode;
 import com.yahoo.security.tls.TransportSecurityUtils;
+import org.eclipse.jetty.alpn.java.server.JDK9ServerALPNProcessor;
+import org.eclipse.jetty.alpn.server.ALPNServerConnectionFactory;
+import org.eclipse.jetty.http2.server.AbstractHTTP2ServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
 import org.eclipse.jetty.server.ConnectionFactory;
 import org.eclipse.jetty.server.DetectorConnectionFactory;
 import org.eclipse.jetty.server.HttpConfiguration;
@@ -18,6 +23,7 @@ import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.SslConnectionFactory;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -76,41 +82,86 @@ public class ConnectorFactory {
     }
 
     private List<ConnectionFactory> createConnectionFactories(Metric metric) {
-        HttpConnectionFactory httpFactory = newHttpConnectionFactory();
+        HttpConfiguration httpConfig = newHttpConfiguration();
+        HttpConnectionFactory httpFactory = new HttpConnectionFactory(httpConfig);
         if (!isSslEffectivelyEnabled(connectorConfig)) {
-            return List.of(httpFactory);
+            return connectionFactoriesForHttp(httpConfig, httpFactory);
         } else if (connectorConfig.ssl().enabled()) {
-            return connectionFactoriesForHttps(metric, httpFactory);
+            return connectionFactoriesForHttps(metric, httpConfig, httpFactory);
         } else if (TransportSecurityUtils.isTransportSecurityEnabled()) {
             switch (TransportSecurityUtils.getInsecureMixedMode()) {
                 case TLS_CLIENT_MIXED_SERVER:
                 case PLAINTEXT_CLIENT_MIXED_SERVER:
-                    return List.of(new DetectorConnectionFactory(newSslConnectionFactory(metric, httpFactory)), httpFactory);
+                    // The detector falls back to the protocol following it when the client does not speak TLS
+                    List<ConnectionFactory> factories = new ArrayList<>();
+                    factories.add(new DetectorConnectionFactory(newSslConnectionFactory(metric, httpFactory)));
+                    factories.addAll(connectionFactoriesForHttp(httpConfig, httpFactory));
+                    factories.addAll(connectionFactoriesForAlpn(httpConfig, httpFactory));
+                    return factories;
                 case DISABLED:
-                    return connectionFactoriesForHttps(metric, httpFactory);
+                    return connectionFactoriesForHttps(metric, httpConfig, httpFactory);
                 default:
                     throw new IllegalStateException();
             }
         } else {
-            return List.of(httpFactory);
+            return connectionFactoriesForHttp(httpConfig, httpFactory);
         }
     }
 
-    private List<ConnectionFactory> connectionFactoriesForHttps(Metric metric, HttpConnectionFactory httpFactory) {
+    /** HTTP/1.1, which upgrades to cleartext HTTP/2 (h2c) on request, or when receiving the HTTP/2 connection preface */
+    private List<ConnectionFactory> connectionFactoriesForHttp(HttpConfiguration httpConfig, HttpConnectionFactory httpFactory) {
+        if ( ! connectorConfig.http2Enabled()) return List.of(httpFactory);
+        return List.of(httpFactory, newHttp2Factory(new HTTP2CServerConnectionFactory(httpConfig)));
+    }
+
+    private List<ConnectionFactory> connectionFactoriesForHttps(Metric metric, HttpConfiguration httpConfig, HttpConnectionFactory httpFactory) {
         ConnectorConfig.ProxyProtocol proxyProtocolConfig = connectorConfig.proxyProtocol();
         SslConnectionFactory sslFactory = newSslConnectionFactory(metric, httpFactory);
+        List<ConnectionFactory> factories = new ArrayList<>();
         if (proxyProtocolConfig.enabled()) {
             if (proxyProtocolConfig.mixedMode()) {
-                return List.of(new DetectorConnectionFactory(sslFactory, new ProxyConnectionFactory(sslFactory.getProtocol())), sslFactory, httpFactory);
+                factories.add(new DetectorConnectionFactory(sslFactory, new ProxyConnectionFactory(sslFactory.getProtocol())));
             } else {
-                return List.of(new ProxyConnectionFactory(sslFactory.getProtocol()), sslFactory, httpFactory);
+                factories.add(new ProxyConnectionFactory(sslFactory.getProtocol()));
             }
-        } else {
-            return List.of(sslFactory, httpFactory);
+        }
+        factories.add(sslFactory);
+        factories.addAll(connectionFactoriesForAlpn(httpConfig, httpFactory));
+        factories.add(httpFactory);
+        return factories;
+    }
+
+    /** ALPN negotiation of HTTP/2 or HTTP/1.1 over TLS, falling back to HTTP/1.1 for clients not using ALPN */
+    private List<ConnectionFactory> connectionFactoriesForAlpn(HttpConfiguration httpConfig, HttpConnectionFactory httpFactory) {
+        if ( ! connectorConfig.http2Enabled()) return List.of();
+        HTTP2ServerConnectionFactory http2Factory = newHttp2Factory(new HTTP2ServerConnectionFactory(httpConfig));
+        ALPNServerConnectionFactory alpnFactory = newAlpnConnectionFactory(http2Factory.getProtocol(), httpFactory.getProtocol());
+        alpnFactory.setDefaultProtocol(httpFactory.getProtocol());
+        return List.of(alpnFactory, http2Factory);
+    }
+
+    private <T extends AbstractHTTP2ServerConnectionFactory> T newHttp2Factory(T factory) {
+        ConnectorConfig.Http2 http2Config = connectorConfig.http2();
+        factory.setMaxConcurrentStreams(http2Config.maxConcurrentStreams());
+        factory.setInitialStreamRecvWindow(http2Config.initialStreamRecvWindow());
+        factory.setInitialSessionRecvWindow(http2Config.initialSessionRecvWindow());
+        factory.setStreamIdleTimeout((long)(http2Config.streamIdleTimeout() * 1000.0));
+        return factory;
+    }
+
+    private static ALPNServerConnectionFactory newAlpnConnectionFactory(String... protocols) {
+        // The ALPN processor is found with a service loader using the context class loader, which does not see it inside OSGi
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        try {
+            thread.setContextClassLoader(JDK9ServerALPNProcessor.class.getClassLoader());
+            return new ALPNServerConnectionFactory(protocols);
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
         }
     }
 
-    private HttpConnectionFactory newHttpConnectionFactory() {
+    private HttpConfiguration newHttpConfiguration() {
         HttpConfiguration httpConfig = new HttpConfiguration();
         httpConfig.setSendDateHeader(true);
         httpConfig.setSendServerVersion(false);
@@ -122,12 +173,13 @@ public class ConnectorFactory {
         if (isSslEffectivelyEnabled(connectorConfig)) {
             httpConfig.addCustomizer(new SecureRequestCustomizer());
         }
-        return new HttpConnectionFactory(httpConfig);
+        return httpConfig;
     }
 
     private SslConnectionFactory newSslConnectionFactory(Metric metric, HttpConnectionFactory httpFactory) {
         SslContextFactory ctxFactory = sslContextFactoryProvider.getInstance(connectorConfig.name(), connectorConfig.listenPort());
-        SslConnectionFactory connectionFactory = new SslConnectionFactory(ctxFactory, httpFactory.getProtocol());
+        String nextProtocol = connectorConfig.http2Enabled() ? "alpn" : httpFactory.getProtocol();
+        SslConnectionFactory connectionFactory = new SslConnectionFactory(ctxFactory, nextProtocol);
         connectionFactory.addBean(new SslHandshakeFailedListener(metric, connectorConfig.name(), connectorConfig.listenPort()));
         return connectionFactory;
     }
@@ -140,17 +140,20 @@ class HttpRequestDispatch {
     }
 
     private static void markConnectionAsNonPersistentIfThresholdReached(HttpServletRequest request) {
+        // HTTP/2 connections multiplex concurrent requests, and are not closed after one of them
+        if ( ! (getConnection(request) instanceof HttpConnection)) return;
+
         ConnectorConfig connectorConfig = getConnector(request).connectorConfig();
         int maxRequestsPerConnection = connectorConfig.maxRequestsPerConnection();
         if (maxRequestsPerConnection > 0) {
-            HttpConnection connection = getConnection(request);
+            HttpConnection connection = (HttpConnection)getConnection(request);
             if (connection.getMessagesIn() >= maxRequestsPerConnection) {
                 connection.getGenerator().setPersistent(false);
             }
         }
         double maxConnectionLifeInSeconds = connectorConfig.maxConnectionLife();
         if (maxConnectionLifeInSeconds > 0) {
-            HttpConnection connection = getConnection(request);
+            HttpConnection connection = (HttpConnection)getConnection(request);
             Instant expireAt = Instant.ofEpochMilli((long)(connection.getCreatedTimeStamp() + maxConnectionLifeInSeconds * 1000));
             if (Instant.now().isAfter(expireAt)) {
                 connection.getGenerator().setPersistent(false);
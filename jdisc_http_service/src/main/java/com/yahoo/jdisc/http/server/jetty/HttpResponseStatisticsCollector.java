@@ -29,7 +29,8 @@ import java.util.concurrent.atomic.LongAdder;
  * HttpResponseStatisticsCollector collects statistics about HTTP response types aggregated by category
  * (1xx, 2xx, etc). It is similar to {@link org.eclipse.jetty.server.handler.StatisticsHandler}
  * with the distinction that this class collects response type statistics grouped
- * by HTTP method and only collects the numbers that are reported as metrics from Vespa.
+ * by HTTP method and protocol version, and only collects the numbers that are reported as metrics from Vespa.
+ * With HTTP/2 each response is counted once per stream, as with HTTP/1 it is counted once per request.
  *
  * @author ollivir
  */
@@ -49,6 +50,26 @@ public class HttpResponseStatisticsCollector extends HandlerWrapper implements G
         HTTP, HTTPS, OTHER
     }
 
+    public enum HttpProtocol {
+
+        HTTP1, HTTP2, OTHER;
+
+        static HttpProtocol from(String protocol) {
+            switch (protocol) {
+                case "HTTP/1.0":
+                case "HTTP/1.1":
+                    return HTTP1;
+                case "HTTP/2.0":
+                    return HTTP2;
+                default:
+                    return OTHER;
+            }
+        }
+
+        String dimensionValue() { return name().toLowerCase(); }
+
+    }
+
     private static final String[] HTTP_RESPONSE_GROUPS = {
             MetricDefinitions.RESPONSES_1XX,
             MetricDefinitions.RESPONSES_2XX,
@@ -60,19 +81,21 @@ public class HttpResponseStatisticsCollector extends HandlerWrapper implements G
     };
 
     private final AtomicLong inFlight = new AtomicLong();
-    private final LongAdder[][][][] statistics;
+    private final LongAdder[][][][][] statistics;
 
     public HttpResponseStatisticsCollector(List<String> monitoringHandlerPaths, List<String> searchHandlerPaths) {
         this.monitoringHandlerPaths = monitoringHandlerPaths;
         this.searchHandlerPaths = searchHandlerPaths;
-        statistics = new LongAdder[HttpScheme.values().length][HttpMethod.values().length][][];
+        statistics = new LongAdder[HttpScheme.values().length][HttpProtocol.values().length][HttpMethod.values().length][][];
         for (int scheme = 0; scheme < HttpScheme.values().length; ++scheme) {
-            for (int method = 0; method < HttpMethod.values().length; method++) {
-                statistics[scheme][method] = new LongAdder[HTTP_RESPONSE_GROUPS.length][];
-                for (int group = 0; group < HTTP_RESPONSE_GROUPS.length; group++) {
-                    statistics[scheme][method][group] = new LongAdder[HttpRequest.RequestType.values().length];
-                    for (int requestType = 0; requestType < HttpRequest.RequestType.values().length; requestType++) {
-                        statistics[scheme][method][group][requestType] = new LongAdder();
+            for (int protocol = 0; protocol < HttpProtocol.values().length; protocol++) {
+                for (int method = 0; method < HttpMethod.values().length; method++) {
+                    statistics[scheme][protocol][method] = new LongAdder[HTTP_RESPONSE_GROUPS.length][];
+                    for (int group = 0; group < HTTP_RESPONSE_GROUPS.length; group++) {
+                        statistics[scheme][protocol][method][group] = new LongAdder[HttpRequest.RequestType.values().length];
+                        for (int requestType = 0; requestType < HttpRequest.RequestType.values().length; requestType++) {
+                            statistics[scheme][protocol][method][group][requestType] = new LongAdder();
+                        }
                     }
                 }
             }
@@ -130,12 +153,14 @@ public class HttpResponseStatisticsCollector extends HandlerWrapper implements G
         int group = groupIndex(request);
         if (group >= 0) {
             HttpScheme scheme = getScheme(request);
+            HttpProtocol protocol = HttpProtocol.from(request.getProtocol());
             HttpMethod method = getMethod(request);
             HttpRequest.RequestType requestType = getRequestType(request);
 
-            statistics[scheme.ordinal()][method.ordinal()][group][requestType.ordinal()].increment();
+            LongAdder[][] methodStatistics = statistics[scheme.ordinal()][protocol.ordinal()][method.ordinal()];
+            methodStatistics[group][requestType.ordinal()].increment();
             if (group == 5 || group == 6) { // if 401/403, also increment 4xx
-                statistics[scheme.ordinal()][method.ordinal()][3][requestType.ordinal()].increment();
+                methodStatistics[3][requestType.ordinal()].increment();
             }
         }
 
@@ -161,7 +186,7 @@ public class HttpResponseStatisticsCollector extends HandlerWrapper implements G
         }
 
         index = index / 100 - 1; // 1xx = 0, 2xx = 1 etc.
-        if (index < 0 || index >= statistics[0].length) {
+        if (index < 0 || index >= HTTP_RESPONSE_GROUPS.length) {
             return -1;
         } else {
             return index;
@@ -223,13 +248,17 @@ public class HttpResponseStatisticsCollector extends HandlerWrapper implements G
         var ret = new ArrayList<StatisticsEntry>();
         for (HttpScheme scheme : HttpScheme.values()) {
             int schemeIndex = scheme.ordinal();
-            for (HttpMethod method : HttpMethod.values()) {
-                int methodIndex = method.ordinal();
-                for (int group = 0; group < HTTP_RESPONSE_GROUPS.length; group++) {
-                    for (HttpRequest.RequestType type : HttpRequest.RequestType.values()) {
-                        long value = statistics[schemeIndex][methodIndex][group][type.ordinal()].sumThenReset();
-                        if (value > 0) {
-                            ret.add(new StatisticsEntry(scheme.name().toLowerCase(), method.name(), HTTP_RESPONSE_GROUPS[group], type.name().toLowerCase(), value));
+            for (HttpProtocol protocol : HttpProtocol.values()) {
+                int protocolIndex = protocol.ordinal();
+                for (HttpMethod method : HttpMethod.values()) {
+                    int methodIndex = method.ordinal();
+                    for (int group = 0; group < HTTP_RESPONSE_GROUPS.length; group++) {
+                        for (HttpRequest.RequestType type : HttpRequest.RequestType.values()) {
+                            long value = statistics[schemeIndex][protocolIndex][methodIndex][group][type.ordinal()].sumThenReset();
+                            if (value > 0) {
+                                ret.add(new StatisticsEntry(scheme.name().toLowerCase(), protocol.dimensionValue(), method.name(),
+                                                            HTTP_RESPONSE_GROUPS[group], type.name().toLowerCase(), value));
+                            }
                         }
                     }
                 }
@@ -273,13 +302,19 @@ public class HttpResponseStatisticsCollector extends HandlerWrapper implements G
     public static class StatisticsEntry {
 
         public final String scheme;
+        public final String protocol;
         public final String method;
         public final String name;
         public final String requestType;
         public final long value;
 
         public StatisticsEntry(String scheme, String method, String name, String requestType, long value) {
+            this(scheme, HttpProtocol.HTTP1.dimensionValue(), method, name, requestType, value);
+        }
+
+        public StatisticsEntry(String scheme, String protocol, String method, String name, String requestType, long value) {
             this.scheme = scheme;
+            this.protocol = protocol;
             this.method = method;
             this.name = name;
             this.requestType = requestType;
@@ -289,6 +324,7 @@ public class HttpResponseStatisticsCollector extends HandlerWrapper implements G
         @Override
         public String toString() {
             return "scheme: " + scheme +
+                   ", protocol: " + protocol +
                    ", method: " + method +
                    ", name: " + name +
                    ", requestType: " + requestType +
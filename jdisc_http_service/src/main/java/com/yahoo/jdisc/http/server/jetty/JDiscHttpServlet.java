@@ -5,6 +5,7 @@ import com.yahoo.container.logging.AccessLogEntry;
 import com.yahoo.jdisc.Metric;
 import com.yahoo.jdisc.handler.OverloadException;
 import com.yahoo.jdisc.http.HttpRequest.Method;
+import com.yahoo.jdisc.http.core.HttpServletRequestUtils;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -20,8 +21,6 @@ import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static com.yahoo.jdisc.http.core.HttpServletRequestUtils.getConnection;
-
 /**
  * @author Simon Thoresen Hult
  * @author bjorncs
@@ -104,7 +103,7 @@ class JDiscHttpServlet extends HttpServlet {
     }
 
     static JDiscServerConnector getConnector(HttpServletRequest request) {
-        return (JDiscServerConnector)getConnection(request).getConnector();
+        return (JDiscServerConnector)HttpServletRequestUtils.getConnector(request);
     }
 
     private void dispatchHttpRequest(HttpServletRequest request, HttpServletResponse response) throws IOException {
@@ -74,6 +74,7 @@ class JDiscServerConnector extends ServerConnector {
         Map<String, Object> dimensions = createConnectorDimensions(listenPort, connectorName);
         dimensions.put(MetricDefinitions.METHOD_DIMENSION, method);
         dimensions.put(MetricDefinitions.SCHEME_DIMENSION, scheme);
+        dimensions.put(MetricDefinitions.PROTOCOL_DIMENSION, HttpResponseStatisticsCollector.HttpProtocol.from(request.getProtocol()).dimensionValue());
         dimensions.put(MetricDefinitions.CLIENT_AUTHENTICATED_DIMENSION, Boolean.toString(clientAuthenticated));
         String serverName = Optional.ofNullable(request.getServerName()).orElse("unknown");
         dimensions.put(MetricDefinitions.REQUEST_SERVER_NAME_DIMENSION, serverName);
@@ -11,6 +11,7 @@ class MetricDefinitions {
     static final String PORT_DIMENSION = "serverPort";
     static final String METHOD_DIMENSION = "httpMethod";
     static final String SCHEME_DIMENSION = "scheme";
+    static final String PROTOCOL_DIMENSION = "protocol";
     static final String REQUEST_TYPE_DIMENSION = "requestType";
     static final String CLIENT_IP_DIMENSION = "clientIp";
     static final String CLIENT_AUTHENTICATED_DIMENSION = "clientAuthenticated";
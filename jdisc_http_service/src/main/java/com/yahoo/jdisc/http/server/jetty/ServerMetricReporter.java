@@ -85,6 +85,7 @@ class ServerMetricReporter {
                 Map<String, Object> dimensions = new HashMap<>();
                 dimensions.put(MetricDefinitions.METHOD_DIMENSION, metricEntry.method);
                 dimensions.put(MetricDefinitions.SCHEME_DIMENSION, metricEntry.scheme);
+                dimensions.put(MetricDefinitions.PROTOCOL_DIMENSION, metricEntry.protocol);
                 dimensions.put(MetricDefinitions.REQUEST_TYPE_DIMENSION, metricEntry.requestType);
                 metric.add(metricEntry.name, metricEntry.value, metric.createContext(dimensions));
             }
@@ -39,6 +39,9 @@ import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.ProxyProtocolClientConnectionFactory.V1;
 import org.eclipse.jetty.client.ProxyProtocolClientConnectionFactory.V2;
 import org.eclipse.jetty.client.api.ContentResponse;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http2.client.HTTP2Client;
+import org.eclipse.jetty.http2.client.http.HttpClientTransportOverHTTP2;
 import org.eclipse.jetty.server.handler.AbstractHandlerContainer;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.junit.Rule;
@@ -811,6 +814,60 @@ public class HttpServerTest {
         assertNotEquals(proxyLocalPort, clientPort);
     }
 
+    @Test
+    public void requireThatServerCanRespondToHttp2RequestsOverTls() throws Exception {
+        Path privateKeyFile = tmpFolder.newFile().toPath();
+        Path certificateFile = tmpFolder.newFile().toPath();
+        generatePrivateKeyAndCertificate(privateKeyFile, certificateFile);
+        TestDriver driver = createSslWithHttp2TestDriver(certificateFile, privateKeyFile);
+        HttpClient client = createJettyHttp2Client(certificateFile);
+
+        ContentResponse response = client.GET(URI.create("https://localhost:" + driver.server().getListenPort() + "/status.html"));
+        assertEquals(OK, response.getStatus());
+        assertEquals(HttpVersion.HTTP_2, response.getVersion());
+        client.stop();
+        assertTrue(driver.close());
+    }
+
+    @Test
+    public void requireThatHttp1ClientsAreServedWhenHttp2IsEnabledOverTls() throws Exception {
+        Path privateKeyFile = tmpFolder.newFile().toPath();
+        Path certificateFile = tmpFolder.newFile().toPath();
+        generatePrivateKeyAndCertificate(privateKeyFile, certificateFile);
+        TestDriver driver = createSslWithHttp2TestDriver(certificateFile, privateKeyFile);
+        HttpClient client = createJettyHttpClient(certificateFile);
+
+        ContentResponse response = client.GET(URI.create("https://localhost:" + driver.server().getListenPort() + "/status.html"));
+        assertEquals(OK, response.getStatus());
+        assertEquals(HttpVersion.HTTP_1_1, response.getVersion());
+        client.stop();
+        assertTrue(driver.close());
+    }
+
+    @Test
+    public void requireThatServerCanRespondToCleartextHttp2Requests() throws Exception {
+        RequestTypeHandler handler = new RequestTypeHandler();
+        TestDriver driver = TestDrivers.newConfiguredInstance(
+                handler, new ServerConfig.Builder(), new ConnectorConfig.Builder().http2Enabled(true));
+        HttpResponseStatisticsCollector statisticsCollector = ((AbstractHandlerContainer) driver.server().server().getHandler())
+                                                                      .getChildHandlerByClass(HttpResponseStatisticsCollector.class);
+        HttpClient client = new HttpClient(new HttpClientTransportOverHTTP2(new HTTP2Client()), null);
+        client.start();
+
+        ContentResponse response = client.GET(URI.create("http://localhost:" + driver.server().getListenPort() + "/status.html"));
+        assertEquals(OK, response.getStatus());
+        assertEquals(HttpVersion.HTTP_2, response.getVersion());
+        var entry = waitForStatistics(statisticsCollector);
+        assertEquals("http2", entry.protocol);
+        assertEquals("http.status.2xx", entry.name);
+
+        driver.client().get("/status.html")
+              .expectStatusCode(is(OK));
+        assertEquals("http1", waitForStatistics(statisticsCollector).protocol);
+        client.stop();
+        assertTrue(driver.close());
+    }
+
     private ContentResponse sendJettyClientRequest(TestDriver testDriver, HttpClient client, Object tag)
             throws InterruptedException, TimeoutException {
         int maxAttempts = 3;
@@ -842,6 +899,16 @@ public class HttpServerTest {
         return client;
     }
 
+    private static HttpClient createJettyHttp2Client(Path certificateFile) throws Exception {
+        SslContextFactory.Client clientSslCtxFactory = new SslContextFactory.Client();
+        clientSslCtxFactory.setHostnameVerifier(NoopHostnameVerifier.INSTANCE);
+        clientSslCtxFactory.setSslContext(new SslContextBuilder().withTrustStore(certificateFile).build());
+
+        HttpClient client = new HttpClient(new HttpClientTransportOverHTTP2(new HTTP2Client()), clientSslCtxFactory);
+        client.start();
+        return client;
+    }
+
     private static void assertLogEntryHasRemote(AccessLogEntry entry, String expectedAddress, int expectedPort) {
         assertEquals(expectedAddress, entry.getPeerAddress());
         if (expectedPort > 0) {
@@ -867,6 +934,17 @@ public class HttpServerTest {
                 binder -> binder.bind(AccessLog.class).toInstance(accessLogMock));
     }
 
+    private static TestDriver createSslWithHttp2TestDriver(Path certificateFile, Path privateKeyFile) throws IOException {
+        ConnectorConfig.Builder connectorConfig = new ConnectorConfig.Builder()
+                .http2Enabled(true)
+                .ssl(new ConnectorConfig.Ssl.Builder()
+                             .enabled(true)
+                             .privateKeyFile(privateKeyFile.toString())
+                             .certificateFile(certificateFile.toString())
+                             .caCertificateFile(certificateFile.toString()));
+        return TestDrivers.newConfiguredInstance(new EchoRequestHandler(), new ServerConfig.Builder(), connectorConfig);
+    }
+
     private static TestDriver createSslTestDriver(
             Path serverCertificateFile, Path serverPrivateKeyFile, MetricConsumerMock metricConsumer) throws IOException {
         return TestDrivers.newInstanceWithSsl(
@@ -0,0 +1,89 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * A pool of direct byte buffers used by the connections of a {@link Transport}.
+ * Direct buffers are read from and written to sockets without being copied to and from
+ * native memory, but are costly to allocate, so buffers released by connections are kept
+ * here for reuse. Buffers are pooled in power of two size classes, and the total size of
+ * the pooled buffers is bounded. This is thread safe.
+ **/
+class BufferPool {
+
+    static final int MIN_SIZE = 4096;
+    static final int MAX_SIZE = 16 * 1024 * 1024;
+
+    private static final int MIN_SIZE_CLASS = Integer.numberOfTrailingZeros(MIN_SIZE);
+    private static final int MAX_SIZE_CLASS = Integer.numberOfTrailingZeros(MAX_SIZE);
+
+    private final ArrayDeque<ByteBuffer>[] free;
+    private final long maxPooledBytes;
+    private long pooledBytes = 0;
+    private long allocatedBytes = 0;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    BufferPool(long maxPooledBytes) {
+        this.maxPooledBytes = maxPooledBytes;
+        free = new ArrayDeque[MAX_SIZE_CLASS + 1];
+        for (int i = MIN_SIZE_CLASS; i <= MAX_SIZE_CLASS; i++)
+            free[i] = new ArrayDeque<>();
+    }
+
+    /** Returns the capacity of buffers allocated by this for the given min size */
+    static int capacityFor(int minSize) {
+        if (minSize > MAX_SIZE) return minSize;
+        return 1 << sizeClassOf(minSize);
+    }
+
+    private static int sizeClassOf(int minSize) {
+        if (minSize <= MIN_SIZE) return MIN_SIZE_CLASS;
+        return 32 - Integer.numberOfLeadingZeros(minSize - 1);
+    }
+
+    /**
+     * Returns a cleared direct buffer with at least the given capacity, see {@link #capacityFor}.
+     * Buffers larger than {@link #MAX_SIZE} are allocated with the exact size and not pooled.
+     */
+    ByteBuffer allocate(int minSize) {
+        if (minSize > MAX_SIZE) return allocateDirect(minSize);
+        int sizeClass = sizeClassOf(minSize);
+        synchronized (this) {
+            ByteBuffer buffer = free[sizeClass].pollLast();
+            if (buffer != null) {
+                pooledBytes -= buffer.capacity();
+                buffer.clear();
+                return buffer;
+            }
+        }
+        return allocateDirect(1 << sizeClass);
+    }
+
+    private ByteBuffer allocateDirect(int size) {
+        synchronized (this) {
+            allocatedBytes += size;
+        }
+        return ByteBuffer.allocateDirect(size);
+    }
+
+    /** Returns a buffer allocated by this to the pool. The buffer must not be used after this is called. */
+    void release(ByteBuffer buffer) {
+        if ( ! buffer.isDirect()) return;
+        int capacity = buffer.capacity();
+        if (capacity < MIN_SIZE || capacity > MAX_SIZE || Integer.bitCount(capacity) != 1) return;
+        synchronized (this) {
+            if (pooledBytes + capacity > maxPooledBytes) return;
+            free[Integer.numberOfTrailingZeros(capacity)].addLast(buffer);
+            pooledBytes += capacity;
+        }
+    }
+
+    /** Returns the total size of the buffers currently pooled in this */
+    synchronized long pooledBytes() { return pooledBytes; }
+
+    /** Returns the total size of the direct buffers allocated by this */
+    synchronized long allocatedBytes() { return allocatedBytes; }
+
+}
@@ -6,10 +6,10 @@ import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
-import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -32,17 +32,19 @@ class Connection extends Target {
     private int state = INITIAL;
     private final Queue  queue   = new Queue();
     private final Queue  myQueue = new Queue();
-    private final Buffer input   = new Buffer(READ_SIZE * 2);
-    private final Buffer output  = new Buffer(WRITE_SIZE * 2);
+    private final Buffer input;
+    private final GatherBuffer output;
     private int maxInputSize  = 64*1024;
     private int maxOutputSize = 64*1024;
     private final boolean tcpNoDelay;
-    private final Map<Integer, ReplyHandler> replyMap = new HashMap<>();
+    // Handlers are claimed by removing them, by the reply, a cancel or the connection going down,
+    // so only one of these will ever complete a request, without locking this connection
+    private final Map<Integer, ReplyHandler> replyMap = new ConcurrentHashMap<>();
     private final Map<TargetWatcher, TargetWatcher> watchers = new IdentityHashMap<>();
     private int activeReqs = 0;
     private int writeWork  = 0;
     private boolean pendingHandshakeWork = false;
-    private final TransportThread parent;
+    private volatile TransportThread parent;
     private final Supervisor owner;
     private final Spec spec;
     private CryptoSocket socket;
@@ -52,6 +54,12 @@ class Connection extends Target {
     private SelectionKey selectionKey;
     private Exception lostReason = null;
 
+    // load since the last sample, and the decayed load per second, maintained by the transport thread
+    private long loadBytes = 0;
+    private long loadPackets = 0;
+    private double bytesPerSecond = 0;
+    private double packetsPerSecond = 0;
+
     private void setState(int state) {
         if (state <= this.state) {
             log.log(Level.WARNING, "Bogus state transition: " + this.state + "->" + state);
@@ -76,8 +84,10 @@ class Connection extends Target {
             owner.sessionLive(this);
         }
         if (down) {
-            for (ReplyHandler rh : replyMap.values()) {
-                rh.handleConnectionDown();
+            for (Map.Entry<Integer, ReplyHandler> entry : replyMap.entrySet()) {
+                if (replyMap.remove(entry.getKey(), entry.getValue())) {
+                    entry.getValue().handleConnectionDown();
+                }
             }
             for (TargetWatcher watcher : watchers.values()) {
                 watcher.notifyTargetInvalid(this);
@@ -94,10 +104,13 @@ class Connection extends Target {
 
         this.parent = parent;
         this.owner = owner;
+        this.input = new Buffer(READ_SIZE * 2, parent.transport().bufferPool());
+        this.output = new GatherBuffer(parent.transport().bufferPool());
         this.socket = parent.transport().createServerCryptoSocket(channel);
         this.spec = null;
         this.tcpNoDelay = tcpNoDelay;
         server = true;
+        parent.connectionAdded();
         owner.sessionInit(this);
     }
 
@@ -105,9 +118,12 @@ class Connection extends Target {
         super(context);
         this.parent = parent;
         this.owner = owner;
+        this.input = new Buffer(READ_SIZE * 2, parent.transport().bufferPool());
+        this.output = new GatherBuffer(parent.transport().bufferPool());
         this.spec = spec;
         this.tcpNoDelay = tcpNoDelay;
         server = false;
+        parent.connectionAdded();
         owner.sessionInit(this);
     }
 
@@ -130,18 +146,8 @@ class Connection extends Target {
         return i;
     }
 
-    public synchronized boolean cancelReply(ReplyHandler handler) {
-        if (state == CLOSED) {
-            return false;
-        }
-        ReplyHandler stored = replyMap.remove(handler.key());
-        if (stored != handler) {
-            if (stored != null) {
-                replyMap.put(handler.key(), stored);
-            }
-            return false;
-        }
-        return true;
+    public boolean cancelReply(ReplyHandler handler) {
+        return replyMap.remove(handler.key(), handler);
     }
 
     public boolean postPacket(Packet packet, ReplyHandler handler) {
@@ -200,6 +206,75 @@ class Connection extends Target {
         return true;
     }
 
+    /**
+     * Returns whether this connection may be moved to another
+     * transport thread. Only invoked by the current transport thread.
+     **/
+    boolean canMigrate() {
+        return (state == CONNECTED) && !pendingHandshakeWork;
+    }
+
+    /**
+     * Detach this connection from the selector of its current
+     * transport thread and make the given thread its transport
+     * thread. Only invoked by the current transport thread, which
+     * must then hand the connection over to the new thread, see
+     * {@link #attach}.
+     *
+     * @param thread the new transport thread of this connection
+     **/
+    void detach(TransportThread thread) {
+        selectionKey.cancel();
+        parent.connectionRemoved();
+        thread.connectionAdded();
+        parent = thread;
+    }
+
+    /**
+     * Register this connection with the selector of its new transport
+     * thread after it has been detached from its previous one. Write
+     * events are enabled, as packets may have been posted while this
+     * connection was moving. Invoked by the new transport thread.
+     *
+     * @return false if this failed, in which case the connection must be closed
+     * @param selector the selector of the new transport thread
+     **/
+    boolean attach(Selector selector) {
+        try {
+            selectionKey = socket.channel().register(selector,
+                    SelectionKey.OP_READ | SelectionKey.OP_WRITE,
+                    this);
+        } catch (Exception e) {
+            log.log(Level.WARNING, "Error moving connection", e);
+            setLostReason(e);
+            return false;
+        }
+        return true;
+    }
+
+    /** Returns whether this connection is currently registered with the given selector */
+    boolean isRegisteredWith(Selector selector) {
+        return (selectionKey != null) && selectionKey.isValid() && (selectionKey.selector() == selector);
+    }
+
+    /**
+     * Update the decayed load of this connection with the load since
+     * the last sample. Only invoked by the transport thread.
+     *
+     * @param seconds the time since the last sample
+     * @param decay the weight of the previous load
+     **/
+    void sampleLoad(double seconds, double decay) {
+        bytesPerSecond  = decay * bytesPerSecond  + (1 - decay) * loadBytes / seconds;
+        packetsPerSecond = decay * packetsPerSecond + (1 - decay) * loadPackets / seconds;
+        loadBytes = 0;
+        loadPackets = 0;
+    }
+
+    double bytesPerSecond() { return bytesPerSecond; }
+
+    double packetsPerSecond() { return packetsPerSecond; }
+
     public void enableRead() {
         selectionKey.interestOps(selectionKey.interestOps()
                                  | SelectionKey.OP_READ);
@@ -275,6 +350,7 @@ class Connection extends Target {
                 break;
             }
             owner.readPacket(info);
+            loadPackets++;
             Packet packet;
             try {
                 packet = info.decodePacket(rb);
@@ -282,10 +358,7 @@ class Connection extends Target {
                 log.log(Level.WARNING, "got garbage; closing connection: " + toString());
                 throw new IOException("jrt: decode error", e);
             }
-            ReplyHandler handler;
-            synchronized (this) {
-                handler = replyMap.remove(packet.requestId());
-            }
+            ReplyHandler handler = replyMap.remove(packet.requestId());
             if (handler != null) {
                 handler.handleReply(packet);
             } else {
@@ -298,13 +371,17 @@ class Connection extends Target {
         boolean doneRead = false;
         for (int i = 0; !doneRead && i < READ_REDO; i++) {
             ByteBuffer wb = input.getChannelWritable(readSize);
-            if (socket.read(wb) == -1) {
+            int read = socket.read(wb);
+            if (read == -1) {
                 throw new IOException("jrt: Connection closed by peer");
             }
+            loadBytes += read;
             doneRead = (wb.remaining() > 0);
             handlePackets();
         }
-        while (socket.drain(input.getChannelWritable(readSize)) > 0) {
+        int drained;
+        while ((drained = socket.drain(input.getChannelWritable(readSize))) > 0) {
+            loadBytes += drained;
             handlePackets();
         }
         if (maxInputSize > 0) {
@@ -333,16 +410,16 @@ class Connection extends Target {
                     break;
                 }
                 PacketInfo info = packet.getPacketInfo();
-                ByteBuffer wb = output.getWritable(info.packetLength());
+                ByteBuffer wb = output.add(info.packetLength());
                 owner.writePacket(info);
                 info.encodePacket(packet, wb);
+                loadPackets++;
             }
-            ByteBuffer rb = output.getChannelReadable();
-            if (rb.remaining() == 0) {
+            if (output.bytes() == 0) {
                 break;
             }
-            socket.write(rb);
-            if (rb.remaining() > 0) {
+            loadBytes += output.write(socket);
+            if (output.bytes() > 0) {
                 break;
             }
         }
@@ -383,6 +460,9 @@ class Connection extends Target {
         if (selectionKey != null) {
             selectionKey.cancel();
         }
+        input.release();
+        output.release();
+        parent.connectionRemoved();
     }
 
     public boolean isClosed() {
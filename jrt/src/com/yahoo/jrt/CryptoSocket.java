@@ -82,6 +82,23 @@ public interface CryptoSocket {
      **/
     public int write(ByteBuffer src) throws IOException;
 
+    /**
+     * Write the remaining data of the given buffers in order, with
+     * the same semantics as a gathering write to a channel. This
+     * default implementation writes one buffer at a time, and stops
+     * at the first buffer which is not completely written.
+     **/
+    default public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        long written = 0;
+        for (int i = offset; i < offset + length; i++) {
+            written += write(srcs[i]);
+            if (srcs[i].hasRemaining()) {
+                break;
+            }
+        }
+        return written;
+    }
+
     public enum FlushResult { DONE, NEED_WRITE }
 
     /**
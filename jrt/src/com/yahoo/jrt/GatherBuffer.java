@@ -0,0 +1,101 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Data waiting to be written to a connection, held in a sequence of direct buffers
+ * from a {@link BufferPool}. Small packets are encoded after each other into shared
+ * segments, while a large packet gets a segment of its own, such that it is never
+ * copied after it is encoded, and does not cause the output buffer of the connection
+ * to grow. All segments are written by a single gathering write. Not thread safe.
+ **/
+class GatherBuffer {
+
+    static final int SEGMENT_SIZE = 32768;
+
+    private final BufferPool pool;
+
+    /** The segments in write order, each having its unwritten data between its position and limit */
+    private final ArrayDeque<ByteBuffer> segments = new ArrayDeque<>();
+    private ByteBuffer[] gather = new ByteBuffer[4];
+    private int bytes = 0;
+
+    GatherBuffer(BufferPool pool) {
+        this.pool = pool;
+    }
+
+    /** Returns the number of bytes waiting to be written */
+    int bytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns a buffer with exactly the given number of bytes remaining, to be filled by the caller.
+     * The data will be written after all data added before.
+     **/
+    ByteBuffer add(int length) {
+        ByteBuffer last = segments.peekLast();
+        if (last == null || last.capacity() - last.limit() < length) {
+            last = pool.allocate(Math.max(length, SEGMENT_SIZE));
+            last.limit(0);
+            segments.addLast(last);
+        }
+        ByteBuffer dst = last.duplicate();
+        dst.position(last.limit());
+        dst.limit(last.limit() + length);
+        last.limit(last.limit() + length);
+        bytes += length;
+        return dst;
+    }
+
+    /** Writes as much as possible of the data in this to the given socket, and returns the number of bytes written */
+    long write(CryptoSocket socket) throws IOException {
+        int count = segments.size();
+        if (count == 0) {
+            return 0;
+        }
+        if (gather.length < count) {
+            gather = new ByteBuffer[Math.max(count, gather.length * 2)];
+        }
+        segments.toArray(gather);
+        long written = socket.write(gather, 0, count);
+        Arrays.fill(gather, 0, count, null);
+        bytes -= written;
+        while (segments.size() > 1 && ! segments.peekFirst().hasRemaining()) {
+            pool.release(segments.pollFirst());
+        }
+        ByteBuffer last = segments.peekFirst();
+        if (segments.size() == 1 && ! last.hasRemaining()) { // reuse the last segment for more data
+            last.position(0);
+            last.limit(0);
+        }
+        return written;
+    }
+
+    /**
+     * Returns the memory of this to the pool if this is empty and holds more than the given size.
+     *
+     * @return whether memory was released
+     **/
+    boolean shrink(int size) {
+        if (bytes > 0 || segments.isEmpty() || segments.peekFirst().capacity() <= size) {
+            return false;
+        }
+        release();
+        return true;
+    }
+
+    /** Returns all the memory of this to the pool, discarding any data not written */
+    void release() {
+        for (ByteBuffer segment : segments) {
+            pool.release(segment);
+        }
+        segments.clear();
+        bytes = 0;
+    }
+
+}
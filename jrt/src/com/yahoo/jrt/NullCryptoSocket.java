@@ -29,5 +29,6 @@ public class NullCryptoSocket implements CryptoSocket {
     @Override public int read(ByteBuffer dst) throws IOException { return channel.read(dst); }
     @Override public int drain(ByteBuffer dst) throws IOException { return 0; }
     @Override public int write(ByteBuffer src) throws IOException { return channel.write(src); }
+    @Override public long write(ByteBuffer[] srcs, int offset, int length) throws IOException { return channel.write(srcs, offset, length); }
     @Override public FlushResult flush() throws IOException { return FlushResult.DONE; }
 }
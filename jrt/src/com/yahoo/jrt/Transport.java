@@ -4,6 +4,8 @@ package com.yahoo.jrt;
 
 import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
@@ -20,6 +22,9 @@ public class Transport {
 
     private static final Logger log = Logger.getLogger(Transport.class.getName());
 
+    /** The max total size of the connection buffers kept for reuse by a transport */
+    private static final long MAX_POOLED_BUFFER_BYTES = 32 * 1024 * 1024;
+
     private final String name;
     private final FatalErrorHandler fatalHandler; // NB: this must be set first
     private final CryptoEngine      cryptoEngine;
@@ -29,8 +34,12 @@ public class Transport {
     private final boolean tcpNoDelay;
 
     private final TransportMetrics metrics = TransportMetrics.getInstance();
+    private final BufferPool bufferPool = new BufferPool(MAX_POOLED_BUFFER_BYTES);
     private final ArrayList<TransportThread> threads = new ArrayList<>();
     private final Random rnd = new Random();
+    private volatile boolean placeConnectionsByLoad = false;
+    private volatile boolean migrateConnections = false;
+    private volatile long batchingWindowNanos = 0;
 
     /**
      * Create a new Transport object with the given fatal error
@@ -63,16 +72,106 @@ public class Transport {
     public Transport() { this("default"); }
 
     /**
-     * Select a random transport thread
+     * Select the transport thread for a new connection. This is a
+     * random thread, or the least loaded thread if connections are
+     * placed by load, see {@link #setPlaceConnectionsByLoad}.
      *
-     * @return a random transport thread
+     * @return the transport thread for a new connection
      **/
     public TransportThread selectThread() {
-        return threads.get(rnd.nextInt(threads.size()));
+        if (!placeConnectionsByLoad) {
+            return threads.get(rnd.nextInt(threads.size()));
+        }
+        int offset = rnd.nextInt(threads.size());
+        TransportThread best = null;
+        double bestLoad = Double.MAX_VALUE;
+        for (int i = 0; i < threads.size(); i++) {
+            TransportThread thread = threads.get((offset + i) % threads.size());
+            double load = thread.placementLoad();
+            if (load < bestLoad) {
+                best = thread;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    /** Returns the transport thread which has handled the fewest bytes and packets recently */
+    TransportThread leastLoadedThread() {
+        TransportThread best = threads.get(0);
+        for (TransportThread thread : threads) {
+            if (thread.load() < best.load()) {
+                best = thread;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Set whether new connections should be placed on the transport
+     * thread with the least load, rather than on a random thread. The
+     * load is the bytes and packets per second handled by the thread
+     * recently, and the number of connections it has. Ties are broken
+     * randomly. Disabled by default.
+     *
+     * @return this object, to enable chaining
+     * @param placeConnectionsByLoad whether to place new connections by load
+     **/
+    public Transport setPlaceConnectionsByLoad(boolean placeConnectionsByLoad) {
+        this.placeConnectionsByLoad = placeConnectionsByLoad;
+        return this;
+    }
+
+    /**
+     * Set whether connections should be moved between the transport
+     * threads of this when the load of the threads stays imbalanced.
+     * This is useful when a few long lived connections carry most of
+     * the traffic, as these may end up on the same thread. Disabled
+     * by default.
+     *
+     * @return this object, to enable chaining
+     * @param migrateConnections whether to move connections to balance load
+     **/
+    public Transport setMigrateConnections(boolean migrateConnections) {
+        this.migrateConnections = migrateConnections;
+        return this;
+    }
+
+    boolean migratesConnections() { return migrateConnections; }
+
+    /**
+     * Set the time a transport thread waits for more packets to be
+     * posted after being woken up to write a packet. Packets posted
+     * within this window to the same connection are written together,
+     * and posting them needs no further wakeups of the thread. This
+     * trades latency for throughput when many small requests or
+     * replies are sent from other threads than the transport threads.
+     * The default is 0, which disables batching.
+     *
+     * @return this object, to enable chaining
+     * @param seconds the batching window in seconds, typically tens of microseconds
+     **/
+    public Transport setBatchingWindow(double seconds) {
+        this.batchingWindowNanos = (long)(seconds * 1_000_000_000);
+        return this;
+    }
+
+    long batchingWindowNanos() { return batchingWindowNanos; }
+
+    /**
+     * Returns the transport threads of this, which expose their load.
+     *
+     * @return an unmodifiable list of the transport threads of this
+     **/
+    public List<TransportThread> threads() {
+        return Collections.unmodifiableList(threads);
     }
 
     boolean getTcpNoDelay() { return tcpNoDelay; }
 
+    /** Returns the pool of direct buffers used by the connections of this */
+    BufferPool bufferPool() { return bufferPool; }
+
     String getName() { return name; }
 
     /**
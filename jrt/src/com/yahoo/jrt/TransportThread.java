@@ -7,6 +7,7 @@ import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -21,6 +22,21 @@ public class TransportThread {
     private static final int CLOSING = 2;
     private static final int CLOSED  = 3;
 
+    /** How often the load of connections is sampled, in seconds */
+    private static final double LOAD_SAMPLE_INTERVAL = 1.0;
+    /** The weight of the previous load when a new load sample is taken */
+    private static final double LOAD_DECAY = 0.5;
+    /** The load of handling a packet, in bytes, in addition to the bytes of the packet */
+    private static final double PACKET_LOAD = 1024;
+    /** The load of each connection when choosing a thread for a new connection, in bytes per second */
+    private static final double CONNECTION_LOAD = 1024;
+    /** Threads with less load than this, in bytes per second, never move connections to other threads */
+    private static final double MIN_MIGRATION_LOAD = 1024 * 1024;
+    /** How many times the load of the least loaded thread the load of a thread must be to move a connection */
+    private static final double MIGRATION_IMBALANCE = 1.5;
+    /** The number of consecutive load samples a thread must be imbalanced before it moves a connection */
+    private static final int MIGRATION_SAMPLES = 5;
+
     private class Run implements Runnable {
         public void run() {
             try {
@@ -40,7 +56,14 @@ public class TransportThread {
     private class CloseConnectionCmd implements Runnable {
         private Connection conn;
         CloseConnectionCmd(Connection conn) { this.conn = conn; }
-        public void run() { handleCloseConnection(conn); }
+        public void run() {
+            TransportThread owner = conn.transportThread();
+            if (owner != TransportThread.this) { // the connection moved after this was posted
+                owner.closeConnection(conn);
+            } else {
+                handleCloseConnection(conn);
+            }
+        }
     }
 
     private class EnableWriteCmd implements Runnable {
@@ -49,6 +72,12 @@ public class TransportThread {
         public void run() { handleEnableWrite(conn); }
     }
 
+    private class AttachConnectionCmd implements Runnable {
+        private Connection conn;
+        AttachConnectionCmd(Connection conn) { this.conn = conn; }
+        public void run() { handleAttachConnection(conn); }
+    }
+
     private class HandshakeWorkDoneCmd implements Runnable {
         private Connection conn;
         HandshakeWorkDoneCmd(Connection conn) { this.conn = conn; }
@@ -77,6 +106,14 @@ public class TransportThread {
     private final Scheduler scheduler;
     private int             state;
     private final Selector  selector;
+    private final Task      loadSampler;
+
+    private final AtomicInteger connections = new AtomicInteger(0);
+    private volatile double bytesPerSecond   = 0;
+    private volatile double packetsPerSecond = 0;
+    private volatile long   migratedConnections = 0;
+    private long lastLoadSample = System.nanoTime();
+    private int  imbalancedSamples = 0;
 
     private void handleAddConnection(Connection conn) {
         if (conn.isClosed()) {
@@ -101,10 +138,23 @@ public class TransportThread {
     }
 
     private void handleEnableWrite(Connection conn) {
+        if (conn.isClosed() || !conn.isRegisteredWith(selector)) {
+            return; // a connection being moved here enables write when attached
+        }
+        conn.enableWrite();
+    }
+
+    private void handleAttachConnection(Connection conn) {
         if (conn.isClosed()) {
             return;
         }
-        conn.enableWrite();
+        if (state == CLOSED) { // drained at shutdown; close it rather than register it with a closing selector
+            handleCloseConnection(conn);
+            return;
+        }
+        if (!conn.attach(selector)) {
+            handleCloseConnection(conn);
+        }
     }
 
     private void handleHandshakeWorkDone(Connection conn) {
@@ -134,6 +184,10 @@ public class TransportThread {
         return true;
     }
 
+    private synchronized boolean hasEvents() {
+        return !queue.isEmpty();
+    }
+
     private void handleEvents() {
         synchronized (this) {
             queue.flush(myQueue);
@@ -179,6 +233,8 @@ public class TransportThread {
         } catch (Exception e) {
             throw new Error("Could not open transport selector", e);
         }
+        loadSampler = createTask(this::sampleLoad);
+        loadSampler.schedule(LOAD_SAMPLE_INTERVAL);
         thread.setDaemon(true);
         thread.start();
     }
@@ -187,6 +243,142 @@ public class TransportThread {
         return parent;
     }
 
+    /**
+     * Returns the number of connections handled by this thread,
+     * including connections not yet connected.
+     *
+     * @return number of connections
+     **/
+    public int connections() {
+        return connections.get();
+    }
+
+    /**
+     * Returns the number of bytes read and written per second by the
+     * connections of this thread, decayed over the last few seconds.
+     *
+     * @return bytes per second
+     **/
+    public double bytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * Returns the number of packets read and written per second by
+     * the connections of this thread, decayed over the last few
+     * seconds.
+     *
+     * @return packets per second
+     **/
+    public double packetsPerSecond() {
+        return packetsPerSecond;
+    }
+
+    /**
+     * Returns the number of connections this thread has moved to
+     * other threads of the transport to balance the load.
+     *
+     * @return number of connections moved away from this thread
+     **/
+    public long migratedConnections() {
+        return migratedConnections;
+    }
+
+    /** Returns the load of this thread, in bytes per second where packets count as {@link #PACKET_LOAD} bytes each */
+    double load() {
+        return load(bytesPerSecond, packetsPerSecond);
+    }
+
+    /** Returns the load used to choose the thread of a new connection, which also counts the connections of this */
+    double placementLoad() {
+        return load() + CONNECTION_LOAD * connections.get();
+    }
+
+    private static double load(double bytesPerSecond, double packetsPerSecond) {
+        return bytesPerSecond + PACKET_LOAD * packetsPerSecond;
+    }
+
+    void connectionAdded() {
+        connections.incrementAndGet();
+    }
+
+    void connectionRemoved() {
+        connections.decrementAndGet();
+    }
+
+    private void sampleLoad() {
+        long now = System.nanoTime();
+        double seconds = Math.max((now - lastLoadSample) / 1_000_000_000.0, 0.001);
+        lastLoadSample = now;
+        double bytes = 0;
+        double packets = 0;
+        for (SelectionKey key : selector.keys()) {
+            if (!key.isValid()) {
+                continue;
+            }
+            Connection conn = (Connection) key.attachment();
+            conn.sampleLoad(seconds, LOAD_DECAY);
+            bytes += conn.bytesPerSecond();
+            packets += conn.packetsPerSecond();
+        }
+        bytesPerSecond = bytes;
+        packetsPerSecond = packets;
+        if (state == OPEN && parent.migratesConnections()) {
+            balanceLoad();
+        }
+        loadSampler.schedule(LOAD_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Move a connection to the least loaded thread of the transport
+     * if this thread has been much more loaded than it for a while.
+     * The connection moved is the one which brings the load of the
+     * two threads closest to each other.
+     **/
+    private void balanceLoad() {
+        TransportThread target = parent.leastLoadedThread();
+        double load = load();
+        if (target == this || load < MIN_MIGRATION_LOAD || load < MIGRATION_IMBALANCE * target.load()) {
+            imbalancedSamples = 0;
+            return;
+        }
+        if (++imbalancedSamples < MIGRATION_SAMPLES) {
+            return;
+        }
+        imbalancedSamples = 0;
+        double excess = load - target.load();
+        Connection best = null;
+        double bestDistance = Double.MAX_VALUE;
+        for (SelectionKey key : selector.keys()) {
+            if (!key.isValid()) {
+                continue;
+            }
+            Connection conn = (Connection) key.attachment();
+            double connLoad = load(conn.bytesPerSecond(), conn.packetsPerSecond());
+            if (connLoad <= 0 || connLoad >= excess || !conn.canMigrate()) {
+                continue; // moving it would not make the busiest of the two threads less loaded
+            }
+            double distance = Math.abs(connLoad - excess / 2);
+            if (distance < bestDistance) {
+                best = conn;
+                bestDistance = distance;
+            }
+        }
+        if (best != null) {
+            migrate(best, target);
+        }
+    }
+
+    /** Move the given connection of this to the given thread. Only invoked by this transport thread. */
+    void migrate(Connection conn, TransportThread target) {
+        log.log(Level.FINE, () -> "Moving " + conn + " from " + thread.getName() + " to " + target.thread.getName());
+        conn.detach(target);
+        migratedConnections++;
+        if (!target.postCommand(target.new AttachConnectionCmd(conn))) {
+            handleCloseConnection(conn);
+        }
+    }
+
     /**
      * Proxy method used to dispatch fatal errors to the enclosing
      * Transport.
@@ -300,6 +492,18 @@ public class TransportThread {
                 log.log(Level.WARNING, "error during select", e);
             }
 
+            // when batching, let commands posted shortly after the one
+            // waking us up join it, such that connections getting
+            // packets in this window write them all at once, and the
+            // posters of the later commands need not wake us up
+            long batchingWindow = parent.batchingWindowNanos();
+            if (batchingWindow > 0 && hasEvents()) {
+                long end = System.nanoTime() + batchingWindow;
+                while (System.nanoTime() < end) {
+                    Thread.yield();
+                }
+            }
+
             // handle internal events
             handleEvents();
 
@@ -325,7 +529,9 @@ public class TransportThread {
         while (keys.hasNext()) {
             SelectionKey key = keys.next();
             Connection conn = (Connection) key.attachment();
-            handleCloseConnection(conn);
+            if (conn.transportThread() == this) {
+                handleCloseConnection(conn);
+            }
         }
         try { selector.close(); } catch (Exception e) {}
         parent.notifyDone(this);
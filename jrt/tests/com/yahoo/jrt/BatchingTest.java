@@ -0,0 +1,91 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import org.junit.After;
+import org.junit.Before;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BatchingTest {
+
+    Supervisor server;
+    Acceptor   acceptor;
+    Supervisor client;
+    Target     target;
+
+    @Before
+    public void setUp() throws ListenFailedException {
+        server   = new Supervisor(new Transport("server", 1).setBatchingWindow(0.0001));
+        client   = new Supervisor(new Transport("client", 1).setBatchingWindow(0.0001));
+        acceptor = server.listen(new Spec(0));
+        target   = client.connect(new Spec("localhost", acceptor.port()));
+        server.addMethod(new Method("inc", "i", "i", this::rpc_inc));
+    }
+
+    @After
+    public void tearDown() {
+        target.close();
+        acceptor.shutdown().join();
+        client.transport().shutdown().join();
+        server.transport().shutdown().join();
+    }
+
+    private void rpc_inc(Request req) {
+        req.detach();
+        new Thread(() -> { // reply from another thread than the transport thread
+            req.returnValues().add(new Int32Value(req.parameters().get(0).asInt32() + 1));
+            req.returnRequest();
+        }).start();
+    }
+
+    @org.junit.Test
+    public void testRequestsPostedTogetherAreAllAnswered() throws InterruptedException {
+        int count = 1000;
+        CountDownLatch done = new CountDownLatch(count);
+        List<Request> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Request req = new Request("inc");
+            req.parameters().add(new Int32Value(i));
+            requests.add(req);
+            target.invokeAsync(req, 60.0, r -> done.countDown());
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        for (int i = 0; i < count; i++) {
+            Request req = requests.get(i);
+            assertFalse(req.errorMessage(), req.isError());
+            assertEquals(i + 1, req.returnValues().get(0).asInt32());
+        }
+    }
+
+    @org.junit.Test
+    public void testRequestsAreCompletedOnceWhenConnectionGoesDown() throws InterruptedException {
+        server.addMethod(new Method("hang", "", "", Request::detach));
+        int count = 100;
+        CountDownLatch done = new CountDownLatch(count);
+        AtomicInteger completions = new AtomicInteger(0);
+        List<Request> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Request req = new Request("hang");
+            requests.add(req);
+            target.invokeAsync(req, 60.0, r -> { completions.incrementAndGet(); done.countDown(); });
+        }
+        requests.get(0).abort();
+        target.close();
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        client.transport().sync();
+        assertEquals(count, completions.get());
+        assertEquals(ErrorCode.ABORT, requests.get(0).errorCode());
+        for (Request req : requests.subList(1, count)) {
+            assertEquals(ErrorCode.CONNECTION, req.errorCode());
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BufferPoolTest {
+
+    @org.junit.Test
+    public void testBuffersAreAllocatedInSizeClasses() {
+        BufferPool pool = new BufferPool(1024 * 1024);
+        assertEquals(BufferPool.MIN_SIZE, pool.allocate(1).capacity());
+        assertEquals(8192, pool.allocate(4097).capacity());
+        assertEquals(65536, pool.allocate(65536).capacity());
+        assertEquals(BufferPool.MAX_SIZE + 1, pool.allocate(BufferPool.MAX_SIZE + 1).capacity());
+        assertTrue(pool.allocate(100).isDirect());
+        assertEquals(65536, BufferPool.capacityFor(40000));
+    }
+
+    @org.junit.Test
+    public void testReleasedBuffersAreReused() {
+        BufferPool pool = new BufferPool(1024 * 1024);
+        ByteBuffer a = pool.allocate(10000);
+        a.put((byte)1);
+        long allocated = pool.allocatedBytes();
+        pool.release(a);
+        assertEquals(a.capacity(), pool.pooledBytes());
+
+        ByteBuffer b = pool.allocate(10000);
+        assertSame(a, b);
+        assertEquals(0, b.position());
+        assertEquals(b.capacity(), b.limit());
+        assertEquals(0, pool.pooledBytes());
+        assertEquals(allocated, pool.allocatedBytes());
+        assertNotSame(b, pool.allocate(10000));
+    }
+
+    @org.junit.Test
+    public void testPooledBytesAreBounded() {
+        BufferPool pool = new BufferPool(16384);
+        pool.release(pool.allocate(16384));
+        pool.release(pool.allocate(16384));
+        assertEquals(16384, pool.pooledBytes());
+        pool.release(ByteBuffer.allocate(4096));
+        pool.release(ByteBuffer.allocateDirect(5000));
+        assertEquals(16384, pool.pooledBytes());
+    }
+
+    @org.junit.Test
+    public void testPooledBuffer() {
+        BufferPool pool = new BufferPool(1024 * 1024);
+        Buffer buf = new Buffer(4096, pool);
+        ByteBuffer b = buf.getWritable(10000);
+        assertTrue(b.isDirect());
+        for (int i = 0; i < 10000; i++) {
+            b.put((byte)i);
+        }
+        assertEquals(4096, pool.pooledBytes()); // the first buffer was released when growing
+        b = buf.getReadable();
+        for (int i = 0; i < 10000; i++) {
+            assertEquals((byte)i, b.get());
+        }
+        assertTrue(buf.shrink(5000));
+        assertEquals(4096 + 16384, pool.pooledBytes());
+        assertFalse(buf.shrink(5000));
+
+        buf.release();
+        assertEquals(4096 + 16384 + 8192, pool.pooledBytes());
+        assertEquals(0, buf.bytes());
+        buf.getWritable(10).put((byte)42);
+        assertEquals(42, buf.getReadable().get());
+    }
+
+}
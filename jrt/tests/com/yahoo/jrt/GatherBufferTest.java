@@ -0,0 +1,100 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GatherBufferTest {
+
+    /** A socket writing at most a given number of bytes per write */
+    private static class LimitedSocket extends NullCryptoSocket {
+
+        final ByteBuffer written = ByteBuffer.allocate(1024 * 1024);
+        int limit;
+        int writes = 0;
+
+        LimitedSocket(int limit) {
+            super(null, false);
+            this.limit = limit;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            writes++;
+            long count = 0;
+            for (int i = offset; i < offset + length; i++) {
+                while (srcs[i].hasRemaining() && count < limit) {
+                    written.put(srcs[i].get());
+                    count++;
+                }
+            }
+            return count;
+        }
+
+    }
+
+    private static void add(GatherBuffer buffer, int length, int value) {
+        ByteBuffer dst = buffer.add(length);
+        assertEquals(length, dst.remaining());
+        while (dst.hasRemaining()) {
+            dst.put((byte)value);
+        }
+    }
+
+    @org.junit.Test
+    public void testDataIsWrittenInOrder() throws IOException {
+        BufferPool pool = new BufferPool(1024 * 1024);
+        GatherBuffer buffer = new GatherBuffer(pool);
+        LimitedSocket socket = new LimitedSocket(1000);
+        add(buffer, 100, 1);
+        add(buffer, 100000, 2); // gets a segment of its own
+        add(buffer, 100, 3);
+        assertEquals(100200, buffer.bytes());
+
+        while (buffer.bytes() > 0) {
+            buffer.write(socket);
+        }
+        assertEquals(101, socket.writes);
+        assertEquals(100200, socket.written.position());
+        for (int i = 0; i < 100200; i++) {
+            assertEquals(i < 100 ? 1 : i < 100100 ? 2 : 3, socket.written.get(i));
+        }
+        assertTrue(pool.pooledBytes() > 0);
+    }
+
+    @org.junit.Test
+    public void testAllDataIsWrittenInOneGatheringWrite() throws IOException {
+        GatherBuffer buffer = new GatherBuffer(new BufferPool(1024 * 1024));
+        LimitedSocket socket = new LimitedSocket(Integer.MAX_VALUE);
+        for (int i = 0; i < 10; i++) {
+            add(buffer, GatherBuffer.SEGMENT_SIZE - 10, i);
+        }
+        assertEquals(10 * (GatherBuffer.SEGMENT_SIZE - 10), buffer.write(socket));
+        assertEquals(1, socket.writes);
+        assertEquals(0, buffer.bytes());
+        add(buffer, 10, 42);
+        assertEquals(10, buffer.write(socket));
+    }
+
+    @org.junit.Test
+    public void testShrinkAndRelease() throws IOException {
+        BufferPool pool = new BufferPool(1024 * 1024);
+        GatherBuffer buffer = new GatherBuffer(pool);
+        add(buffer, 100000, 1);
+        assertFalse("Not empty", buffer.shrink(1000));
+        buffer.write(new LimitedSocket(Integer.MAX_VALUE));
+        assertFalse(buffer.shrink(1000000));
+        assertTrue(buffer.shrink(1000));
+        assertEquals(131072, pool.pooledBytes());
+
+        add(buffer, 100, 1);
+        buffer.release();
+        assertEquals(0, buffer.bytes());
+        assertEquals(131072 + GatherBuffer.SEGMENT_SIZE, pool.pooledBytes());
+    }
+
+}
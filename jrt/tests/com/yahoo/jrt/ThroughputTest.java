@@ -0,0 +1,76 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the throughput and allocation rate of invoking a method echoing data of various sizes.
+ * Allocation is measured over all threads, including transport threads, and reported per request.
+ */
+public class ThroughputTest {
+
+    private static final Logger log = Logger.getLogger(ThroughputTest.class.getName());
+
+    private static final int[] payloadSizes = { 100, 4 * 1024, 64 * 1024, 1024 * 1024 };
+
+    private static void rpc_echo(Request req) {
+        req.returnValues().add(req.parameters().get(0));
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return Arrays.stream(threads.getThreadAllocatedBytes(threads.getAllThreadIds())).filter(bytes -> bytes > 0).sum();
+    }
+
+    private static void measure(Target target, int payloadSize, double seconds) {
+        byte[] payload = new byte[payloadSize];
+        Arrays.fill(payload, (byte)42);
+        long requests = 0;
+        long startBytes = allocatedBytes();
+        long start = System.nanoTime();
+        long end = start + (long)(seconds * 1000_000_000);
+        long now;
+        do {
+            Request req = new Request("echo");
+            req.parameters().add(new DataValue(payload));
+            target.invokeSync(req, 60.0);
+            assertTrue(req.checkReturnTypes("x"));
+            assertEquals(payloadSize, req.returnValues().get(0).asData().length);
+            requests++;
+            now = System.nanoTime();
+        } while (now < end);
+        double elapsed = (now - start) / 1000_000_000.0;
+        double allocated = allocatedBytes() - startBytes;
+        log.info(String.format("payload %8d bytes: %10.1f req/s, %10.1f MB/s, %12.1f bytes allocated/req",
+                               payloadSize,
+                               requests / elapsed,
+                               2 * payloadSize * requests / elapsed / (1024 * 1024),
+                               allocated / requests));
+    }
+
+    @org.junit.Test
+    public void testThroughput() throws ListenFailedException {
+        Supervisor server = new Supervisor(new Transport("server", new NullCryptoEngine(), 1));
+        Supervisor client = new Supervisor(new Transport("client", new NullCryptoEngine(), 1));
+        server.addMethod(new Method("echo", "x", "x", ThroughputTest::rpc_echo));
+        Acceptor acceptor = server.listen(new Spec(0));
+        Target target = client.connect(new Spec("localhost", acceptor.port()));
+        try {
+            for (int payloadSize : payloadSizes) {
+                measure(target, payloadSize, 0.1); // warmup
+                measure(target, payloadSize, 0.5);
+            }
+        } finally {
+            target.close();
+            acceptor.shutdown().join();
+            client.transport().shutdown().join();
+            server.transport().shutdown().join();
+        }
+    }
+
+}
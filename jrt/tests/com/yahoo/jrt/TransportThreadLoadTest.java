@@ -0,0 +1,169 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+import org.junit.After;
+import org.junit.Before;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TransportThreadLoadTest {
+
+    private Supervisor server;
+    private Supervisor client;
+    private Acceptor acceptor;
+
+    private static void rpc_echo(Request req) {
+        req.returnValues().add(req.parameters().get(0));
+    }
+
+    @Before
+    public void setUp() throws ListenFailedException {
+        server = new Supervisor(new Transport("server", new NullCryptoEngine(), 1));
+        client = new Supervisor(new Transport("client", new NullCryptoEngine(), 2).setPlaceConnectionsByLoad(true)
+                                                                                           .setMigrateConnections(true));
+        server.addMethod(new Method("echo", "x", "x", TransportThreadLoadTest::rpc_echo));
+        acceptor = server.listen(new Spec(0));
+    }
+
+    @After
+    public void tearDown() {
+        acceptor.shutdown().join();
+        client.transport().shutdown().join();
+        server.transport().shutdown().join();
+    }
+
+    private Connection connect() {
+        return (Connection) client.connect(new Spec("localhost", acceptor.port()));
+    }
+
+    @org.junit.Test
+    public void testNewConnectionsAreSpreadOverThreads() {
+        List<Connection> connections = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            connections.add(connect());
+        }
+        for (TransportThread thread : client.transport().threads()) {
+            assertEquals(3, thread.connections());
+        }
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        client.transport().sync();
+        for (TransportThread thread : client.transport().threads()) {
+            assertEquals(0, thread.connections());
+        }
+    }
+
+    @org.junit.Test
+    public void testConnectionIsMovedFromOverloadedThread() throws InterruptedException {
+        // Of four connections, two share each thread
+        List<Connection> connections = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            connections.add(connect());
+        }
+        Connection first = connections.get(0);
+        Connection second = connections.stream().skip(1)
+                                        .filter(connection -> connection.transportThread() == first.transportThread())
+                                        .findFirst().get();
+        TransportThread busy = first.transportThread();
+
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicLong completed = new AtomicLong();
+        AtomicReference<String> failure = new AtomicReference<>();
+        List<Thread> loaders = new ArrayList<>();
+        for (Connection connection : List.of(first, second)) {
+            Thread loader = new Thread(() -> {
+                byte[] payload = new byte[16 * 1024];
+                while ( ! done.get()) {
+                    Request req = new Request("echo");
+                    req.parameters().add(new DataValue(payload));
+                    connection.invokeSync(req, 60.0);
+                    if ( ! req.checkReturnTypes("x"))
+                        failure.compareAndSet(null, req.errorMessage());
+                    completed.incrementAndGet();
+                }
+            });
+            loader.start();
+            loaders.add(loader);
+        }
+        try {
+            waitFor(() -> first.transportThread() != second.transportThread());
+            assertNotSame(first.transportThread(), second.transportThread());
+            // requests keep working, and load is sampled on all threads, after the move
+            long completedAtMove = completed.get();
+            waitFor(() -> completed.get() > completedAtMove + 100 &&
+                          client.transport().threads().stream().allMatch(thread -> thread.bytesPerSecond() > 0 &&
+                                                                                   thread.packetsPerSecond() > 0));
+        } finally {
+            done.set(true);
+            for (Thread loader : loaders) {
+                loader.join();
+            }
+        }
+        assertNull(failure.get());
+        assertEquals(1, busy.migratedConnections());
+        assertEquals(1, busy.connections());
+        for (TransportThread thread : client.transport().threads()) {
+            assertTrue(thread.bytesPerSecond() > 0);
+            assertTrue(thread.packetsPerSecond() > 0);
+            if (thread != busy)
+                assertEquals(3, thread.connections());
+        }
+    }
+
+    @org.junit.Test
+    public void testConnectionMovingAtShutdownIsClosed() throws InterruptedException {
+        Connection connection = connect();
+        TransportThread source = connection.transportThread();
+        TransportThread target = client.transport().threads().stream().filter(thread -> thread != source).findFirst().get();
+
+        // The target is shut down, and handles the move after it has stopped handling I/O
+        CountDownLatch blocking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        target.shutdown();
+        target.perform(() -> {
+            blocking.countDown();
+            awaitUninterruptibly(release);
+        });
+        blocking.await();
+        source.perform(() -> source.migrate(connection, target));
+        source.sync();
+        assertSame(target, connection.transportThread());
+        assertFalse(connection.isClosed());
+
+        release.countDown();
+        target.join();
+        assertTrue(connection.isClosed());
+        assertEquals(0, target.connections());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException e) {}
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + 60_000;
+        while ( ! condition.getAsBoolean() && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+    }
+
+}
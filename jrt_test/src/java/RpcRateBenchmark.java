@@ -0,0 +1,122 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+
+import com.yahoo.jrt.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Invokes frt.rpc.ping from a number of threads sharing a connection, and reports
+ * the rate of RPCs and the median and 99th percentile latency. Starts a server in
+ * this process unless the spec of a server is given.
+ */
+public class RpcRateBenchmark {
+
+    private static class Client extends Thread {
+
+        private final Target target;
+        private final long endNanos;
+        private long[] latencies = new long[1024];
+        private int count = 0;
+        private int errors = 0;
+
+        Client(Target target, long endNanos) {
+            this.target = target;
+            this.endNanos = endNanos;
+        }
+
+        public void run() {
+            long now = System.nanoTime();
+            while (now < endNanos) {
+                Request req = new Request("frt.rpc.ping");
+                target.invokeSync(req, 60.0);
+                long done = System.nanoTime();
+                if (req.isError()) {
+                    errors++;
+                } else {
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = done - now;
+                }
+                now = done;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3 || args.length > 4) {
+            System.err.println("usage: RpcRateBenchmark <threads> <seconds> <batching window in microseconds> [spec]");
+            System.exit(1);
+        }
+        int threads = Integer.parseInt(args[0]);
+        double seconds = Double.parseDouble(args[1]);
+        double window = Double.parseDouble(args[2]) / 1_000_000;
+
+        Supervisor server = null;
+        Acceptor acceptor = null;
+        Spec spec;
+        if (args.length == 4) {
+            spec = new Spec(args[3]);
+        } else {
+            server = new Supervisor(new Transport("server", 1).setBatchingWindow(window));
+            acceptor = server.listen(new Spec(0));
+            spec = new Spec("localhost", acceptor.port());
+        }
+        Supervisor client = new Supervisor(new Transport("client", 1).setBatchingWindow(window));
+        Target target = client.connect(spec);
+
+        Request warmup = new Request("frt.rpc.ping");
+        target.invokeSync(warmup, 60.0);
+        if (warmup.isError()) {
+            System.err.println("could not ping " + spec + ": " + warmup.errorMessage());
+            System.exit(1);
+        }
+
+        long start = System.nanoTime();
+        long end = start + (long)(seconds * 1_000_000_000);
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Client c = new Client(target, end);
+            clients.add(c);
+            c.start();
+        }
+        int count = 0;
+        int errors = 0;
+        for (Client c : clients) {
+            c.join();
+            count += c.count;
+            errors += c.errors;
+        }
+        double elapsed = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long[] latencies = new long[count];
+        int offset = 0;
+        for (Client c : clients) {
+            System.arraycopy(c.latencies, 0, latencies, offset, c.count);
+            offset += c.count;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("threads: %d, batching window: %s us, rpcs/s: %.1f, p50: %.1f us, p99: %.1f us, errors: %d%n",
+                          threads, args[2], count / elapsed,
+                          percentile(latencies, 0.50) / 1000.0,
+                          percentile(latencies, 0.99) / 1000.0,
+                          errors);
+
+        target.close();
+        client.transport().shutdown().join();
+        if (server != null) {
+            acceptor.shutdown().join();
+            server.transport().shutdown().join();
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int)(fraction * sorted.length))];
+    }
+
+}
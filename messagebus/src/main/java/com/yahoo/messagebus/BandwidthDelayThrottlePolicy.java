@@ -0,0 +1,322 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.messagebus;
+
+import com.yahoo.concurrent.SystemTimer;
+import com.yahoo.concurrent.Timer;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This is an implementation of the {@link ThrottlePolicy} which limits the number of pending messages of a
+ * {@link SourceSession} to the measured bandwidth-delay product of the route it sends on: the highest rate at which
+ * replies are delivered, times the lowest round trip time observed. Sending more than this only builds queues
+ * at the receivers, while sending less leaves them idle, so keeping the number of pending messages close to this
+ * product gives the highest throughput at the lowest latency.
+ *
+ * <p>The window starts by doubling every round trip, until the delivery rate stops increasing. It is then drained
+ * down to the estimated product, and kept there, except for one round trip in every eight, where it is raised by a
+ * quarter to discover any increase in capacity, followed by one where it is lowered by a quarter to drain the queue
+ * this built. The delivery rate estimate is the maximum over the last ten round trips, so a drop in capacity,
+ * like the one seen when content nodes are merging, is followed within ten round trips. If the minimum round trip
+ * time has not been seen again for ten seconds, the window is kept at its minimum for a short while to measure it
+ * anew.</p>
+ *
+ * <p>Round trips and delivery rates are measured per message, in the spirit of BBR congestion control, using the
+ * timer given to this.</p>
+ *
+ * <b>NOTE:</b> By context, "pending" is refering to the number of sent messages that have not been replied to yet.
+ */
+public class BandwidthDelayThrottlePolicy extends StaticThrottlePolicy {
+
+    private static final Logger log = Logger.getLogger(BandwidthDelayThrottlePolicy.class.getName());
+
+    private static final double STARTUP_GROWTH = 1.25;
+    private static final int STARTUP_ROUNDS = 3;
+    private static final double[] PROBE_GAINS = { 1.25, 0.75, 1, 1, 1, 1, 1, 1 };
+    private static final int BANDWIDTH_WINDOW_ROUNDS = 10;
+    private static final long MIN_RTT_WINDOW_MILLIS = 10000;
+    private static final long PROBE_DELAY_MILLIS = 200;
+
+    enum Mode { STARTUP, DRAIN, PROBE_BANDWIDTH, PROBE_DELAY }
+
+    /** The state of the policy when a message was sent, stored as the context of the message. */
+    private static class SendState {
+
+        private final int size;
+        private final long sendTime;
+        private final long delivered;
+        private final long deliveredTime;
+        private final boolean appLimited;
+
+        SendState(int size, long sendTime, long delivered, long deliveredTime, boolean appLimited) {
+            this.size = size;
+            this.sendTime = sendTime;
+            this.delivered = delivered;
+            this.deliveredTime = deliveredTime;
+            this.appLimited = appLimited;
+        }
+
+    }
+
+    private final Timer timer;
+    private Mode mode = Mode.STARTUP;
+    private double windowSize = 20;
+    private double minWindowSize = 4;
+    private double maxWindowSize = Integer.MAX_VALUE;
+    private int lastPendingCount = 0;
+
+    private long delivered = 0;
+    private long deliveredTime;
+    private long nextRoundDelivered = 0;
+    private long rounds = 0;
+
+    private final double[] roundMaxRates = new double[BANDWIDTH_WINDOW_ROUNDS];
+    private double maxRate = 0;
+    private double fullRate = 0;
+    private int roundsWithoutGrowth = 0;
+    private int probeCycle = 0;
+
+    private long minRtt = Long.MAX_VALUE;
+    private long minRttTime;
+    private long probeDelayEnd = 0;
+    private long probeDelayMinRtt = Long.MAX_VALUE;
+
+    /**
+     * Constructs a new instance of this policy and sets the appropriate default values of member data.
+     */
+    public BandwidthDelayThrottlePolicy() {
+        this(SystemTimer.INSTANCE);
+    }
+
+    /**
+     * Constructs a new instance of this class using the given clock to measure round trip times and delivery rates.
+     *
+     * @param timer the timer to use
+     */
+    public BandwidthDelayThrottlePolicy(Timer timer) {
+        this.timer = timer;
+        this.deliveredTime = timer.milliTime();
+        this.minRttTime = deliveredTime;
+    }
+
+    @Override
+    public boolean canSend(Message message, int pendingCount) {
+        if ( ! super.canSend(message, pendingCount)) {
+            return false;
+        }
+        lastPendingCount = pendingCount;
+        return pendingCount < windowSize;
+    }
+
+    @Override
+    public void processMessage(Message message) {
+        super.processMessage(message);
+        message.setContext(new SendState((Integer)message.getContext(), timer.milliTime(), delivered, deliveredTime,
+                                         lastPendingCount + 1 < getMaxPendingCount()));
+    }
+
+    @Override
+    public void processReply(Reply reply) {
+        SendState sent = (SendState)reply.getContext();
+        reply.setContext(sent.size);
+        super.processReply(reply);
+        if (reply.hasErrors()) {
+            return;
+        }
+
+        long time = timer.milliTime();
+        ++delivered;
+        deliveredTime = time;
+        updateMinRtt(time, time - sent.sendTime);
+
+        boolean roundEnded = sent.delivered >= nextRoundDelivered;
+        if (roundEnded) {
+            nextRoundDelivered = delivered;
+            roundMaxRates[(int)(++rounds % BANDWIDTH_WINDOW_ROUNDS)] = 0;
+            updateMaxRate(0);
+        }
+        long interval = time - sent.deliveredTime;
+        if (interval > 0 && interval >= minRtt) {
+            double rate = (double)(delivered - sent.delivered) / interval;
+            if ( ! sent.appLimited || rate > maxRate) {
+                updateMaxRate(rate);
+            }
+        }
+        updateMode(time, roundEnded);
+        updateWindowSize();
+    }
+
+    private void updateMinRtt(long time, long rtt) {
+        if (mode == Mode.PROBE_DELAY) {
+            probeDelayMinRtt = Math.min(probeDelayMinRtt, rtt);
+        }
+        if (rtt <= minRtt) {
+            minRtt = rtt;
+            minRttTime = time;
+        }
+    }
+
+    private void updateMaxRate(double rate) {
+        int index = (int)(rounds % BANDWIDTH_WINDOW_ROUNDS);
+        roundMaxRates[index] = Math.max(roundMaxRates[index], rate);
+        maxRate = 0;
+        for (double roundMaxRate : roundMaxRates) {
+            maxRate = Math.max(maxRate, roundMaxRate);
+        }
+    }
+
+    private void updateMode(long time, boolean roundEnded) {
+        switch (mode) {
+            case STARTUP:
+                if (roundEnded) {
+                    if (maxRate >= fullRate * STARTUP_GROWTH) {
+                        fullRate = maxRate;
+                        roundsWithoutGrowth = 0;
+                    } else if (++roundsWithoutGrowth >= STARTUP_ROUNDS) {
+                        setMode(Mode.DRAIN);
+                    }
+                }
+                break;
+            case DRAIN:
+                if (lastPendingCount <= bandwidthDelayProduct()) {
+                    setMode(Mode.PROBE_BANDWIDTH);
+                }
+                break;
+            case PROBE_BANDWIDTH:
+                if (roundEnded) {
+                    probeCycle = (probeCycle + 1) % PROBE_GAINS.length;
+                }
+                break;
+            case PROBE_DELAY:
+                if (time >= probeDelayEnd && roundEnded) {
+                    if (probeDelayMinRtt != Long.MAX_VALUE) {
+                        minRtt = probeDelayMinRtt;
+                    }
+                    minRttTime = time;
+                    setMode(Mode.PROBE_BANDWIDTH);
+                }
+                break;
+        }
+        if (mode != Mode.PROBE_DELAY && mode != Mode.STARTUP && time - minRttTime > MIN_RTT_WINDOW_MILLIS) {
+            probeDelayEnd = time + Math.max(PROBE_DELAY_MILLIS, minRtt);
+            probeDelayMinRtt = Long.MAX_VALUE;
+            setMode(Mode.PROBE_DELAY);
+        }
+    }
+
+    private void setMode(Mode mode) {
+        if (log.isLoggable(Level.FINE)) {
+            log.log(Level.FINE, "mode " + mode + " windowSize " + windowSize + " max rate " + maxRate +
+                                " min rtt " + minRtt);
+        }
+        this.mode = mode;
+        probeCycle = 0;
+    }
+
+    private void updateWindowSize() {
+        switch (mode) {
+            case STARTUP:
+                windowSize += 1;
+                break;
+            case DRAIN:
+                windowSize = bandwidthDelayProduct();
+                break;
+            case PROBE_BANDWIDTH:
+                windowSize = PROBE_GAINS[probeCycle] * bandwidthDelayProduct();
+                break;
+            case PROBE_DELAY:
+                windowSize = minWindowSize;
+                break;
+        }
+        windowSize = Math.max(minWindowSize, windowSize);
+        windowSize = Math.min(maxWindowSize, windowSize);
+    }
+
+    /** Returns the current estimate of the number of messages which may be pending without being queued */
+    private double bandwidthDelayProduct() {
+        return maxRate * Math.max(1, minRtt);
+    }
+
+    /**
+     * Returns the highest rate at which replies have been delivered in the last ten round trips.
+     *
+     * @return the rate, in messages per second
+     */
+    public double getMaxDeliveryRate() {
+        return maxRate * 1000;
+    }
+
+    /**
+     * Returns the lowest round trip time observed in the last ten seconds, or Long.MAX_VALUE if none was.
+     *
+     * @return the round trip time, in milliseconds
+     */
+    public long getMinRoundTripTime() {
+        return minRtt;
+    }
+
+    Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Sets the maximium number of pending operations allowed at any time, in
+     * order to avoid using too much resources.
+     *
+     * @param max the max to set
+     * @return this, to allow chaining
+     */
+    public BandwidthDelayThrottlePolicy setMaxWindowSize(double max) {
+        this.maxWindowSize = max;
+        return this;
+    }
+
+    /**
+     * Get the maximum number of pending operations allowed at any time.
+     *
+     * @return the maximum number of operations
+     */
+    public double getMaxWindowSize() {
+        return maxWindowSize;
+    }
+
+    /**
+     * Sets the minimium number of pending operations allowed at any time, in
+     * order to keep a level of performance.
+     *
+     * @param min the min to set
+     * @return this, to allow chaining
+     */
+    public BandwidthDelayThrottlePolicy setMinWindowSize(double min) {
+        this.minWindowSize = min;
+        return this;
+    }
+
+    /**
+     * Get the minimum number of pending operations allowed at any time.
+     *
+     * @return the minimum number of operations
+     */
+    public double getMinWindowSize() {
+        return minWindowSize;
+    }
+
+    @Override
+    public BandwidthDelayThrottlePolicy setMaxPendingCount(int maxCount) {
+        super.setMaxPendingCount(maxCount);
+        maxWindowSize = maxCount;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of pending messages allowed.
+     *
+     * @return the max limit
+     */
+    @Override
+    public int getMaxPendingCount() {
+        return (int)windowSize;
+    }
+
+}
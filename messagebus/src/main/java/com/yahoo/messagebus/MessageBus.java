@@ -15,6 +15,7 @@ import com.yahoo.messagebus.routing.RoutingTableSpec;
 import com.yahoo.text.Utf8Array;
 import com.yahoo.text.Utf8String;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -138,12 +139,12 @@ public class MessageBus implements ConfigHandler, NetworkOwner, MessageHandler,
             throw new IllegalStateException("Network failed to become ready in time.");
 
         // Start messenger.
-        msn = new Messenger();
+        msn = new Messenger(params.getNumMessengerThreads());
 
         RetryPolicy retryPolicy = params.getRetryPolicy();
         if (retryPolicy != null) {
             resender = new Resender(retryPolicy);
-            msn.addRecurrentTask(new ResenderTask(resender));
+            msn.addRecurrentTask(new ResenderTask(resender, msn));
         } else {
             resender = null;
         }
@@ -189,6 +190,20 @@ public class MessageBus implements ConfigHandler, NetworkOwner, MessageHandler,
         net.sync();
     }
 
+    /**
+     * <p>Returns the number of tasks waiting in the queue of each of the
+     * messenger threads of this, which run the resending of messages.</p>
+     *
+     * @return The queue size of each messenger thread.
+     */
+    public List<Integer> getMessengerQueueSizes() {
+        List<Integer> sizes = new ArrayList<>(msn.getNumThreads());
+        for (int i = 0; i < msn.getNumThreads(); ++i) {
+            sizes.add(msn.getQueueSize(i));
+        }
+        return sizes;
+    }
+
     /**
      * <p>This is a convenience method to call {@link
      * #createSourceSession(SourceSessionParams)} with default values for the
@@ -594,9 +609,11 @@ public class MessageBus implements ConfigHandler, NetworkOwner, MessageHandler,
     private static class ResenderTask implements Messenger.Task {
 
         final Resender resender;
+        final Messenger messenger;
 
-        ResenderTask(Resender resender) {
+        ResenderTask(Resender resender, Messenger messenger) {
             this.resender = resender;
+            this.messenger = messenger;
         }
 
         public void destroy() {
@@ -604,7 +621,7 @@ public class MessageBus implements ConfigHandler, NetworkOwner, MessageHandler,
         }
 
         public void run() {
-            resender.resendScheduled();
+            resender.resendScheduled(messenger);
         }
 
     }
@@ -19,6 +19,7 @@ public class MessageBusParams {
     private RetryPolicy retryPolicy;
     private int maxPendingCount;
     private int maxPendingSize;
+    private int numMessengerThreads;
     private MessagebusConfig config;
 
     /**
@@ -28,6 +29,7 @@ public class MessageBusParams {
         retryPolicy = new RetryTransientErrorsPolicy();
         maxPendingCount = 1024;
         maxPendingSize = 128 * 1024 * 1024;
+        numMessengerThreads = 1;
         config = null;
     }
 
@@ -41,6 +43,7 @@ public class MessageBusParams {
         retryPolicy = params.retryPolicy;
         maxPendingCount = params.maxPendingCount;
         maxPendingSize = params.maxPendingSize;
+        numMessengerThreads = params.numMessengerThreads;
         config = params.config;
     }
 
@@ -147,6 +150,27 @@ public class MessageBusParams {
         return this;
     }
 
+    /**
+     * Returns the number of threads of the messenger, which resends messages.
+     *
+     * @return The number of threads.
+     */
+    public int getNumMessengerThreads() {
+        return numMessengerThreads;
+    }
+
+    /**
+     * Sets the number of threads of the messenger, which resends messages. Resends of messages with the same
+     * sequence id are always done by the same thread.
+     *
+     * @param numThreads The number of threads to set.
+     * @return This, to allow chaining.
+     */
+    public MessageBusParams setNumMessengerThreads(int numThreads) {
+        this.numMessengerThreads = numThreads;
+        return this;
+    }
+
     public MessagebusConfig getMessageBusConfig() {
         return config;
     }
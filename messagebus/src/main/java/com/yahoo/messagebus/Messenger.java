@@ -12,9 +12,15 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
 /**
- * <p>This class implements a single thread that is able to process arbitrary
- * tasks. Tasks are enqueued using the synchronized {@link #enqueue(Task)}
- * method, and are run in the order they were enqueued.</p>
+ * <p>This class implements one or more threads that are able to process
+ * arbitrary tasks. Tasks are enqueued using the synchronized {@link
+ * #enqueue(Task)} method, and are run in the order they were enqueued.</p>
+ *
+ * <p>A messenger may run several threads, each with its own queue of tasks.
+ * Tasks enqueued with a partition key by {@link #enqueue(Task, long)} are
+ * run by the thread owning that key, so tasks with the same key, such as
+ * those of the same session or message sequence, are still run in the order
+ * they were enqueued. Recurrent tasks are run by the first thread.</p>
  *
  * @author Simon Thoresen Hult
  */
@@ -23,12 +29,25 @@ public class Messenger implements Runnable {
     private static final Logger log = Logger.getLogger(Messenger.class.getName());
     private final AtomicBoolean destroyed = new AtomicBoolean(false);
     private final List<Task> children = new ArrayList<>();
-    private final Queue<Task> queue = new ArrayDeque<>();
-
-    private final Thread thread = new Thread(this, "Messenger");
+    private final Shard[] shards;
 
     public Messenger() {
-        thread.setDaemon(true);
+        this(1);
+    }
+
+    /**
+     * <p>Creates a messenger running the given number of threads.</p>
+     *
+     * @param numThreads The number of threads to run tasks in.
+     */
+    public Messenger(int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("A messenger needs at least one thread, got " + numThreads + ".");
+        }
+        shards = new Shard[numThreads];
+        for (int i = 0; i < numThreads; ++i) {
+            shards[i] = new Shard(i == 0 ? "Messenger" : "Messenger-" + i, i == 0);
+        }
     }
 
     /**
@@ -44,13 +63,15 @@ public class Messenger implements Runnable {
     }
 
     /**
-     * <p>Starts the internal thread. This must be done AFTER all recurrent
+     * <p>Starts the internal threads. This must be done AFTER all recurrent
      * tasks have been added.</p>
      *
      * @see #addRecurrentTask(Task)
      */
     public void start() {
-        thread.start();
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
     }
 
     /**
@@ -86,36 +107,80 @@ public class Messenger implements Runnable {
     }
 
     /**
-     * <p>Enqueues the given task in the list of tasks that this worker is to
-     * process. If this thread has been destroyed previously, this method
-     * invokes {@link Messenger.Task#destroy()}.</p>
+     * <p>Enqueues the given task in the list of tasks that the first thread
+     * of this is to process. If this has been destroyed previously, this
+     * method invokes {@link Messenger.Task#destroy()}.</p>
      *
      * @param task The task to enqueue.
      */
     public void enqueue(final Task task) {
+        enqueue(task, shards[0]);
+    }
+
+    /**
+     * <p>Enqueues the given task in the list of tasks of the thread owning the
+     * given partition key. All tasks with the same key are run by the same
+     * thread, in the order they were enqueued. If this has been destroyed
+     * previously, this method invokes {@link Messenger.Task#destroy()}.</p>
+     *
+     * @param task      The task to enqueue.
+     * @param partition The partition key of the task, e.g. a session or sequence id.
+     */
+    public void enqueue(final Task task, final long partition) {
+        enqueue(task, shards[shardOf(partition)]);
+    }
+
+    private int shardOf(long partition) {
+        long hash = partition * 0x9E3779B97F4A7C15L; // spread keys which differ in their high bits only
+        return (int) Long.remainderUnsigned(hash ^ (hash >>> 32), shards.length);
+    }
+
+    private void enqueue(final Task task, final Shard shard) {
         if (destroyed.get()) {
             task.destroy();
             return;
         }
-        synchronized (this) {
-            queue.offer(task);
-            if (queue.size() == 1) {
-                notify();
-            }
-        }
+        shard.enqueue(task);
+    }
+
+    /**
+     * <p>Returns the number of threads running tasks in this.</p>
+     *
+     * @return The number of threads.
+     */
+    public int getNumThreads() {
+        return shards.length;
     }
 
     /**
-     * <p>Handshakes with the internal thread. If this method is called using
-     * the messenger thread, this will deadlock.</p>
+     * <p>Returns the number of tasks waiting to be run by the given thread of
+     * this.</p>
+     *
+     * @param thread The index of the thread, less than {@link #getNumThreads()}.
+     * @return The number of tasks in the queue of the thread.
+     */
+    public int getQueueSize(int thread) {
+        return shards[thread].size();
+    }
+
+    /**
+     * <p>Handshakes with the internal threads. If this method is called using
+     * a messenger thread, this will not wait for that thread, but may
+     * deadlock if another messenger thread is waiting for it.</p>
      */
     public void sync() {
-        if (Thread.currentThread() == thread) {
-            return; // no need to wait for self
+        List<SyncTask> tasks = new ArrayList<>();
+        for (Shard shard : shards) {
+            if (Thread.currentThread() == shard.thread) {
+                continue; // no need to wait for self
+            }
+            final SyncTask task = new SyncTask();
+            enqueue(task, shard);
+            tasks.add(task);
+        }
+        for (SyncTask task : tasks) {
+            task.await();
         }
-        final SyncTask task = new SyncTask();
-        enqueue(task);
-        task.await();
     }
 
     /**
@@ -128,15 +193,14 @@ public class Messenger implements Runnable {
      */
     public boolean destroy() {
         boolean done = false;
-        enqueue(Terminate.INSTANCE);
+        for (Shard shard : shards) {
+            enqueue(Terminate.INSTANCE, shard);
+        }
         if (!destroyed.getAndSet(true)) {
             try {
-                synchronized (this) {
-                    while (!queue.isEmpty()) {
-                        wait();
-                    }
+                for (Shard shard : shards) {
+                    shard.awaitTermination();
                 }
-                thread.join();
             } catch (final InterruptedException e) {
                 // ignore
             }
@@ -147,50 +211,99 @@ public class Messenger implements Runnable {
 
     @Override
     public void run() {
-        while (true) {
-            Task task = null;
+        shards[0].run();
+    }
+
+    /**
+     * <p>A thread of this messenger, with its own queue of tasks.</p>
+     */
+    private class Shard implements Runnable {
+
+        private final Queue<Task> queue = new ArrayDeque<>();
+        private final Thread thread;
+        private final boolean runsChildren;
+
+        Shard(String name, boolean first) {
+            this.thread = new Thread(first ? Messenger.this : this, name);
+            this.thread.setDaemon(true);
+            this.runsChildren = first;
+        }
+
+        synchronized void enqueue(Task task) {
+            queue.offer(task);
+            if (queue.size() == 1) {
+                notify();
+            }
+        }
+
+        synchronized int size() {
+            return queue.size();
+        }
+
+        void awaitTermination() throws InterruptedException {
             synchronized (this) {
-                if (queue.isEmpty()) {
+                while (!queue.isEmpty()) {
+                    wait();
+                }
+            }
+            thread.join();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Task task = null;
+                synchronized (this) {
+                    if (queue.isEmpty()) {
+                        try {
+                            if (runsChildren) {
+                                wait(10);
+                            } else {
+                                wait();
+                            }
+                        } catch (final InterruptedException e) {
+                            continue;
+                        }
+                    }
+                    if (queue.size() > 0) {
+                        task = queue.poll();
+                    }
+                }
+                if (task == Terminate.INSTANCE) {
+                    break;
+                }
+                if (task != null) {
+                    try {
+                        task.run();
+                    } catch (final Exception e) {
+                        log.log(Level.SEVERE, "An exception was thrown while running " + task.getClass().getName(), e);
+                    }
                     try {
-                        wait(10);
-                    } catch (final InterruptedException e) {
-                        continue;
+                        task.destroy();
+                    } catch (final Exception e) {
+                        log.warning("An exception was thrown while destroying " + task.getClass().getName() + ": " +
+                                    e.toString());
+                        log.warning("Someone, somewhere might have to wait indefinetly for something.");
                     }
                 }
-                if (queue.size() > 0) {
-                    task = queue.poll();
+                if (runsChildren) {
+                    for (final Task child : children) {
+                        child.run();
+                    }
                 }
             }
-            if (task == Terminate.INSTANCE) {
-                break;
-            }
-            if (task != null) {
-                try {
-                    task.run();
-                } catch (final Exception e) {
-                    log.log(Level.SEVERE, "An exception was thrown while running " + task.getClass().getName(), e);
+            if (runsChildren) {
+                for (final Task child : children) {
+                    child.destroy();
                 }
-                try {
+            }
+            synchronized (this) {
+                while (!queue.isEmpty()) {
+                    final Task task = queue.poll();
                     task.destroy();
-                } catch (final Exception e) {
-                    log.warning("An exception was thrown while destroying " + task.getClass().getName() + ": " +
-                                e.toString());
-                    log.warning("Someone, somewhere might have to wait indefinetly for something.");
                 }
+                notify();
             }
-            for (final Task child : children) {
-                child.run();
-            }
-        }
-        for (final Task child : children) {
-            child.destroy();
-        }
-        synchronized (this) {
-            while (!queue.isEmpty()) {
-                final Task task = queue.poll();
-                task.destroy();
-            }
-            notify();
         }
     }
 
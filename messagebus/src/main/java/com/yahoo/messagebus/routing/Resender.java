@@ -4,6 +4,7 @@ package com.yahoo.messagebus.routing;
 import com.yahoo.concurrent.SystemTimer;
 import com.yahoo.messagebus.ErrorCode;
 import com.yahoo.messagebus.Message;
+import com.yahoo.messagebus.Messenger;
 import com.yahoo.messagebus.Reply;
 import com.yahoo.messagebus.TraceLevel;
 
@@ -98,21 +99,46 @@ public class Resender {
      * Invokes {@link RoutingNode#send()} on all routing nodes that are applicable for sending at the current time.
      */
     public void resendScheduled() {
-        List<RoutingNode> sendList;
+        for (RoutingNode node : takeScheduled()) {
+            resend(node);
+        }
+    }
 
+    /**
+     * Resends all the routing nodes that are applicable for sending at the current time in the threads of the given
+     * messenger. Messages with a sequence id are resent by the thread owning that id, so resends of the same sequence
+     * are done in order. Resends are done in the calling thread if the messenger has a single thread.
+     *
+     * @param messenger The messenger to resend in.
+     */
+    public void resendScheduled(Messenger messenger) {
+        if (messenger.getNumThreads() == 1) {
+            resendScheduled();
+            return;
+        }
+        for (RoutingNode node : takeScheduled()) {
+            Message msg = node.getMessage();
+            messenger.enqueue(new ResendTask(node),
+                              msg.hasSequenceId() ? msg.getSequenceId() : System.identityHashCode(msg));
+        }
+    }
+
+    private List<RoutingNode> takeScheduled() {
+        List<RoutingNode> sendList;
         long now = SystemTimer.INSTANCE.milliTime();
         synchronized (queue) {
-            if (queue.isEmpty()) return;
+            if (queue.isEmpty()) return List.of();
             sendList = new LinkedList<>();
             while (!queue.isEmpty() && queue.peek().time <= now) {
                 sendList.add(queue.poll().node);
             }
         }
+        return sendList;
+    }
 
-        for (RoutingNode node : sendList) {
-            node.getTrace().trace(TraceLevel.COMPONENT, "Resender resending message.");
-            node.send();
-        }
+    private static void resend(RoutingNode node) {
+        node.getTrace().trace(TraceLevel.COMPONENT, "Resender resending message.");
+        node.send();
     }
 
     /**
@@ -126,6 +152,32 @@ public class Resender {
         }
     }
 
+    /**
+     * Resends a routing node in a messenger thread, or discards it if the messenger is destroyed before this is run.
+     */
+    private static class ResendTask implements Messenger.Task {
+
+        final RoutingNode node;
+        boolean done = false;
+
+        ResendTask(RoutingNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public void run() {
+            done = true;
+            resend(node);
+        }
+
+        @Override
+        public void destroy() {
+            if (!done) {
+                node.discard();
+            }
+        }
+    }
+
     /**
      * This class encapsulates a routing node and some arbitrary time. This is required for the resending logic so that
      * it can properly schedule resending.
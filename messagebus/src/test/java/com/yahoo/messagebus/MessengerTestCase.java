@@ -3,9 +3,13 @@ package com.yahoo.messagebus;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -95,6 +99,74 @@ public class MessengerTestCase {
         assertTrue(tryMessenger(msn));
     }
 
+    @Test
+    public void requireThatTasksOfTheSamePartitionAreRunInOrder() throws InterruptedException {
+        Messenger msn = new Messenger(4);
+        msn.start();
+        int partitions = 16;
+        int tasksPerPartition = 100;
+        List<List<Integer>> runs = new ArrayList<>();
+        for (int p = 0; p < partitions; ++p) {
+            runs.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+        CountDownLatch done = new CountDownLatch(partitions * tasksPerPartition);
+        for (int i = 0; i < tasksPerPartition; ++i) {
+            for (int p = 0; p < partitions; ++p) {
+                final List<Integer> run = runs.get(p);
+                final int index = i;
+                msn.enqueue(new Messenger.Task() {
+                    @Override
+                    public void run() {
+                        run.add(index);
+                    }
+
+                    @Override
+                    public void destroy() {
+                        done.countDown();
+                    }
+                }, p);
+            }
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        for (List<Integer> run : runs) {
+            assertEquals(tasksPerPartition, run.size());
+            for (int i = 0; i < tasksPerPartition; ++i) {
+                assertEquals(i, (int)run.get(i));
+            }
+        }
+        msn.sync();
+        for (int i = 0; i < msn.getNumThreads(); ++i) {
+            assertEquals(0, msn.getQueueSize(i));
+        }
+        assertTrue(msn.destroy());
+    }
+
+    @Test
+    public void requireThatPendingTasksAreDestroyedWithManyThreads() throws InterruptedException {
+        Messenger msn = new Messenger(3);
+        CountDownLatch destroyed = new CountDownLatch(30);
+        for (int i = 0; i < 30; ++i) {
+            msn.enqueue(new Messenger.Task() {
+                @Override
+                public void run() {
+                }
+
+                @Override
+                public void destroy() {
+                    destroyed.countDown();
+                }
+            }, i);
+        }
+        int queued = 0;
+        for (int i = 0; i < msn.getNumThreads(); ++i) {
+            queued += msn.getQueueSize(i);
+        }
+        assertEquals(30, queued);
+        msn.start();
+        assertTrue(msn.destroy());
+        assertTrue(destroyed.await(60, TimeUnit.SECONDS));
+    }
+
     private static boolean tryMessenger(Messenger msn) {
         MyTask task = new MyTask();
         msn.enqueue(task);
@@ -4,11 +4,20 @@ package com.yahoo.messagebus;
 import com.yahoo.messagebus.test.SimpleMessage;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -16,6 +25,8 @@ import static org.junit.Assert.assertTrue;
  */
 public class SequencerTestCase {
 
+    private static final Logger log = Logger.getLogger(SequencerTestCase.class.getName());
+
     @Test
     public void testSyncNone() {
         TestQueue src = new TestQueue();
@@ -147,6 +158,107 @@ public class SequencerTestCase {
         }
     }
 
+    /**
+     * Sends sequenced messages from several threads while other threads reply to them, verifies that messages with
+     * the same sequence id from the same thread are passed on in order, and logs the throughput.
+     */
+    @Test
+    public void testConcurrentSendAndReply() throws InterruptedException {
+        int senders = 4;
+        int repliers = 4;
+        int messagesPerSender = 100_000;
+        int sequenceIds = 64;
+
+        LinkedBlockingQueue<Message> network = new LinkedBlockingQueue<>();
+        AtomicReference<String> failure = new AtomicReference<>();
+        AtomicLong[][] lastSent = new AtomicLong[senders][sequenceIds];
+        for (AtomicLong[] perSender : lastSent) {
+            for (int id = 0; id < sequenceIds; ++id) {
+                perSender[id] = new AtomicLong(-1);
+            }
+        }
+        Sequencer seq = new Sequencer(message -> {
+            OrderedMessage msg = (OrderedMessage)message;
+            long previous = lastSent[msg.sender][(int)msg.seqId].getAndSet(msg.index);
+            if (previous >= msg.index) {
+                failure.compareAndSet(null, "Message " + msg.index + " of sender " + msg.sender +
+                                            " was sent after " + previous);
+            }
+            network.add(msg);
+        });
+        CountDownLatch done = new CountDownLatch(senders * messagesPerSender);
+        ReplyHandler replies = reply -> done.countDown();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < repliers; ++i) {
+            Thread replier = new Thread(() -> {
+                try {
+                    while (true) {
+                        Message msg = network.take();
+                        Reply reply = new EmptyReply();
+                        reply.swapState(msg);
+                        reply.setMessage(msg);
+                        reply.popHandler().handleReply(reply);
+                    }
+                } catch (InterruptedException e) {
+                    // done
+                }
+            });
+            replier.setDaemon(true);
+            replier.start();
+            threads.add(replier);
+        }
+        long start = System.nanoTime();
+        List<Thread> senderThreads = new ArrayList<>();
+        for (int i = 0; i < senders; ++i) {
+            int sender = i;
+            Thread thread = new Thread(() -> {
+                for (int index = 0; index < messagesPerSender; ++index) {
+                    Message msg = new OrderedMessage(sender, index, index % sequenceIds);
+                    msg.pushHandler(replies);
+                    seq.handleMessage(msg);
+                }
+            });
+            thread.start();
+            senderThreads.add(thread);
+        }
+        for (Thread thread : senderThreads) {
+            thread.join();
+        }
+        assertTrue(done.await(120, TimeUnit.SECONDS));
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        assertNull(failure.get());
+        log.info(String.format("%d senders, %d repliers, %d sequence ids: %.0f sequenced messages/s",
+                               senders, repliers, sequenceIds, senders * messagesPerSender / seconds));
+    }
+
+    private static class OrderedMessage extends SimpleMessage {
+
+        final int sender;
+        final long index;
+        final long seqId;
+
+        OrderedMessage(int sender, long index, long seqId) {
+            super("foo");
+            this.sender = sender;
+            this.index = index;
+            this.seqId = seqId;
+        }
+
+        @Override
+        public boolean hasSequenceId() {
+            return true;
+        }
+
+        @Override
+        public long getSequenceId() {
+            return seqId;
+        }
+    }
+
     private static class QueueSender implements MessageHandler {
 
         Queue<Routable> queue;
@@ -0,0 +1,174 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.messagebus;
+
+import com.yahoo.messagebus.test.SimpleMessage;
+import com.yahoo.messagebus.test.SimpleReply;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Simulates a client which always has more to send, throttled by a policy, against a server with a given
+ * capacity and round trip time, in steps of one millisecond of a {@link CustomTimer}, and compares the throughput
+ * and latency of the throttle policies as the capacity of the server changes.
+ */
+public class ThrottlePolicySimulationTestCase {
+
+    private static final Logger log = Logger.getLogger(ThrottlePolicySimulationTestCase.class.getName());
+
+    private static final int BASE_RTT_MILLIS = 10;
+
+    /** A period of the simulation, with the given server capacity */
+    private static class Phase {
+
+        final String name;
+        final long durationMillis;
+        final double messagesPerMilli;
+
+        long delivered = 0;
+        long latencySum = 0;
+        long pendingSum = 0;
+        long steps = 0;
+
+        Phase(String name, long durationMillis, double messagesPerMilli) {
+            this.name = name;
+            this.durationMillis = durationMillis;
+            this.messagesPerMilli = messagesPerMilli;
+        }
+
+        double utilization() { return delivered / (messagesPerMilli * steps); }
+
+        double meanLatency() { return delivered == 0 ? 0 : (double)latencySum / delivered; }
+
+        double meanPending() { return steps == 0 ? 0 : (double)pendingSum / steps; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: utilization %.2f, mean latency %.1f ms, mean pending %.1f",
+                                 name, utilization(), meanLatency(), meanPending());
+        }
+
+    }
+
+    private static class InFlight {
+
+        final Message message;
+        final long sendTime;
+        long dueTime;
+
+        InFlight(Message message, long sendTime) {
+            this.message = message;
+            this.sendTime = sendTime;
+        }
+
+    }
+
+    /**
+     * Runs the given phases with the given policy, using the given timer, and returns the phases with
+     * measurements of their second half, after the policy has had time to adapt to the change in capacity.
+     */
+    private static List<Phase> simulate(CustomTimer timer, ThrottlePolicy policy, List<Phase> phases) {
+        Queue<InFlight> toServer = new ArrayDeque<>();
+        Queue<InFlight> serverQueue = new ArrayDeque<>();
+        Queue<InFlight> toClient = new ArrayDeque<>();
+        int pending = 0;
+        double credit = 0;
+        for (Phase phase : phases) {
+            for (long step = 0; step < phase.durationMillis; step++, timer.millis++) {
+                long now = timer.millis;
+                boolean measure = step >= phase.durationMillis / 2;
+
+                while ( ! toClient.isEmpty() && toClient.peek().dueTime <= now) {
+                    InFlight done = toClient.poll();
+                    Reply reply = new SimpleReply("reply");
+                    reply.swapState(done.message);
+                    policy.processReply(reply);
+                    --pending;
+                    if (measure) {
+                        phase.delivered++;
+                        phase.latencySum += now - done.sendTime;
+                    }
+                }
+
+                while ( ! toServer.isEmpty() && toServer.peek().dueTime <= now) {
+                    serverQueue.add(toServer.poll());
+                }
+                credit = serverQueue.isEmpty() ? 0 : credit + phase.messagesPerMilli;
+                while ( ! serverQueue.isEmpty() && credit >= 1) {
+                    InFlight processed = serverQueue.poll();
+                    processed.dueTime = now + BASE_RTT_MILLIS / 2;
+                    toClient.add(processed);
+                    credit -= 1;
+                }
+
+                Message message = new SimpleMessage("message");
+                while (policy.canSend(message, pending)) {
+                    policy.processMessage(message);
+                    InFlight sent = new InFlight(message, now);
+                    sent.dueTime = now + BASE_RTT_MILLIS / 2;
+                    toServer.add(sent);
+                    ++pending;
+                    message = new SimpleMessage("message");
+                }
+
+                if (measure) {
+                    phase.pendingSum += pending;
+                    phase.steps++;
+                }
+            }
+        }
+        return phases;
+    }
+
+    private static List<Phase> mergePhases() {
+        List<Phase> phases = new ArrayList<>();
+        phases.add(new Phase("normal", 20000, 10));
+        phases.add(new Phase("merging", 20000, 2));
+        phases.add(new Phase("recovered", 20000, 10));
+        return phases;
+    }
+
+    private static List<Phase> run(String name, Function<CustomTimer, ThrottlePolicy> factory) {
+        CustomTimer timer = new CustomTimer();
+        List<Phase> phases = simulate(timer, factory.apply(timer), mergePhases());
+        for (Phase phase : phases) {
+            log.info(name + " " + phase);
+        }
+        return phases;
+    }
+
+    @Test
+    public void testBandwidthDelayPolicyKeepsPendingNearTheKnee() {
+        List<Phase> bandwidthDelay = run("bandwidth-delay", BandwidthDelayThrottlePolicy::new);
+        List<Phase> dynamic = run("dynamic", DynamicThrottlePolicy::new);
+        List<Phase> statik = run("static", timer -> new StaticThrottlePolicy().setMaxPendingCount(1000));
+
+        for (int i = 0; i < bandwidthDelay.size(); i++) {
+            Phase phase = bandwidthDelay.get(i);
+            double bandwidthDelayProduct = phase.messagesPerMilli * BASE_RTT_MILLIS;
+            assertTrue(phase.toString(), phase.utilization() > 0.9);
+            assertTrue(phase.toString(), phase.meanLatency() < 2 * BASE_RTT_MILLIS);
+            assertTrue(phase.toString(), phase.meanPending() < 2 * bandwidthDelayProduct);
+            assertTrue(phase.meanLatency() < statik.get(i).meanLatency());
+            assertTrue(phase.meanLatency() <= dynamic.get(i).meanLatency());
+        }
+    }
+
+    @Test
+    public void testMinimumRoundTripTimeIsMeasuredAgain() {
+        CustomTimer timer = new CustomTimer();
+        BandwidthDelayThrottlePolicy policy = new BandwidthDelayThrottlePolicy(timer);
+        simulate(timer, policy, mergePhases());
+        assertEquals(BASE_RTT_MILLIS, policy.getMinRoundTripTime());
+        assertEquals(10000, policy.getMaxDeliveryRate(), 1000);
+    }
+
+}
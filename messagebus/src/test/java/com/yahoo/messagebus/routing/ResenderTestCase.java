@@ -186,12 +186,66 @@ public class ResenderTestCase {
         assertTrue(trace.contains("retry 5 in 0.08"));
     }
 
+    @Test
+    public void testRetryInManyMessengerThreads() {
+        TestServer server = new TestServer(new MessageBusParams().setRetryPolicy(retryPolicy)
+                                                                 .setNumMessengerThreads(4)
+                                                                 .addProtocol(new SimpleProtocol()),
+                                           new RPCNetworkParams().setSlobrokConfigId(TestServer.getSlobrokConfig(slobrok)));
+        SourceSession session = server.mb.createSourceSession(
+                new SourceSessionParams().setTimeout(600.0).setReplyHandler(new Receptor()));
+        try {
+            assertTrue(server.waitSlobrok("dst/session", 1));
+            int count = 20;
+            for (int i = 0; i < count; ++i) {
+                Message msg = (i % 2 == 0) ? createSequencedMessage("msg" + i, i) : createMessage("msg" + i);
+                assertTrue(session.send(msg, Route.parse("dst/session")).isAccepted());
+            }
+            for (int i = 0; i < count; ++i) {
+                Message msg = ((Receptor)dstSession.getMessageHandler()).getMessage(60);
+                assertNotNull(msg);
+                replyFromDestination(msg, ErrorCode.APP_TRANSIENT_ERROR, 0);
+            }
+            for (int i = 0; i < count; ++i) {
+                Message msg = ((Receptor)dstSession.getMessageHandler()).getMessage(60);
+                assertNotNull(msg);
+                assertEquals(1, msg.getRetry());
+                dstSession.acknowledge(msg);
+            }
+            for (int i = 0; i < count; ++i) {
+                Reply reply = ((Receptor)session.getReplyHandler()).getReply(60);
+                assertNotNull(reply);
+                assertFalse(reply.hasErrors());
+            }
+            assertEquals(4, server.mb.getMessengerQueueSizes().size());
+        } finally {
+            session.destroy();
+            server.destroy();
+        }
+    }
+
     private static Message createMessage(String msg) {
         SimpleMessage ret = new SimpleMessage(msg);
         ret.getTrace().setLevel(9);
         return ret;
     }
 
+    private static Message createSequencedMessage(String msg, long sequenceId) {
+        SimpleMessage ret = new SimpleMessage(msg) {
+            @Override
+            public boolean hasSequenceId() {
+                return true;
+            }
+
+            @Override
+            public long getSequenceId() {
+                return sequenceId;
+            }
+        };
+        ret.getTrace().setLevel(9);
+        return ret;
+    }
+
     private void replyFromDestination(Message msg, int errorCode, double retryDelay) {
         Reply reply = new EmptyReply();
         reply.swapState(msg);
@@ -8,8 +8,12 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * All models imported from the models/ directory in the application package.
@@ -29,10 +33,17 @@ public class ImportedMlModels {
     }
 
     public ImportedMlModels(File modelsDirectory, Collection<MlModelImporter> importers) {
-        Map<String, ImportedMlModel> models = new HashMap<>();
+        this(modelsDirectory, Runnable::run, importers);
+    }
+
+    /** Creates imported models, where the models found are imported by tasks run by the given executor */
+    public ImportedMlModels(File modelsDirectory, Executor executor, Collection<MlModelImporter> importers) {
+        Map<String, CompletableFuture<ImportedMlModel>> futureModels = new LinkedHashMap<>();
 
         // Find all subdirectories recursively which contains a model we can read
-        importRecursively(modelsDirectory, models, importers);
+        importRecursively(modelsDirectory, futureModels, executor, importers);
+        Map<String, ImportedMlModel> models = new HashMap<>();
+        futureModels.forEach((name, futureModel) -> models.put(name, join(futureModel)));
         importedModels = Collections.unmodifiableMap(models);
     }
 
@@ -54,7 +65,8 @@ public class ImportedMlModels {
     }
 
     private static void importRecursively(File dir,
-                                          Map<String, ImportedMlModel> models,
+                                          Map<String, CompletableFuture<ImportedMlModel>> models,
+                                          Executor executor,
                                           Collection<MlModelImporter> importers) {
         if ( ! dir.isDirectory()) return;
 
@@ -62,18 +74,30 @@ public class ImportedMlModels {
             Optional<MlModelImporter> importer = findImporterOf(child, importers);
             if (importer.isPresent()) {
                 String name = toName(child);
-                ImportedMlModel existing = models.get(name);
+                CompletableFuture<ImportedMlModel> existing = models.get(name);
                 if (existing != null)
-                    throw new IllegalArgumentException("The models in " + child + " and " + existing.source() +
+                    throw new IllegalArgumentException("The models in " + child + " and " + join(existing).source() +
                                                        " both resolve to the model name '" + name + "'");
-                models.put(name, importer.get().importModel(name, child));
+                models.put(name, CompletableFuture.supplyAsync(() -> importer.get().importModel(name, child), executor));
             }
             else {
-                importRecursively(child, models, importers);
+                importRecursively(child, models, executor, importers);
             }
         });
     }
 
+    /** Returns the model of the given future, rethrowing any exception thrown when importing it */
+    private static ImportedMlModel join(CompletableFuture<ImportedMlModel> futureModel) {
+        try {
+            return futureModel.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
     private static Optional<MlModelImporter> findImporterOf(File path, Collection<MlModelImporter> importers) {
         return importers.stream().filter(item -> item.canImport(path.toString())).findFirst();
     }
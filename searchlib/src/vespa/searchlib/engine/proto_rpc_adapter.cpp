@@ -30,25 +30,39 @@ using DocsumStats = SearchProtocolMetrics::DocsumStats;
 
 namespace {
 
+constexpr uint8_t ZSTD_REPLY_COMPRESSION_LEVEL = 3;
+
 CompressionConfig get_compression_config() {
     using search::fs4transport::FS4PersistentPacketStreamer;
     const FS4PersistentPacketStreamer & streamer = FS4PersistentPacketStreamer::Instance;
     return CompressionConfig(streamer.getCompressionType(), streamer.getCompressionLevel(), 80, streamer.getCompressionLimit());
 }
 
+// A client encoding its request with zstd also accepts zstd compressed replies
+CompressionConfig get_reply_compression_config(const FRT_Values &request) {
+    CompressionConfig config = get_compression_config();
+    if ((CompressionConfig::toType(request[0]._intval8) == CompressionConfig::ZSTD) &&
+        (config.type != CompressionConfig::ZSTD))
+    {
+        config.type = CompressionConfig::ZSTD;
+        config.compressionLevel = ZSTD_REPLY_COMPRESSION_LEVEL;
+    }
+    return config;
+}
+
 template <typename MSG>
-void encode_message(const MSG &src, FRT_Values &dst) {
+void encode_message(const MSG &src, const CompressionConfig &config, FRT_Values &dst) {
     using vespalib::compression::compress;
     auto output = src.SerializeAsString();
     ConstBufferRef buf(output.data(), output.size());
     DataBuffer compressed(output.data(), output.size());
-    CompressionConfig::Type type = compress(get_compression_config(), buf, compressed, true);
+    CompressionConfig::Type type = compress(config, buf, compressed, true);
     dst.AddInt8(type);
     dst.AddInt32(buf.size());
     dst.AddData(compressed.getData(), compressed.getDataLen());
 }
 
-void encode_search_reply(const ProtoSearchReply &src, FRT_Values &dst) {
+void encode_search_reply(const ProtoSearchReply &src, const CompressionConfig &config, FRT_Values &dst) {
     using vespalib::compression::compress;
     auto output = src.SerializeAsString();
     if (src.grouping_blob().empty()) {
@@ -58,7 +72,7 @@ void encode_search_reply(const ProtoSearchReply &src, FRT_Values &dst) {
     } else {
         ConstBufferRef buf(output.data(), output.size());
         DataBuffer compressed(output.data(), output.size());
-        CompressionConfig::Type type = compress(get_compression_config(), buf, compressed, true);
+        CompressionConfig::Type type = compress(config, buf, compressed, true);
         dst.AddInt8(type);
         dst.AddInt32(buf.size());
         dst.AddData(compressed.getData(), compressed.getDataLen());
@@ -112,7 +126,7 @@ struct SearchCompletionHandler : SearchClient {
     void searchDone(SearchReply::UP reply) override {
         ProtoSearchReply msg;
         ProtoConverter::search_reply_to_proto(*reply, msg);
-        encode_search_reply(msg, *req.GetReturn());
+        encode_search_reply(msg, get_reply_compression_config(*req.GetParams()), *req.GetReturn());
         stats.reply_size = (*req.GetReturn())[2]._data._len;
         if (reply->request) {
             stats.latency = vespalib::to_s(reply->request->getTimeUsed());
@@ -158,7 +172,7 @@ struct GetDocsumsCompletionHandler : DocsumClient {
     void getDocsumsDone(DocsumReply::UP reply) override {
         ProtoDocsumReply msg;
         ProtoConverter::docsum_reply_to_proto(*reply, msg);
-        encode_message(msg, *req.GetReturn());
+        encode_message(msg, get_reply_compression_config(*req.GetParams()), *req.GetReturn());
         stats.reply_size = (*req.GetReturn())[2]._data._len;
         if (reply->request) {
             stats.latency = vespalib::to_s(reply->request->getTimeUsed());
@@ -177,7 +191,7 @@ struct PingCompletionHandler : MonitorClient {
     void pingDone(MonitorReply::UP reply) override {
         ProtoMonitorReply msg;
         ProtoConverter::monitor_reply_to_proto(*reply, msg);
-        encode_message(msg, *req.GetReturn());
+        encode_message(msg, get_reply_compression_config(*req.GetParams()), *req.GetReturn());
         req.Return();
     }
 };
@@ -281,7 +295,7 @@ void
 ProtoRpcAdapter::encode_search_request(const ProtoSearchRequest &src, FRT_RPCRequest &dst)
 {
     dst.SetMethodName("vespa.searchprotocol.search");
-    encode_message(src, *dst.GetParams());
+    encode_message(src, get_compression_config(), *dst.GetParams());
 }
 
 bool
@@ -294,7 +308,7 @@ void
 ProtoRpcAdapter::encode_docsum_request(const ProtoDocsumRequest &src, FRT_RPCRequest &dst)
 {
     dst.SetMethodName("vespa.searchprotocol.getDocsums");
-    encode_message(src, *dst.GetParams());
+    encode_message(src, get_compression_config(), *dst.GetParams());
 }
 
 bool
@@ -307,7 +321,7 @@ void
 ProtoRpcAdapter::encode_monitor_request(const ProtoMonitorRequest &src, FRT_RPCRequest &dst)
 {
     dst.SetMethodName("vespa.searchprotocol.ping");
-    encode_message(src, *dst.GetParams());
+    encode_message(src, get_compression_config(), *dst.GetParams());
 }
 
 bool
@@ -14,6 +14,7 @@ import com.yahoo.document.BucketId;
 
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -24,6 +25,8 @@ import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class Distribution {
@@ -474,6 +477,279 @@ public class Distribution {
         }
         return node.index;
     }
+    /** The number of buckets below which a bulk computation is not split further over a fork-join pool */
+    private static final int BULK_TASK_SIZE = 1024;
+
+    /**
+     * Computes the ideal distributor of each of the given buckets, as {@link #getIdealDistributorNode} does, into
+     * the entry of the given array with the same index as the bucket, or -1 if the bucket has no available
+     * distributor. The node states of the cluster state are looked up once for all the buckets, and the random
+     * generator is reused between them.
+     *
+     * @param distributors the array to write distributor indices to, at least as long as the array of buckets
+     * @throws TooFewBucketBitsInUseException if any bucket uses fewer bits than the distribution bits of the state
+     */
+    public void getIdealDistributorNodes(ClusterState state, BucketId[] buckets, String upStates, int[] distributors) throws TooFewBucketBitsInUseException {
+        getIdealDistributorNodes(state, buckets, upStates, distributors, null);
+    }
+
+    /**
+     * As {@link #getIdealDistributorNodes(ClusterState, BucketId[], String, int[])}, but split into tasks which
+     * are run in the given pool, or in the calling thread if the pool is null.
+     */
+    public void getIdealDistributorNodes(ClusterState state, BucketId[] buckets, String upStates, int[] distributors,
+                                         ForkJoinPool pool) throws TooFewBucketBitsInUseException {
+        if (distributors.length < buckets.length) {
+            throw new IllegalArgumentException("Room for " + distributors.length + " distributors, but got " + buckets.length + " buckets");
+        }
+        checkUsedBits(state, buckets);
+        BulkState bulk = new BulkState(config.getAcquire(), state, upStates, NodeType.DISTRIBUTOR);
+        runBulk(buckets.length, pool, (from, to) -> bulk.computeDistributors(buckets, from, to, distributors));
+    }
+
+    /**
+     * Computes the ideal storage nodes of each of the given buckets, as {@link #getIdealStorageNodes} does, into
+     * consecutive runs of the given array, one per bucket, each as long as the redundancy of this. Where there are
+     * fewer ideal nodes than the redundancy, or a group has fewer available nodes than its share of the redundancy,
+     * the missing nodes are -1, where the single bucket method has fake entries for node 0. The node states of the
+     * cluster state are looked up once for all the buckets, and the random generator and scratch arrays are reused
+     * between them.
+     *
+     * @param nodes the array to write storage node indices to, at least redundancy times as long as the array of buckets
+     * @throws TooFewBucketBitsInUseException if any bucket uses fewer bits than the distribution bits of the state
+     */
+    public void getIdealStorageNodes(ClusterState state, BucketId[] buckets, String upStates, int[] nodes) throws TooFewBucketBitsInUseException {
+        getIdealStorageNodes(state, buckets, upStates, nodes, null);
+    }
+
+    /**
+     * As {@link #getIdealStorageNodes(ClusterState, BucketId[], String, int[])}, but split into tasks which
+     * are run in the given pool, or in the calling thread if the pool is null.
+     */
+    public void getIdealStorageNodes(ClusterState state, BucketId[] buckets, String upStates, int[] nodes,
+                                     ForkJoinPool pool) throws TooFewBucketBitsInUseException {
+        Config cfg = config.getAcquire();
+        if (nodes.length < (long) buckets.length * cfg.redundancy) {
+            throw new IllegalArgumentException("Room for " + nodes.length + " storage nodes, but got " + buckets.length +
+                                               " buckets with redundancy " + cfg.redundancy);
+        }
+        checkUsedBits(state, buckets);
+        BulkState bulk = new BulkState(cfg, state, upStates, NodeType.STORAGE);
+        runBulk(buckets.length, pool, (from, to) -> bulk.computeStorageNodes(buckets, from, to, nodes));
+    }
+
+    private static void checkUsedBits(ClusterState state, BucketId[] buckets) throws TooFewBucketBitsInUseException {
+        for (BucketId bucket : buckets) {
+            if (bucket.getUsedBits() < state.getDistributionBitCount()) {
+                throw new TooFewBucketBitsInUseException("Cannot get ideal state for bucket " + bucket + " using " + bucket.getUsedBits()
+                        + " bits when cluster uses " + state.getDistributionBitCount() + " distribution bits.");
+            }
+        }
+    }
+
+    private static void runBulk(int bucketCount, ForkJoinPool pool, BulkRange range) {
+        if (pool == null || bucketCount <= BULK_TASK_SIZE) {
+            range.compute(0, bucketCount);
+        } else {
+            pool.invoke(new BulkTask(0, bucketCount, range));
+        }
+    }
+
+    /** Computes ideal nodes for the buckets with indices in [from, to) */
+    @FunctionalInterface
+    private interface BulkRange {
+        void compute(int from, int to);
+    }
+
+    private static class BulkTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final BulkRange range;
+
+        BulkTask(int from, int to, BulkRange range) {
+            this.from = from;
+            this.to = to;
+            this.range = range;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BULK_TASK_SIZE) {
+                range.compute(from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BulkTask(from, middle, range), new BulkTask(middle, to, range));
+            }
+        }
+    }
+
+    /**
+     * The states of the configured nodes of one type in a cluster state, indexed by node index, and the config
+     * snapshot they were looked up for. Immutable, so one instance is shared by all tasks of a bulk computation,
+     * while each task has its own scratch state.
+     */
+    private class BulkState {
+        private final Config cfg;
+        private final ClusterState state;
+        private final boolean[] up;
+        private final double[] capacity;
+        /** The node states of storage nodes with any disk down, and null for all other nodes */
+        private final NodeState[] anyDiskDown;
+
+        BulkState(Config cfg, ClusterState state, String upStates, NodeType type) {
+            this.cfg = cfg;
+            this.state = state;
+            List<ConfiguredNode> nodes = new ArrayList<>();
+            addLeafNodes(cfg.nodeGraph, nodes);
+            int size = 0;
+            for (ConfiguredNode node : nodes) {
+                size = Math.max(size, node.index() + 1);
+            }
+            up = new boolean[size];
+            capacity = new double[size];
+            anyDiskDown = new NodeState[size];
+            for (ConfiguredNode node : nodes) {
+                NodeState nodeState = state.getNodeState(new Node(type, node.index()));
+                up[node.index()] = nodeState.getState().oneOf(upStates);
+                capacity[node.index()] = nodeState.getCapacity();
+                if (type == NodeType.STORAGE && nodeState.isAnyDiskDown()) {
+                    anyDiskDown[node.index()] = nodeState;
+                }
+            }
+        }
+
+        private void addLeafNodes(Group group, List<ConfiguredNode> nodes) {
+            if (group.isLeafGroup()) {
+                nodes.addAll(group.getNodes());
+            } else {
+                for (Group subgroup : group.getSubgroups().values()) {
+                    addLeafNodes(subgroup, nodes);
+                }
+            }
+        }
+
+        void computeDistributors(BucketId[] buckets, int from, int to, int[] distributors) {
+            BulkRandom random = new BulkRandom();
+            for (int b = from; b < to; ++b) {
+                BucketId bucket = buckets[b];
+                Group idealGroup = getIdealDistributorGroup(cfg.distributorAutoOwnershipTransferOnWholeGroupDown, bucket, state, cfg.nodeGraph, cfg.redundancy);
+                distributors[b] = idealGroup == null ? -1 : getIdealDistributor(idealGroup, getDistributorSeed(bucket, state), random);
+            }
+        }
+
+        private int getIdealDistributor(Group group, int seed, BulkRandom random) {
+            random.setSeed(seed);
+            int randomIndex = 0;
+            int bestIndex = -1;
+            double bestScore = 0;
+            for (ConfiguredNode configuredNode : group.getNodes()) {
+                int index = configuredNode.index();
+                if ( ! up[index]) continue;
+                randomIndex = random.skipTo(index, randomIndex, seed);
+                double score = random.nextDouble();
+                ++randomIndex;
+                if (Math.abs(capacity[index] - 1.0) > 0.0000001) {
+                    score = Math.pow(score, 1.0 / capacity[index]);
+                }
+                if (score > bestScore) {
+                    bestIndex = index;
+                    bestScore = score;
+                }
+            }
+            return bestIndex;
+        }
+
+        void computeStorageNodes(BucketId[] buckets, int from, int to, int[] nodes) {
+            BulkRandom random = new BulkRandom();
+            List<ResultGroup> groups = new ArrayList<>();
+            int[] indices = new int[cfg.redundancy];
+            double[] scores = new double[cfg.redundancy];
+            for (int b = from; b < to; ++b) {
+                BucketId bucket = buckets[b];
+                int offset = b * cfg.redundancy;
+                int end = offset + cfg.redundancy;
+                groups.clear();
+                getIdealGroups(bucket, state, cfg.nodeGraph, cfg.redundancy, groups);
+
+                int seed = getStorageSeed(bucket, state);
+                random.setSeed(seed);
+                int randomIndex = 0;
+                for (ResultGroup group : groups) {
+                    int redundancy = group.redundancy;
+                    if (redundancy == 0) continue;
+                    // Where the single bucket computation keeps fake entries for node 0, -1 is kept when fewer nodes are available
+                    Arrays.fill(indices, 0, redundancy, -1);
+                    Arrays.fill(scores, 0, redundancy, 0.0);
+                    for (ConfiguredNode configuredNode : group.group.getNodes()) {
+                        int index = configuredNode.index();
+                        if ( ! up[index]) continue;
+                        if (anyDiskDown[index] != null) {
+                            int idealDiskIndex = getIdealDisk(anyDiskDown[index], index, bucket);
+                            if (anyDiskDown[index].getDiskState(idealDiskIndex).getState() != State.UP) continue;
+                        }
+                        randomIndex = random.skipTo(index, randomIndex, seed);
+                        double score = random.nextDouble();
+                        ++randomIndex;
+                        if (capacity[index] != 1.0) {
+                            score = Math.pow(score, 1.0 / capacity[index]);
+                        }
+                        if (score > scores[redundancy - 1]) {
+                            int i = 0;
+                            while (score <= scores[i]) ++i;
+                            System.arraycopy(scores, i, scores, i + 1, redundancy - 1 - i);
+                            System.arraycopy(indices, i, indices, i + 1, redundancy - 1 - i);
+                            scores[i] = score;
+                            indices[i] = index;
+                        }
+                    }
+                    System.arraycopy(indices, 0, nodes, offset, redundancy);
+                    offset += redundancy;
+                }
+                Arrays.fill(nodes, offset, end, -1);
+            }
+        }
+    }
+
+    /**
+     * The same sequence of numbers as {@link RandomGen}, without the synchronization of {@link java.util.Random},
+     * so one instance can be reseeded cheaply for every bucket computed by a single thread.
+     */
+    private static class BulkRandom {
+        private static final long MULTIPLIER = 0x5DEECE66DL;
+        private static final long ADDEND = 0xBL;
+        private static final long MASK = (1L << 48) - 1;
+
+        private long seed;
+
+        void setSeed(long seed) {
+            this.seed = (seed ^ MULTIPLIER) & MASK;
+            nextDouble();
+        }
+
+        private int next(int bits) {
+            seed = (seed * MULTIPLIER + ADDEND) & MASK;
+            return (int) (seed >>> (48 - bits));
+        }
+
+        double nextDouble() {
+            return (((long) next(26) << 27) + next(27)) * 0x1.0p-53;
+        }
+
+        /** Positions this at the number for the given node index, when at the given one, and returns the new index */
+        int skipTo(int index, int randomIndex, int seed) {
+            if (index != randomIndex) {
+                if (index < randomIndex) {
+                    setSeed(seed);
+                    randomIndex = 0;
+                }
+                for (int k = randomIndex; k < index; ++k) {
+                    nextDouble();
+                }
+            }
+            return index;
+        }
+    }
+
     private boolean visitGroups(GroupVisitor visitor, Map<Integer, Group> groups) {
         for (Group g : groups.values()) {
             if (!visitor.visitGroup(g)) return false;
@@ -0,0 +1,57 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vdslib.distribution;
+
+import com.yahoo.document.BucketId;
+import com.yahoo.vdslib.state.ClusterState;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Benchmarks computing the ideal storage nodes of buckets one at a time, in bulk, and in bulk in a pool.
+ */
+public class DistributionBenchmark {
+
+    private static final int nodeCount = 200;
+    private static final int bucketCount = 100000;
+
+    public static void main(String[] args) throws Exception {
+        Distribution distribution = new Distribution("raw:" + Distribution.getDefaultDistributionConfig(3, nodeCount));
+        ClusterState state = new ClusterState("bits:16 distributor:" + nodeCount + " .5.s:d storage:" + nodeCount + " .9.s:m");
+        BucketId[] buckets = randomBuckets(bucketCount, 16);
+        int[] nodes = new int[buckets.length * distribution.getRedundancy()];
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        for (int run = 0; run < 3; ++run) {
+            long start = System.nanoTime();
+            long singleSum = 0;
+            for (BucketId bucket : buckets) {
+                for (int node : distribution.getIdealStorageNodes(state, bucket, "uim"))
+                    singleSum += node;
+            }
+            double single = buckets.length * 1e9 / (System.nanoTime() - start);
+
+            start = System.nanoTime();
+            distribution.getIdealStorageNodes(state, buckets, "uim", nodes);
+            double bulk = buckets.length * 1e9 / (System.nanoTime() - start);
+
+            start = System.nanoTime();
+            distribution.getIdealStorageNodes(state, buckets, "uim", nodes, pool);
+            double parallel = buckets.length * 1e9 / (System.nanoTime() - start);
+
+            if (singleSum != Arrays.stream(nodes).asLongStream().sum())
+                throw new IllegalStateException("Bulk and single bucket computation returned different nodes");
+            System.out.println(String.format("Ideal storage nodes of buckets per second with %d nodes: %.0f single, %.0f bulk, %.0f bulk in %d threads",
+                                             nodeCount, single, bulk, parallel, pool.getParallelism()));
+        }
+    }
+
+    private static BucketId[] randomBuckets(int count, int minUsedBits) {
+        Random random = new Random(1);
+        BucketId[] buckets = new BucketId[count];
+        for (int i = 0; i < count; ++i)
+            buckets[i] = new BucketId(minUsedBits + random.nextInt(58 - minUsedBits + 1), random.nextLong());
+        return buckets;
+    }
+
+}
@@ -25,9 +25,11 @@ import java.util.List;
 import java.util.Random;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class DistributionTestCase {
     private DistributionTestFactory test;
@@ -418,4 +420,89 @@ public class DistributionTestCase {
         Distribution distr = new Distribution(new StorDistributionConfig(config));
         distr.getIdealDistributorNode(clusterState, new BucketId(16, 0), "uim");
     }
+
+    private static BucketId[] getRandomBuckets(int count, int minUsedBits) {
+        Random random = new Random(1);
+        BucketId[] buckets = new BucketId[count];
+        for (int i = 0; i < count; ++i) {
+            buckets[i] = new BucketId(minUsedBits + random.nextInt(58 - minUsedBits + 1), random.nextLong());
+        }
+        return buckets;
+    }
+
+    private static void assertBulkEqualsSingle(Distribution distribution, ClusterState state, BucketId[] buckets, ForkJoinPool pool) throws Exception {
+        int[] distributors = new int[buckets.length];
+        distribution.getIdealDistributorNodes(state, buckets, "uim", distributors, pool);
+        int redundancy = distribution.getRedundancy();
+        int[] storageNodes = new int[buckets.length * redundancy];
+        distribution.getIdealStorageNodes(state, buckets, "uim", storageNodes, pool);
+        for (int i = 0; i < buckets.length; ++i) {
+            int expectedDistributor;
+            try {
+                expectedDistributor = distribution.getIdealDistributorNode(state, buckets[i], "uim");
+            } catch (Distribution.NoDistributorsAvailableException e) {
+                expectedDistributor = -1;
+            }
+            assertEquals(buckets[i].toString(), expectedDistributor, distributors[i]);
+
+            List<Integer> expectedNodes = distribution.getIdealStorageNodes(state, buckets[i], "uim");
+            for (int j = 0; j < redundancy; ++j) {
+                int expectedNode = j < expectedNodes.size() ? expectedNodes.get(j) : -1;
+                int node = storageNodes[i * redundancy + j];
+                if (node == -1 && expectedNode == 0) continue; // a missing node, which the single bucket computation has as node 0
+                assertEquals(buckets[i].toString(), expectedNode, node);
+            }
+        }
+    }
+
+    @Test
+    public void testBulkIdealNodesHaveMinusOneForMissingNodes() throws Exception {
+        Distribution distribution = new Distribution("raw:" + Distribution.getDefaultDistributionConfig(3, 3));
+        ClusterState state = new ClusterState("bits:16 distributor:3 storage:3 .0.s:d");
+        BucketId[] buckets = getRandomBuckets(100, 16);
+        int[] storageNodes = new int[buckets.length * 3];
+        distribution.getIdealStorageNodes(state, buckets, "uim", storageNodes);
+        for (int i = 0; i < buckets.length; ++i) {
+            assertEquals(Set.of(1, 2), Set.of(storageNodes[i * 3], storageNodes[i * 3 + 1]));
+            assertEquals(-1, storageNodes[i * 3 + 2]);
+        }
+    }
+
+    @Test
+    public void testBulkIdealNodesEqualSingleBucketIdealNodes() throws Exception {
+        BucketId[] buckets = getRandomBuckets(5000, 16);
+        ClusterState state = new ClusterState("bits:16 distributor:20 .4.s:m .5.s:d .9.c:2.5 storage:20 .2.s:d .3.s:m .7.c:0.5 .8.d:4 .8.d.1.s:d .11.s:r");
+        assertBulkEqualsSingle(new Distribution("raw:" + Distribution.getDefaultDistributionConfig(3, 20)), state, buckets, null);
+
+        Distribution grouped = new Distribution(new StorDistributionConfig(buildHierarchicalConfig(6, 3, 1, "1|2|*", 3)
+                                                                                   .distributor_auto_ownership_transfer_on_whole_group_down(true)));
+        assertBulkEqualsSingle(grouped, new ClusterState("bits:16 distributor:9 .1.s:d storage:9 .4.s:d"), buckets, null);
+        assertBulkEqualsSingle(grouped, new ClusterState("bits:16 distributor:2 storage:9"), buckets, null);
+        assertBulkEqualsSingle(new Distribution(new StorDistributionConfig(buildHierarchicalConfig(8, 5, 3, "*|*", 3))),
+                               new ClusterState("bits:16 distributor:375 storage:375 .17.s:d"), buckets, null);
+    }
+
+    @Test
+    public void testBulkIdealNodesAreComputedInPool() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertBulkEqualsSingle(new Distribution("raw:" + Distribution.getDefaultDistributionConfig(2, 50)),
+                                   new ClusterState("bits:16 distributor:50 .3.s:d storage:50 .7.s:m"),
+                                   getRandomBuckets(20000, 16), pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testBulkIdealNodesRejectBucketsWithTooFewBits() throws Exception {
+        Distribution distribution = new Distribution("raw:" + Distribution.getDefaultDistributionConfig(2, 10));
+        BucketId[] buckets = { new BucketId(16, 1), new BucketId(8, 1) };
+        try {
+            distribution.getIdealStorageNodes(new ClusterState("bits:16 distributor:10 storage:10"), buckets, "uim", new int[4]);
+            fail("Expected exception");
+        } catch (Distribution.TooFewBucketBitsInUseException e) {
+            // expected
+        }
+    }
 }
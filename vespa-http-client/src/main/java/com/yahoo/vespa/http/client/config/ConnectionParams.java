@@ -47,6 +47,7 @@ public final class ConnectionParams {
         private int traceEveryXOperation = 0;
         private boolean printTraceToStdErr = true;
         private boolean useTlsConfigFromEnvironment = false;
+        private boolean useHttp2 = false;
         private Duration connectionTimeToLive = Duration.ofSeconds(30);
         private Path privateKey;
         private Path certificate;
@@ -147,6 +148,19 @@ public final class ConnectionParams {
             return this;
         }
 
+        /**
+         * Set whether to feed over HTTP/2, where all the persistent connections to an endpoint are
+         * multiplexed as concurrent streams over a shared connection, instead of each having its own socket.
+         * This requires HTTP/2 to be enabled on the endpoint, and cannot be combined with a proxy.
+         *
+         * @param useHttp2 true if HTTP/2 should be used.
+         * @return pointer to builder.
+         */
+        public Builder setUseHttp2(boolean useHttp2) {
+            this.useHttp2 = useHttp2;
+            return this;
+        }
+
         /**
          * Sets the HTTP proxy host name to use.
          *
@@ -287,6 +301,7 @@ public final class ConnectionParams {
                     traceEveryXOperation,
                     printTraceToStdErr,
                     useTlsConfigFromEnvironment,
+                    useHttp2,
                     connectionTimeToLive);
         }
 
@@ -334,6 +349,10 @@ public final class ConnectionParams {
             return useTlsConfigFromEnvironment;
         }
 
+        public boolean useHttp2() {
+            return useHttp2;
+        }
+
         public Duration getConnectionTimeToLive() {
             return connectionTimeToLive;
         }
@@ -361,6 +380,7 @@ public final class ConnectionParams {
     private final int traceEveryXOperation;
     private final boolean printTraceToStdErr;
     private final boolean useTlsConfigFromEnvironment;
+    private final boolean useHttp2;
     private final Duration connectionTimeToLive;
 
     private ConnectionParams(
@@ -381,6 +401,7 @@ public final class ConnectionParams {
             int traceEveryXOperation,
             boolean printTraceToStdErr,
             boolean useTlsConfigFromEnvironment,
+            boolean useHttp2,
             Duration connectionTimeToLive) {
         this.sslContext = sslContext;
         this.privateKey = privateKey;
@@ -388,6 +409,7 @@ public final class ConnectionParams {
         this.caCertificates = caCertificates;
         this.hostnameVerifier = hostnameVerifier;
         this.useTlsConfigFromEnvironment = useTlsConfigFromEnvironment;
+        this.useHttp2 = useHttp2;
         this.connectionTimeToLive = connectionTimeToLive;
         this.headers.putAll(headers);
         this.headerProviders.putAll(headerProviders);
@@ -468,6 +490,10 @@ public final class ConnectionParams {
         return useTlsConfigFromEnvironment;
     }
 
+    public boolean useHttp2() {
+        return useHttp2;
+    }
+
     public Duration getConnectionTimeToLive() {
         return connectionTimeToLive;
     }
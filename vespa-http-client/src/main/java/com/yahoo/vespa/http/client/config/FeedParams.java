@@ -28,6 +28,16 @@ public final class FeedParams {
         XML_UTF8,
         JSON_UTF8
     }
+
+    /**
+     * Enumeration of the policies the gateway may use to throttle the operations it sends on to Vespa.
+     */
+    public enum GatewayThrottlePolicy {
+        /** The policy configured for the gateway. */
+        DEFAULT,
+        /** Keep the number of pending operations close to the measured bandwidth-delay product of the cluster. */
+        BANDWIDTH_DELAY
+    }
     /**
      * Mutable class used to instantiate a {@link FeedParams}.
      */
@@ -45,6 +55,7 @@ public final class FeedParams {
         private long maxSleepTimeMs = 3000;
         private boolean silentUpgrade = true;
         private Double idlePollFrequency = null;
+        private GatewayThrottlePolicy gatewayThrottlePolicy = GatewayThrottlePolicy.DEFAULT;
 
         /**
          * Make server not throw 4xx/5xx for situations that are normal during upgrade as this can esily mask
@@ -190,6 +201,18 @@ public final class FeedParams {
             return this;
         }
 
+        /**
+         * Sets the policy the gateway uses to throttle the operations it sends on to Vespa.
+         * Gateways which do not know the policy use their default one.
+         * @param gatewayThrottlePolicy the policy to request
+         * @return this, for chaining
+         */
+        @Beta
+        public Builder setGatewayThrottlePolicy(GatewayThrottlePolicy gatewayThrottlePolicy) {
+            this.gatewayThrottlePolicy = gatewayThrottlePolicy;
+            return this;
+        }
+
         /**
          * Sets the messagebus priority. The allowed values are HIGHEST, VERY_HIGH, HIGH_[1-3],
          * NORMAL_[1-6], LOW_[1-3], VERY_LOW, and LOWEST..
@@ -235,7 +258,7 @@ public final class FeedParams {
             return new FeedParams(
                     dataFormat, serverTimeout, clientTimeout, route,
                     maxChunkSizeBytes, maxInFlightRequests, localQueueTimeOut, priority,
-                    denyIfBusyV3, maxSleepTimeMs, silentUpgrade, idlePollFrequency);
+                    denyIfBusyV3, maxSleepTimeMs, silentUpgrade, idlePollFrequency, gatewayThrottlePolicy);
         }
 
         public long getClientTimeout(TimeUnit unit) {
@@ -278,11 +301,12 @@ public final class FeedParams {
     private final long maxSleepTimeMs;
     private final boolean silentUpgrade;
     private final Double idlePollFrequency;
+    private final GatewayThrottlePolicy gatewayThrottlePolicy;
 
     private FeedParams(DataFormat dataFormat, long serverTimeout, long clientTimeout, String route,
                        int maxChunkSizeBytes, final int maxInFlightRequests,
                        long localQueueTimeOut, String priority, boolean denyIfBusyV3, long maxSleepTimeMs,
-                       boolean silentUpgrade, Double idlePollFrequency) {
+                       boolean silentUpgrade, Double idlePollFrequency, GatewayThrottlePolicy gatewayThrottlePolicy) {
         this.dataFormat = dataFormat;
         this.serverTimeoutMillis = serverTimeout;
         this.clientTimeoutMillis = clientTimeout;
@@ -295,7 +319,7 @@ public final class FeedParams {
         this.maxSleepTimeMs = maxSleepTimeMs;
         this.silentUpgrade = silentUpgrade;
         this.idlePollFrequency = idlePollFrequency;
-
+        this.gatewayThrottlePolicy = gatewayThrottlePolicy;
     }
 
     public DataFormat getDataFormat() { return dataFormat; }
@@ -315,6 +339,7 @@ public final class FeedParams {
     public int getMaxInFlightRequests() { return maxInFlightRequests; }
     public long getLocalQueueTimeOut() { return localQueueTimeOut; }
     public Double getIdlePollFrequency() { return idlePollFrequency; }
+    public GatewayThrottlePolicy getGatewayThrottlePolicy() { return gatewayThrottlePolicy; }
 
     /** Returns a builder initialized to the values of this */
     public FeedParams.Builder toBuilder() {
@@ -330,6 +355,7 @@ public final class FeedParams {
         b.setMaxSleepTimeMs(maxSleepTimeMs);
         b.setSilentUpgrade(silentUpgrade);
         b.setIdlePollFrequency(idlePollFrequency);
+        b.setGatewayThrottlePolicy(gatewayThrottlePolicy);
         return b;
     }
 
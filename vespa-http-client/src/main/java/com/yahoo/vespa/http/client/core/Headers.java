@@ -25,6 +25,7 @@ public final class Headers {
     public static final String SHARDING_KEY = "X-Yahoo-Feed-Sharding-Key";
     public static final String PRIORITY = "X-Yahoo-Feed-Priority";
     public static final String TRACE_LEVEL = "X-Yahoo-Feed-Trace-Level";
+    public static final String THROTTLE_POLICY = "X-Yahoo-Feed-Throttle-Policy";
 
     public static final int HTTP_NOT_ACCEPTABLE = 406;
 
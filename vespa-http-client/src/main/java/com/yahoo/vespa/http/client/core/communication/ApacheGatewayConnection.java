@@ -218,6 +218,9 @@ class ApacheGatewayConnection implements GatewayConnection {
             if (feedParams.getPriority() != null) {
                 httpPost.setHeader(Headers.PRIORITY, feedParams.getPriority());
             }
+            if (feedParams.getGatewayThrottlePolicy() != FeedParams.GatewayThrottlePolicy.DEFAULT) {
+                httpPost.setHeader(Headers.THROTTLE_POLICY, feedParams.getGatewayThrottlePolicy().name());
+            }
             if (connectionParams.getTraceLevel() != 0) {
                 httpPost.setHeader(Headers.TRACE_LEVEL, String.valueOf(connectionParams.getTraceLevel()));
             }
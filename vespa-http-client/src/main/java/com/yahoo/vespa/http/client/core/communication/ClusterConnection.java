@@ -69,10 +69,22 @@ public class ClusterConnection implements AutoCloseable {
                                                                               clusterId,
                                                                               timeoutExecutor,
                                                                               feedParams.getServerTimeout(TimeUnit.MILLISECONDS) + feedParams.getClientTimeout(TimeUnit.MILLISECONDS));
+            // With HTTP/2, all the connections to an endpoint are streams over the connection of a single factory
+            GatewayConnectionFactory http2ConnectionFactory = null;
+            if ( ! connectionParams.isDryRun() && connectionParams.useHttp2()) {
+                http2ConnectionFactory = new Http2GatewayConnectionFactory(endpoint,
+                                                                           feedParams,
+                                                                           cluster.getRoute(),
+                                                                           connectionParams,
+                                                                           operationProcessor.getClientId(),
+                                                                           clock);
+            }
             for (int i = 0; i < connectionParams.getNumPersistentConnectionsPerEndpoint(); i++) {
                 GatewayConnectionFactory connectionFactory;
                 if (connectionParams.isDryRun()) {
                     connectionFactory = new DryRunGatewayConnectionFactory(endpoint, clock);
+                } else if (http2ConnectionFactory != null) {
+                    connectionFactory = http2ConnectionFactory;
                 } else {
                     connectionFactory = new ApacheGatewayConnectionFactory(endpoint,
                                                                            feedParams,
@@ -0,0 +1,268 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.http.client.core.communication;
+
+import com.yahoo.security.SslContextBuilder;
+import com.yahoo.security.tls.MixedMode;
+import com.yahoo.security.tls.TlsContext;
+import com.yahoo.security.tls.TransportSecurityUtils;
+import com.yahoo.vespa.http.client.config.ConnectionParams;
+import com.yahoo.vespa.http.client.core.Headers;
+import com.yahoo.vespa.http.client.core.Vtag;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.H2AsyncClientBuilder;
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.client5.http.ssl.HttpsSupport;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.ssl.SSLBufferMode;
+import org.apache.hc.core5.util.Timeout;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * Creates HTTP clients which send each request as a stream over a single HTTP/2 connection, which is
+ * shared by all clients created by this. A new shared connection is made once the current one is older
+ * than the connection time to live, and the old one is closed when all clients using it are closed.
+ */
+class Http2ClientFactory extends ApacheGatewayConnection.HttpClientFactory {
+
+    private static final Logger log = Logger.getLogger(Http2ClientFactory.class.getName());
+
+    private final Clock clock;
+    private SharedClient current = null;
+
+    Http2ClientFactory(ConnectionParams connectionParams, boolean useSsl, Clock clock) {
+        super(connectionParams, useSsl);
+        if (connectionParams.getProxyHost() != null)
+            throw new IllegalArgumentException("A proxy cannot be used with HTTP/2");
+        this.clock = clock;
+    }
+
+    @Override
+    public CloseableHttpClient createClient() {
+        return new StreamClient(acquire());
+    }
+
+    private synchronized SharedClient acquire() {
+        if (current == null || current.isOlderThan(connectionParams.getConnectionTimeToLive(), clock.instant()))
+            current = new SharedClient(createAsyncClient(), clock.instant());
+        current.users++;
+        return current;
+    }
+
+    private synchronized void release(SharedClient client) {
+        if (--client.users > 0) return;
+        if (client == current)
+            current = null;
+        client.asyncClient.close(CloseMode.GRACEFUL);
+    }
+
+    private CloseableHttpAsyncClient createAsyncClient() {
+        log.fine(() -> "Creating HTTP/2 client " + (useSsl ? "using ssl" : "not using ssl"));
+        H2AsyncClientBuilder builder = H2AsyncClientBuilder.create()
+                .setH2Config(H2Config.custom().setPushEnabled(false).build())
+                .setIOReactorConfig(IOReactorConfig.custom().setSoTimeout(Timeout.DISABLED).build())
+                .setDefaultRequestConfig(RequestConfig.custom().setResponseTimeout(Timeout.DISABLED).build())
+                .setUserAgent(String.format("vespa-http-client (%s)", Vtag.V_TAG_COMPONENT))
+                .setDefaultHeaders(Collections.singletonList(
+                        new org.apache.hc.core5.http.message.BasicHeader(Headers.CLIENT_VERSION, Vtag.V_TAG_COMPONENT)))
+                .disableAutomaticRetries()
+                .disableCookieManagement()
+                .disableRedirectHandling();
+        if (connectionParams.useTlsConfigFromEnvironment()) {
+            TransportSecurityUtils.createTlsContext().ifPresent(tlsContext -> builder.setTlsStrategy(tlsStrategy(tlsContext)));
+        }
+        else {
+            builder.setTlsStrategy(new DefaultClientTlsStrategy(sslContext(), hostnameVerifier()));
+        }
+        CloseableHttpAsyncClient client = builder.build();
+        client.start();
+        return client;
+    }
+
+    private static DefaultClientTlsStrategy tlsStrategy(TlsContext tlsContext) {
+        return new DefaultClientTlsStrategy(tlsContext.context(),
+                                            tlsContext.parameters().getProtocols(),
+                                            tlsContext.parameters().getCipherSuites(),
+                                            SSLBufferMode.STATIC,
+                                            NoopHostnameVerifier.INSTANCE);
+    }
+
+    private SSLContext sslContext() {
+        if (connectionParams.getSslContext() != null)
+            return connectionParams.getSslContext();
+
+        SslContextBuilder builder = new SslContextBuilder();
+        if (connectionParams.getPrivateKey() != null && connectionParams.getCertificate() != null)
+            builder.withKeyStore(connectionParams.getPrivateKey(), connectionParams.getCertificate());
+        if (connectionParams.getCaCertificates() != null)
+            builder.withTrustStore(connectionParams.getCaCertificates());
+        return builder.build();
+    }
+
+    private HostnameVerifier hostnameVerifier() {
+        return connectionParams.getHostnameVerifier() != null ? connectionParams.getHostnameVerifier()
+                                                              : HttpsSupport.getDefaultHostnameVerifier();
+    }
+
+    /** Requests are rewritten to https when Vespa TLS is configured, as done by the HTTP/1.1 client */
+    private boolean rewriteToHttps() {
+        return connectionParams.useTlsConfigFromEnvironment()
+               && TransportSecurityUtils.isTransportSecurityEnabled()
+               && TransportSecurityUtils.getInsecureMixedMode() != MixedMode.PLAINTEXT_CLIENT_MIXED_SERVER;
+    }
+
+    private static class SharedClient {
+
+        private final CloseableHttpAsyncClient asyncClient;
+        private final Instant created;
+        private int users = 0;
+
+        SharedClient(CloseableHttpAsyncClient asyncClient, Instant created) {
+            this.asyncClient = asyncClient;
+            this.created = created;
+        }
+
+        boolean isOlderThan(Duration timeToLive, Instant now) {
+            return created.plus(timeToLive).isBefore(now);
+        }
+
+    }
+
+    /**
+     * A blocking client, used by a single gateway connection, which sends each request as a new stream
+     * over the shared HTTP/2 connection. Closing it releases the shared connection.
+     */
+    class StreamClient extends CloseableHttpClient {
+
+        private final SharedClient shared;
+        private boolean closed = false;
+
+        StreamClient(SharedClient shared) {
+            this.shared = shared;
+        }
+
+        @Override
+        protected CloseableHttpResponse doExecute(HttpHost target, HttpRequest request, HttpContext context) throws IOException {
+            if (closed) throw new IOException("Client is closed");
+            SimpleHttpRequest http2Request = new SimpleHttpRequest(request.getRequestLine().getMethod(), uriOf(request));
+            for (Header header : request.getAllHeaders())
+                http2Request.addHeader(header.getName(), header.getValue());
+            if (request instanceof HttpEntityEnclosingRequest) {
+                HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+                if (entity != null)
+                    http2Request.setBody(EntityUtils.toByteArray(entity), null);
+            }
+            return toResponse(await(shared.asyncClient.execute(http2Request, null)));
+        }
+
+        private URI uriOf(HttpRequest request) throws IOException {
+            try {
+                URI uri = ((HttpUriRequest) request).getURI();
+                if (rewriteToHttps() && "http".equalsIgnoreCase(uri.getScheme()))
+                    uri = new URI("https", uri.getUserInfo(), uri.getHost(), uri.getPort(), uri.getPath(), uri.getQuery(), uri.getFragment());
+                return uri;
+            }
+            catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private SimpleHttpResponse await(Future<SimpleHttpResponse> response) throws IOException {
+            try {
+                return response.get();
+            }
+            catch (InterruptedException e) {
+                response.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for response");
+            }
+            catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+                throw new IOException(e.getCause());
+            }
+        }
+
+        private CloseableHttpResponse toResponse(SimpleHttpResponse http2Response) {
+            int code = http2Response.getCode();
+            Response response = new Response(code, EnglishReasonPhraseCatalog.INSTANCE.getReason(code, Locale.ENGLISH));
+            for (org.apache.hc.core5.http.Header header : http2Response.getHeaders())
+                response.addHeader(header.getName(), header.getValue());
+            byte[] body = http2Response.getBodyBytes();
+            ByteArrayEntity entity = new ByteArrayEntity(body != null ? body : new byte[0]);
+            org.apache.hc.core5.http.Header contentType = http2Response.getFirstHeader("Content-Type");
+            if (contentType != null)
+                entity.setContentType(contentType.getValue());
+            response.setEntity(entity);
+            return response;
+        }
+
+        /** Returns whether this sends over the same connection as the given client, for testing */
+        boolean sharesConnectionWith(StreamClient other) {
+            return shared == other.shared;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) return;
+            closed = true;
+            release(shared);
+        }
+
+        @Override
+        @Deprecated
+        @SuppressWarnings("deprecation")
+        public org.apache.http.params.HttpParams getParams() { throw new UnsupportedOperationException(); }
+
+        @Override
+        @Deprecated
+        @SuppressWarnings("deprecation")
+        public org.apache.http.conn.ClientConnectionManager getConnectionManager() { throw new UnsupportedOperationException(); }
+
+    }
+
+    private static class Response extends BasicHttpResponse implements CloseableHttpResponse {
+
+        Response(int code, String reason) {
+            super(new BasicStatusLine(HttpVersion.HTTP_1_1, code, reason));
+        }
+
+        @Override
+        public void close() { }
+
+    }
+
+}
@@ -0,0 +1,41 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.http.client.core.communication;
+
+import com.yahoo.vespa.http.client.config.ConnectionParams;
+import com.yahoo.vespa.http.client.config.Endpoint;
+import com.yahoo.vespa.http.client.config.FeedParams;
+
+import java.time.Clock;
+
+/**
+ * Creates gateway connections to an endpoint which are multiplexed as concurrent HTTP/2 streams over
+ * a shared connection, instead of each having its own socket. Each gateway connection is still driven
+ * by its own {@link IOThread}, with its own {@link GatewayThrottler}, so backpressure is per stream.
+ *
+ * The same instance should be used for all the connections to an endpoint.
+ */
+public class Http2GatewayConnectionFactory implements GatewayConnectionFactory {
+
+    private final ApacheGatewayConnectionFactory connectionFactory;
+
+    public Http2GatewayConnectionFactory(Endpoint endpoint,
+                                         FeedParams feedParams,
+                                         String clusterSpecificRoute,
+                                         ConnectionParams connectionParams,
+                                         String clientId,
+                                         Clock clock) {
+        this.connectionFactory = new ApacheGatewayConnectionFactory(endpoint,
+                                                                    feedParams,
+                                                                    clusterSpecificRoute,
+                                                                    connectionParams,
+                                                                    new Http2ClientFactory(connectionParams, endpoint.isUseSsl(), clock),
+                                                                    clientId,
+                                                                    clock);
+    }
+
+    @Override
+    public GatewayConnection newConnection() {
+        return connectionFactory.newConnection();
+    }
+
+}
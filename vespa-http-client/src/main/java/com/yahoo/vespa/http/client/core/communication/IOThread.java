@@ -71,6 +71,8 @@ public class IOThread implements Runnable, AutoCloseable {
     private final AtomicInteger pendingDocumentStatusCount = new AtomicInteger(0);
     private final AtomicInteger successfulHandshakes = new AtomicInteger(0);
     private final AtomicInteger lastGatewayProcessTimeMillis = new AtomicInteger(0);
+    private final LatencySamples gatewayProcessTimes = new LatencySamples(1024);
+    private final Instant createdTime;
 
     IOThread(ThreadGroup ioThreadGroup,
              Endpoint endpoint,
@@ -98,6 +100,7 @@ public class IOThread implements Runnable, AutoCloseable {
         this.gatewayThrottler = new GatewayThrottler(maxSleepTimeMs);
         this.pollIntervalUS = Math.max(1000, (long)(1000000.0/Math.max(0.1, idlePollFrequency))); // ensure range [1ms, 10s]
         this.clock = clock;
+        this.createdTime = clock.instant();
         this.localQueueTimeOut = localQueueTimeOut;
         this.oldConnectionsDrainer = new OldConnectionsDrainer(endpoint,
                                                                clusterId,
@@ -129,6 +132,8 @@ public class IOThread implements Runnable, AutoCloseable {
      * Returns a snapshot of counters. Threadsafe.
      */
     public ConnectionStats getConnectionStats() {
+        double secondsRunning = Duration.between(createdTime, clock.instant()).toMillis() / 1000.0;
+        int[] processTimes = gatewayProcessTimes.sorted();
         return new ConnectionStats(
                 wrongSessionDetectedCounter.get(),
                 wrongVersionDetectedCounter.get(),
@@ -138,7 +143,11 @@ public class IOThread implements Runnable, AutoCloseable {
                 statusReceivedCounter.get(),
                 pendingDocumentStatusCount.get(),
                 successfulHandshakes.get(),
-                lastGatewayProcessTimeMillis.get());
+                lastGatewayProcessTimeMillis.get(),
+                secondsRunning > 0 ? statusReceivedCounter.get() / secondsRunning : 0,
+                LatencySamples.percentile(processTimes, 50),
+                LatencySamples.percentile(processTimes, 99),
+                LatencySamples.percentile(processTimes, 100));
     }
 
     @Override
@@ -290,7 +299,9 @@ public class IOThread implements Runnable, AutoCloseable {
         InputStream serverResponse = sendAndReceive(docs);
 
         ProcessResponse processResponse = processResponse(serverResponse);
-        lastGatewayProcessTimeMillis.set((int) (clock.millis() - startTime));
+        int processTimeMillis = (int) (clock.millis() - startTime);
+        lastGatewayProcessTimeMillis.set(processTimeMillis);
+        gatewayProcessTimes.add(processTimeMillis);
         return processResponse;
     }
 
@@ -480,6 +491,12 @@ public class IOThread implements Runnable, AutoCloseable {
         public final int pendingDocumentStatusCount;
         public final int successfullHandshakes;
         public final int lastGatewayProcessTimeMillis;
+        /** The number of operation results received per second over this connection */
+        public final double docsPerSecond;
+        /** Percentiles of the time to send a chunk to the gateway and get its response, over the recent chunks */
+        public final int gatewayProcessTimeMillisP50;
+        public final int gatewayProcessTimeMillisP99;
+        public final int gatewayProcessTimeMillisMax;
 
         ConnectionStats(int wrongSessionDetectedCounter,
                         int wrongVersionDetectedCounter,
@@ -489,7 +506,11 @@ public class IOThread implements Runnable, AutoCloseable {
                         int statusReceivedCounter,
                         int pendingDocumentStatusCount,
                         int successfullHandshakes,
-                        int lastGatewayProcessTimeMillis) {
+                        int lastGatewayProcessTimeMillis,
+                        double docsPerSecond,
+                        int gatewayProcessTimeMillisP50,
+                        int gatewayProcessTimeMillisP99,
+                        int gatewayProcessTimeMillisMax) {
             this.wrongSessionDetectedCounter = wrongSessionDetectedCounter;
             this.wrongVersionDetectedCounter = wrongVersionDetectedCounter;
             this.problemStatusCodeFromServerCounter = problemStatusCodeFromServerCounter;
@@ -499,6 +520,10 @@ public class IOThread implements Runnable, AutoCloseable {
             this.pendingDocumentStatusCount = pendingDocumentStatusCount;
             this.successfullHandshakes = successfullHandshakes;
             this.lastGatewayProcessTimeMillis = lastGatewayProcessTimeMillis;
+            this.docsPerSecond = docsPerSecond;
+            this.gatewayProcessTimeMillisP50 = gatewayProcessTimeMillisP50;
+            this.gatewayProcessTimeMillisP99 = gatewayProcessTimeMillisP99;
+            this.gatewayProcessTimeMillisMax = gatewayProcessTimeMillisMax;
         }
     }
 
@@ -0,0 +1,39 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.http.client.core.communication;
+
+import java.util.Arrays;
+
+/**
+ * The most recent latencies of some operation, in milliseconds, from which percentiles can be computed. Thread safe.
+ */
+class LatencySamples {
+
+    private final int[] samples;
+    private int next = 0;
+    private int size = 0;
+
+    LatencySamples(int capacity) {
+        this.samples = new int[capacity];
+    }
+
+    synchronized void add(int latencyMillis) {
+        samples[next] = latencyMillis;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+    }
+
+    /** Returns a sorted snapshot of the current samples */
+    synchronized int[] sorted() {
+        int[] snapshot = Arrays.copyOf(samples, size);
+        Arrays.sort(snapshot);
+        return snapshot;
+    }
+
+    /** Returns the given percentile, in the range [0, 100], of the given sorted samples, or 0 if there are none */
+    static int percentile(int[] sorted, int percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+}
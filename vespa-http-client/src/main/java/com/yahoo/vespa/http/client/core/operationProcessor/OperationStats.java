@@ -6,6 +6,7 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yahoo.vespa.http.client.config.SessionParams;
 import com.yahoo.vespa.http.client.core.communication.ClusterConnection;
+import com.yahoo.vespa.http.client.core.communication.IOThread;
 
 import java.io.IOException;
 import java.io.StringWriter;
@@ -53,6 +54,7 @@ public class OperationStats {
                 jsonGenerator.writeEndObject();
             }
             jsonGenerator.writeEndArray();
+            writeConnectionSummary(jsonGenerator);
             jsonGenerator.writeFieldName("sessionParams");
             jsonGenerator.writeRawValue(sessionParamsAsXmlString);
             jsonGenerator.writeFieldName("throttleDebugMessage");
@@ -65,4 +67,28 @@ public class OperationStats {
         }
     }
 
+    /** Writes the throughput of all connections, and the worst gateway tail latency among them */
+    private void writeConnectionSummary(JsonGenerator jsonGenerator) throws IOException {
+        int connections = 0;
+        double docsPerSecond = 0;
+        int worstP99 = 0;
+        int worstMax = 0;
+        for (ClusterConnection cluster : clusters) {
+            for (IOThread ioThread : cluster.ioThreads()) {
+                IOThread.ConnectionStats stats = ioThread.getConnectionStats();
+                connections++;
+                docsPerSecond += stats.docsPerSecond;
+                worstP99 = Math.max(worstP99, stats.gatewayProcessTimeMillisP99);
+                worstMax = Math.max(worstMax, stats.gatewayProcessTimeMillisMax);
+            }
+        }
+        jsonGenerator.writeObjectFieldStart("connections");
+        jsonGenerator.writeNumberField("count", connections);
+        jsonGenerator.writeNumberField("docsPerSecond", docsPerSecond);
+        jsonGenerator.writeNumberField("docsPerSecondPerConnection", connections > 0 ? docsPerSecond / connections : 0);
+        jsonGenerator.writeNumberField("gatewayProcessTimeMillisP99", worstP99);
+        jsonGenerator.writeNumberField("gatewayProcessTimeMillisMax", worstMax);
+        jsonGenerator.writeEndObject();
+    }
+
 }
@@ -164,6 +164,11 @@ public class CommandLineArguments {
             description = "Try to maximize throughput by using dynamic throttling.")
     private boolean useDynamicThrottlingArg = false;
 
+    @Option(name = {"--useBandwidthDelayThrottlingInGateway"},
+            description = "Make the gateway keep the number of pending operations close to the measured " +
+                    "bandwidth-delay product of the cluster.")
+    private boolean useBandwidthDelayThrottlingInGatewayArg = false;
+
     @Option(name = {"--maxpending"},
             description = "The maximum number of operations that are allowed " +
                     "to be pending at any given time.")
@@ -225,6 +230,10 @@ public class CommandLineArguments {
             description = "BETA! Use Vespa TLS configuration from environment if available. Other HTTPS/TLS configuration will be ignored if this is set.")
     private boolean useTlsConfigFromEnvironment = false;
 
+    @Option(name = {"--useHttp2"},
+            description = "Feed over HTTP/2, multiplexing the persistent connections to each endpoint as streams over a shared connection.")
+    private boolean useHttp2 = false;
+
     @Option(name = {"--connectionTimeToLive"},
             description = "Maximum time to live for persistent connections. Specified as integer, in seconds.")
     private long connectionTimeToLive = 15;
@@ -273,6 +282,9 @@ public class CommandLineArguments {
                                 .setLocalQueueTimeOut(timeoutArg * 1000)
                                 .setPriority(priorityArg)
                                 .setMaxChunkSizeBytes(maxChunkSizeBytes)
+                                .setGatewayThrottlePolicy(useBandwidthDelayThrottlingInGatewayArg
+                                        ? FeedParams.GatewayThrottlePolicy.BANDWIDTH_DELAY
+                                        : FeedParams.GatewayThrottlePolicy.DEFAULT)
                                 .build()
                 )
                 .setConnectionParams(
@@ -290,6 +302,7 @@ public class CommandLineArguments {
                                 .setCertificateAndPrivateKey(privateKeyPath, certificatePath)
                                 .setCaCertificates(caCertificatesPath)
                                 .setUseTlsConfigFromEnvironment(useTlsConfigFromEnvironment)
+                                .setUseHttp2(useHttp2)
                                 .setConnectionTimeToLive(Duration.ofSeconds(connectionTimeToLive))
                                 .build()
                 )
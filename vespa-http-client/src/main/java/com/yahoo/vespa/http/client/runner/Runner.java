@@ -4,6 +4,8 @@ package com.yahoo.vespa.http.client.runner;
 import com.yahoo.vespa.http.client.FeedClient;
 import com.yahoo.vespa.http.client.FeedClientFactory;
 import com.yahoo.vespa.http.client.SimpleLoggerResultCallback;
+import com.yahoo.vespa.http.client.config.Cluster;
+import com.yahoo.vespa.http.client.config.SessionParams;
 import com.yahoo.vespa.http.client.core.JsonReader;
 import com.yahoo.vespa.http.client.core.XmlFeedReader;
 
@@ -78,8 +80,8 @@ public class Runner {
         AtomicInteger numSent = new AtomicInteger(0);
         SimpleLoggerResultCallback callback = new SimpleLoggerResultCallback(numSent, intervalOfLogging);
 
-        FeedClient feedClient = FeedClientFactory.create(commandLineArgs.createSessionParams(formatInputStream.getFormat()== FormatInputStream.Format.JSON),
-                                                         callback);
+        SessionParams sessionParams = commandLineArgs.createSessionParams(formatInputStream.getFormat()== FormatInputStream.Format.JSON);
+        FeedClient feedClient = FeedClientFactory.create(sessionParams, callback);
 
         long sendTotalTimeMs = send(feedClient,
                                     formatInputStream.getInputStream(),
@@ -90,8 +92,10 @@ public class Runner {
         if (commandLineArgs.getVerbose()) {
             System.err.println(feedClient.getStatsAsJson());
             double transferTimeSec = ((double) sendTotalTimeMs) / 1000.0;
-            if (transferTimeSec > 0)
+            if (transferTimeSec > 0) {
                 System.err.printf("Docs/sec %.3f%n", numSent.get() / transferTimeSec);
+                System.err.printf("Docs/sec per connection %.3f%n", numSent.get() / transferTimeSec / connectionCount(sessionParams));
+            }
 
             if (commandLineArgs.getFile() != null) {
                 double fileSizeMb = ((double) new File(commandLineArgs.getFile()).length()) / 1024.0 / 1024.0;
@@ -103,4 +107,11 @@ public class Runner {
         callback.printProgress();
     }
 
+    private static int connectionCount(SessionParams sessionParams) {
+        int endpoints = 0;
+        for (Cluster cluster : sessionParams.getClusters())
+            endpoints += cluster.getEndpoints().size();
+        return Math.max(1, endpoints * sessionParams.getConnectionParams().getNumPersistentConnectionsPerEndpoint());
+    }
+
 }
@@ -25,6 +25,7 @@ public class FeedParamsTest {
         assertThat(params.getRoute(), nullValue());
         assertThat(params.getServerTimeout(TimeUnit.SECONDS), is(180L));
         assertThat(params.getClientTimeout(TimeUnit.SECONDS), is(20L));
+        assertThat(params.getGatewayThrottlePolicy(), equalTo(FeedParams.GatewayThrottlePolicy.DEFAULT));
     }
 
     @Test
@@ -34,6 +35,7 @@ public class FeedParamsTest {
                 .setMaxChunkSizeBytes(123)
                 .setRoute("abc")
                 .setClientTimeout(321, TimeUnit.SECONDS)
+                .setGatewayThrottlePolicy(FeedParams.GatewayThrottlePolicy.BANDWIDTH_DELAY)
                 .build();
 
         assertThat(params.getDataFormat(), equalTo(FeedParams.DataFormat.XML_UTF8));
@@ -41,6 +43,8 @@ public class FeedParamsTest {
         assertThat(params.getRoute(), equalTo("abc"));
         assertThat(params.getServerTimeout(TimeUnit.SECONDS), is(180L));
         assertThat(params.getClientTimeout(TimeUnit.SECONDS), is(321L));
+        assertThat(params.getGatewayThrottlePolicy(), equalTo(FeedParams.GatewayThrottlePolicy.BANDWIDTH_DELAY));
+        assertThat(params.toBuilder().build().getGatewayThrottlePolicy(), equalTo(FeedParams.GatewayThrottlePolicy.BANDWIDTH_DELAY));
 
         params = new FeedParams.Builder()
                 .setServerTimeout(333L, TimeUnit.SECONDS)
@@ -0,0 +1,139 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.http.client.core.communication;
+
+import com.yahoo.vespa.http.client.FeedClient;
+import com.yahoo.vespa.http.client.FeedClientFactory;
+import com.yahoo.vespa.http.client.ManualClock;
+import com.yahoo.vespa.http.client.config.Cluster;
+import com.yahoo.vespa.http.client.config.ConnectionParams;
+import com.yahoo.vespa.http.client.config.Endpoint;
+import com.yahoo.vespa.http.client.config.FeedParams;
+import com.yahoo.vespa.http.client.config.SessionParams;
+import com.yahoo.vespa.http.client.handlers.V3MockParsingRequestHandler;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.junit.Test;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class Http2GatewayConnectionFactoryTest {
+
+    @Test
+    public void testFeedingMultiplexesConnectionsOverSingleHttp2Connection() throws Exception {
+        RecordingHandler handler = new RecordingHandler(new V3MockParsingRequestHandler());
+        Server server = startHttp2Server(handler);
+        int port = ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+
+        int documents = 100;
+        CountDownLatch completed = new CountDownLatch(documents);
+        AtomicInteger failures = new AtomicInteger();
+        SessionParams sessionParams = new SessionParams.Builder()
+                .addCluster(new Cluster.Builder().addEndpoint(Endpoint.create("localhost", port, false)).build())
+                .setFeedParams(new FeedParams.Builder().setDataFormat(FeedParams.DataFormat.JSON_UTF8).build())
+                .setConnectionParams(new ConnectionParams.Builder()
+                                             .setUseHttp2(true)
+                                             .setNumPersistentConnectionsPerEndpoint(4)
+                                             .build())
+                .build();
+        FeedClient feedClient = FeedClientFactory.create(sessionParams, (docId, result) -> {
+            if ( ! result.isSuccess()) failures.incrementAndGet();
+            completed.countDown();
+        });
+        for (int i = 0; i < documents; i++)
+            feedClient.stream("id:ns:type::" + i, "{\"put\": \"id:ns:type::" + i + "\", \"fields\": {}}");
+        assertTrue(completed.await(60, TimeUnit.SECONDS));
+        String stats = feedClient.getStatsAsJson();
+        assertTrue(stats, stats.contains("\"docsPerSecondPerConnection\""));
+        assertTrue(stats, stats.contains("\"gatewayProcessTimeMillisP99\""));
+        feedClient.close();
+        server.stop();
+
+        assertEquals(0, failures.get());
+        assertEquals(Collections.singleton("HTTP/2.0"), handler.protocols);
+        assertEquals("All streams share one connection", 1, handler.remotePorts.size());
+    }
+
+    @Test
+    public void testClientsShareConnectionUntilItExpires() {
+        ManualClock clock = new ManualClock();
+        ConnectionParams connectionParams = new ConnectionParams.Builder()
+                .setConnectionTimeToLive(Duration.ofSeconds(30))
+                .build();
+        Http2ClientFactory factory = new Http2ClientFactory(connectionParams, false, clock);
+        Http2ClientFactory.StreamClient first = (Http2ClientFactory.StreamClient) factory.createClient();
+        Http2ClientFactory.StreamClient second = (Http2ClientFactory.StreamClient) factory.createClient();
+        assertTrue(first.sharesConnectionWith(second));
+
+        clock.advance(Duration.ofSeconds(31));
+        Http2ClientFactory.StreamClient third = (Http2ClientFactory.StreamClient) factory.createClient();
+        assertFalse("A new connection is made when the shared one is too old", third.sharesConnectionWith(first));
+        Http2ClientFactory.StreamClient fourth = (Http2ClientFactory.StreamClient) factory.createClient();
+        assertTrue(fourth.sharesConnectionWith(third));
+
+        third.close();
+        fourth.close();
+        Http2ClientFactory.StreamClient fifth = (Http2ClientFactory.StreamClient) factory.createClient();
+        assertFalse("A new connection is made when all clients of the previous are closed", fifth.sharesConnectionWith(third));
+
+        first.close();
+        second.close();
+        fifth.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testProxyIsRejected() {
+        new Http2ClientFactory(new ConnectionParams.Builder().setProxyHost("proxy").build(), false, new ManualClock());
+    }
+
+    private static Server startHttp2Server(HandlerWrapper handler) throws Exception {
+        Server server = new Server();
+        HttpConfiguration httpConfig = new HttpConfiguration();
+        ServerConnector connector = new ServerConnector(server,
+                                                        new HttpConnectionFactory(httpConfig),
+                                                        new HTTP2CServerConnectionFactory(httpConfig));
+        server.addConnector(connector);
+        server.setHandler(handler);
+        server.start();
+        return server;
+    }
+
+    /** Records the protocol and client port of each request */
+    private static class RecordingHandler extends HandlerWrapper {
+
+        final Set<String> protocols = ConcurrentHashMap.newKeySet();
+        final Set<Integer> remotePorts = ConcurrentHashMap.newKeySet();
+
+        RecordingHandler(V3MockParsingRequestHandler delegate) {
+            setHandler(delegate);
+        }
+
+        @Override
+        public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response)
+                throws IOException, ServletException {
+            protocols.add(request.getProtocol());
+            remotePorts.add(request.getRemotePort());
+            super.handle(target, baseRequest, request, response);
+        }
+
+    }
+
+}
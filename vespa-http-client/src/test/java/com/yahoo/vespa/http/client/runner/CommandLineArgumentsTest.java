@@ -78,6 +78,14 @@ public class CommandLineArgumentsTest {
                 is("HIGHEST"));
     }
 
+    @Test
+    public void testBandwidthDelayThrottlingInGateway() {
+        addMinimum();
+        args.add("--useBandwidthDelayThrottlingInGateway");
+        assertThat(CommandLineArguments.build(asArray()).createSessionParams(false).getFeedParams().getGatewayThrottlePolicy(),
+                is(FeedParams.GatewayThrottlePolicy.BANDWIDTH_DELAY));
+    }
+
     @Test
     public void testDefaults() {
         addMinimum();
@@ -97,6 +105,7 @@ public class CommandLineArgumentsTest {
         assertThat(params.getFeedParams().getLocalQueueTimeOut(), is(180000L));
         assertThat(params.getFeedParams().getMaxInFlightRequests(), is(10000));
         assertThat(params.getFeedParams().getClientTimeout(TimeUnit.MILLISECONDS), is(180000L));
+        assertThat(params.getFeedParams().getGatewayThrottlePolicy(), is(FeedParams.GatewayThrottlePolicy.DEFAULT));
     }
 
     @Test
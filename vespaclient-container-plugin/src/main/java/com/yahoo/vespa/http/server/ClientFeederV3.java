@@ -19,12 +19,18 @@ import com.yahoo.vespa.http.client.core.OperationStatus;
 import com.yahoo.vespaxmlparser.FeedOperation;
 import com.yahoo.yolean.Exceptions;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
@@ -55,6 +61,8 @@ class ClientFeederV3 {
     private final StreamReaderV3 streamReaderV3;
     private final AtomicInteger ongoingRequests = new AtomicInteger(0);
     private final String hostName;
+    private final Executor parsers;
+    private final int maxOperationsParsing;
 
     ClientFeederV3(
             ReferencedResource<SharedSourceSession> sourceSession,
@@ -63,12 +71,31 @@ class ClientFeederV3 {
             String clientId,
             Metric metric,
             ReplyHandler feedReplyHandler) {
+        this(sourceSession, feedReaderFactory, docTypeManager, clientId, metric, feedReplyHandler, null, 0);
+    }
+
+    /**
+     * Creates a feeder which parses the operations of each request on the given parsers, with at most
+     * the given number of operations of a request being parsed at the same time, see {@link #feedPipelined}.
+     * If parsers is null, operations are parsed by the request thread.
+     */
+    ClientFeederV3(
+            ReferencedResource<SharedSourceSession> sourceSession,
+            FeedReaderFactory feedReaderFactory,
+            DocumentTypeManager docTypeManager,
+            String clientId,
+            Metric metric,
+            ReplyHandler feedReplyHandler,
+            Executor parsers,
+            int maxOperationsParsing) {
         this.sourceSession = sourceSession;
         this.clientId = clientId;
         this.feedReplyHandler = feedReplyHandler;
         this.metric = metric;
         this.streamReaderV3 = new StreamReaderV3(feedReaderFactory, docTypeManager);
         this.hostName = HostName.getLocalhost();
+        this.parsers = parsers;
+        this.maxOperationsParsing = maxOperationsParsing;
     }
 
     public boolean timedOut() {
@@ -105,7 +132,10 @@ class ClientFeederV3 {
             InputStream inputStream = StreamReaderV3.unzipStreamIfNeeded(request);
             BlockingQueue<OperationStatus> replies = new LinkedBlockingQueue<>();
             try {
-                feed(feederSettings, inputStream, replies);
+                if (parsers != null)
+                    feedPipelined(feederSettings, inputStream, replies);
+                else
+                    feed(feederSettings, inputStream, replies);
                 synchronized (monitor) {
                     // Handshake requests do not have DATA_FORMAT, we do not want to give responses to
                     // handshakes as it won't be processed by the client.
@@ -172,36 +202,117 @@ class ClientFeederV3 {
                                                                                   repliesFromOldMessages);
 
             if (message.isEmpty()) break;
-            setMessageParameters(message.get(), settings);
+            send(message.get(), settings, repliesFromOldMessages);
+        }
+    }
 
-            Result result;
-            try {
-                result = sendMessage(message.get());
-
-            } catch  (RuntimeException e) {
-                repliesFromOldMessages.add(createOperationStatus(message.get().getOperationId(),
-                                                                 Exceptions.toMessageString(e),
-                                                                 ErrorCode.ERROR,
-                                                                 message.get().getMessage()));
-                continue;
-            }
+    /**
+     * Feeds the operations of a request with parsing done in parallel: Operations are read from the stream
+     * by this thread, parsed by the parsers, and sent by this thread in the order they were read.
+     * As documents ids are only known once an operation is parsed, sending in stream order is what keeps the
+     * operations on each document in order, while parsing of up to maxOperationsParsing operations overlaps.
+     */
+    private void feedPipelined(FeederSettings settings,
+                               InputStream requestInputStream,
+                               BlockingQueue<OperationStatus> repliesFromOldMessages) throws InterruptedException {
+        Deque<ParsingOperation> parsing = new ArrayDeque<>();
+        boolean endOfStream = false;
+        try {
+            while ( ! endOfStream || ! parsing.isEmpty()) {
+                while ( ! endOfStream && parsing.size() < maxOperationsParsing) {
+                    ParsingOperation operation = readOperation(settings, requestInputStream, repliesFromOldMessages);
+                    if (operation == null)
+                        endOfStream = true;
+                    else
+                        parsing.add(operation);
+                }
+                if (parsing.isEmpty()) break;
 
-            if (result.isAccepted()) {
-                outstandingOperations.incrementAndGet();
-                updateOpsPerSec();
-                log(Level.FINE, "Sent message successfully, document id: ", message.get().getOperationId());
-            } else if (!result.getError().isFatal()) {
-                repliesFromOldMessages.add(createOperationStatus(message.get().getOperationId(),
-                                                                 result.getError().getMessage(),
-                                                                 ErrorCode.TRANSIENT_ERROR,
-                        message.get().getMessage()));
-            } else {
-                repliesFromOldMessages.add(createOperationStatus(message.get().getOperationId(),
-                                                                 result.getError().getMessage(),
-                                                                 ErrorCode.ERROR,
-                        message.get().getMessage()));
+                ParsingOperation operation = parsing.poll();
+                DocumentOperationMessageV3 message;
+                try {
+                    message = operation.message.get();
+                }
+                catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    log.log(Level.WARNING, () -> Exceptions.toMessageString(cause));
+                    metric.add(MetricNames.PARSE_ERROR, 1, null);
+                    repliesFromOldMessages.add(new OperationStatus(Exceptions.toMessageString(cause),
+                                                                   operation.operationId,
+                                                                   ErrorCode.ERROR,
+                                                                   false,
+                                                                   ""));
+                    continue;
+                }
+                if (message == null) break; // typical end of feed
+                setRoute(message, settings);
+                send(message, settings, repliesFromOldMessages);
             }
         }
+        finally {
+            for (ParsingOperation operation : parsing)
+                operation.message.cancel(false);
+        }
+    }
+
+    /** Reads the next operation from the stream and starts parsing it, or returns null at the end of the stream */
+    private ParsingOperation readOperation(FeederSettings settings,
+                                           InputStream requestInputStream,
+                                           BlockingQueue<OperationStatus> repliesFromOldMessages) {
+        String operationId = null;
+        try {
+            Optional<String> nextOperationId = streamReaderV3.getNextOperationId(requestInputStream);
+            if (nextOperationId.isEmpty()) return null;
+            operationId = nextOperationId.get();
+            byte[] operationData = streamReaderV3.readNextOperation(requestInputStream);
+            ParsingOperation operation = new ParsingOperation(operationId, operationData, settings);
+            parsers.execute(operation.message);
+            return operation;
+        } catch (IOException e) {
+            log.log(Level.FINE, () -> Exceptions.toMessageString(e));
+            if (operationId != null)
+                repliesFromOldMessages.add(new OperationStatus(Exceptions.toMessageString(e), operationId, ErrorCode.ERROR, false, ""));
+            return null;
+        } catch (RuntimeException e) {
+            log.log(Level.WARNING, () -> Exceptions.toMessageString(e));
+            metric.add(MetricNames.PARSE_ERROR, 1, null);
+            repliesFromOldMessages.add(new OperationStatus(Exceptions.toMessageString(e), operationId, ErrorCode.ERROR, false, ""));
+            return null;
+        }
+    }
+
+    private void send(DocumentOperationMessageV3 message,
+                      FeederSettings settings,
+                      BlockingQueue<OperationStatus> repliesFromOldMessages) throws InterruptedException {
+        setMessageParameters(message, settings);
+
+        Result result;
+        try {
+            result = sendMessage(message);
+
+        } catch  (RuntimeException e) {
+            repliesFromOldMessages.add(createOperationStatus(message.getOperationId(),
+                                                             Exceptions.toMessageString(e),
+                                                             ErrorCode.ERROR,
+                                                             message.getMessage()));
+            return;
+        }
+
+        if (result.isAccepted()) {
+            outstandingOperations.incrementAndGet();
+            updateOpsPerSec();
+            log(Level.FINE, "Sent message successfully, document id: ", message.getOperationId());
+        } else if (!result.getError().isFatal()) {
+            repliesFromOldMessages.add(createOperationStatus(message.getOperationId(),
+                                                             result.getError().getMessage(),
+                                                             ErrorCode.TRANSIENT_ERROR,
+                    message.getMessage()));
+        } else {
+            repliesFromOldMessages.add(createOperationStatus(message.getOperationId(),
+                                                             result.getError().getMessage(),
+                                                             ErrorCode.ERROR,
+                    message.getMessage()));
+        }
     }
 
     private OperationStatus createOperationStatus(String id, String message, ErrorCode code, Message msg) {
@@ -212,12 +323,19 @@ class ClientFeederV3 {
     }
 
     // protected for mocking
-    /** Returns the next message in the stream, or null if none */
+    /**
+     * Returns the next message in the stream, or null if none.
+     * With parallel parsing, this is called by the parser threads, with a stream holding just one operation.
+     */
     protected DocumentOperationMessageV3 getNextMessage(String operationId,
                                                         InputStream requestInputStream,
                                                         FeederSettings settings) throws Exception {
         FeedOperation operation = streamReaderV3.getNextOperation(requestInputStream, settings);
+        return createMessage(operationId, operation);
+    }
 
+    /** Returns the message of the given operation, or null if none */
+    private DocumentOperationMessageV3 createMessage(String operationId, FeedOperation operation) {
         // This is a bit hard to set up while testing, so we accept that things are not perfect.
         if (sourceSession.getResource().session() != null) {
             metric.set(
@@ -283,4 +401,18 @@ class ClientFeederV3 {
             }
         }
     }
+
+    /** An operation read from a request stream, being parsed to a message */
+    private class ParsingOperation {
+
+        final String operationId;
+        final FutureTask<DocumentOperationMessageV3> message;
+
+        ParsingOperation(String operationId, byte[] operationData, FeederSettings settings) {
+            this.operationId = operationId;
+            this.message = new FutureTask<>(() -> getNextMessage(operationId, new ByteArrayInputStream(operationData), settings));
+        }
+
+    }
+
 }
@@ -49,10 +49,12 @@ public class FeedHandler extends LoggingRequestHandler {
                        AccessLog accessLog,
                        DocumentmanagerConfig documentManagerConfig,
                        SessionCache sessionCache,
-                       MetricReceiver metricReceiver) {
+                       MetricReceiver metricReceiver,
+                       FeedHandlerConfig config) {
         super(threadpool.executor(), accessLog, metric);
         metricsHelper = new DocumentApiMetrics(metricReceiver, "vespa.http.server");
-        feedHandlerV3 = new FeedHandlerV3(threadpool.executor(), metric, accessLog, documentManagerConfig, sessionCache, metricsHelper);
+        feedHandlerV3 = new FeedHandlerV3(threadpool.executor(), metric, accessLog, documentManagerConfig, sessionCache, metricsHelper,
+                                          config.parserThreads());
         feedReplyHandler = new FeedReplyReader(metric, metricsHelper);
     }
 
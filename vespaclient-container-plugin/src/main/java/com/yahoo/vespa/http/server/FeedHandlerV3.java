@@ -12,17 +12,24 @@ import com.yahoo.document.config.DocumentmanagerConfig;
 import com.yahoo.documentapi.metrics.DocumentApiMetrics;
 import com.yahoo.jdisc.Metric;
 import com.yahoo.jdisc.ReferencedResource;
+import com.yahoo.messagebus.BandwidthDelayThrottlePolicy;
+import com.yahoo.messagebus.DynamicThrottlePolicy;
 import com.yahoo.messagebus.ReplyHandler;
 import com.yahoo.messagebus.SourceSessionParams;
+import com.yahoo.messagebus.StaticThrottlePolicy;
+import com.yahoo.messagebus.ThrottlePolicy;
 import com.yahoo.messagebus.shared.SharedSourceSession;
+import com.yahoo.vespa.http.client.config.FeedParams;
 import com.yahoo.vespa.http.client.core.Headers;
 import com.yahoo.yolean.Exceptions;
 
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -39,6 +46,9 @@ public class FeedHandlerV3 extends LoggingRequestHandler {
     private DocumentTypeManager docTypeManager;
     private final Map<String, ClientFeederV3> clientFeederByClientId = new HashMap<>();
     private final ScheduledThreadPoolExecutor cron;
+    /** Parses the operations of all clients in parallel, or null to parse them in the request threads */
+    private final ThreadPoolExecutor parsers;
+    private final int maxOperationsParsing;
     private final SessionCache sessionCache;
     protected final ReplyHandler feedReplyHandler;
     private final Metric metric;
@@ -51,12 +61,31 @@ public class FeedHandlerV3 extends LoggingRequestHandler {
                          DocumentmanagerConfig documentManagerConfig,
                          SessionCache sessionCache,
                          DocumentApiMetrics metricsHelper) {
+        this(executor, metric, accessLog, documentManagerConfig, sessionCache, metricsHelper, 0);
+    }
+
+    /** Creates a feed handler which parses operations in the given number of threads, or in the request threads if 1 or less */
+    public FeedHandlerV3(Executor executor,
+                  Metric metric,
+                  AccessLog accessLog,
+                  DocumentmanagerConfig documentManagerConfig,
+                  SessionCache sessionCache,
+                  DocumentApiMetrics metricsHelper,
+                  int parserThreads) {
         super(executor, accessLog, metric);
         docTypeManager = new DocumentTypeManager(documentManagerConfig);
         this.sessionCache = sessionCache;
         feedReplyHandler = new FeedReplyReader(metric, metricsHelper);
         cron = new ScheduledThreadPoolExecutor(1, ThreadFactoryFactory.getThreadFactory("feedhandlerv3.cron"));
         cron.scheduleWithFixedDelay(this::removeOldClients, 16, 11, TimeUnit.MINUTES);
+        // Rejected parsing tasks, when the queue is full or after shutdown, are run by the request thread,
+        // as requests wait for each task they submit to complete.
+        parsers = parserThreads > 1 ? new ThreadPoolExecutor(parserThreads, parserThreads, 1, TimeUnit.MINUTES,
+                                                             new ArrayBlockingQueue<>(parserThreads * 64),
+                                                             ThreadFactoryFactory.getDaemonThreadFactory("feedhandlerv3.parser"),
+                                                             (task, pool) -> task.run())
+                                    : null;
+        maxOperationsParsing = parserThreads * 4;
         this.metric = metric;
     }
 
@@ -79,7 +108,9 @@ public class FeedHandlerV3 extends LoggingRequestHandler {
                                                               docTypeManager,
                                                               clientId,
                                                               metric,
-                                                              feedReplyHandler));
+                                                              feedReplyHandler,
+                                                              parsers,
+                                                              maxOperationsParsing));
             }
             clientFeederV3 = clientFeederByClientId.get(clientId);
         }
@@ -109,6 +140,7 @@ public class FeedHandlerV3 extends LoggingRequestHandler {
         Thread destroyer = new Thread(() -> {
             super.destroy();
             cron.shutdown();
+            if (parsers != null) parsers.shutdown();
             synchronized (monitor) {
                 for (ClientFeederV3 client : clientFeederByClientId.values()) {
                     client.kill();
@@ -139,9 +171,30 @@ public class FeedHandlerV3 extends LoggingRequestHandler {
                 // NOP
             }
         }
+        String throttlePolicy = request.getHeader(Headers.THROTTLE_POLICY);
+        if (FeedParams.GatewayThrottlePolicy.BANDWIDTH_DELAY.name().equals(throttlePolicy)) {
+            params.setThrottlePolicy(bandwidthDelayThrottlePolicy(params.getThrottlePolicy()));
+        }
         return params;
     }
 
+    /** Returns a bandwidth-delay throttle policy with the limits on pending messages of the given policy */
+    static BandwidthDelayThrottlePolicy bandwidthDelayThrottlePolicy(ThrottlePolicy limits) {
+        BandwidthDelayThrottlePolicy policy = new BandwidthDelayThrottlePolicy();
+        if (limits instanceof DynamicThrottlePolicy) { // getMaxPendingCount is the current window of this
+            DynamicThrottlePolicy dynamicLimits = (DynamicThrottlePolicy) limits;
+            policy.setMaxWindowSize(dynamicLimits.getMaxWindowSize());
+            policy.setMaxPendingSize(dynamicLimits.getMaxPendingSize());
+        }
+        else if (limits instanceof StaticThrottlePolicy) {
+            StaticThrottlePolicy staticLimits = (StaticThrottlePolicy) limits;
+            if (staticLimits.getMaxPendingCount() > 0)
+                policy.setMaxPendingCount(staticLimits.getMaxPendingCount());
+            policy.setMaxPendingSize(staticLimits.getMaxPendingSize());
+        }
+        return policy;
+    }
+
     private void removeOldClients() {
         synchronized (monitor) {
             for (Iterator<Map.Entry<String, ClientFeederV3>> iterator = clientFeederByClientId
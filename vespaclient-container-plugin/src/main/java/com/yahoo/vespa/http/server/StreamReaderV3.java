@@ -10,6 +10,8 @@ import com.yahoo.vespaxmlparser.FeedReader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.logging.Logger;
 import java.util.zip.GZIPInputStream;
@@ -42,6 +44,22 @@ public class StreamReaderV3 {
         return op;
     }
 
+    /**
+     * Reads the next operation in the stream without parsing it, and returns it as it was in the stream,
+     * such that it can be parsed from a stream of just this, by {@link #getNextOperation}.
+     *
+     * @throws IOException if the stream ends before the operation does
+     */
+    public byte[] readNextOperation(InputStream requestInputStream) throws IOException {
+        int length = readByteLength(requestInputStream);
+        byte[] lengthLine = (Integer.toHexString(length) + "\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] operation = Arrays.copyOf(lengthLine, lengthLine.length + length);
+        int read = requestInputStream.readNBytes(operation, lengthLine.length, length);
+        if (read < length)
+            throw new IOException("Operation is truncated: Expected " + length + " bytes, but got " + read);
+        return operation;
+    }
+
     public Optional<String> getNextOperationId(InputStream requestInputStream) throws IOException {
         StringBuilder idBuf = new StringBuilder(100);
         int c;
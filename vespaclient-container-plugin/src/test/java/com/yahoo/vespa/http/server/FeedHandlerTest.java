@@ -28,7 +28,8 @@ public class FeedHandlerTest {
                 AccessLog.voidAccessLog(),
                 new DocumentmanagerConfig(new DocumentmanagerConfig.Builder().enablecompression(true)),
                 null /* session cache */,
-                MetricReceiver.nullImplementation);
+                MetricReceiver.nullImplementation,
+                new FeedHandlerConfig(new FeedHandlerConfig.Builder()));
         var responseHandler = new RequestHandlerTestDriver.MockResponseHandler();
         try {
             handler.handleRequest(createRequest(100).getJDiscRequest(), responseHandler);
@@ -13,8 +13,11 @@ import com.yahoo.document.config.DocumentmanagerConfig;
 import com.yahoo.documentapi.messagebus.protocol.PutDocumentMessage;
 import com.yahoo.documentapi.metrics.DocumentApiMetrics;
 import com.yahoo.jdisc.ReferencedResource;
+import com.yahoo.messagebus.BandwidthDelayThrottlePolicy;
+import com.yahoo.messagebus.DynamicThrottlePolicy;
 import com.yahoo.messagebus.Result;
 import com.yahoo.messagebus.SourceSessionParams;
+import com.yahoo.messagebus.StaticThrottlePolicy;
 import com.yahoo.messagebus.shared.SharedSourceSession;
 import com.yahoo.metrics.simple.MetricReceiver;
 import com.yahoo.text.Utf8;
@@ -28,6 +31,8 @@ import org.mockito.stubbing.Answer;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
@@ -41,6 +46,7 @@ import static org.mockito.Mockito.when;
 public class FeedHandlerV3Test {
     final CollectingMetric metric = new CollectingMetric();
     private final Executor simpleThreadpool = Executors.newCachedThreadPool();
+    private SourceSessionParams sourceSessionParams;
 
     @Test
     public void feedOneDocument() throws Exception {
@@ -74,6 +80,78 @@ public class FeedHandlerV3Test {
         assertThat(Splitter.on("\n").splitToList(result).size(), is(101));
     }
 
+    @Test
+    public void feedManyDocumentsWithBrokenDocumentsInOrder() throws Exception {
+        final FeedHandlerV3 feedHandlerV3 = setupFeederHandler(simpleThreadpool, 4);
+        StringBuilder wireData = new StringBuilder();
+        for (int x = 0; x < 200; x++) {
+            String docData = x % 7 == 3 ? "[{\"put oops I broke it]"
+                                        : "[{\"put\": \"id:testdocument:testdocument::" + x + "\", \"fields\": { \"title\": \"fooKey\"}}]";
+            wireData.append("op").append(x).append(" ").append(Integer.toHexString(docData.length())).append("\n").append(docData);
+        }
+        HttpResponse httpResponse = feedHandlerV3.handle(createRequestWithPayload(wireData.toString()));
+        ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+        httpResponse.render(outStream);
+        List<String> lines = Splitter.on("\n").omitEmptyStrings().splitToList(Utf8.toString(outStream.toByteArray()));
+        assertThat(lines.size(), is(200));
+        // Parse errors are reported immediately, and replies in the order the operations are sent
+        List<String> errors = new ArrayList<>();
+        List<String> replies = new ArrayList<>();
+        for (String line : lines)
+            (line.contains(" ERROR ") ? errors : replies).add(line);
+        for (int x = 0, error = 0, reply = 0; x < 200; x++) {
+            if (x % 7 == 3)
+                assertThat(errors.get(error++), startsWith("op" + x + " ERROR "));
+            else
+                assertThat(replies.get(reply++), startsWith("op" + x + " OK "));
+        }
+        assertThat(metric.get(MetricNames.PARSE_ERROR), is(29L));
+    }
+
+    @Test
+    public void truncatedOperationIsRejectedWhenParsingInParallel() throws Exception {
+        FeedHandlerV3 feedHandlerV3 = setupFeederHandler(simpleThreadpool, 4);
+        String docData = "[{\"put\": \"id:testdocument:testdocument::c\", \"fields\": { \"title\": \"fooKey\"}}]";
+        String wireData = "1230 " + Integer.toHexString(docData.length() + 10) + "\n" + docData;
+        HttpResponse httpResponse = feedHandlerV3.handle(createRequestWithPayload(wireData));
+        ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+        httpResponse.render(outStream);
+        assertThat(Utf8.toString(outStream.toByteArray()), startsWith("1230 ERROR Operation{20}is{20}truncated"));
+    }
+
+    @Test
+    public void throttlePolicyIsSelectedByClient() throws Exception {
+        FeedHandlerV3 feedHandlerV3 = setupFeederHandler(simpleThreadpool);
+        feedHandlerV3.handle(createRequest(1)).render(new ByteArrayOutputStream());
+        assertThat(sourceSessionParams.getThrottlePolicy() instanceof DynamicThrottlePolicy, is(true));
+
+        feedHandlerV3 = setupFeederHandler(simpleThreadpool);
+        HttpRequest request = createRequest(1);
+        request.getJDiscRequest().headers().add(Headers.THROTTLE_POLICY,
+                                                FeedParams.GatewayThrottlePolicy.BANDWIDTH_DELAY.name());
+        feedHandlerV3.handle(request).render(new ByteArrayOutputStream());
+        assertThat(sourceSessionParams.getThrottlePolicy() instanceof BandwidthDelayThrottlePolicy, is(true));
+    }
+
+    @Test
+    public void bandwidthDelayThrottlePolicyKeepsLimitsOfReplacedPolicy() {
+        DynamicThrottlePolicy dynamicLimits = new DynamicThrottlePolicy();
+        dynamicLimits.setMaxPendingCount(100);
+        dynamicLimits.setMaxPendingSize(1 << 20);
+        BandwidthDelayThrottlePolicy policy = FeedHandlerV3.bandwidthDelayThrottlePolicy(dynamicLimits);
+        assertThat(policy.getMaxWindowSize(), is(100.0));
+        assertThat(policy.getMaxPendingSize(), is(1L << 20));
+
+        StaticThrottlePolicy staticLimits = new StaticThrottlePolicy().setMaxPendingCount(50).setMaxPendingSize(1 << 10);
+        policy = FeedHandlerV3.bandwidthDelayThrottlePolicy(staticLimits);
+        assertThat(policy.getMaxWindowSize(), is(50.0));
+        assertThat(policy.getMaxPendingSize(), is(1L << 10));
+
+        policy = FeedHandlerV3.bandwidthDelayThrottlePolicy(new DynamicThrottlePolicy());
+        assertThat(policy.getMaxWindowSize(), is((double) Integer.MAX_VALUE));
+        assertThat(policy.getMaxPendingSize(), is(0L));
+    }
+
     private static DocumentTypeManager createDoctypeManager() {
         DocumentTypeManager docTypeManager = new DocumentTypeManager();
         DocumentType documentType = new DocumentType("testdocument");
@@ -114,6 +192,10 @@ public class FeedHandlerV3Test {
     }
 
     private FeedHandlerV3 setupFeederHandler(Executor threadPool) {
+        return setupFeederHandler(threadPool, 1);
+    }
+
+    private FeedHandlerV3 setupFeederHandler(Executor threadPool, int parserThreads) {
         DocumentmanagerConfig docMan = new DocumentmanagerConfig(new DocumentmanagerConfig.Builder().enablecompression(true));
         FeedHandlerV3 feedHandlerV3 = new FeedHandlerV3(
                 threadPool,
@@ -121,10 +203,12 @@ public class FeedHandlerV3Test {
                 AccessLog.voidAccessLog(),
                 docMan,
                 null /* session cache */,
-                new DocumentApiMetrics(MetricReceiver.nullImplementation, "test")) {
+                new DocumentApiMetrics(MetricReceiver.nullImplementation, "test"),
+                parserThreads) {
             @Override
             protected ReferencedResource<SharedSourceSession> retainSource(
                     SessionCache sessionCache, SourceSessionParams sessionParams)  {
+                sourceSessionParams = sessionParams;
                 SharedSourceSession sharedSourceSession = mock(SharedSourceSession.class);
 
                 try {
@@ -2,6 +2,7 @@
 package com.yahoo.feedapi;
 
 import com.yahoo.documentapi.messagebus.protocol.DocumentProtocol;
+import com.yahoo.messagebus.BandwidthDelayThrottlePolicy;
 import com.yahoo.messagebus.DynamicThrottlePolicy;
 import com.yahoo.messagebus.RateThrottlingPolicy;
 import com.yahoo.messagebus.SourceSessionParams;
@@ -24,6 +25,7 @@ public class FeederOptions {
     private double timeout = 60;
     private int maxPendingDocs = 0;
     private double maxFeedRate = 0.0;
+    private boolean bandwidthDelayThrottling = false;
     private String route = "default";
     private int traceLevel;
     private int mbusPort;
@@ -45,12 +47,17 @@ public class FeederOptions {
         setTraceLevel(config.tracelevel());
         setMessageBusPort(config.mbusport());
         setMaxFeedRate(config.maxfeedrate());
+        setBandwidthDelayThrottling(config.throttlepolicy() == FeederConfig.Throttlepolicy.BANDWIDTH_DELAY);
     }
 
     void setMaxFeedRate(double feedRate) {
         maxFeedRate = feedRate;
     }
 
+    void setBandwidthDelayThrottling(boolean bandwidthDelayThrottling) {
+        this.bandwidthDelayThrottling = bandwidthDelayThrottling;
+    }
+
     boolean getRetryEnabled() {
         return retryEnabled;
     }
@@ -125,6 +132,8 @@ public class FeederOptions {
         StaticThrottlePolicy policy;
         if (maxFeedRate > 0.0) {
             policy = new RateThrottlingPolicy(maxFeedRate);
+        } else if (bandwidthDelayThrottling) {
+            policy = new BandwidthDelayThrottlePolicy();
         } else if (maxPendingDocs == 0) {
             policy = new DynamicThrottlePolicy();
         } else {
@@ -161,6 +170,7 @@ public class FeederOptions {
                ", retryEnabled=" + retryEnabled +
                ", timeout=" + timeout +
                ", maxPendingDocs=" + maxPendingDocs +
+               ", bandwidthDelayThrottling=" + bandwidthDelayThrottling +
                ", route='" + route + '\'' +
                ", traceLevel=" + traceLevel +
                ", mbusPort=" + mbusPort +
@@ -179,6 +189,7 @@ public class FeederOptions {
         if (abortOnSendError != that.abortOnSendError) return false;
         if (maxPendingDocs != that.maxPendingDocs) return false;
         if (maxFeedRate != that.maxFeedRate) return false;
+        if (bandwidthDelayThrottling != that.bandwidthDelayThrottling) return false;
         if (mbusPort != that.mbusPort) return false;
         if (retryEnabled != that.retryEnabled) return false;
         if (Double.compare(that.timeout, timeout) != 0) return false;
@@ -200,6 +211,7 @@ public class FeederOptions {
         result = 31 * result + (int) (temp ^ (temp >>> 32));
         result = 31 * result + maxPendingDocs;
         result = 31 * result + ((int)(maxFeedRate * 1000));
+        result = 31 * result + (bandwidthDelayThrottling ? 1 : 0);
         result = 31 * result + (route != null ? route.hashCode() : 0);
         result = 31 * result + traceLevel;
         result = 31 * result + mbusPort;
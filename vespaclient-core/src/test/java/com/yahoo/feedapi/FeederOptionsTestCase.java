@@ -1,6 +1,9 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.feedapi;
 
+import com.yahoo.messagebus.BandwidthDelayThrottlePolicy;
+import com.yahoo.messagebus.DynamicThrottlePolicy;
+import com.yahoo.messagebus.RateThrottlingPolicy;
 import org.junit.Test;
 
 import static org.junit.Assert.assertFalse;
@@ -68,6 +71,24 @@ public class FeederOptionsTestCase {
         assertFalse(f2.equals(f1));
         assertFalse(f1.equals(f2));
         assertTrue(f1.hashCode() != f2.hashCode());
+
+        f1.setMaxFeedRate(34.0);
+        f1.setBandwidthDelayThrottling(true);
+        assertFalse(f2.equals(f1));
+        assertFalse(f1.equals(f2));
+        assertTrue(f1.hashCode() != f2.hashCode());
+    }
+
+    @Test
+    public void testThrottlePolicy() {
+        FeederOptions options = new FeederOptions();
+        assertTrue(options.toSourceSessionParams().getThrottlePolicy() instanceof DynamicThrottlePolicy);
+
+        options.setBandwidthDelayThrottling(true);
+        assertTrue(options.toSourceSessionParams().getThrottlePolicy() instanceof BandwidthDelayThrottlePolicy);
+
+        options.setMaxFeedRate(10);
+        assertTrue(options.toSourceSessionParams().getThrottlePolicy() instanceof RateThrottlingPolicy);
     }
 
 }
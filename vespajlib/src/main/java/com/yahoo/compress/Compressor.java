@@ -22,6 +22,7 @@ public class Compressor {
     private final int level;
     private final double compressionThresholdFactor;
     private final int compressMinSizeBytes;
+    private final ZstdCompressor zstdCompressor;
 
     private static final LZ4Factory factory = LZ4Factory.fastestInstance();
 
@@ -49,10 +50,28 @@ public class Compressor {
      * @param compressMinSizeBytes the minimal input data size to perform compression
      */
     public Compressor(CompressionType type, int level, double compressionThresholdFactor, int compressMinSizeBytes) {
+        this(type, level, compressionThresholdFactor, compressMinSizeBytes, null);
+    }
+
+    /**
+     * Creates a compressor.
+     *
+     * @param type the type of compression to use to compress data
+     * @param level a number between 0 and 9 where a higher value means more LZ4 compression
+     * @param compressionThresholdFactor the compression factor we need to achieve to return the compressed data
+     *                                   instead of raw data
+     * @param compressMinSizeBytes the minimal input data size to perform compression
+     * @param zstdCompressor the compressor to use for ZSTD, which decides the zstd level and dictionary,
+     *                       or null to use a shared compressor with the default level and no dictionary.
+     *                       The given compressor is not closed by this.
+     */
+    public Compressor(CompressionType type, int level, double compressionThresholdFactor, int compressMinSizeBytes,
+                      ZstdCompressor zstdCompressor) {
         this.type = type;
         this.level = level;
         this.compressionThresholdFactor = compressionThresholdFactor;
         this.compressMinSizeBytes = compressMinSizeBytes;
+        this.zstdCompressor = zstdCompressor;
     }
 
     /** Returns the default compression type used by this */
@@ -67,6 +86,11 @@ public class Compressor {
     /** Returns the minimal data size required to perform compression */
     public int compressMinSizeBytes() { return compressMinSizeBytes; }
 
+    /** Returns the compressor used for ZSTD */
+    public ZstdCompressor zstdCompressor() {
+        return zstdCompressor != null ? zstdCompressor : DefaultZstdCompressor.instance;
+    }
+
     /**
      * Compresses some data
      *
@@ -84,13 +108,15 @@ public class Compressor {
             case NONE:
                 data = uncompressedSize.isPresent() ? Arrays.copyOf(data, uncompressedSize.get()) : data;
                 return new Compression(CompressionType.NONE, data.length, data);
-            case LZ4:
+            case LZ4: case ZSTD:
                 int dataSize = uncompressedSize.isPresent() ? uncompressedSize.get() : data.length;
                 if (dataSize < compressMinSizeBytes) return new Compression(CompressionType.INCOMPRESSIBLE, dataSize, data);
-                byte[] compressedData = getCompressor().compress(data, 0, dataSize);
+                byte[] compressedData = requestedCompression == CompressionType.LZ4
+                                        ? getCompressor().compress(data, 0, dataSize)
+                                        : zstdCompressor().compress(data, 0, dataSize);
                 if (compressedData.length + 8 >= dataSize * compressionThresholdFactor)
                     return new Compression(CompressionType.INCOMPRESSIBLE, dataSize, data);
-                return new Compression(CompressionType.LZ4, dataSize, compressedData);
+                return new Compression(requestedCompression, dataSize, compressedData);
             default:
                 throw new IllegalArgumentException(requestedCompression + " is not supported");
         }
@@ -113,6 +139,8 @@ public class Compressor {
      * @param compressedDataOffset the offset in the compressed data at which to start decompression
      * @param expectedUncompressedSize the uncompressed size in bytes of this data
      * @param expectedCompressedSize the expected compressed size of the data in bytes, optionally for validation with LZ4.
+     *                               With ZSTD this is the size of the compressed data, which otherwise extends to the
+     *                               end of the array.
      * @return the uncompressed data, of the given size
      * @throws IllegalArgumentException if the compression type is not supported
      * @throws IllegalStateException if the expected compressed size is non-empty and specifies a different size than the actual size
@@ -130,6 +158,9 @@ public class Compressor {
                 if (expectedCompressedSize.isPresent() && compressedSize != expectedCompressedSize.get())
                     throw new IllegalStateException("Compressed size mismatch. Expected " + compressedSize + ". Got " + expectedCompressedSize.get());
                 return uncompressedLZ4Data;
+            case ZSTD:
+                int compressedLength = expectedCompressedSize.orElse(compressedData.length - compressedDataOffset);
+                return zstdCompressor().decompress(compressedData, compressedDataOffset, compressedLength, expectedUncompressedSize);
             default:
                 throw new IllegalArgumentException(compression + " is not supported");
         }
@@ -176,6 +207,11 @@ public class Compressor {
         return compressedBytes;
     }
 
+    /** Holds the ZSTD compressor shared by compressors not given one, which is created on first use */
+    private static class DefaultZstdCompressor {
+        static final ZstdCompressor instance = new ZstdCompressor();
+    }
+
     public static class Compression {
 
         private final CompressionType compressionType;
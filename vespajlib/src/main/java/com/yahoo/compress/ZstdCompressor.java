@@ -0,0 +1,208 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.compress;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdException;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Compressor and decompressor of the Zstandard format, with a fixed compression level and an optional
+ * pre-trained dictionary. Data compressed with a dictionary can only be decompressed with the same dictionary.
+ *
+ * This class is thread safe. Native compression and decompression contexts are reused between calls, and at most
+ * one per processor of each are kept between calls, so instances should be long-lived. The native contexts and
+ * dictionaries are released when this is closed.
+ */
+public class ZstdCompressor implements AutoCloseable {
+
+    /** The compression level used by default, which is also the default of the zstd library */
+    public static final int DEFAULT_LEVEL = 3;
+
+    /** The highest compression level supported by the zstd library */
+    public static final int MAX_LEVEL = 22;
+
+    private final int level;
+    private final ZstdDictCompress compressDictionary;
+    private final ZstdDictDecompress decompressDictionary;
+
+    private final ContextPool<ZstdCompressCtx> compressContexts =
+            new ContextPool<>(this::createCompressContext, ZstdCompressCtx::close);
+    private final ContextPool<ZstdDecompressCtx> decompressContexts =
+            new ContextPool<>(this::createDecompressContext, ZstdDecompressCtx::close);
+
+    /** Creates a compressor using the default level and no dictionary */
+    public ZstdCompressor() {
+        this(DEFAULT_LEVEL);
+    }
+
+    /** Creates a compressor using the given level and no dictionary */
+    public ZstdCompressor(int level) {
+        this(level, null);
+    }
+
+    /**
+     * Creates a compressor.
+     *
+     * @param level the zstd compression level, at most {@link #MAX_LEVEL}, where a higher value means more compression
+     *              and a negative value trades compression for speed
+     * @param dictionary a pre-trained zstd dictionary, or null to compress without a dictionary
+     */
+    public ZstdCompressor(int level, byte[] dictionary) {
+        if (level > MAX_LEVEL)
+            throw new IllegalArgumentException("Compression level must be at most " + MAX_LEVEL + ", but was " + level);
+        this.level = level;
+        this.compressDictionary = dictionary == null ? null : new ZstdDictCompress(dictionary, level);
+        this.decompressDictionary = dictionary == null ? null : new ZstdDictDecompress(dictionary);
+    }
+
+    /** Returns the zstd compression level used by this */
+    public int level() { return level; }
+
+    /** Returns whether this compresses and decompresses using a dictionary */
+    public boolean hasDictionary() { return compressDictionary != null; }
+
+    /** Returns the maximal size of the compressed form of data of the given size */
+    public static int maxCompressedLength(int uncompressedLength) {
+        return Math.toIntExact(Zstd.compressBound(uncompressedLength));
+    }
+
+    /**
+     * Compresses a range of the given data.
+     *
+     * @return a new array containing exactly the compressed data
+     * @throws IllegalStateException if compression fails
+     */
+    public byte[] compress(byte[] input, int inputOffset, int inputLength) {
+        byte[] output = new byte[maxCompressedLength(inputLength)];
+        int compressedLength = compress(input, inputOffset, inputLength, output, 0, output.length);
+        return Arrays.copyOf(output, compressedLength);
+    }
+
+    /**
+     * Compresses a range of the given data into the given output buffer.
+     *
+     * @return the number of bytes written to the output buffer
+     * @throws IllegalStateException if compression fails, e.g because the output buffer is too small
+     */
+    public int compress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset, int maxOutputLength) {
+        ZstdCompressCtx context = compressContexts.take();
+        try {
+            return context.compressByteArray(output, outputOffset, maxOutputLength, input, inputOffset, inputLength);
+        }
+        catch (ZstdException e) {
+            throw new IllegalStateException("Zstd compression of " + inputLength + " bytes failed", e);
+        }
+        finally {
+            compressContexts.release(context);
+        }
+    }
+
+    /**
+     * Decompresses a range of the given data.
+     *
+     * @param uncompressedLength the exact size of the data when uncompressed
+     * @return a new array of the given uncompressed length containing the decompressed data
+     * @throws IllegalStateException if the data could not be decompressed to the given size
+     */
+    public byte[] decompress(byte[] input, int inputOffset, int inputLength, int uncompressedLength) {
+        byte[] output = new byte[uncompressedLength];
+        int decompressedLength = decompress(input, inputOffset, inputLength, output, 0, uncompressedLength);
+        if (decompressedLength != uncompressedLength)
+            throw new IllegalStateException("Uncompressed size mismatch. Expected " + uncompressedLength +
+                                            ". Got " + decompressedLength);
+        return output;
+    }
+
+    /**
+     * Decompresses a range of the given data into the given output buffer.
+     *
+     * @return the number of bytes written to the output buffer
+     * @throws IllegalStateException if decompression fails, e.g because the output buffer is too small
+     */
+    public int decompress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset, int maxOutputLength) {
+        ZstdDecompressCtx context = decompressContexts.take();
+        try {
+            return context.decompressByteArray(output, outputOffset, maxOutputLength, input, inputOffset, inputLength);
+        }
+        catch (ZstdException e) {
+            throw new IllegalStateException("Zstd decompression of " + inputLength + " bytes failed", e);
+        }
+        finally {
+            decompressContexts.release(context);
+        }
+    }
+
+    /** Releases the native resources held by this. This must not be used after it is closed. */
+    @Override
+    public void close() {
+        compressContexts.close();
+        decompressContexts.close();
+        if (compressDictionary != null) compressDictionary.close();
+        if (decompressDictionary != null) decompressDictionary.close();
+    }
+
+    private ZstdCompressCtx createCompressContext() {
+        ZstdCompressCtx context = new ZstdCompressCtx();
+        context.setLevel(level);
+        if (compressDictionary != null)
+            context.loadDict(compressDictionary);
+        return context;
+    }
+
+    private ZstdDecompressCtx createDecompressContext() {
+        ZstdDecompressCtx context = new ZstdDecompressCtx();
+        if (decompressDictionary != null)
+            context.loadDict(decompressDictionary);
+        return context;
+    }
+
+    /** A bounded pool of native contexts, which closes the contexts it has no room for, and all it holds when closed */
+    private static class ContextPool<CONTEXT> {
+
+        private final BlockingQueue<CONTEXT> contexts = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+        private final Supplier<CONTEXT> factory;
+        private final Consumer<CONTEXT> closer;
+        private volatile boolean closed = false;
+
+        ContextPool(Supplier<CONTEXT> factory, Consumer<CONTEXT> closer) {
+            this.factory = factory;
+            this.closer = closer;
+        }
+
+        /** Returns a pooled context, or a new one if none are pooled */
+        CONTEXT take() {
+            if (closed) throw new IllegalStateException("This compressor is closed");
+            CONTEXT context = contexts.poll();
+            return context != null ? context : factory.get();
+        }
+
+        /** Returns a context taken from this to the pool, or closes it if the pool is full or closed */
+        void release(CONTEXT context) {
+            if ( ! contexts.offer(context))
+                closer.accept(context);
+            if (closed)
+                closeAll();
+        }
+
+        void close() {
+            closed = true;
+            closeAll();
+        }
+
+        private void closeAll() {
+            for (CONTEXT context; (context = contexts.poll()) != null; )
+                closer.accept(context);
+        }
+
+    }
+
+}
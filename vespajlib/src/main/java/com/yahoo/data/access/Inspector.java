@@ -1,6 +1,7 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.data.access;
 
+import com.yahoo.text.Utf8Array;
 
 import java.util.Map;
 
@@ -51,6 +52,13 @@ public interface Inspector extends Inspectable {
      */
     byte[] asUtf8();
 
+    /**
+     * Access the inspector's value (in utf-8 representation) if it's
+     * a STRING; otherwise throws exception. Unlike {@link #asUtf8()}, this may
+     * return a window into data which is shared rather than a copy, so it must not be modified.
+     */
+    default Utf8Array asUtf8Array() { return new Utf8Array(asUtf8()); }
+
     /** Access the inspector's value if it's DATA; otherwise throws exception */
     byte[] asData();
 
@@ -83,6 +83,12 @@ public final class SlimeAdapter implements com.yahoo.data.access.Inspector {
         }
         return inspector.asUtf8();
     }
+    public com.yahoo.text.Utf8Array asUtf8Array() {
+        if (!verify(com.yahoo.slime.Type.NIX, com.yahoo.slime.Type.STRING)) {
+            throw new IllegalStateException("invalid data extraction!");
+        }
+        return inspector.asUtf8Array();
+    }
     public byte[] asData() {
         if (!verify(com.yahoo.slime.Type.NIX, com.yahoo.slime.Type.DATA)) {
             throw new IllegalStateException("invalid data extraction!");
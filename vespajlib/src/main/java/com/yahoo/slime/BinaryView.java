@@ -0,0 +1,376 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.slime;
+
+import com.yahoo.text.Utf8Array;
+import com.yahoo.text.Utf8PartialArray;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import static com.yahoo.slime.BinaryFormat.decode_double;
+import static com.yahoo.slime.BinaryFormat.decode_meta;
+import static com.yahoo.slime.BinaryFormat.decode_type;
+import static com.yahoo.slime.BinaryFormat.decode_zigzag;
+
+/**
+ * A read only view of binary encoded slime data, which reads values from the encoded data when they are accessed,
+ * instead of decoding it into an object graph like {@link BinaryFormat#decode} does. This is cheaper when only some
+ * of the values are accessed, and string and data values can be accessed without copying them,
+ * see {@link #asUtf8Array}.
+ *
+ * Creating a view makes one pass over the data to index where each value starts, which is kept in a few int arrays
+ * shared by all views of the same data. The data must not be modified while it is viewed.
+ */
+public final class BinaryView implements Inspector {
+
+    private final Index index;
+    private final int self;
+
+    private BinaryView(Index index, int self) {
+        this.index = index;
+        this.self = self;
+    }
+
+    /**
+     * Returns a view of the root value of the given binary slime data.
+     *
+     * @throws IllegalArgumentException if the data is not valid binary slime
+     */
+    public static Inspector inspect(byte[] data) {
+        return inspect(data, 0, data.length);
+    }
+
+    /**
+     * Returns a view of the root value of the binary slime data in the given range of the given array.
+     *
+     * @throws IllegalArgumentException if the data is not valid binary slime
+     */
+    public static Inspector inspect(byte[] data, int offset, int length) {
+        return new BinaryView(new Index(data, offset, length), 0);
+    }
+
+    private Inspector view(int value) { return new BinaryView(index, value); }
+
+    private byte typeAndMeta() { return index.data[index.offsets[self]]; }
+
+    private int meta() { return decode_meta(typeAndMeta()); }
+
+    private long readBytes(boolean littleEndian) {
+        int bytes = meta();
+        int position = index.offsets[self] + 1;
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            long b = index.data[position + i] & 0xff;
+            value |= littleEndian ? b << (8 * i) : b << (56 - 8 * i);
+        }
+        return value;
+    }
+
+    @Override public boolean valid() { return true; }
+    @Override public Type type() { return decode_type(typeAndMeta()); }
+
+    @Override
+    public int children() {
+        Type type = type();
+        return (type == Type.ARRAY || type == Type.OBJECT) ? index.sizes[self] : 0;
+    }
+
+    @Override public int entries() { return type() == Type.ARRAY ? index.sizes[self] : 0; }
+    @Override public int fields() { return type() == Type.OBJECT ? index.sizes[self] : 0; }
+
+    @Override public boolean asBool() { return type() == Type.BOOL && meta() != 0; }
+
+    @Override
+    public long asLong() {
+        switch (type()) {
+            case LONG: return decode_zigzag(readBytes(true));
+            case DOUBLE: return (long) decode_double(readBytes(false));
+            default: return 0;
+        }
+    }
+
+    @Override
+    public double asDouble() {
+        switch (type()) {
+            case LONG: return (double) decode_zigzag(readBytes(true));
+            case DOUBLE: return decode_double(readBytes(false));
+            default: return 0.0;
+        }
+    }
+
+    @Override
+    public String asString() {
+        if (type() != Type.STRING) return "";
+        return Utf8Codec.decode(index.data, index.starts[self], index.sizes[self]);
+    }
+
+    @Override
+    public byte[] asUtf8() {
+        if (type() != Type.STRING) return new byte[0];
+        return copyOfPayload();
+    }
+
+    /** Returns the utf-8 bytes of this if it's a STRING, as a window into the viewed data, without copying them */
+    @Override
+    public Utf8Array asUtf8Array() {
+        if (type() != Type.STRING) return new Utf8Array(new byte[0]);
+        return new Utf8PartialArray(index.data, index.starts[self], index.sizes[self]);
+    }
+
+    @Override
+    public byte[] asData() {
+        if (type() != Type.DATA) return new byte[0];
+        return copyOfPayload();
+    }
+
+    private byte[] copyOfPayload() {
+        return Arrays.copyOfRange(index.data, index.starts[self], index.starts[self] + index.sizes[self]);
+    }
+
+    @Override
+    public void accept(Visitor v) {
+        switch (type()) {
+            case NIX: v.visitNix(); break;
+            case BOOL: v.visitBool(asBool()); break;
+            case LONG: v.visitLong(asLong()); break;
+            case DOUBLE: v.visitDouble(asDouble()); break;
+            case STRING: v.visitString(asUtf8()); break;
+            case DATA: v.visitData(asData()); break;
+            case ARRAY: v.visitArray(this); break;
+            case OBJECT: v.visitObject(this); break;
+        }
+    }
+
+    @Override
+    public void traverse(ArrayTraverser at) {
+        int entries = entries();
+        for (int i = 0; i < entries; i++)
+            at.entry(i, view(index.starts[self] + i));
+    }
+
+    @Override
+    public void traverse(ObjectSymbolTraverser ot) {
+        int fields = fields();
+        for (int i = 0; i < fields; i++) {
+            int field = index.starts[self] + i;
+            ot.field(index.symbols[field], view(field));
+        }
+    }
+
+    @Override
+    public void traverse(ObjectTraverser ot) {
+        int fields = fields();
+        for (int i = 0; i < fields; i++) {
+            int field = index.starts[self] + i;
+            ot.field(index.names.inspect(index.symbols[field]), view(field));
+        }
+    }
+
+    @Override
+    public Inspector entry(int idx) {
+        if (idx < 0 || idx >= entries()) return NixValue.invalid();
+        return view(index.starts[self] + idx);
+    }
+
+    @Override
+    public Inspector field(int sym) {
+        int fields = fields();
+        for (int i = 0; i < fields; i++) {
+            int field = index.starts[self] + i;
+            if (index.symbols[field] == sym)
+                return view(field);
+        }
+        return NixValue.invalid();
+    }
+
+    @Override
+    public Inspector field(String name) {
+        int sym = index.names.lookup(name);
+        if (sym == SymbolTable.INVALID) return NixValue.invalid();
+        return field(sym);
+    }
+
+    @Override
+    public boolean equalTo(Inspector that) {
+        if (type() != that.type()) return false;
+        switch (type()) {
+            case NIX: return that.valid();
+            case BOOL: return asBool() == that.asBool();
+            case LONG: return asLong() == that.asLong();
+            case DOUBLE: return Double.compare(asDouble(), that.asDouble()) == 0;
+            case STRING: return asString().equals(that.asString());
+            case DATA: return Arrays.equals(asData(), that.asData());
+            case ARRAY:
+                if (entries() != that.entries()) return false;
+                for (int i = 0; i < entries(); i++)
+                    if ( ! entry(i).equalTo(that.entry(i))) return false;
+                return true;
+            case OBJECT:
+                if (fields() != that.fields()) return false;
+                for (int i = 0; i < fields(); i++) {
+                    int field = index.starts[self] + i;
+                    if ( ! view(field).equalTo(that.field(index.names.inspect(index.symbols[field])))) return false;
+                }
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new JsonFormat(true).encode(out, this);
+            byte[] utf8 = out.toByteArray();
+            return Utf8Codec.decode(utf8, 0, utf8.length);
+        } catch (Exception e) {
+            return "null";
+        }
+    }
+
+    /**
+     * Where each value in some binary slime data is, in arrays indexed by value number, in depth first order
+     * except that the children of a container are numbered consecutively.
+     */
+    private static final class Index {
+
+        final byte[] data;
+        final SymbolTable names = new SymbolTable();
+
+        /** The position of the type and meta byte of each value */
+        int[] offsets;
+        /** The position of the content of strings and data, and the number of the first child of containers */
+        int[] starts;
+        /** The byte length of strings and data, and the number of children of containers */
+        int[] sizes;
+        /** The symbol of each value which is a field in an object */
+        int[] symbols;
+
+        private int valueCount = 0;
+        private int position;
+        private final int end;
+
+        Index(byte[] data, int offset, int length) {
+            if (offset < 0 || length < 0 || offset + length > data.length)
+                throw new IllegalArgumentException("Range [" + offset + ", " + (offset + length) + ") is outside the data");
+            this.data = data;
+            this.position = offset;
+            this.end = offset + length;
+            int capacity = Math.max(16, length / 8);
+            offsets = new int[capacity];
+            starts = new int[capacity];
+            sizes = new int[capacity];
+            symbols = new int[capacity];
+
+            readSymbols();
+            int root = reserve(1);
+            symbols[root] = SymbolTable.INVALID;
+            readValue(root);
+        }
+
+        private void readSymbols() {
+            long symbolCount = readCompressedLong();
+            for (long i = 0; i < symbolCount; i++) {
+                int size = readSize(0);
+                if (names.insert(Utf8Codec.decode(data, position, size)) != i)
+                    throw new IllegalArgumentException("Duplicate symbols in the symbol table of binary slime");
+                position += size;
+            }
+        }
+
+        private void readValue(int value) {
+            offsets[value] = position;
+            byte typeAndMeta = readByte();
+            int meta = decode_meta(typeAndMeta);
+            switch (decode_type(typeAndMeta)) {
+                case NIX:
+                case BOOL:
+                    break;
+                case LONG:
+                case DOUBLE:
+                    skip(meta);
+                    break;
+                case STRING:
+                case DATA:
+                    sizes[value] = readSize(meta);
+                    starts[value] = position;
+                    skip(sizes[value]);
+                    break;
+                case ARRAY: {
+                    int size = readSize(meta);
+                    int first = reserve(size);
+                    sizes[value] = size;
+                    starts[value] = first;
+                    for (int i = 0; i < size; i++) {
+                        symbols[first + i] = SymbolTable.INVALID;
+                        readValue(first + i);
+                    }
+                    break;
+                }
+                case OBJECT: {
+                    int size = readSize(meta);
+                    int first = reserve(size);
+                    sizes[value] = size;
+                    starts[value] = first;
+                    for (int i = 0; i < size; i++) {
+                        long symbol = readCompressedLong();
+                        if (symbol >= names.symbols())
+                            throw new IllegalArgumentException("Unknown symbol " + symbol + " in binary slime");
+                        symbols[first + i] = (int) symbol;
+                        readValue(first + i);
+                    }
+                    break;
+                }
+            }
+        }
+
+        /** Reserves consecutive numbers for the given number of values, and returns the first */
+        private int reserve(int count) {
+            int first = valueCount;
+            valueCount += count;
+            if (valueCount > offsets.length) {
+                int capacity = Math.max(valueCount, offsets.length * 2);
+                offsets = Arrays.copyOf(offsets, capacity);
+                starts = Arrays.copyOf(starts, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+                symbols = Arrays.copyOf(symbols, capacity);
+            }
+            return first;
+        }
+
+        private byte readByte() {
+            if (position >= end) throw underflow();
+            return data[position++];
+        }
+
+        private void skip(int size) {
+            if (size > end - position) throw underflow();
+            position += size;
+        }
+
+        private long readCompressedLong() {
+            long next = readByte();
+            long value = next & 0x7f;
+            int shift = 7;
+            while ((next & 0x80) != 0) {
+                next = readByte();
+                value |= (next & 0x7f) << shift;
+                shift += 7;
+            }
+            return value;
+        }
+
+        private int readSize(int meta) {
+            long size = (meta == 0) ? readCompressedLong() : meta - 1;
+            // Every value takes at least a byte, so a valid size never exceeds the remaining data
+            if (size > end - position) throw underflow();
+            return (int) size;
+        }
+
+        private IllegalArgumentException underflow() {
+            return new IllegalArgumentException("Binary slime ends prematurely at position " + position);
+        }
+
+    }
+
+}
@@ -1,15 +1,17 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.tensor;
 
-import com.google.common.collect.ImmutableMap;
-
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.function.DoubleBinaryOperator;
 
 /**
- * A sparse implementation of a tensor backed by a Map of cells to values.
+ * A sparse implementation of a tensor backed by a compact index of the cell addresses
+ * and a primitive array of cell values.
  *
  * @author bratseth
  */
@@ -17,31 +19,58 @@ public class MappedTensor implements Tensor {
 
     private final TensorType type;
 
-    private final ImmutableMap<TensorAddress, Double> cells;
+    /** The addresses of the cells of this, where the index of each address is the index of its value */
+    private final SparseIndex index;
+
+    /** The cell values of this if the value type is float, or null otherwise */
+    private final float[] floatValues;
+
+    /** The cell values of this if the value type is not float, or null otherwise */
+    private final double[] doubleValues;
 
     /** Creates a sparse tensor. The cell addresses must match the type. */
-    private MappedTensor(TensorType type, Map<TensorAddress, Double> cells) {
+    private MappedTensor(TensorType type, SparseIndex index, float[] floatValues, double[] doubleValues) {
         this.type = type;
-        this.cells = ImmutableMap.copyOf(cells);
+        this.index = index;
+        this.floatValues = floatValues;
+        this.doubleValues = doubleValues;
     }
 
     @Override
     public TensorType type() { return type; }
 
     @Override
-    public long size() { return cells.size(); }
+    public long size() { return index.size(); }
 
     @Override
-    public double get(TensorAddress address) { return cells.getOrDefault(address, Double.NaN); }
+    public double get(TensorAddress address) {
+        int cellIndex = index.indexOf(address);
+        return cellIndex < 0 ? Double.NaN : value(cellIndex);
+    }
 
     @Override
-    public Iterator<Cell> cellIterator() { return new CellIteratorAdaptor(cells.entrySet().iterator()); }
+    public Iterator<Cell> cellIterator() {
+        return new IndexIterator<>() {
+            @Override
+            Cell get(int cellIndex) { return new Cell(index.address(cellIndex), value(cellIndex)); }
+        };
+    }
 
     @Override
-    public Iterator<Double> valueIterator() { return cells.values().iterator(); }
+    public Iterator<Double> valueIterator() {
+        return new IndexIterator<>() {
+            @Override
+            Double get(int cellIndex) { return value(cellIndex); }
+        };
+    }
 
+    /** Returns a lazy, immutable view of the cells of this */
     @Override
-    public Map<TensorAddress, Double> cells() { return cells; }
+    public Map<TensorAddress, Double> cells() { return new CellMap(); }
+
+    private double value(int cellIndex) {
+        return floatValues != null ? floatValues[cellIndex] : doubleValues[cellIndex];
+    }
 
     @Override
     public Tensor withType(TensorType other) {
@@ -49,7 +78,7 @@ public class MappedTensor implements Tensor {
             throw new IllegalArgumentException("MappedTensor.withType: types are not compatible. Current type: '" +
                     this.type.toString() + "', requested type: '" + type.toString() + "'");
         }
-        return new MappedTensor(other, cells);
+        return new MappedTensor(other, index, floatValues, doubleValues);
     }
 
     @Override
@@ -66,7 +95,7 @@ public class MappedTensor implements Tensor {
     }
 
     @Override
-    public int hashCode() { return cells.hashCode(); }
+    public int hashCode() { return cells().hashCode(); }
 
     @Override
     public String toString() { return Tensor.toStandardString(this); }
@@ -80,12 +109,19 @@ public class MappedTensor implements Tensor {
     public static class Builder implements Tensor.Builder {
 
         private final TensorType type;
-        private final ImmutableMap.Builder<TensorAddress, Double> cells = new ImmutableMap.Builder<>();
+        private final SparseIndex.Builder index;
+        private float[] floatValues = null;
+        private double[] doubleValues = null;
 
         public static Builder of(TensorType type) { return new Builder(type); }
 
         private Builder(TensorType type) {
             this.type = type;
+            this.index = new SparseIndex.Builder(type.rank());
+            if (type.valueType() == TensorType.Value.FLOAT)
+                floatValues = new float[16];
+            else
+                doubleValues = new double[16];
         }
 
         public CellBuilder cell() {
@@ -97,48 +133,123 @@ public class MappedTensor implements Tensor {
 
         @Override
         public Builder cell(TensorAddress address, float value) {
-            return cell(address, (double)value);
+            int cellIndex = addAddress(address);
+            if (floatValues != null)
+                ensureFloatCapacity(cellIndex)[cellIndex] = value;
+            else
+                ensureDoubleCapacity(cellIndex)[cellIndex] = value;
+            return this;
         }
 
         @Override
         public Builder cell(TensorAddress address, double value) {
-            cells.put(address, value);
+            int cellIndex = addAddress(address);
+            if (floatValues != null)
+                ensureFloatCapacity(cellIndex)[cellIndex] = (float)value;
+            else
+                ensureDoubleCapacity(cellIndex)[cellIndex] = value;
             return this;
         }
 
         @Override
         public Builder cell(float value, long... labels) {
-            return cell((double)value, labels);
+            return cell(TensorAddress.of(labels), value);
         }
 
         @Override
         public Builder cell(double value, long... labels) {
-            cells.put(TensorAddress.of(labels), value);
-            return this;
+            return cell(TensorAddress.of(labels), value);
         }
 
         @Override
         public MappedTensor build() {
-            return new MappedTensor(type, cells.build());
+            int size = index.size();
+            return new MappedTensor(type,
+                                    index.build(),
+                                    floatValues == null ? null : Arrays.copyOf(floatValues, size),
+                                    doubleValues == null ? null : Arrays.copyOf(doubleValues, size));
+        }
+
+        /**
+         * Adds a new address to the index of this.
+         *
+         * @return the index of the new cell
+         * @throws IllegalArgumentException if the address is already added to this
+         */
+        private int addAddress(TensorAddress address) {
+            int size = index.size();
+            int cellIndex = index.add(address);
+            if (cellIndex < size)
+                throw new IllegalArgumentException("Multiple values for " + address + " in " + type);
+            return cellIndex;
         }
 
+        private float[] ensureFloatCapacity(int cellIndex) {
+            if (cellIndex >= floatValues.length)
+                floatValues = Arrays.copyOf(floatValues, Math.max(cellIndex + 1, floatValues.length * 2));
+            return floatValues;
+        }
+
+        private double[] ensureDoubleCapacity(int cellIndex) {
+            if (cellIndex >= doubleValues.length)
+                doubleValues = Arrays.copyOf(doubleValues, Math.max(cellIndex + 1, doubleValues.length * 2));
+            return doubleValues;
+        }
+
+    }
+
+    /** An iterator over the cells of this, by increasing cell index */
+    private abstract class IndexIterator<T> implements Iterator<T> {
+
+        private int next = 0;
+
+        @Override
+        public boolean hasNext() { return next < index.size(); }
+
+        @Override
+        public T next() {
+            if ( ! hasNext()) throw new NoSuchElementException("No cell at index " + next + " in " + type);
+            return get(next++);
+        }
+
+        abstract T get(int cellIndex);
+
     }
 
-    private static class CellIteratorAdaptor implements Iterator<Cell> {
+    /** A map view of the cells of this */
+    private class CellMap extends AbstractMap<TensorAddress, Double> {
 
-        private final Iterator<Map.Entry<TensorAddress, Double>> adaptedIterator;
+        @Override
+        public int size() { return index.size(); }
 
-        private CellIteratorAdaptor(Iterator<Map.Entry<TensorAddress, Double>> adaptedIterator) {
-            this.adaptedIterator = adaptedIterator;
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof TensorAddress && index.indexOf((TensorAddress)key) >= 0;
         }
 
         @Override
-        public boolean hasNext() { return adaptedIterator.hasNext(); }
+        public Double get(Object key) {
+            if ( ! (key instanceof TensorAddress)) return null;
+            int cellIndex = index.indexOf((TensorAddress)key);
+            return cellIndex < 0 ? null : value(cellIndex);
+        }
 
         @Override
-        public Cell next() {
-            Map.Entry<TensorAddress, Double> entry = adaptedIterator.next();
-            return new Cell(entry.getKey(), entry.getValue());
+        public Set<Entry<TensorAddress, Double>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() { return index.size(); }
+
+                @Override
+                public Iterator<Entry<TensorAddress, Double>> iterator() {
+                    return new IndexIterator<>() {
+                        @Override
+                        Entry<TensorAddress, Double> get(int cellIndex) {
+                            return new Cell(index.address(cellIndex), value(cellIndex));
+                        }
+                    };
+                }
+            };
         }
 
     }
@@ -2,16 +2,18 @@
 
 package com.yahoo.tensor;
 
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
-
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.function.DoubleBinaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * A mixed tensor type. This is class is currently suitable for serialization
@@ -29,15 +31,15 @@ public class MixedTensor implements Tensor {
     /** The dimension specification for this tensor */
     private final TensorType type;
 
-    /** The list of cells in the tensor */
-    private final ImmutableList<Cell> cells;
+    /** The cell values of the tensor, one dense subspace after another */
+    private final double[] values;
 
-    /** An index structure over the cell list */
+    /** An index structure over the cell values */
     private final Index index;
 
-    private MixedTensor(TensorType type, ImmutableList<Cell> cells, Index index) {
+    private MixedTensor(TensorType type, double[] values, Index index) {
         this.type = type;
-        this.cells = ImmutableList.copyOf(cells);
+        this.values = values;
         this.index = index;
     }
 
@@ -47,7 +49,7 @@ public class MixedTensor implements Tensor {
 
     /** Returns the size of the tensor measured in number of cells */
     @Override
-    public long size() { return cells.size(); }
+    public long size() { return values.length; }
 
     /** Returns the value at the given address */
     @Override
@@ -55,10 +57,7 @@ public class MixedTensor implements Tensor {
         long cellIndex = index.indexOf(address);
         if (cellIndex < 0)
             return Double.NaN;
-        Cell cell = cells.get((int)cellIndex);
-        if ( ! address.equals(cell.getKey()))
-            return Double.NaN;
-        return cell.getValue();
+        return values[(int)cellIndex];
     }
 
     /**
@@ -70,7 +69,10 @@ public class MixedTensor implements Tensor {
      */
     @Override
     public Iterator<Cell> cellIterator() {
-        return cells.iterator();
+        return new IndexIterator<>() {
+            @Override
+            Cell get(int cellIndex) { return new Cell(index.addressOf(cellIndex), values[cellIndex]); }
+        };
     }
 
     /**
@@ -79,27 +81,15 @@ public class MixedTensor implements Tensor {
      */
     @Override
     public Iterator<Double> valueIterator() {
-        return new Iterator<>() {
-            Iterator<Cell> cellIterator = cellIterator();
-            @Override
-            public boolean hasNext() {
-                return cellIterator.hasNext();
-            }
+        return new IndexIterator<>() {
             @Override
-            public Double next() {
-                return cellIterator.next().getValue();
-            }
+            Double get(int cellIndex) { return values[cellIndex]; }
         };
     }
 
+    /** Returns a lazy, immutable view of the cells of this */
     @Override
-    public Map<TensorAddress, Double> cells() {
-        ImmutableMap.Builder<TensorAddress, Double> builder = new ImmutableMap.Builder<>();
-        for (Cell cell : cells) {
-            builder.put(cell.getKey(), cell.getValue());
-        }
-        return builder.build();
-    }
+    public Map<TensorAddress, Double> cells() { return new CellMap(); }
 
     @Override
     public Tensor withType(TensorType other) {
@@ -107,7 +97,7 @@ public class MixedTensor implements Tensor {
             throw new IllegalArgumentException("MixedTensor.withType: types are not compatible. Current type: '" +
                     this.type.toString() + "', requested type: '" + type.toString() + "'");
         }
-        return new MixedTensor(other, cells, index);
+        return new MixedTensor(other, values, index);
     }
 
     @Override
@@ -115,21 +105,19 @@ public class MixedTensor implements Tensor {
         Tensor.Builder builder = Tensor.Builder.of(type());
 
         // iterate through all sparse addresses referencing a dense subspace
-        for (Map.Entry<TensorAddress, Long> entry : index.sparseMap.entrySet()) {
-            TensorAddress sparsePartialAddress = entry.getKey();
+        for (int subspace = 0; subspace < index.sparseIndex.size(); subspace++) {
+            TensorAddress sparsePartialAddress = index.sparseIndex.address(subspace);
             if ( ! addresses.contains(sparsePartialAddress)) {  // assumption: addresses only contain the sparse part
-                long offset = entry.getValue();
-                for (int i = 0; i < index.denseSubspaceSize; ++i) {
-                    Cell cell = cells.get((int)offset + i);
-                    builder.cell(cell.getKey(), cell.getValue());
-                }
+                int offset = subspace * (int)index.denseSubspaceSize;
+                for (int i = 0; i < index.denseSubspaceSize; ++i)
+                    builder.cell(index.addressOf(offset + i), values[offset + i]);
             }
         }
         return builder.build();
     }
 
     @Override
-    public int hashCode() { return cells.hashCode(); }
+    public int hashCode() { return cells().hashCode(); }
 
     @Override
     public String toString() {
@@ -206,16 +194,16 @@ public class MixedTensor implements Tensor {
      */
     public static class BoundBuilder extends Builder {
 
-        /** For each sparse partial address, hold a dense subspace */
-        private final Map<TensorAddress, double[]> denseSubspaceMap = new HashMap<>();
-        private final Index.Builder indexBuilder;
+        /** The sparse partial addresses, where the index of each is the index of its dense subspace */
+        private final SparseIndex.Builder sparseIndexBuilder;
+        private final List<double[]> denseSubspaces = new ArrayList<>();
         private final Index index;
         private final TensorType denseSubtype;
 
         private BoundBuilder(TensorType type) {
             super(type);
-            indexBuilder = new Index.Builder(type);
-            index = indexBuilder.index();
+            index = new Index(type, null);
+            sparseIndexBuilder = new SparseIndex.Builder(index.mappedDimensions.size());
             denseSubtype = new TensorType(type.valueType(),
                                           type.dimensions().stream().filter(d -> d.isIndexed()).collect(Collectors.toList()));
         }
@@ -224,16 +212,20 @@ public class MixedTensor implements Tensor {
             return index.denseSubspaceSize();
         }
 
-        private double[] denseSubspace(TensorAddress sparseAddress) {
-            if (!denseSubspaceMap.containsKey(sparseAddress)) {
-                denseSubspaceMap.put(sparseAddress, new double[(int)denseSubspaceSize()]);
-            }
-            return denseSubspaceMap.get(sparseAddress);
+        /** Returns the dense subspace at the given index, creating it if necessary */
+        private double[] denseSubspace(int subspaceIndex) {
+            if (subspaceIndex == denseSubspaces.size())
+                denseSubspaces.add(new double[(int)denseSubspaceSize()]);
+            return denseSubspaces.get(subspaceIndex);
         }
 
         public IndexedTensor.DirectIndexBuilder denseSubspaceBuilder(TensorAddress sparseAddress) {
             double[] values = new double[(int)denseSubspaceSize()];
-            denseSubspaceMap.put(sparseAddress, values);
+            int subspaceIndex = sparseIndexBuilder.add(sparseAddress);
+            if (subspaceIndex == denseSubspaces.size())
+                denseSubspaces.add(values);
+            else
+                denseSubspaces.set(subspaceIndex, values);
             return new DenseSubspaceBuilder(denseSubtype, values);
         }
 
@@ -244,9 +236,12 @@ public class MixedTensor implements Tensor {
 
         @Override
         public Tensor.Builder cell(TensorAddress address, double value) {
-            TensorAddress sparsePart = index.sparsePartialAddress(address);
+            if (type.dimensions().size() != address.size())
+                throw new IllegalArgumentException("Tensor type of " + index + " is not the same size as " + address);
             long denseOffset = index.denseOffset(address);
-            double[] denseSubspace = denseSubspace(sparsePart);
+            if (denseOffset < 0)
+                throw index.outOfBounds(address);
+            double[] denseSubspace = denseSubspace(sparseIndexBuilder.add(address, index.mappedDimensionIndexes));
             denseSubspace[(int)denseOffset] = value;
             return this;
         }
@@ -256,29 +251,18 @@ public class MixedTensor implements Tensor {
             if (values.length < denseSubspaceSize)
                 throw new IllegalArgumentException("Block should have " + denseSubspaceSize +
                                                    " values, but has only " + values.length);
-            double[] denseSubspace = denseSubspace(sparsePart);
+            double[] denseSubspace = denseSubspace(sparseIndexBuilder.add(sparsePart));
             System.arraycopy(values, 0, denseSubspace, 0, denseSubspaceSize);
             return this;
         }
 
         @Override
         public MixedTensor build() {
-            long count = 0;
-            ImmutableList.Builder<Cell> builder = new ImmutableList.Builder<>();
-
-            for (Map.Entry<TensorAddress, double[]> entry : denseSubspaceMap.entrySet()) {
-                TensorAddress sparsePart = entry.getKey();
-                indexBuilder.put(sparsePart, count);
-
-                double[] denseSubspace = entry.getValue();
-                for (long offset = 0; offset < denseSubspace.length; ++offset) {
-                    TensorAddress cellAddress = index.addressOf(sparsePart, offset);
-                    double value = denseSubspace[(int)offset];
-                    builder.add(new Cell(cellAddress, value));
-                    count++;
-                }
-            }
-            return new MixedTensor(type, builder.build(), indexBuilder.build());
+            int denseSubspaceSize = (int)denseSubspaceSize();
+            double[] values = new double[denseSubspaces.size() * denseSubspaceSize];
+            for (int i = 0; i < denseSubspaces.size(); i++)
+                System.arraycopy(denseSubspaces.get(i), 0, values, i * denseSubspaceSize, denseSubspaceSize);
+            return new MixedTensor(type, values, new Index(type, sparseIndexBuilder.build()));
         }
 
     }
@@ -350,7 +334,7 @@ public class MixedTensor implements Tensor {
     }
 
     /**
-     * An immutable index into a list of cells.
+     * An immutable index into the cell values.
      * Contains additional information required
      * for handling mixed tensor addresses.
      * Assumes indexed dimensions are bound.
@@ -358,82 +342,58 @@ public class MixedTensor implements Tensor {
     private static class Index {
 
         private final TensorType type;
-        private final TensorType sparseType;
         private final TensorType denseType;
         private final List<TensorType.Dimension> mappedDimensions;
         private final List<TensorType.Dimension> indexedDimensions;
 
-        private ImmutableMap<TensorAddress, Long> sparseMap;
-        private long denseSubspaceSize = -1;
+        /** The index in the type of each mapped dimension */
+        private final int[] mappedDimensionIndexes;
 
-        private Index(TensorType type) {
+        /** The index of each sparse partial address, or null if this is only used to compute addresses */
+        private final SparseIndex sparseIndex;
+        private final long denseSubspaceSize;
+
+        private Index(TensorType type, SparseIndex sparseIndex) {
             this.type = type;
             this.mappedDimensions = type.dimensions().stream().filter(d -> !d.isIndexed()).collect(Collectors.toList());
             this.indexedDimensions = type.dimensions().stream().filter(d -> d.isIndexed()).collect(Collectors.toList());
-            this.sparseType = createPartialType(type.valueType(), mappedDimensions);
+            this.mappedDimensionIndexes = IntStream.range(0, type.dimensions().size())
+                                                   .filter(i -> ! type.dimensions().get(i).isIndexed())
+                                                   .toArray();
             this.denseType = createPartialType(type.valueType(), indexedDimensions);
+            this.sparseIndex = sparseIndex;
+            this.denseSubspaceSize = computeDenseSubspaceSize(type);
         }
 
         /** Returns the index of the given address, or -1 if it is not present */
         public long indexOf(TensorAddress address) {
-            TensorAddress sparsePart = sparsePartialAddress(address);
-            if ( ! sparseMap.containsKey(sparsePart))
+            if (type.dimensions().size() != address.size())
+                throw new IllegalArgumentException("Tensor type of " + this + " is not the same size as " + address);
+            int subspaceIndex = sparseIndex.indexOf(address, mappedDimensionIndexes);
+            if (subspaceIndex < 0)
                 return -1;
-            long base = sparseMap.get(sparsePart);
             long offset = denseOffset(address);
-            return base + offset;
-        }
-
-        public static class Builder {
-
-            private final Index index;
-            private final ImmutableMap.Builder<TensorAddress, Long> builder;
-
-            public Builder(TensorType type) {
-                index = new Index(type);
-                builder = new ImmutableMap.Builder<>();
-            }
-
-            public void put(TensorAddress address, long index) {
-                builder.put(address, index);
-            }
-
-            public Index build() {
-                index.sparseMap = builder.build();
-                return index;
-            }
-
-            public Index index() {
-                return index;
-            }
+            if (offset < 0)
+                return -1;
+            return subspaceIndex * denseSubspaceSize + offset;
         }
 
         public long denseSubspaceSize() {
-            if (denseSubspaceSize == -1) {
-                denseSubspaceSize = 1;
-                for (int i = 0; i < type.dimensions().size(); ++i) {
-                    TensorType.Dimension dimension = type.dimensions().get(i);
-                    if (dimension.isIndexed()) {
-                        denseSubspaceSize *= dimension.size().orElseThrow(() ->
-                                new IllegalArgumentException("Unknown size of indexed dimension"));
-                    }
-                }
-            }
             return denseSubspaceSize;
         }
 
-        private TensorAddress sparsePartialAddress(TensorAddress address) {
-            if (type.dimensions().size() != address.size())
-                throw new IllegalArgumentException("Tensor type of " + this + " is not the same size as " + address);
-            TensorAddress.Builder builder = new TensorAddress.Builder(sparseType);
-            for (int i = 0; i < type.dimensions().size(); ++i) {
-                TensorType.Dimension dimension = type.dimensions().get(i);
-                if ( ! dimension.isIndexed())
-                    builder.add(dimension.name(), address.label(i));
+        private static long computeDenseSubspaceSize(TensorType type) {
+            long denseSubspaceSize = 1;
+            for (TensorType.Dimension dimension : type.dimensions()) {
+                if (dimension.isIndexed()) {
+                    denseSubspaceSize *= dimension.size().orElseThrow(() ->
+                            new IllegalArgumentException("Unknown size of indexed dimension"));
+                }
             }
-            return builder.build();
+            return denseSubspaceSize;
         }
 
+        /** Returns the offset of the given address in its dense subspace, or -1 if it is out of bounds */
         private long denseOffset(TensorAddress address) {
             long innerSize = 1;
             long offset = 0;
@@ -441,47 +401,46 @@ public class MixedTensor implements Tensor {
                 TensorType.Dimension dimension = type.dimensions().get(i);
                 if (dimension.isIndexed()) {
                     long label = address.numericLabel(i);
-                    offset += label * innerSize;
-                    innerSize *= dimension.size().orElseThrow(() ->
+                    long size = dimension.size().orElseThrow(() ->
                             new IllegalArgumentException("Unknown size of indexed dimension."));
+                    if (label < 0 || label >= size)
+                        return -1;
+                    offset += label * innerSize;
+                    innerSize *= size;
                 }
             }
             return offset;
         }
 
-        private TensorAddress denseOffsetToAddress(long denseOffset) {
-            if (denseOffset < 0 || denseOffset > denseSubspaceSize) {
-                throw new IllegalArgumentException("Offset out of bounds");
-            }
-
-            long restSize = denseOffset;
-            long innerSize = denseSubspaceSize;
-            long[] labels = new long[indexedDimensions.size()];
-
-            for (int i = 0; i < labels.length; ++i) {
-                TensorType.Dimension dimension = indexedDimensions.get(i);
-                long dimensionSize = dimension.size().orElseThrow(() ->
-                        new IllegalArgumentException("Unknown size of indexed dimension."));
-
-                innerSize /= dimensionSize;
-                labels[i] = restSize / innerSize;
-                restSize %= innerSize;
+        /** Returns the exception to throw for an address having an indexed label which is out of bounds */
+        private IndexOutOfBoundsException outOfBounds(TensorAddress address) {
+            for (int i = 0; i < type.dimensions().size(); i++) {
+                TensorType.Dimension dimension = type.dimensions().get(i);
+                if ( ! dimension.isIndexed()) continue;
+                long label = address.numericLabel(i);
+                long size = dimension.size().get();
+                if (label < 0 || label >= size)
+                    return new IndexOutOfBoundsException("Index " + label + " out of bounds for length " + size);
             }
-            return TensorAddress.of(labels);
+            return new IndexOutOfBoundsException(address + " is out of bounds in " + type);
         }
 
-        private TensorAddress addressOf(TensorAddress sparsePart, long denseOffset) {
-            TensorAddress densePart = denseOffsetToAddress(denseOffset);
+        /** Returns the address of the cell at the given index */
+        private TensorAddress addressOf(int cellIndex) {
+            int subspaceIndex = (int)(cellIndex / denseSubspaceSize);
+            long restSize = cellIndex % denseSubspaceSize;
+            long innerSize = denseSubspaceSize;
             String[] labels = new String[type.dimensions().size()];
             int mappedIndex = 0;
-            int indexedIndex = 0;
-            for (TensorType.Dimension d : type.dimensions()) {
-                if (d.isIndexed()) {
-                    labels[mappedIndex + indexedIndex] = densePart.label(indexedIndex);
-                    indexedIndex++;
-                } else {
-                    labels[mappedIndex + indexedIndex] = sparsePart.label(mappedIndex);
-                    mappedIndex++;
+            for (int i = 0; i < labels.length; i++) {
+                TensorType.Dimension dimension = type.dimensions().get(i);
+                if (dimension.isIndexed()) {
+                    innerSize /= dimension.size().get();
+                    labels[i] = String.valueOf(restSize / innerSize);
+                    restSize %= innerSize;
+                }
+                else {
+                    labels[i] = sparseIndex.label(subspaceIndex, mappedIndex++);
                 }
             }
             return TensorAddress.of(labels);
@@ -502,12 +461,15 @@ public class MixedTensor implements Tensor {
 
             // Exactly 1 mapped dimension
             StringBuilder b = new StringBuilder("{");
-            sparseMap.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
-                b.append(TensorAddress.labelToString(entry.getKey().label(0 )));
-                b.append(":");
-                denseSubspaceToString(tensor, entry.getValue(), b);
-                b.append(",");
-            });
+            IntStream.range(0, sparseIndex.size())
+                     .boxed()
+                     .sorted(Comparator.comparing(subspaceIndex -> sparseIndex.label(subspaceIndex, 0)))
+                     .forEach(subspaceIndex -> {
+                         b.append(TensorAddress.labelToString(sparseIndex.label(subspaceIndex, 0)));
+                         b.append(":");
+                         denseSubspaceToString(tensor, subspaceIndex * denseSubspaceSize, b);
+                         b.append(",");
+                     });
             if (b.length() > 1)
                 b.setLength(b.length() - 1);
             b.append("}");
@@ -545,7 +507,67 @@ public class MixedTensor implements Tensor {
         }
 
         private double getDouble(long indexedSubspaceIndex, long indexInIndexedSubspace, MixedTensor tensor) {
-            return tensor.cells.get((int)(indexedSubspaceIndex + indexInIndexedSubspace)).getDoubleValue();
+            return tensor.values[(int)(indexedSubspaceIndex + indexInIndexedSubspace)];
+        }
+
+    }
+
+    /** An iterator over the cells of this, by increasing cell index */
+    private abstract class IndexIterator<T> implements Iterator<T> {
+
+        private int next = 0;
+
+        @Override
+        public boolean hasNext() { return next < values.length; }
+
+        @Override
+        public T next() {
+            if ( ! hasNext()) throw new NoSuchElementException("No cell at index " + next + " in " + type);
+            return get(next++);
+        }
+
+        abstract T get(int cellIndex);
+
+    }
+
+    /** A map view of the cells of this */
+    private class CellMap extends AbstractMap<TensorAddress, Double> {
+
+        @Override
+        public int size() { return values.length; }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof TensorAddress && indexOf((TensorAddress)key) >= 0;
+        }
+
+        @Override
+        public Double get(Object key) {
+            if ( ! (key instanceof TensorAddress)) return null;
+            long cellIndex = indexOf((TensorAddress)key);
+            return cellIndex < 0 ? null : values[(int)cellIndex];
+        }
+
+        private long indexOf(TensorAddress address) {
+            return address.size() == type.rank() ? index.indexOf(address) : -1;
+        }
+
+        @Override
+        public Set<Entry<TensorAddress, Double>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() { return values.length; }
+
+                @Override
+                public Iterator<Entry<TensorAddress, Double>> iterator() {
+                    return new IndexIterator<>() {
+                        @Override
+                        Entry<TensorAddress, Double> get(int cellIndex) {
+                            return new Cell(index.addressOf(cellIndex), values[cellIndex]);
+                        }
+                    };
+                }
+            };
         }
 
     }
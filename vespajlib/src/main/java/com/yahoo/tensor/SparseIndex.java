@@ -0,0 +1,268 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable index of sparse addresses of a fixed size, assigning each address
+ * a consecutive integer in insertion order.
+ *
+ * Labels are interned to int ids, and each address is stored as a tuple of label ids in a single int array,
+ * which is indexed by a primitive open addressing hash table. Hence, no objects are held per address.
+ */
+final class SparseIndex {
+
+    /** The number of labels in each address */
+    private final int rank;
+
+    /** The number of addresses in this */
+    private final int size;
+
+    /** The label of each label id */
+    private final String[] labels;
+
+    /** The id of each label */
+    private final Map<String, Integer> labelIds;
+
+    /** The label ids of each address, rank ids per address */
+    private final int[] addressLabels;
+
+    /** Hash slots containing address index + 1, or 0 if the slot is empty. The length is a power of 2. */
+    private final int[] slots;
+
+    private SparseIndex(int rank, int size, String[] labels, Map<String, Integer> labelIds, int[] addressLabels, int[] slots) {
+        this.rank = rank;
+        this.size = size;
+        this.labels = labels;
+        this.labelIds = labelIds;
+        this.addressLabels = addressLabels;
+        this.slots = slots;
+    }
+
+    /** Returns the number of addresses in this */
+    public int size() { return size; }
+
+    /** Returns the number of labels in each address of this */
+    public int rank() { return rank; }
+
+    /** Returns the index of the given address, or -1 if it is not present */
+    public int indexOf(TensorAddress address) {
+        if (address.size() != rank) return -1;
+        if (address instanceof IndexedAddress && ((IndexedAddress)address).owner() == this)
+            return ((IndexedAddress)address).index;
+        return indexOf(address, null);
+    }
+
+    /**
+     * Returns the index of the address made up of the given labels of an address, or -1 if it is not present
+     *
+     * @param address the address containing the labels to look up
+     * @param dimensions the index in the given address of each label of an address in this,
+     *                   or null if they are the same
+     */
+    public int indexOf(TensorAddress address, int[] dimensions) {
+        int[] ids = new int[rank];
+        for (int i = 0; i < rank; i++) {
+            Integer id = labelIds.get(address.label(dimensions == null ? i : dimensions[i]));
+            if (id == null) return -1;
+            ids[i] = id;
+        }
+        return find(slots, addressLabels, rank, ids);
+    }
+
+    /** Returns the label in the given dimension of the address at the given index */
+    public String label(int index, int dimension) {
+        return labels[addressLabels[index * rank + dimension]];
+    }
+
+    /** Returns the address at the given index. This is a view which does not copy the labels of the address. */
+    public TensorAddress address(int index) {
+        return new IndexedAddress(index);
+    }
+
+    /** Returns the index of the address having the given label ids, or -1 if it is not present */
+    private static int find(int[] slots, int[] addressLabels, int rank, int[] ids) {
+        int mask = slots.length - 1;
+        for (int slot = hash(ids) & mask; ; slot = (slot + 1) & mask) {
+            int index = slots[slot] - 1;
+            if (index < 0) return -1;
+            if (equals(addressLabels, index * rank, ids)) return index;
+        }
+    }
+
+    private static boolean equals(int[] addressLabels, int offset, int[] ids) {
+        for (int i = 0; i < ids.length; i++)
+            if (addressLabels[offset + i] != ids[i]) return false;
+        return true;
+    }
+
+    private static int hash(int[] ids) {
+        return hash(ids, 0, ids.length);
+    }
+
+    private static int hash(int[] ids, int offset, int length) {
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++)
+            hash = 31 * hash + ids[i];
+        hash *= 0x9E3779B9; // spread to the low bits we mask on
+        return hash ^ (hash >>> 16);
+    }
+
+    /** An address backed by the label ids of an address in this */
+    private final class IndexedAddress extends TensorAddress {
+
+        private final int index;
+
+        private IndexedAddress(int index) {
+            this.index = index;
+        }
+
+        private SparseIndex owner() { return SparseIndex.this; }
+
+        @Override
+        public int size() { return rank; }
+
+        @Override
+        public String label(int i) {
+            if (i < 0 || i >= rank)
+                throw new IllegalArgumentException("No label at position " + i + " in " + this);
+            return SparseIndex.this.label(index, i);
+        }
+
+        @Override
+        public long numericLabel(int i) {
+            try {
+                return Long.parseLong(label(i));
+            }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Expected an integer label in " + this + " at position " + i + " but got '" + label(i) + "'");
+            }
+        }
+
+        @Override
+        public TensorAddress withLabel(int labelIndex, long label) {
+            String[] labels = new String[rank];
+            for (int i = 0; i < rank; i++)
+                labels[i] = label(i);
+            labels[labelIndex] = String.valueOf(label);
+            return TensorAddress.of(labels);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder b = new StringBuilder("cell address (");
+            for (int i = 0; i < rank; i++)
+                b.append(i > 0 ? "," : "").append(label(i));
+            return b.append(")").toString();
+        }
+
+    }
+
+    /** A builder of sparse indexes. This is not thread safe. */
+    static final class Builder {
+
+        private final int rank;
+        private final List<String> labels = new ArrayList<>();
+        private final Map<String, Integer> labelIds = new HashMap<>();
+        private final int[] ids;
+
+        private int size = 0;
+        private int[] addressLabels;
+        private int[] slots;
+
+        Builder(int rank) {
+            this(rank, 16);
+        }
+
+        /** Creates a builder with room for the given number of addresses before resizing */
+        Builder(int rank, int expectedSize) {
+            this.rank = rank;
+            this.ids = new int[rank];
+            this.addressLabels = new int[Math.max(1, expectedSize) * rank];
+            this.slots = new int[slotsFor(expectedSize)];
+        }
+
+        /** Returns the number of addresses added to this */
+        int size() { return size; }
+
+        /**
+         * Adds an address to this unless it is already present.
+         *
+         * @return the index of the given address
+         * @throws IllegalArgumentException if the address does not have the rank of this
+         */
+        int add(TensorAddress address) {
+            if (address.size() != rank)
+                throw new IllegalArgumentException("Expected an address with " + rank + " labels, but got " + address);
+            return add(address, null);
+        }
+
+        /**
+         * Adds the address made up of the given labels of an address to this unless it is already present.
+         *
+         * @param address the address containing the labels to add
+         * @param dimensions the index in the given address of each label of an address in this,
+         *                   or null if they are the same
+         * @return the index of the added address
+         */
+        int add(TensorAddress address, int[] dimensions) {
+            for (int i = 0; i < rank; i++)
+                ids[i] = labelId(address.label(dimensions == null ? i : dimensions[i]));
+            int index = find(slots, addressLabels, rank, ids);
+            if (index >= 0) return index;
+
+            if (slotsFor(size + 1) > slots.length)
+                rehash(slotsFor(size + 1));
+            if ((size + 1) * rank > addressLabels.length)
+                addressLabels = Arrays.copyOf(addressLabels, addressLabels.length * 2);
+            System.arraycopy(ids, 0, addressLabels, size * rank, rank);
+            insert(slots, hash(ids), size);
+            return size++;
+        }
+
+        SparseIndex build() {
+            return new SparseIndex(rank,
+                                   size,
+                                   labels.toArray(new String[0]),
+                                   new HashMap<>(labelIds),
+                                   Arrays.copyOf(addressLabels, size * rank),
+                                   Arrays.copyOf(slots, slots.length));
+        }
+
+        private int labelId(String label) {
+            Integer id = labelIds.get(label);
+            if (id != null) return id;
+            labelIds.put(label, labels.size());
+            labels.add(label);
+            return labels.size() - 1;
+        }
+
+        private void rehash(int slotCount) {
+            slots = new int[slotCount];
+            for (int index = 0; index < size; index++)
+                insert(slots, hash(addressLabels, index * rank, rank), index);
+        }
+
+        private static void insert(int[] slots, int hash, int index) {
+            int mask = slots.length - 1;
+            int slot = hash & mask;
+            while (slots[slot] != 0)
+                slot = (slot + 1) & mask;
+            slots[slot] = index + 1;
+        }
+
+        /** Returns the number of slots to use for the given number of addresses, keeping the load factor below 0.5 */
+        private static int slotsFor(int addressCount) {
+            int slots = 16;
+            while (slots < addressCount * 2)
+                slots <<= 1;
+            return slots;
+        }
+
+    }
+
+}
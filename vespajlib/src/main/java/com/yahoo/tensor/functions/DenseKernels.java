@@ -0,0 +1,284 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.functions;
+
+import com.yahoo.tensor.DimensionSizes;
+import com.yahoo.tensor.IndexedTensor;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Evaluation of common tensor functions over dense tensors, working directly on the value indexes
+ * of the arguments instead of iterating over cells.
+ *
+ * Values are read through {@link IndexedTensor#get(long)}, not from the arrays holding them, so the loops
+ * are not vectorized. They avoid the addresses and boxed values of iterating over cells, and the combinators
+ * used by the common arithmetic operations have dedicated loops instead of calling the combinator for each cell.
+ */
+class DenseKernels {
+
+    private DenseKernels() {}
+
+    /** Returns whether the two tensors are indexed and have the same dimensions with the same sizes */
+    static boolean isSameShape(Tensor a, Tensor b) {
+        if ( ! (a instanceof IndexedTensor) || ! (b instanceof IndexedTensor)) return false;
+        if ( ! a.type().dimensionNames().equals(b.type().dimensionNames())) return false;
+        return ((IndexedTensor)a).dimensionSizes().equals(((IndexedTensor)b).dimensionSizes());
+    }
+
+    /** Joins two tensors of the same shape, see {@link #isSameShape} */
+    static Tensor join(IndexedTensor a, IndexedTensor b, TensorType joinedType, DoubleBinaryOperator combinator) {
+        double[] values = new double[(int)a.size()];
+        join(a, 0, b, 0, values, 0, values.length, combinator);
+        return IndexedTensor.Builder.of(joinedType, a.dimensionSizes(), values).build();
+    }
+
+    /** Combines length values of a and b, starting at the given value indexes, into result */
+    private static void join(IndexedTensor a, int aStart, IndexedTensor b, int bStart, double[] result, int resultStart,
+                             int length, DoubleBinaryOperator combinator) {
+        if (combinator instanceof ScalarFunctions.Multiply) {
+            for (int i = 0; i < length; i++)
+                result[resultStart + i] = a.get(aStart + i) * b.get(bStart + i);
+        }
+        else if (combinator instanceof ScalarFunctions.Add) {
+            for (int i = 0; i < length; i++)
+                result[resultStart + i] = a.get(aStart + i) + b.get(bStart + i);
+        }
+        else if (combinator instanceof ScalarFunctions.Subtract) {
+            for (int i = 0; i < length; i++)
+                result[resultStart + i] = a.get(aStart + i) - b.get(bStart + i);
+        }
+        else if (combinator instanceof ScalarFunctions.Divide) {
+            for (int i = 0; i < length; i++)
+                result[resultStart + i] = a.get(aStart + i) / b.get(bStart + i);
+        }
+        else {
+            for (int i = 0; i < length; i++)
+                result[resultStart + i] = combinator.applyAsDouble(a.get(aStart + i), b.get(bStart + i));
+        }
+    }
+
+    /** Combines length values of a, starting at the given value index, with a single value into result */
+    private static void join(IndexedTensor a, int start, double b, double[] result, int length,
+                             boolean reversedArgumentOrder, DoubleBinaryOperator combinator) {
+        if (combinator instanceof ScalarFunctions.Multiply) {
+            for (int i = start; i < start + length; i++)
+                result[i] = a.get(i) * b;
+        }
+        else if (combinator instanceof ScalarFunctions.Add) {
+            for (int i = start; i < start + length; i++)
+                result[i] = a.get(i) + b;
+        }
+        else if (reversedArgumentOrder) {
+            for (int i = start; i < start + length; i++)
+                result[i] = combinator.applyAsDouble(a.get(i), b);
+        }
+        else {
+            for (int i = start; i < start + length; i++)
+                result[i] = combinator.applyAsDouble(b, a.get(i));
+        }
+    }
+
+    /**
+     * Returns the index of the first dimension of the subspace in the superspace if the dimensions of the subspace
+     * are consecutive dimensions in the superspace having the same sizes, and -1 otherwise.
+     */
+    static int broadcastOffset(IndexedTensor subspace, IndexedTensor superspace) {
+        List<TensorType.Dimension> subDimensions = subspace.type().dimensions();
+        List<TensorType.Dimension> superDimensions = superspace.type().dimensions();
+        if (subDimensions.isEmpty()) return -1;
+        int offset = superspace.type().indexOfDimension(subDimensions.get(0).name()).orElse(-1);
+        if (offset < 0 || offset + subDimensions.size() > superDimensions.size()) return -1;
+        for (int i = 0; i < subDimensions.size(); i++) {
+            if ( ! subDimensions.get(i).name().equals(superDimensions.get(offset + i).name())) return -1;
+            if (subspace.dimensionSizes().size(i) != superspace.dimensionSizes().size(offset + i)) return -1;
+        }
+        return offset;
+    }
+
+    /**
+     * Joins a tensor into a superspace containing its dimensions consecutively,
+     * by repeating the subspace for each combination of the other dimensions of the superspace.
+     *
+     * @param offset the index of the first subspace dimension in the superspace, see {@link #broadcastOffset}
+     */
+    static Tensor broadcastJoin(IndexedTensor subspace, IndexedTensor superspace, int offset, TensorType joinedType,
+                                boolean reversedArgumentOrder, DoubleBinaryOperator combinator) {
+        DimensionSizes sizes = superspace.dimensionSizes();
+        int outerSize = 1;
+        for (int i = 0; i < offset; i++)
+            outerSize *= sizes.size(i);
+        int subspaceSize = (int)subspace.size();
+        int innerSize = 1;
+        for (int i = offset + subspace.type().dimensions().size(); i < sizes.dimensions(); i++)
+            innerSize *= sizes.size(i);
+
+        double[] values = new double[(int)superspace.size()];
+        for (int outer = 0; outer < outerSize; outer++) {
+            int start = outer * subspaceSize * innerSize;
+            if (innerSize == 1) { // combine the subspace with each consecutive range of the superspace
+                if (reversedArgumentOrder)
+                    join(superspace, start, subspace, 0, values, start, subspaceSize, combinator);
+                else
+                    join(subspace, 0, superspace, start, values, start, subspaceSize, combinator);
+            }
+            else { // combine each subspace value with a consecutive range of the superspace
+                for (int j = 0; j < subspaceSize; j++)
+                    join(superspace, start + j * innerSize, subspace.get(j), values, innerSize, reversedArgumentOrder, combinator);
+            }
+        }
+        return IndexedTensor.Builder.of(joinedType, sizes, values).build();
+    }
+
+    /** Returns whether the given aggregator can be used in {@link #reduce} */
+    static boolean canReduce(Tensor argument, Reduce.Aggregator aggregator) {
+        return argument instanceof IndexedTensor && aggregator != Reduce.Aggregator.median;
+    }
+
+    /** Reduces all the values of a tensor to a single value */
+    static double reduceAll(IndexedTensor argument, Reduce.Aggregator aggregator) {
+        double[] result = new double[1];
+        reduce(argument, 1, (int)argument.size(), 1, aggregator, result);
+        return result[0];
+    }
+
+    /** Reduces a single dimension of a tensor */
+    static Tensor reduce(IndexedTensor argument, String dimension, TensorType reducedType, Reduce.Aggregator aggregator) {
+        int dimensionIndex = argument.type().indexOfDimension(dimension).get();
+        DimensionSizes sizes = argument.dimensionSizes();
+        DimensionSizes.Builder reducedSizes = new DimensionSizes.Builder(sizes.dimensions() - 1);
+        int outerSize = 1;
+        int innerSize = 1;
+        for (int i = 0; i < sizes.dimensions(); i++) {
+            if (i < dimensionIndex) {
+                outerSize *= sizes.size(i);
+                reducedSizes.set(i, sizes.size(i));
+            }
+            else if (i > dimensionIndex) {
+                innerSize *= sizes.size(i);
+                reducedSizes.set(i - 1, sizes.size(i));
+            }
+        }
+        double[] values = new double[outerSize * innerSize];
+        reduce(argument, outerSize, (int)sizes.size(dimensionIndex), innerSize, aggregator, values);
+        return IndexedTensor.Builder.of(reducedType, reducedSizes.build(), values).build();
+    }
+
+    /**
+     * Reduces the values of the argument, seen as an outerSize x reduceSize x innerSize tensor, over the middle
+     * dimension into result, seen as an outerSize x innerSize tensor.
+     * The values visited for each result value are aggregated in the same order as by
+     * the aggregators of {@link Reduce}, so the results are the same.
+     */
+    private static void reduce(IndexedTensor argument, int outerSize, int reduceSize, int innerSize,
+                               Reduce.Aggregator aggregator, double[] result) {
+        switch (aggregator) {
+            case avg:
+                reduce(argument, outerSize, reduceSize, innerSize, Reduce.Aggregator.sum, result);
+                for (int i = 0; i < result.length; i++)
+                    result[i] /= reduceSize;
+                return;
+            case count:
+                Arrays.fill(result, reduceSize);
+                return;
+        }
+
+        for (int outer = 0; outer < outerSize; outer++) {
+            int start = outer * reduceSize * innerSize;
+            if (innerSize == 1) { // reduce a consecutive range
+                result[outer] = reduce(argument, start, reduceSize, aggregator);
+            }
+            else { // reduce consecutive ranges into consecutive result values
+                int resultStart = outer * innerSize;
+                Arrays.fill(result, resultStart, resultStart + innerSize, identity(aggregator));
+                for (int k = 0; k < reduceSize; k++)
+                    reduce(argument, start + k * innerSize, result, resultStart, innerSize, aggregator);
+            }
+        }
+    }
+
+    /** Returns the initial value of the aggregator, which is the same as in the aggregators of {@link Reduce} */
+    private static double identity(Reduce.Aggregator aggregator) {
+        switch (aggregator) {
+            case max: return Double.MIN_VALUE;
+            case min: return Double.MAX_VALUE;
+            case prod: return 1.0;
+            case sum: return 0.0;
+            default: throw new IllegalArgumentException("Aggregator " + aggregator + " is not supported by dense reduce");
+        }
+    }
+
+    /** Returns the aggregate of length values starting at the given value index */
+    private static double reduce(IndexedTensor argument, int start, int length, Reduce.Aggregator aggregator) {
+        double result = identity(aggregator);
+        switch (aggregator) {
+            case max:
+                for (int i = start; i < start + length; i++) {
+                    double value = argument.get(i);
+                    if (value > result)
+                        result = value;
+                }
+                return result;
+            case min:
+                for (int i = start; i < start + length; i++) {
+                    double value = argument.get(i);
+                    if (value < result)
+                        result = value;
+                }
+                return result;
+            case prod:
+                for (int i = start; i < start + length; i++)
+                    result *= argument.get(i);
+                return result;
+            case sum:
+                for (int i = start; i < start + length; i++)
+                    result += argument.get(i);
+                return result;
+            default:
+                throw new IllegalArgumentException("Aggregator " + aggregator + " is not supported by dense reduce");
+        }
+    }
+
+    /** Aggregates length values starting at the given value index into the length values of result starting at resultStart */
+    private static void reduce(IndexedTensor argument, int start, double[] result, int resultStart, int length,
+                               Reduce.Aggregator aggregator) {
+        switch (aggregator) {
+            case max:
+                for (int i = 0; i < length; i++) {
+                    double value = argument.get(start + i);
+                    if (value > result[resultStart + i])
+                        result[resultStart + i] = value;
+                }
+                return;
+            case min:
+                for (int i = 0; i < length; i++) {
+                    double value = argument.get(start + i);
+                    if (value < result[resultStart + i])
+                        result[resultStart + i] = value;
+                }
+                return;
+            case prod:
+                for (int i = 0; i < length; i++)
+                    result[resultStart + i] *= argument.get(start + i);
+                return;
+            case sum:
+                for (int i = 0; i < length; i++)
+                    result[resultStart + i] += argument.get(start + i);
+                return;
+            default:
+                throw new IllegalArgumentException("Aggregator " + aggregator + " is not supported by dense reduce");
+        }
+    }
+
+    /** Returns the sum of the products of length values in a and b, starting at the given value indexes */
+    static double dotProduct(IndexedTensor a, long aStart, IndexedTensor b, long bStart, long length) {
+        double sum = 0;
+        for (int i = 0; i < length; i++)
+            sum += a.get(aStart + i) * b.get(bStart + i);
+        return sum;
+    }
+
+}
@@ -2,7 +2,10 @@
 package com.yahoo.tensor.functions;
 
 import com.google.common.collect.ImmutableList;
+import com.yahoo.tensor.IndexedTensor;
+import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorType;
+import com.yahoo.tensor.evaluation.EvaluationContext;
 import com.yahoo.tensor.evaluation.Name;
 
 import java.util.List;
@@ -44,6 +47,20 @@ public class Matmul<NAMETYPE extends Name> extends CompositeTensorFunction<NAMET
                             dimension);
     }
 
+    /** Evaluates this as a reduce-join when both arguments are dense and contain the dimension */
+    @Override
+    public Tensor evaluate(EvaluationContext<NAMETYPE> context) {
+        Tensor a = argument1.evaluate(context);
+        Tensor b = argument2.evaluate(context);
+        TensorType joinedType = Join.outputType(a.type(), b.type());
+        ReduceJoin<NAMETYPE> reduceJoin = new ReduceJoin<>(argument1, argument2, ScalarFunctions.multiply(),
+                                                           Reduce.Aggregator.sum, List.of(dimension));
+        if (a.type().dimensionNames().contains(dimension) && b.type().dimensionNames().contains(dimension)
+            && reduceJoin.canOptimize(a, b))
+            return reduceJoin.evaluate((IndexedTensor)a, (IndexedTensor)b, joinedType);
+        return Reduce.evaluate(Join.evaluate(a, b, joinedType, ScalarFunctions.multiply()), List.of(dimension), Reduce.Aggregator.sum);
+    }
+
     @Override
     public String toString(ToStringContext context) {
         return "matmul(" + argument1.toString(context) + ", " + argument2.toString(context) + ", " + dimension + ")";
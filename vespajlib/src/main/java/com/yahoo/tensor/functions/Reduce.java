@@ -128,13 +128,18 @@ public class Reduce<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMET
 
         // Special case: Reduce all
         if (dimensions.isEmpty() || dimensions.size() == argument.type().dimensions().size())
-            if (argument.type().dimensions().size() == 1 && argument instanceof IndexedTensor)
+            if (DenseKernels.canReduce(argument, aggregator))
+                return Tensor.Builder.of(TensorType.empty).cell(DenseKernels.reduceAll((IndexedTensor)argument, aggregator)).build();
+            else if (argument.type().dimensions().size() == 1 && argument instanceof IndexedTensor)
                 return reduceIndexedVector((IndexedTensor)argument, aggregator);
             else
                 return reduceAllGeneral(argument, aggregator);
 
         TensorType reducedType = type(argument.type(), dimensions);
 
+        if (dimensions.size() == 1 && DenseKernels.canReduce(argument, aggregator))
+            return DenseKernels.reduce((IndexedTensor)argument, dimensions.get(0), reducedType, aggregator);
+
         // Reduce cells
         Map<TensorAddress, ValueAggregator> aggregatingCells = new HashMap<>();
         for (Iterator<Tensor.Cell> i = argument.cellIterator(); i.hasNext(); ) {
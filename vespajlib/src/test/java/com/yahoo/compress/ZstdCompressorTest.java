@@ -0,0 +1,125 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.compress;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ZstdCompressorTest {
+
+    private static final byte[] text = ("Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor " +
+                                        "incididunt ut labore et dolore magna aliqua. Lorem ipsum dolor sit amet, " +
+                                        "consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore.")
+                                               .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void can_compress_and_decompress_with_all_levels() {
+        for (int level : new int[] { -1, 1, ZstdCompressor.DEFAULT_LEVEL, 9, ZstdCompressor.MAX_LEVEL }) {
+            ZstdCompressor compressor = new ZstdCompressor(level);
+            byte[] compressed = compressor.compress(text, 0, text.length);
+            assertTrue(compressed.length < text.length);
+            assertArrayEquals(text, compressor.decompress(compressed, 0, compressed.length, text.length));
+        }
+    }
+
+    @Test
+    public void can_compress_and_decompress_partial_buffer_range() {
+        ZstdCompressor compressor = new ZstdCompressor();
+        byte[] compressed = compressor.compress(text, 6, 100);
+        byte[] padded = new byte[compressed.length + 10];
+        System.arraycopy(compressed, 0, padded, 5, compressed.length);
+        assertArrayEquals(Arrays.copyOfRange(text, 6, 106), compressor.decompress(padded, 5, compressed.length, 100));
+    }
+
+    @Test
+    public void can_compress_and_decompress_with_dictionary() {
+        byte[] dictionary = new byte[4096];
+        for (int i = 0; i < dictionary.length; i++)
+            dictionary[i] = text[i % text.length];
+        ZstdCompressor withDictionary = new ZstdCompressor(ZstdCompressor.DEFAULT_LEVEL, dictionary);
+        assertTrue(withDictionary.hasDictionary());
+
+        byte[] compressedWithDictionary = withDictionary.compress(text, 0, text.length);
+        byte[] compressedWithoutDictionary = new ZstdCompressor().compress(text, 0, text.length);
+        assertTrue(compressedWithDictionary.length < compressedWithoutDictionary.length);
+        assertArrayEquals(text, withDictionary.decompress(compressedWithDictionary, 0, compressedWithDictionary.length, text.length));
+    }
+
+    @Test
+    public void reuses_contexts_across_threads() throws InterruptedException {
+        ZstdCompressor compressor = new ZstdCompressor();
+        Thread[] threads = new Thread[4];
+        boolean[] ok = new boolean[threads.length];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(thread);
+                for (int i = 0; i < 100; i++) {
+                    byte[] data = Arrays.copyOf(text, random.nextInt(text.length) + 1);
+                    byte[] compressed = compressor.compress(data, 0, data.length);
+                    if ( ! Arrays.equals(data, compressor.decompress(compressed, 0, compressed.length, data.length)))
+                        return;
+                }
+                ok[thread] = true;
+            });
+            threads[t].start();
+        }
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].join();
+            assertTrue(ok[t]);
+        }
+    }
+
+    @Test
+    public void cannot_be_used_after_close() {
+        ZstdCompressor compressor = new ZstdCompressor(ZstdCompressor.DEFAULT_LEVEL, Arrays.copyOf(text, 100));
+        byte[] compressed = compressor.compress(text, 0, text.length);
+        compressor.close();
+        try {
+            compressor.decompress(compressed, 0, compressed.length, text.length);
+            fail("Expected exception");
+        }
+        catch (IllegalStateException e) {
+            assertEquals("This compressor is closed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void fails_on_wrong_uncompressed_size() {
+        ZstdCompressor compressor = new ZstdCompressor();
+        byte[] compressed = compressor.compress(text, 0, text.length);
+        try {
+            compressor.decompress(compressed, 0, compressed.length, text.length + 1);
+            fail("Expected exception");
+        }
+        catch (IllegalStateException e) {
+            assertEquals("Uncompressed size mismatch. Expected " + (text.length + 1) + ". Got " + text.length, e.getMessage());
+        }
+    }
+
+    @Test
+    public void compressor_supports_zstd() {
+        Compressor compressor = new Compressor(CompressionType.ZSTD);
+        Compressor.Compression compressed = compressor.compress(text);
+        assertEquals(CompressionType.ZSTD, compressed.type());
+        assertEquals(text.length, compressed.uncompressedSize());
+        assertArrayEquals(text, compressor.decompress(compressed));
+        assertEquals(CompressionType.ZSTD, CompressionType.valueOf(CompressionType.ZSTD.getCode()));
+        assertSame("Compressors share the default zstd compressor",
+                   compressor.zstdCompressor(), new Compressor().zstdCompressor());
+
+        byte[] small = Arrays.copyOf(text, 10);
+        assertEquals(CompressionType.INCOMPRESSIBLE,
+                     compressor.compress(CompressionType.ZSTD, small, Optional.empty()).type());
+    }
+
+}
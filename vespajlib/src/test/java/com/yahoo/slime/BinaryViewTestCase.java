@@ -0,0 +1,156 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.slime;
+
+import com.yahoo.text.Utf8Array;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BinaryViewTestCase {
+
+    private static final Logger log = Logger.getLogger(BinaryViewTestCase.class.getName());
+
+    private static Slime createDocsums(int docsums, int fields) {
+        Slime slime = new Slime();
+        Cursor root = slime.setObject();
+        Cursor array = root.setArray("docsums");
+        for (int i = 0; i < docsums; i++) {
+            Cursor docsum = array.addObject().setObject("docsum");
+            for (int j = 0; j < fields; j++) {
+                switch (j % 6) {
+                    case 0: docsum.setString("field" + j, "value " + i + " of field " + j + " æøå"); break;
+                    case 1: docsum.setLong("field" + j, (i % 2 == 0 ? -1 : 1) * (1L << (j % 63))); break;
+                    case 2: docsum.setDouble("field" + j, i * 0.5 - j); break;
+                    case 3: docsum.setBool("field" + j, i % 2 == 0); break;
+                    case 4: docsum.setData("field" + j, new byte[] { (byte) i, (byte) j, 0, -1 }); break;
+                    case 5: {
+                        Cursor struct = docsum.setObject("field" + j);
+                        struct.setArray("entries").addString("entry " + i);
+                        struct.setNix("nothing");
+                        break;
+                    }
+                }
+            }
+        }
+        return slime;
+    }
+
+    @Test
+    public void viewIsEqualToDecodedSlime() {
+        byte[] data = BinaryFormat.encode(createDocsums(10, 30));
+        Inspector decoded = BinaryFormat.decode(data).get();
+        Inspector view = BinaryView.inspect(data);
+        assertTrue(view.equalTo(decoded));
+        assertTrue(decoded.equalTo(view));
+        assertEquals(decoded.toString(), view.toString());
+
+        Inspector docsum = view.field("docsums").entry(3).field("docsum");
+        Inspector decodedDocsum = decoded.field("docsums").entry(3).field("docsum");
+        assertEquals(30, docsum.fields());
+        assertEquals(30, docsum.children());
+        assertEquals(0, docsum.entries());
+        assertEquals(decodedDocsum.field("field6").asString(), docsum.field("field6").asString());
+        assertEquals(decodedDocsum.field("field7").asLong(), docsum.field("field7").asLong());
+        assertEquals(decodedDocsum.field("field8").asDouble(), docsum.field("field8").asDouble(), 0);
+        assertEquals(decodedDocsum.field("field8").asLong(), docsum.field("field8").asLong());
+        assertEquals(decodedDocsum.field("field9").asBool(), docsum.field("field9").asBool());
+        assertArrayEquals(decodedDocsum.field("field10").asData(), docsum.field("field10").asData());
+        assertEquals("entry 3", docsum.field("field11").field("entries").entry(0).asString());
+        assertEquals(Type.NIX, docsum.field("field11").field("nothing").type());
+        assertTrue(docsum.field("field11").field("nothing").valid());
+
+        List<String> names = new ArrayList<>();
+        docsum.traverse((ObjectTraverser) (name, value) -> names.add(name));
+        assertEquals(30, names.size());
+        assertEquals("field0", names.get(0));
+    }
+
+    @Test
+    public void missingValuesAreInvalid() {
+        Inspector view = BinaryView.inspect(BinaryFormat.encode(createDocsums(2, 6)));
+        assertFalse(view.field("nonexisting").valid());
+        assertFalse(view.field("docsums").entry(2).valid());
+        assertFalse(view.field("docsums").entry(-1).valid());
+        assertFalse(view.field("docsums").field("docsum").valid());
+        assertEquals("", view.field("docsums").asString());
+        assertEquals(0, view.field("docsums").entry(0).field("docsum").field("field0").asLong());
+    }
+
+    @Test
+    public void stringsAreAccessibleWithoutCopying() {
+        byte[] data = BinaryFormat.encode(createDocsums(2, 6));
+        Inspector value = BinaryView.inspect(data).field("docsums").entry(1).field("docsum").field("field0");
+        Utf8Array utf8 = value.asUtf8Array();
+        ByteBuffer buffer = utf8.wrap();
+        assertSame(data, buffer.array());
+        assertEquals("value 1 of field 0 æøå",
+                     new String(buffer.array(), buffer.position(), buffer.remaining(), StandardCharsets.UTF_8));
+        assertArrayEquals(value.asUtf8(), BinaryFormat.decode(data).get().field("docsums").entry(1)
+                                                                       .field("docsum").field("field0").asUtf8());
+    }
+
+    @Test
+    public void viewOfRangeInArray() {
+        byte[] encoded = BinaryFormat.encode(createDocsums(2, 6));
+        byte[] data = new byte[encoded.length + 10];
+        System.arraycopy(encoded, 0, data, 5, encoded.length);
+        assertTrue(BinaryView.inspect(data, 5, encoded.length).equalTo(BinaryFormat.decode(encoded).get()));
+    }
+
+    @Test
+    public void invalidDataIsRejected() {
+        byte[] data = BinaryFormat.encode(createDocsums(2, 6));
+        try {
+            BinaryView.inspect(data, 0, data.length - 1);
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("Binary slime ends prematurely"));
+        }
+    }
+
+    @Test
+    public void benchmarkAccessingSomeFields() {
+        byte[] data = BinaryFormat.encode(createDocsums(100, 60));
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            long sum = 0;
+            for (int i = 0; i < 100; i++)
+                sum += accessSomeFields(BinaryFormat.decode(data).get());
+            long decodeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long viewSum = 0;
+            for (int i = 0; i < 100; i++)
+                viewSum += accessSomeFields(BinaryView.inspect(data));
+            long viewNanos = System.nanoTime() - start;
+
+            assertEquals(sum, viewSum);
+            log.info(String.format("Accessing 6 of 60 fields in 100 docsums: %.1f us decoded, %.1f us viewed",
+                                   decodeNanos / 100 / 1000.0, viewNanos / 100 / 1000.0));
+        }
+    }
+
+    private static long accessSomeFields(Inspector root) {
+        long sum = 0;
+        Inspector docsums = root.field("docsums");
+        for (int i = 0; i < docsums.entries(); i++) {
+            Inspector docsum = docsums.entry(i).field("docsum");
+            for (int j = 0; j < 6; j++)
+                sum += docsum.field("field" + (j * 6 + 1)).asLong() + docsum.field("field" + (j * 6)).asUtf8Array().getByteLength();
+        }
+        return sum;
+    }
+
+}
@@ -4,8 +4,14 @@ package com.yahoo.tensor;
 import com.google.common.collect.Sets;
 import org.junit.Test;
 
+import java.util.Iterator;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Basic tensor tests. Tensor operations are tested in EvaluationTestCase
@@ -48,4 +54,72 @@ public class MappedTensorTestCase {
         assertEquals("tensor(x{},y{}):{{x:0,y:0}:1.0,{x:1,y:0}:2.0}", tensor.toString());
     }
 
+    @Test
+    public void testLookup() {
+        TensorType type = new TensorType.Builder().mapped("x").mapped("y").build();
+        Tensor.Builder builder = Tensor.Builder.of(type);
+        for (int x = 0; x < 100; x++)
+            for (int y = 0; y < 100; y++)
+                builder.cell(TensorAddress.ofLabels("x" + x, "y" + y), x * 100 + y);
+        Tensor tensor = builder.build();
+
+        assertEquals(10000, tensor.size());
+        assertEquals(4217.0, tensor.get(TensorAddress.ofLabels("x42", "y17")), 0);
+        assertEquals(Double.NaN, tensor.get(TensorAddress.ofLabels("x42", "y100")), 0);
+        assertEquals(Double.NaN, tensor.get(TensorAddress.ofLabels("y17", "x42")), 0);
+        assertEquals(Double.NaN, tensor.get(TensorAddress.ofLabels("x42")), 0);
+
+        Iterator<Tensor.Cell> cells = tensor.cellIterator();
+        for (int i = 0; i < 10000; i++) {
+            Tensor.Cell cell = cells.next();
+            assertEquals(TensorAddress.ofLabels("x" + i / 100, "y" + i % 100), cell.getKey());
+            assertEquals(i, cell.getValue(), 0);
+        }
+        assertFalse(cells.hasNext());
+    }
+
+    @Test
+    public void testCellsView() {
+        TensorType type = new TensorType.Builder().mapped("x").mapped("y").build();
+        Tensor tensor = Tensor.from(type, "{{x:a,y:b}:1.0, {x:b,y:a}:2.0, {x:a,y:a}:3.0}");
+        Map<TensorAddress, Double> cells = tensor.cells();
+        assertEquals(3, cells.size());
+        assertEquals(2.0, cells.get(TensorAddress.ofLabels("b", "a")), 0);
+        assertTrue(cells.containsKey(TensorAddress.ofLabels("a", "a")));
+        assertFalse(cells.containsKey(TensorAddress.ofLabels("b", "b")));
+        assertNull(cells.get(TensorAddress.ofLabels("b", "b")));
+        assertNull(cells.get("a"));
+        assertEquals(Map.of(TensorAddress.ofLabels("a", "b"), 1.0,
+                            TensorAddress.ofLabels("b", "a"), 2.0,
+                            TensorAddress.ofLabels("a", "a"), 3.0),
+                     cells);
+        assertEquals(tensor.hashCode(), Tensor.from(type, "{{x:a,y:a}:3.0, {x:b,y:a}:2.0, {x:a,y:b}:1.0}").hashCode());
+    }
+
+    @Test
+    public void testRepeatedAddressIsRejected() {
+        TensorType type = new TensorType.Builder().mapped("x").build();
+        Tensor.Builder builder = Tensor.Builder.of(type).
+                cell().label("x", "0").value(1).
+                cell().label("x", "1").value(2);
+        try {
+            builder.cell().label("x", "0").value(3);
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Multiple values for cell address (0) in tensor(x{})", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testFloatCells() {
+        TensorType type = new TensorType.Builder(TensorType.Value.FLOAT).mapped("x").build();
+        Tensor tensor = Tensor.Builder.of(type).
+                cell().label("x", "0").value(0.1).
+                cell().label("x", "1").value(2.5f).build();
+        assertEquals((double)0.1f, tensor.get(TensorAddress.ofLabels("0")), 0);
+        assertEquals(2.5, tensor.get(TensorAddress.ofLabels("1")), 0);
+        assertEquals(type, tensor.type());
+    }
+
 }
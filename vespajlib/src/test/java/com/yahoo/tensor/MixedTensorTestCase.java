@@ -5,7 +5,10 @@ package com.yahoo.tensor;
 import com.google.common.collect.Sets;
 import org.junit.Test;
 
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -152,4 +155,26 @@ public class MixedTensorTestCase {
                 tensor.toString());
     }
 
+    @Test
+    public void testLookup() {
+        TensorType type = new TensorType.Builder().mapped("x").indexed("y", 2).build();
+        Tensor tensor = Tensor.from(type, "{{x:a,y:0}:1.0, {x:a,y:1}:2.0, {x:b,y:0}:3.0}");
+        assertEquals(4, tensor.size());
+        assertEquals(2.0, tensor.get(TensorAddress.ofLabels("a", "1")), 0);
+        assertEquals(0.0, tensor.get(TensorAddress.ofLabels("b", "1")), 0);
+        assertEquals(Double.NaN, tensor.get(TensorAddress.ofLabels("a", "2")), 0);
+        assertEquals(Double.NaN, tensor.get(TensorAddress.ofLabels("c", "0")), 0);
+
+        Map<TensorAddress, Double> cells = tensor.cells();
+        assertEquals(4, cells.size());
+        assertEquals(3.0, cells.get(TensorAddress.ofLabels("b", "0")), 0);
+        assertNull(cells.get(TensorAddress.ofLabels("c", "0")));
+        assertNull(cells.get(TensorAddress.ofLabels("a")));
+        assertEquals(Map.of(TensorAddress.ofLabels("a", "0"), 1.0,
+                            TensorAddress.ofLabels("a", "1"), 2.0,
+                            TensorAddress.ofLabels("b", "0"), 3.0,
+                            TensorAddress.ofLabels("b", "1"), 0.0),
+                     cells);
+    }
+
 }
@@ -0,0 +1,88 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Microbenchmark of building, looking up cells in, joining and reducing large sparse tensors.
+ */
+public class SparseTensorBenchmark {
+
+    private static final TensorType type = new TensorType.Builder().mapped("x").mapped("y").build();
+    private static final TensorType vectorType = new TensorType.Builder().mapped("y").build();
+
+    private final Random random = new Random(42);
+    private final int xSize;
+    private final int ySize;
+    private final List<TensorAddress> addresses = new ArrayList<>();
+
+    public SparseTensorBenchmark(int xSize, int ySize) {
+        this.xSize = xSize;
+        this.ySize = ySize;
+        for (int x = 0; x < xSize; x++)
+            for (int y = 0; y < ySize; y++)
+                addresses.add(TensorAddress.ofLabels("x" + x, "y" + y));
+    }
+
+    public Tensor build() {
+        Tensor.Builder builder = Tensor.Builder.of(type);
+        for (TensorAddress address : addresses)
+            builder.cell(address, random.nextDouble());
+        return builder.build();
+    }
+
+    public Tensor vector() {
+        Tensor.Builder builder = Tensor.Builder.of(vectorType);
+        for (int y = 0; y < ySize; y += 2)
+            builder.cell(TensorAddress.ofLabels("y" + y), random.nextDouble());
+        return builder.build();
+    }
+
+    public double lookup(Tensor tensor) {
+        double sum = 0;
+        for (TensorAddress address : addresses)
+            sum += tensor.get(address);
+        return sum;
+    }
+
+    private static <T> double time(String name, int iterations, Supplier<T> function) {
+        for (int i = 0; i < Math.max(1, iterations / 5); i++) // warmup
+            function.get();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            function.get();
+        double millis = (System.nanoTime() - startTime) / 1_000_000.0 / iterations;
+        System.out.println(String.format(Locale.ENGLISH, "%-8s %10.3f ms", name, millis));
+        return millis;
+    }
+
+    public static void main(String[] args) {
+        for (int[] size : new int[][] { { 100, 100 }, { 1000, 100 }, { 1000, 1000 } }) {
+            System.out.println("Tensor with " + size[0] * size[1] + " cells:");
+            SparseTensorBenchmark benchmark = new SparseTensorBenchmark(size[0], size[1]);
+            Tensor tensor = benchmark.build();
+            Tensor vector = benchmark.vector();
+            int iterations = Math.max(3, 1_000_000 / (size[0] * size[1]));
+            time("build", iterations, benchmark::build);
+            time("lookup", iterations, () -> benchmark.lookup(tensor));
+            time("join", iterations, () -> tensor.multiply(vector));
+            time("reduce", iterations, () -> tensor.sum("y"));
+
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            long before = runtime.totalMemory() - runtime.freeMemory();
+            List<Tensor> tensors = new ArrayList<>();
+            for (int i = 0; i < 5; i++)
+                tensors.add(benchmark.build());
+            System.gc();
+            long after = runtime.totalMemory() - runtime.freeMemory();
+            System.out.println(String.format(Locale.ENGLISH, "memory   %10.1f bytes/cell",
+                                             (double)(after - before) / tensors.size() / tensor.size()));
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.functions;
+
+import com.yahoo.tensor.IndexedTensor;
+import com.yahoo.tensor.MappedTensor;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.DoubleBinaryOperator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies that the dense kernels produce the same results as the general evaluation,
+ * by evaluating the same functions over mapped copies of the arguments.
+ */
+public class DenseKernelsTestCase {
+
+    private final Random random = new Random(17);
+
+    private static final List<DoubleBinaryOperator> combinators = List.of(ScalarFunctions.multiply(),
+                                                                          ScalarFunctions.add(),
+                                                                          ScalarFunctions.subtract(),
+                                                                          ScalarFunctions.divide(),
+                                                                          (a, b) -> a > b ? a : b);
+
+    @Test
+    public void testSameShapeJoin() {
+        for (DoubleBinaryOperator combinator : combinators) {
+            assertJoin("tensor(x[7])", "tensor(x[7])", combinator);
+            assertJoin("tensor(x[3],y[4])", "tensor(x[3],y[4])", combinator);
+            assertJoin("tensor<float>(x[3],y[4])", "tensor(x[3],y[4])", combinator);
+        }
+    }
+
+    @Test
+    public void testBroadcastJoin() {
+        for (DoubleBinaryOperator combinator : combinators) {
+            assertJoin("tensor(x[3])", "tensor(x[3],y[4],z[2])", combinator);
+            assertJoin("tensor(y[4])", "tensor(x[3],y[4],z[2])", combinator);
+            assertJoin("tensor(y[4],z[2])", "tensor(x[3],y[4],z[2])", combinator);
+            assertJoin("tensor(x[3],y[4],z[2])", "tensor(z[2])", combinator);
+            assertJoin("tensor(x[3],y[4],z[2])", "tensor(x[3],y[4])", combinator);
+        }
+    }
+
+    @Test
+    public void testReduce() {
+        for (Reduce.Aggregator aggregator : Reduce.Aggregator.values()) {
+            assertReduce("tensor(x[5])", aggregator, "x");
+            assertReduce("tensor(x[5])", aggregator);
+            assertReduce("tensor(x[3],y[4],z[2])", aggregator);
+            for (String dimension : List.of("x", "y", "z"))
+                assertReduce("tensor(x[3],y[4],z[2])", aggregator, dimension);
+        }
+    }
+
+    @Test
+    public void testMatmul() {
+        assertMatmul("tensor(d[5])", "tensor(d[5])", "d");
+        assertMatmul("tensor(d[5])", "tensor(d[5],x[3])", "d");
+        assertMatmul("tensor(d[5],x[3])", "tensor(d[5])", "d");
+        assertMatmul("tensor(d[5],x[3])", "tensor(d[5],y[2])", "d");
+        assertMatmul("tensor(x[3],y[5])", "tensor(y[5],z[2])", "y");
+        assertMatmul("tensor(x[3],y[5])", "tensor(z[2])", "y");
+    }
+
+    private void assertJoin(String typeA, String typeB, DoubleBinaryOperator combinator) {
+        Tensor a = randomTensor(typeA);
+        Tensor b = randomTensor(typeB);
+        assertSameCells(toMapped(a).join(toMapped(b), combinator), a.join(b, combinator));
+    }
+
+    private void assertReduce(String type, Reduce.Aggregator aggregator, String ... dimensions) {
+        Tensor argument = randomTensor(type);
+        assertSameCells(toMapped(argument).reduce(aggregator, dimensions), argument.reduce(aggregator, dimensions));
+    }
+
+    private void assertMatmul(String typeA, String typeB, String dimension) {
+        Tensor a = randomTensor(typeA);
+        Tensor b = randomTensor(typeB);
+        assertSameCells(toMapped(a).multiply(toMapped(b)).sum(dimension), a.matmul(b, dimension));
+    }
+
+    private static void assertSameCells(Tensor expected, Tensor actual) {
+        assertTrue(actual + " is dense", actual instanceof IndexedTensor);
+        assertEquals(expected.size(), actual.size());
+        for (Iterator<Tensor.Cell> i = actual.cellIterator(); i.hasNext(); ) {
+            Tensor.Cell cell = i.next();
+            assertEquals("Value at " + cell.getKey(), expected.get(cell.getKey()), cell.getValue(), 1e-6);
+        }
+    }
+
+    private Tensor randomTensor(String type) {
+        IndexedTensor.BoundBuilder builder = (IndexedTensor.BoundBuilder)Tensor.Builder.of(TensorType.fromSpec(type));
+        long size = 1;
+        for (TensorType.Dimension dimension : builder.type().dimensions())
+            size *= dimension.size().get();
+        for (int i = 0; i < size; i++)
+            builder.cellByDirectIndex(i, random.nextDouble() * 2 - 1);
+        return builder.build();
+    }
+
+    private static Tensor toMapped(Tensor tensor) {
+        TensorType.Builder type = new TensorType.Builder(tensor.type().valueType());
+        for (TensorType.Dimension dimension : tensor.type().dimensions())
+            type.mapped(dimension.name());
+        Tensor.Builder builder = MappedTensor.Builder.of(type.build());
+        for (Iterator<Tensor.Cell> i = tensor.cellIterator(); i.hasNext(); ) {
+            Tensor.Cell cell = i.next();
+            builder.cell(cell.getKey(), cell.getValue());
+        }
+        return builder.build();
+    }
+
+}
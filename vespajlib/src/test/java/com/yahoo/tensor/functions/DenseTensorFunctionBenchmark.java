@@ -0,0 +1,64 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.functions;
+
+import com.yahoo.tensor.IndexedTensor;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Microbenchmark of common functions over dense tensors: Joins of tensors of the same shape,
+ * broadcasting joins, single dimension reduce, and matrix-vector and matrix-matrix products.
+ */
+public class DenseTensorFunctionBenchmark {
+
+    private static final Random random = new Random(42);
+
+    private static Tensor randomTensor(String type) {
+        IndexedTensor.BoundBuilder builder = (IndexedTensor.BoundBuilder)Tensor.Builder.of(TensorType.fromSpec(type));
+        long size = 1;
+        for (TensorType.Dimension dimension : builder.type().dimensions())
+            size *= dimension.size().get();
+        for (int i = 0; i < size; i++)
+            builder.cellByDirectIndex(i, random.nextDouble());
+        return builder.build();
+    }
+
+    private static void time(String name, int iterations, Supplier<Tensor> function) {
+        for (int i = 0; i < iterations; i++) // warmup
+            function.get();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            function.get();
+        double micros = (System.nanoTime() - startTime) / 1000.0 / iterations;
+        System.out.println(String.format(Locale.ENGLISH, "%-40s %10.1f us", name, micros));
+    }
+
+    public static void main(String[] args) {
+        int iterations = 2000;
+        Tensor matrix = randomTensor("tensor(x[256],y[256])");
+        Tensor smallMatrix = randomTensor("tensor(x[64],y[64])");
+        Tensor otherMatrix = randomTensor("tensor(y[64],z[64])");
+        Tensor transposedMatrix = randomTensor("tensor(w[64],y[64])");
+        Tensor sameShapeMatrix = randomTensor("tensor(x[256],y[256])");
+        Tensor floatMatrix = randomTensor("tensor<float>(x[256],y[256])");
+        Tensor vector = randomTensor("tensor(y[256])");
+        Tensor rowVector = randomTensor("tensor(x[256])");
+
+        time("join, same shape, multiply", iterations, () -> matrix.multiply(sameShapeMatrix));
+        time("join, same shape, float, add", iterations, () -> floatMatrix.add(sameShapeMatrix));
+        time("join, same shape, lambda", iterations, () -> matrix.join(sameShapeMatrix, (a, b) -> a > b ? a : b));
+        time("join, broadcast inner, multiply", iterations, () -> matrix.multiply(vector));
+        time("join, broadcast outer, subtract", iterations, () -> matrix.subtract(rowVector));
+        time("reduce, sum inner", iterations, () -> matrix.sum("y"));
+        time("reduce, max outer", iterations, () -> matrix.reduce(Reduce.Aggregator.max, "x"));
+        time("reduce, sum all", iterations, () -> matrix.sum());
+        time("matmul, matrix-vector", iterations, () -> matrix.matmul(vector, "y"));
+        time("matmul, matrix-matrix", iterations / 10, () -> smallMatrix.matmul(otherMatrix, "y"));
+        time("matmul, matrix-matrix, reduce innermost", iterations / 10, () -> smallMatrix.matmul(transposedMatrix, "y"));
+    }
+
+}